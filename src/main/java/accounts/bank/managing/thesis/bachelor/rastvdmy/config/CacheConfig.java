@@ -0,0 +1,166 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.config;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.CacheGenerationService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+
+/**
+ * This class is responsible for the configuration of the caches.
+ * It decorates the cache manager so that every eviction starts a new generation of the cache,
+ * which the read endpoints use as their ETag.
+ * Within a transaction the eviction and the new generation wait for the commit,
+ * so a reader cannot cache the old data under the new generation.
+ */
+@Configuration
+public class CacheConfig {
+
+    /**
+     * This method provides a bean post processor decorating the cache manager.
+     * It is static and looks the CacheGenerationService up lazily, so it does not initialize other beans early.
+     *
+     * @param generationService The provider of the CacheGenerationService.
+     * @return A new BeanPostProcessor.
+     */
+    @Bean
+    public static BeanPostProcessor generationTrackingCacheManagerPostProcessor(
+            ObjectProvider<CacheGenerationService> generationService) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CacheManager cacheManager) {
+                    return new GenerationTrackingCacheManager(cacheManager, generationService);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * This class is a cache manager returning caches that start a new generation on every eviction.
+     */
+    private record GenerationTrackingCacheManager(CacheManager delegate,
+                                                  ObjectProvider<CacheGenerationService> generationService)
+            implements CacheManager {
+
+        @Override
+        public Cache getCache(String name) {
+            Cache cache = delegate.getCache(name);
+            return cache == null ? null : new GenerationTrackingCache(cache, generationService);
+        }
+
+        @Override
+        public Collection<String> getCacheNames() {
+            return delegate.getCacheNames();
+        }
+    }
+
+    /**
+     * This class is a cache starting a new generation whenever one of its entries or all of them are evicted.
+     * Like TransactionAwareCacheDecorator, it defers evict and clear to the commit of the current transaction,
+     * while evictIfPresent and invalidate evict at once and only defer the new generation.
+     */
+    private record GenerationTrackingCache(Cache delegate, ObjectProvider<CacheGenerationService> generationService)
+            implements Cache {
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return delegate.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return delegate.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return delegate.get(key, type);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return delegate.get(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            delegate.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return delegate.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            afterCommit(() -> {
+                delegate.evict(key);
+                nextGeneration();
+            });
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            boolean evicted = delegate.evictIfPresent(key);
+            if (evicted) {
+                afterCommit(this::nextGeneration);
+            }
+            return evicted;
+        }
+
+        @Override
+        public void clear() {
+            afterCommit(() -> {
+                delegate.clear();
+                nextGeneration();
+            });
+        }
+
+        @Override
+        public boolean invalidate() {
+            boolean invalidated = delegate.invalidate();
+            if (invalidated) {
+                afterCommit(this::nextGeneration);
+            }
+            return invalidated;
+        }
+
+        /**
+         * Runs the action after the current transaction commits, or at once if there is no transaction,
+         * so a new generation is never announced while the old data can still be read.
+         *
+         * @param action The action to run.
+         */
+        private void afterCommit(Runnable action) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                action.run();
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+
+        private void nextGeneration() {
+            generationService.getObject().nextGeneration(delegate.getName());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class is responsible for the configuration of the JSON serialization.
+ * The registered modules are picked up by the ObjectMapper used by the HTTP message converters,
+ * which write the responses directly to the servlet output stream.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * This method provides the Blackbird module.
+     * It replaces the reflective getter calls of the serializers with accessors generated once per type,
+     * which makes serializing large pages of response records cheaper.
+     *
+     * @return A new instance of BlackbirdModule.
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -1,5 +1,7 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.config;
 
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,7 +11,12 @@ import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.KafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -18,6 +25,8 @@ import java.util.Map;
  * This class is responsible for the configuration of Kafka consumers.
  * It provides the necessary beans for creating Kafka consumers.
  * The configuration properties are fetched from the application's properties file.
+ * Listener containers run one consumer per partition of the "messages" topic, receive records in batches,
+ * acknowledge them manually and publish records that keep failing after retries to the dead-letter topic.
  */
 @Configuration
 public class KafkaConsumerConfig {
@@ -25,9 +34,25 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootStrapService;
 
+    @Value("${kafka.topic.messages.partitions:3}")
+    private int partitions;
+
+    @Value("${kafka.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${kafka.consumer.retry.initial-interval:1000}")
+    private long retryInitialInterval;
+
+    @Value("${kafka.consumer.retry.multiplier:2.0}")
+    private double retryMultiplier;
+
+    @Value("${kafka.consumer.retry.max-elapsed-time:10000}")
+    private long retryMaxElapsedTime;
+
     /**
      * This method provides the configuration for Kafka consumers.
      * It sets the bootstrap servers, key deserializer and value deserializer.
+     * Auto commit is disabled because offsets are committed by the listener acknowledgment.
      *
      * @return A map containing the configuration properties.
      */
@@ -36,6 +61,8 @@ public class KafkaConsumerConfig {
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootStrapService);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
         return props;
     }
 
@@ -53,16 +80,50 @@ public class KafkaConsumerConfig {
     /**
      * This method provides a KafkaListenerContainerFactory bean.
      * The KafkaListenerContainerFactory is responsible for creating Kafka listener containers.
+     * The concurrency matches the number of partitions of the "messages" topic.
      *
      * @param consumerFactory The consumer factory.
+     * @param errorHandler    The error handler for failed records.
      * @return A new instance of ConcurrentKafkaListenerContainerFactory.
      */
     @Bean
     public KafkaListenerContainerFactory<
             ConcurrentMessageListenerContainer<String, String>> factory(
-            ConsumerFactory<String, String> consumerFactory) {
+            ConsumerFactory<String, String> consumerFactory, DefaultErrorHandler errorHandler) {
         ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory);
+        factory.setConcurrency(partitions);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.setCommonErrorHandler(errorHandler);
         return factory;
     }
+
+    /**
+     * This method provides a DefaultErrorHandler bean.
+     * Failed records are retried with an exponential backoff and then published to the dead-letter topic.
+     *
+     * @param kafkaTemplate The Kafka template used to publish records to the dead-letter topic.
+     * @return A new instance of DefaultErrorHandler.
+     */
+    @Bean
+    public DefaultErrorHandler errorHandler(KafkaTemplate<String, String> kafkaTemplate) {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate);
+        ExponentialBackOff backOff = new ExponentialBackOff(retryInitialInterval, retryMultiplier);
+        backOff.setMaxElapsedTime(retryMaxElapsedTime);
+        return new DefaultErrorHandler(recoverer, backOff);
+    }
+
+    /**
+     * This method provides the AdminClient used to measure the consumer lag.
+     * A single client is shared by all measurements and closed when the application shuts down.
+     *
+     * @return A new instance of AdminClient.
+     */
+    @Bean(destroyMethod = "close")
+    public AdminClient lagAdminClient() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootStrapService);
+        return AdminClient.create(props);
+    }
 }
\ No newline at end of file
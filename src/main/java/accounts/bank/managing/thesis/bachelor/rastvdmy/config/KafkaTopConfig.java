@@ -1,17 +1,35 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.config;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
 
 /**
  * This class is responsible for the configuration of Kafka topics.
- * It provides a bean for creating a new Kafka topic named "messages".
+ * It provides beans for creating the "messages" topic and its dead-letter topic "messages.DLT".
+ * The number of partitions and replicas is fetched from the application's properties file.
  */
 @Configuration
 public class KafkaTopConfig {
 
+    /**
+     * The name of the topic used for chat messages.
+     */
+    public static final String MESSAGES_TOPIC = "messages";
+
+    /**
+     * The name of the dead-letter topic for messages that could not be processed.
+     */
+    public static final String MESSAGES_DLT_TOPIC = MESSAGES_TOPIC + ".DLT";
+
+    @Value("${kafka.topic.messages.partitions:3}")
+    private int partitions;
+
+    @Value("${kafka.topic.messages.replicas:1}")
+    private int replicas;
+
     /**
      * This method provides a NewTopic bean.
      * The NewTopic represents a new topic to be created in Kafka.
@@ -21,8 +39,24 @@ public class KafkaTopConfig {
      */
     @Bean
     public NewTopic createTopic() {
-        return TopicBuilder.name("messages").build();
+        return TopicBuilder.name(MESSAGES_TOPIC)
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
     }
-}
-
 
+    /**
+     * This method provides a NewTopic bean for the dead-letter topic.
+     * It has the same number of partitions as the "messages" topic,
+     * so a failed record can be published to the partition it was consumed from.
+     *
+     * @return A NewTopic instance representing a topic named "messages.DLT".
+     */
+    @Bean
+    public NewTopic createDeadLetterTopic() {
+        return TopicBuilder.name(MESSAGES_DLT_TOPIC)
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+}
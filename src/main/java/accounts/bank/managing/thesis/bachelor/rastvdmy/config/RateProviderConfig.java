@@ -0,0 +1,69 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.config;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.HttpRateProvider;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.RateProvider;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.SnapshotRateProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * This class is responsible for the configuration of the exchange rate providers.
+ * The ExchangeRate-API is enabled by default. A snapshot read from a file or the classpath
+ * and a local stub server can be enabled for environments without access to the API.
+ */
+@Configuration
+public class RateProviderConfig {
+
+    /**
+     * This method provides the provider fetching the rates from the ExchangeRate-API.
+     *
+     * @param restTemplate The RestTemplate to use.
+     * @param apiKey       The key of the ExchangeRate-API.
+     * @return A new HttpRateProvider.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "currency.providers.exchange-rate-api.enabled", havingValue = "true",
+            matchIfMissing = true)
+    public RateProvider exchangeRateApiProvider(RestTemplate restTemplate, @Value("${api.key:}") String apiKey) {
+        return new HttpRateProvider("exchange-rate-api", restTemplate,
+                "https://v6.exchangerate-api.com/v6/" + apiKey + "/latest/" + Currency.CZK);
+    }
+
+    /**
+     * This method provides the provider reading the rates from a snapshot.
+     *
+     * @param resourceLoader The ResourceLoader resolving the location of the snapshot.
+     * @param objectMapper   The ObjectMapper reading the snapshot.
+     * @param location       The location of the snapshot, e.g. classpath:rates/czk-snapshot.json or file:/path.
+     * @return A new SnapshotRateProvider.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "currency.providers.snapshot.enabled", havingValue = "true")
+    public RateProvider snapshotRateProvider(ResourceLoader resourceLoader, ObjectMapper objectMapper,
+                                             @Value("${currency.providers.snapshot.location:"
+                                                     + "classpath:rates/czk-snapshot.json}") String location) {
+        return new SnapshotRateProvider("snapshot", resourceLoader.getResource(location), objectMapper);
+    }
+
+    /**
+     * This method provides the provider fetching the rates from a local stub server
+     * serving responses in the format of the ExchangeRate-API.
+     *
+     * @param restTemplate The RestTemplate to use.
+     * @param url          The URL of the latest rates against CZK on the stub server.
+     * @return A new HttpRateProvider.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "currency.providers.stub.enabled", havingValue = "true")
+    public RateProvider stubRateProvider(RestTemplate restTemplate,
+                                         @Value("${currency.providers.stub.url:"
+                                                 + "http://localhost:8089/latest/CZK}") String url) {
+        return new HttpRateProvider("stub", restTemplate, url);
+    }
+}
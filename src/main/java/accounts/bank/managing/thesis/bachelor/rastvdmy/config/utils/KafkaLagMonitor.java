@@ -0,0 +1,83 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.config.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class is responsible for measuring the consumer lag of the "messages" consumer group.
+ * The lag of a partition is the difference between its end offset and the offset committed by the group.
+ * The lag is refreshed periodically, logged per partition and kept in memory for other components.
+ * Every measurement uses the same AdminClient, which is closed with the application context.
+ */
+@Slf4j
+@Component
+public class KafkaLagMonitor {
+
+    private final Map<TopicPartition, Long> lag = new ConcurrentHashMap<>();
+    private final AdminClient adminClient;
+
+    /**
+     * Constructor for KafkaLagMonitor.
+     *
+     * @param lagAdminClient The AdminClient used to read the committed and end offsets.
+     */
+    @Autowired
+    public KafkaLagMonitor(AdminClient lagAdminClient) {
+        this.adminClient = lagAdminClient;
+    }
+
+    /**
+     * Returns the last measured lag per partition.
+     *
+     * @return An unmodifiable map of partitions and their lag.
+     */
+    public Map<TopicPartition, Long> getLag() {
+        return Collections.unmodifiableMap(lag);
+    }
+
+    /**
+     * Measures the lag of every partition consumed by the "messages" consumer group.
+     * This method is scheduled to run every 30 seconds by default.
+     */
+    @Scheduled(fixedRateString = "${kafka.consumer.lag-interval:30000}")
+    public void measureLag() {
+        try {
+            Map<TopicPartition, OffsetAndMetadata> committed = adminClient
+                    .listConsumerGroupOffsets(KafkaListeners.MESSAGES_GROUP_ID)
+                    .partitionsToOffsetAndMetadata()
+                    .get(10, TimeUnit.SECONDS);
+            Map<TopicPartition, OffsetSpec> request = new HashMap<>();
+            committed.keySet().forEach(partition -> request.put(partition, OffsetSpec.latest()));
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> endOffsets = adminClient
+                    .listOffsets(request)
+                    .all()
+                    .get(10, TimeUnit.SECONDS);
+            committed.forEach((partition, offset) -> {
+                if (offset != null && endOffsets.containsKey(partition)) {
+                    long partitionLag = Math.max(0, endOffsets.get(partition).offset() - offset.offset());
+                    lag.put(partition, partitionLag);
+                    log.info("Consumer lag {} - {}", partition, partitionLag);
+                }
+            });
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Unable to measure consumer lag: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
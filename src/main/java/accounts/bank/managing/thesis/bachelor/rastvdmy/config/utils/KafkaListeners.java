@@ -1,36 +1,87 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.config.utils;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.config.KafkaTopConfig;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.MessagePushService;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * This class is responsible for listening to Kafka messages.
  * It uses the @KafkaListener annotation to subscribe to "messages" topics.
- * The listener method logs the received message and any potential processing errors.
+ * The listener method receives messages in batches, logs them and acknowledges the batch once it is processed.
+ * The push listener forwards every message to the users connected to this application instance.
  */
 @Slf4j
 @Component
 public class KafkaListeners {
 
     /**
-     * This method is a Kafka listener that gets triggered when a message arrives in the "messages" topic.
-     * It logs the received message and any potential processing errors.
+     * The id of the consumer group listening to the "messages" topic.
+     */
+    public static final String MESSAGES_GROUP_ID = "messagesId";
+
+    private final MessagePushService messagePushService;
+
+    /**
+     * Constructor for KafkaListeners.
+     *
+     * @param messagePushService The service pushing messages to connected users.
+     */
+    @Autowired
+    public KafkaListeners(MessagePushService messagePushService) {
+        this.messagePushService = messagePushService;
+    }
+
+    /**
+     * This method is a Kafka listener that gets triggered when a batch of messages arrives in the "messages" topic.
+     * It logs the received messages and acknowledges the batch.
+     * If the batch fails, the container's error handler retries it
+     * and publishes it to the dead-letter topic when retries are exhausted.
+     *
+     * @param records        The batch of received records.
+     * @param acknowledgment The acknowledgment used to commit the offsets of the batch.
+     */
+    @KafkaListener(
+            topics = KafkaTopConfig.MESSAGES_TOPIC,
+            groupId = MESSAGES_GROUP_ID,
+            containerFactory = "factory"
+    )
+    public void listener(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        for (ConsumerRecord<String, String> record : records) {
+            log.info("Listener received: {}", record.value());
+        }
+        acknowledgment.acknowledge();
+    }
+
+    /**
+     * This method is a Kafka listener that pushes messages from the "messages" topic to connected users.
+     * Every application instance uses its own consumer group, so each instance receives all messages
+     * and delivers them to the connections it holds. The group is named after the push.instance-id property,
+     * so a restarted instance rejoins its group instead of leaving an orphaned one behind.
+     * The key of a message is the ID of its receiver.
      *
-     * @param data The message data.
-     * @param key  The key of the message.
+     * @param records        The batch of received records.
+     * @param acknowledgment The acknowledgment used to commit the offsets of the batch.
      */
     @KafkaListener(
-            topics = "messages",
-            groupId = "messagesId"
+            topics = KafkaTopConfig.MESSAGES_TOPIC,
+            groupId = "messagesPush-${push.instance-id:${HOSTNAME:local}}",
+            containerFactory = "factory"
     )
-    public void listener(String data, @Header(KafkaHeaders.RECEIVED_KEY) String key) {
-        try {
-            log.info("Listener received: {}", data);
-        } catch (Exception e) {
-            log.error("Error processing message with key {}: {}", key, e.getMessage());
+    public void pushListener(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        for (ConsumerRecord<String, String> record : records) {
+            try {
+                messagePushService.publish(Long.valueOf(record.key()), record.value());
+            } catch (NumberFormatException e) {
+                log.error("Error pushing message with key {}: {}", record.key(), e.getMessage());
+            }
         }
+        acknowledgment.acknowledge();
     }
 }
@@ -1,7 +1,8 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.controller;
 
 import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.request.BankLoanRequest;
-import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.BankLoan;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.BankLoanResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.LoanInstallmentResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.service.BankLoanService;
 import lombok.extern.slf4j.Slf4j;
@@ -22,7 +23,7 @@ import java.util.List;
 /**
  * This class is responsible for handling bank loan related requests.
  * It provides endpoints for getting all loans, filtering loans, getting a loan by id or reference number,
- * opening a loan, repaying a loan, updating a loan date, and deleting a loan.
+ * getting the schedule of a loan, opening a loan, repaying a loan, updating a loan date, and deleting a loan.
  */
 @Slf4j
 @RestController
@@ -49,7 +50,7 @@ public class BankLoanController {
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/")
     @PreAuthorize("hasRole('ROLE_MODERATOR')")
-    public ResponseEntity<List<BankLoan>> getAllLoans() {
+    public ResponseEntity<List<BankLoanResponse>> getAllLoans() {
         LOG.info("Getting all loans ...");
         return ResponseEntity.ok(bankLoanService.getAllLoans());
     }
@@ -65,7 +66,7 @@ public class BankLoanController {
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/filter")
     @PreAuthorize("hasRole('ROLE_MODERATOR')")
-    public ResponseEntity<Page<BankLoan>> filterLoans(
+    public ResponseEntity<Page<BankLoanResponse>> filterLoans(
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size,
             @RequestParam(value = "sort", defaultValue = "asc") String sort) {
@@ -93,11 +94,25 @@ public class BankLoanController {
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/{id}")
     @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_USER')")
-    public ResponseEntity<BankLoan> getLoanById(@PathVariable(value = "id") Long loanId) {
+    public ResponseEntity<BankLoanResponse> getLoanById(@PathVariable(value = "id") Long loanId) {
         LOG.info("Getting loan id: {} ...", loanId);
         return ResponseEntity.ok(bankLoanService.getLoanById(loanId));
     }
 
+    /**
+     * This method is used to get the amortization schedule of a loan.
+     *
+     * @param loanId The id of the loan.
+     * @return The installments of the loan ordered by their number.
+     */
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping(path = "/{id}/schedule")
+    @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_USER')")
+    public ResponseEntity<List<LoanInstallmentResponse>> getLoanSchedule(@PathVariable(value = "id") Long loanId) {
+        LOG.info("Getting schedule of loan id: {} ...", loanId);
+        return ResponseEntity.ok(bankLoanService.getLoanSchedule(loanId));
+    }
+
     /**
      * This method is used to get a loan by reference number.
      *
@@ -107,7 +122,7 @@ public class BankLoanController {
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/reference")
     @PreAuthorize("hasRole('ROLE_MODERATOR')")
-    public ResponseEntity<BankLoan> getLoanByReferenceNumber(@RequestBody BankLoanRequest request) {
+    public ResponseEntity<BankLoanResponse> getLoanByReferenceNumber(@RequestBody BankLoanRequest request) {
         LOG.info("Getting loan by reference: {} ...", request.referenceNumber());
         return ResponseEntity.ok(bankLoanService.getLoanByReferenceNumber(request.referenceNumber()));
     }
@@ -123,19 +138,19 @@ public class BankLoanController {
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping(path = "/{id}")
     @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_USER')")
-    public ResponseEntity<BankLoan> openLoan(@PathVariable(value = "id") Long id,
-                                             @RequestParam(value = "option") String option,
-                                             @RequestBody BankLoanRequest loanRequest) {
+    public ResponseEntity<BankLoanResponse> openLoan(@PathVariable(value = "id") Long id,
+                                                     @RequestParam(value = "option") String option,
+                                                     @RequestBody BankLoanRequest loanRequest) {
         return switch (option.toLowerCase()) {
             case "user" -> {
                 LOG.info("Opening settlement account for loan for user {} ...", id);
-                yield ResponseEntity.ok(bankLoanService.openSettlementAccount(
-                        id, loanRequest.loanAmount(), loanRequest.currencyType()));
+                yield ResponseEntity.ok(BankLoanResponse.from(bankLoanService.openSettlementAccount(
+                        id, loanRequest.loanAmount(), loanRequest.currencyType())));
             }
             case "card" -> {
                 LOG.info("Opening card for loan for user with card {} ...", id);
-                yield ResponseEntity.ok(bankLoanService.addLoanToCard(
-                        id, loanRequest.loanAmount(), loanRequest.currencyType()));
+                yield ResponseEntity.ok(BankLoanResponse.from(bankLoanService.addLoanToCard(
+                        id, loanRequest.loanAmount(), loanRequest.currencyType())));
             }
             default -> throw new ApplicationException(HttpStatus.BAD_REQUEST, "Invalid type. Use 'user' or 'card.'");
         };
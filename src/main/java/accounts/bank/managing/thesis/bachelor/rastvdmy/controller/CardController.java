@@ -1,8 +1,10 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.controller;
 
 import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.request.CardRequest;
-import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Card;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.CardResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.BalanceShardService;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.CacheGenerationService;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.service.CardService;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
@@ -16,13 +18,16 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 /**
  * This class is responsible for handling card related requests.
  * It provides endpoints for getting all cards, filtering cards, getting a card by id or card number,
  * updating a card status, creating a card, refilling a card, changing a card type, and deleting a card.
+ * It also provides endpoints for the visible balance of a card and for configuring its balance shards.
  */
 @Slf4j
 @RestController
@@ -30,28 +35,41 @@ import java.util.List;
 public class CardController {
     private static final Logger LOG = LoggerFactory.getLogger(CardController.class);
     private final CardService cardService;
+    private final BalanceShardService balanceShardService;
+    private final CacheGenerationService cacheGenerationService;
 
     /**
      * Constructor for the CardController.
      *
-     * @param cardService The service to handle card operations.
+     * @param cardService         The service to handle card operations.
+     * @param balanceShardService    The service to handle balance shards of cards.
+     * @param cacheGenerationService The service to handle the ETags of cached data.
      */
     @Autowired
-    public CardController(CardService cardService) {
+    public CardController(CardService cardService, BalanceShardService balanceShardService,
+                          CacheGenerationService cacheGenerationService) {
         this.cardService = cardService;
+        this.balanceShardService = balanceShardService;
+        this.cacheGenerationService = cacheGenerationService;
     }
 
     /**
      * This method is used to get all cards.
+     * If the cards have not changed since the ETag sent by the client, 304 Not Modified is returned.
      *
+     * @param request The current request.
      * @return A list of all cards.
      */
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/")
     @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_MODERATOR')")
-    public ResponseEntity<List<Card>> getCards() {
+    public ResponseEntity<List<CardResponse>> getCards(WebRequest request) {
         LOG.info("Getting all cards ...");
-        return ResponseEntity.ok(cardService.getAllCards());
+        String eTag = cacheGenerationService.eTag("cards");
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(cardService.getAllCards());
     }
 
     /**
@@ -65,7 +83,7 @@ public class CardController {
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/filter")
     @PreAuthorize("hasRole('ROLE_MODERATOR')")
-    public ResponseEntity<Page<Card>> filterCards(
+    public ResponseEntity<Page<CardResponse>> filterCards(
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size,
             @RequestParam(value = "sort", defaultValue = "asc") String sort) {
@@ -93,7 +111,7 @@ public class CardController {
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/{id}")
     @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_USER')")
-    public ResponseEntity<Card> getCardById(@PathVariable(value = "id") Long cardId) {
+    public ResponseEntity<CardResponse> getCardById(@PathVariable(value = "id") Long cardId) {
         LOG.info("Getting card id {} ...", cardId);
         return ResponseEntity.ok(cardService.getCardById(cardId));
     }
@@ -107,7 +125,7 @@ public class CardController {
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/number")
     @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_USER')")
-    public ResponseEntity<Card> getCardByCardNumber(@RequestBody CardRequest request) {
+    public ResponseEntity<CardResponse> getCardByCardNumber(@RequestBody CardRequest request) {
         LOG.info("Getting card by card number {} ...", request.cardNumber());
         return ResponseEntity.ok(cardService.getCardByCardNumber(request.cardNumber()));
     }
@@ -135,10 +153,11 @@ public class CardController {
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping(path = "/{id}")
     @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_USER')")
-    public ResponseEntity<Card> createCard(@PathVariable(value = "id") Long userId,
-                                           @RequestBody CardRequest cardRequest) {
+    public ResponseEntity<CardResponse> createCard(@PathVariable(value = "id") Long userId,
+                                                   @RequestBody CardRequest cardRequest) {
         LOG.info("Creating card ...");
-        return ResponseEntity.ok(cardService.createCard(userId, cardRequest.currency(), cardRequest.type()));
+        return ResponseEntity.ok(CardResponse.from(
+                cardService.createCard(userId, cardRequest.currency(), cardRequest.type())));
     }
 
     /**
@@ -155,6 +174,37 @@ public class CardController {
         cardService.cardRefill(cardId, request.pin(), request.balance());
     }
 
+    /**
+     * This method is used to get the visible balance of a card, including the balance of its shards.
+     *
+     * @param cardId The id of the card.
+     * @return The visible balance of the card.
+     */
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping(path = "/{id}/balance")
+    @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_USER')")
+    public ResponseEntity<BigDecimal> getCardBalance(@PathVariable(value = "id") Long cardId) {
+        LOG.info("Getting balance of card id: {} ...", cardId);
+        return ResponseEntity.ok(balanceShardService.getCardBalance(cardId));
+    }
+
+    /**
+     * This method is used to set the number of balance shards of a card with many incoming transfers.
+     * A count of 0 turns sharding off.
+     *
+     * @param cardId The id of the card.
+     * @param count  The number of shards.
+     * @return The updated card.
+     */
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @PutMapping(path = "/{id}/shards")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_MODERATOR')")
+    public ResponseEntity<CardResponse> configureBalanceShards(@PathVariable(value = "id") Long cardId,
+                                                               @RequestParam(value = "count") int count) {
+        LOG.info("Configuring {} balance shards of card id: {} ...", count, cardId);
+        return ResponseEntity.ok(CardResponse.from(balanceShardService.configureShards(cardId, count)));
+    }
+
     /**
      * This method is used to change a card type.
      *
@@ -1,21 +1,34 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.controller;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.HistoricalRate;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.RateProviderStatsResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.RatesSnapshot;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.CurrencyData;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.service.CurrencyDataService;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.ExchangeRateHistoryService;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.RateAggregator;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 
 /**
  * This class is responsible for handling currency data related requests.
- * It provides endpoints for updating and fetching all currencies and finding a currency by its type.
+ * It provides endpoints for fetching the snapshot of all rates, finding a currency by its type,
+ * finding the rate of a currency as it was at some time, and the statistics of the rate providers.
  */
 @Slf4j
 @RestController
@@ -24,29 +37,56 @@ public class CurrencyDataController {
     private static final Logger LOG = LoggerFactory.getLogger(CurrencyDataController.class);
 
     private final CurrencyDataService currencyDataService;
+    private final ExchangeRateHistoryService rateHistoryService;
+    private final RateAggregator rateAggregator;
+
+    @Value("${currency.snapshot.max-age-seconds:3600}")
+    private long snapshotMaxAgeSeconds;
 
     /**
      * Constructor for the CurrencyDataController.
      *
      * @param currencyDataService The service to handle currency data operations.
+     * @param rateHistoryService  The service to handle the history of the rates.
+     * @param rateAggregator      The aggregator fetching the rates from the rate providers.
      */
     @Autowired
-    public CurrencyDataController(CurrencyDataService currencyDataService) {
+    public CurrencyDataController(CurrencyDataService currencyDataService,
+                                  ExchangeRateHistoryService rateHistoryService, RateAggregator rateAggregator) {
         this.currencyDataService = currencyDataService;
+        this.rateHistoryService = rateHistoryService;
+        this.rateAggregator = rateAggregator;
     }
 
     /**
-     * This method is used to update and fetch all currencies.
+     * This method is used to fetch all currencies.
+     * The rates are served from the snapshot serialized after their last refresh,
+     * with headers letting clients cache them and revalidate them with 304 Not Modified.
+     * The response is private, as the endpoint requires authentication, so shared caches do not store it.
      *
-     * @return A list of all currency data.
+     * @param request The current request.
+     * @return The JSON array of all currency data.
      */
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/")
     @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_USER', 'ROLE_MODERATOR')")
-    public ResponseEntity<List<CurrencyData>> updateAndFetchAllCurrencies() {
-        LOG.info("Updating currency data ...");
-        currencyDataService.findAllExchangeRates();
-        return ResponseEntity.ok(currencyDataService.findAllCurrencies());
+    public ResponseEntity<byte[]> fetchAllCurrencies(WebRequest request) {
+        LOG.info("Getting currency data ...");
+        RatesSnapshot snapshot = currencyDataService.getRatesSnapshot();
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(snapshotMaxAgeSeconds)).cachePrivate();
+        if (request.checkNotModified(snapshot.eTag(), snapshot.lastModified().toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .eTag(snapshot.eTag())
+                    .lastModified(snapshot.lastModified())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(cacheControl)
+                .eTag(snapshot.eTag())
+                .lastModified(snapshot.lastModified())
+                .body(snapshot.body());
     }
 
     /**
@@ -63,4 +103,34 @@ public class CurrencyDataController {
         currencyDataService.findAllExchangeRates();
         return ResponseEntity.ok(currencyDataService.findByCurrency(currencyType));
     }
+
+    /**
+     * This method is used to find the rate of a currency as it was at the given time.
+     *
+     * @param currencyType The type of the currency.
+     * @param instant      The time of the rate in ISO-8601 format.
+     * @return The rate of the currency at the given time and the snapshot it was fetched in.
+     */
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping(path = "/{currency}/as-of")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_MODERATOR')")
+    public ResponseEntity<HistoricalRate> findRateAsOf(
+            @PathVariable(value = "currency") String currencyType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant instant) {
+        LOG.info("Getting currency {} as of {} ...", currencyType, instant);
+        return ResponseEntity.ok(rateHistoryService.rateAsOf(currencyType, instant));
+    }
+
+    /**
+     * This method is used to fetch the statistics of the rate providers.
+     *
+     * @return The number of fetches, failures and the latency of every rate provider.
+     */
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping(path = "/providers")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<List<RateProviderStatsResponse>> fetchProviderStats() {
+        LOG.info("Getting rate provider statistics ...");
+        return ResponseEntity.ok(rateAggregator.getStats());
+    }
 }
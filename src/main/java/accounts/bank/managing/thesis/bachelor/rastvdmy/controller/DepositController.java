@@ -1,9 +1,12 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.controller;
 
 import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.request.DepositRequest;
-import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Deposit;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.DepositResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.IdempotentOperation;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.service.DepositService;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.IdempotencyService;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.AccessGuard;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,6 +18,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -31,15 +35,22 @@ public class DepositController {
 
     private static final Logger LOG = LoggerFactory.getLogger(DepositController.class);
     private final DepositService depositService;
+    private final IdempotencyService idempotencyService;
+    private final AccessGuard accessGuard;
 
     /**
      * Constructor for the DepositController.
      *
-     * @param depositService The service to handle deposit operations.
+     * @param depositService     The service to handle deposit operations.
+     * @param idempotencyService The service to handle retried requests.
+     * @param accessGuard        The component to identify the authenticated user.
      */
     @Autowired
-    public DepositController(DepositService depositService) {
+    public DepositController(DepositService depositService, IdempotencyService idempotencyService,
+                             AccessGuard accessGuard) {
         this.depositService = depositService;
+        this.idempotencyService = idempotencyService;
+        this.accessGuard = accessGuard;
     }
 
     /**
@@ -50,7 +61,7 @@ public class DepositController {
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/")
     @PreAuthorize("hasRole('ROLE_MODERATOR')")
-    public ResponseEntity<List<Deposit>> getAllDeposits() {
+    public ResponseEntity<List<DepositResponse>> getAllDeposits() {
         LOG.info("Getting all deposits ...");
         return ResponseEntity.ok(depositService.getAllDeposits());
     }
@@ -66,7 +77,7 @@ public class DepositController {
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/filter")
     @PreAuthorize("hasRole('ROLE_MODERATOR')")
-    public ResponseEntity<Page<Deposit>> filterDeposits(
+    public ResponseEntity<Page<DepositResponse>> filterDeposits(
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size,
             @RequestParam(value = "sort", defaultValue = "asc") String sort) {
@@ -94,7 +105,7 @@ public class DepositController {
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/{id}")
     @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_USER')")
-    public ResponseEntity<Deposit> getDepositById(@PathVariable(value = "id") Long depositId) {
+    public ResponseEntity<DepositResponse> getDepositById(@PathVariable(value = "id") Long depositId) {
         LOG.info("Getting deposit id: {} ...", depositId);
         return ResponseEntity.ok(depositService.getDepositById(depositId));
     }
@@ -102,15 +113,30 @@ public class DepositController {
     /**
      * This method is used to open a deposit.
      *
-     * @param request The request containing the card number, deposit amount, description, and currency.
+     * A retried request with the same idempotency key returns the deposit opened by the first request.
+     * The key is scoped to the authenticated user and may not be reused with a different request.
+     *
+     * @param idempotencyKey The optional idempotency key of the request.
+     * @param request        The request containing the card number, deposit amount, description, and currency.
+     * @param authentication The authentication of the user.
      * @return The opened deposit.
      */
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping(path = "/")
     @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_USER')")
-    public ResponseEntity<Deposit> openDeposit(@RequestBody DepositRequest request) {
+    public ResponseEntity<DepositResponse> openDeposit(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody DepositRequest request,
+            Authentication authentication) {
         LOG.info("Creating deposit ...");
-        return ResponseEntity.ok(depositService.openDeposit(request.cardNumber(), request.depositAmount(), request.description(), request.currency()));
+        return ResponseEntity.ok(
+                idempotencyService.execute(IdempotentOperation.DEPOSIT, accessGuard.currentUserId(authentication),
+                        idempotencyKey, request,
+                        () -> DepositResponse.from(depositService.openDeposit(
+                                request.cardNumber(), request.depositAmount(), request.description(), request.currency())),
+                        DepositResponse::id,
+                        depositService::getDepositById)
+        );
     }
 
     /**
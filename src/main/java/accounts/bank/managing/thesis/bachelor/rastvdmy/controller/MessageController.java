@@ -1,25 +1,33 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.controller;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.config.KafkaTopConfig;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.request.MessageRequest;
-import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Message;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.MessageResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.MessagePushService;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.service.MessageService;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.AccessGuard;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
 /**
  * This class is responsible for handling message related requests.
  * It provides endpoints for getting all messages, getting a message by id, getting messages by content,
- * getting sorted messages, and sending a message.
+ * getting sorted messages, streaming new messages, and sending a message.
  */
 @Slf4j
 @RestController
@@ -28,18 +36,25 @@ public class MessageController {
 
     private final static Logger LOG = LoggerFactory.getLogger(MessageController.class);
     private final MessageService messageService;
+    private final MessagePushService messagePushService;
     private final KafkaTemplate<String, String> kafkaTemplate;
+    private final AccessGuard accessGuard;
 
     /**
      * Constructor for the MessageController.
      *
-     * @param messageService The service to handle message operations.
-     * @param kafkaTemplate  The Kafka template for sending messages.
+     * @param messageService     The service to handle message operations.
+     * @param messagePushService The service to push new messages to connected users.
+     * @param kafkaTemplate      The Kafka template for sending messages.
+     * @param accessGuard        The guard checking that a user streams only their own messages.
      */
     @Autowired
-    public MessageController(MessageService messageService, KafkaTemplate<String, String> kafkaTemplate) {
+    public MessageController(MessageService messageService, MessagePushService messagePushService,
+                             KafkaTemplate<String, String> kafkaTemplate, AccessGuard accessGuard) {
         this.messageService = messageService;
+        this.messagePushService = messagePushService;
         this.kafkaTemplate = kafkaTemplate;
+        this.accessGuard = accessGuard;
     }
 
     /**
@@ -50,7 +65,7 @@ public class MessageController {
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/")
     @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_USER', 'ROLE_ADMIN')")
-    public ResponseEntity<List<Message>> getMessages() {
+    public ResponseEntity<List<MessageResponse>> getMessages() {
         LOG.info("Getting messages ...");
         return ResponseEntity.ok(messageService.getMessages());
     }
@@ -64,23 +79,28 @@ public class MessageController {
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/{id}")
     @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_USER', 'ROLE_ADMIN')")
-    public ResponseEntity<Message> getMessageById(@PathVariable(value = "id") Long messageId) {
+    public ResponseEntity<MessageResponse> getMessageById(@PathVariable(value = "id") Long messageId) {
         LOG.info("Getting message id: {} ...", messageId);
         return ResponseEntity.ok(messageService.getMessageById(messageId));
     }
 
     /**
-     * This method is used to get messages by content.
+     * This method is used to search messages by content.
      *
-     * @param content The content of the messages.
-     * @return A list of messages with the given content.
+     * @param content The words to search for.
+     * @param page    The page number.
+     * @param size    The size of the page.
+     * @return A page of messages containing the given words, ordered by relevance.
      */
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/search/{content}")
     @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_USER', 'ROLE_ADMIN')")
-    public ResponseEntity<List<Message>> getMessagesByContent(@PathVariable(value = "content") String content) {
+    public ResponseEntity<Page<MessageResponse>> getMessagesByContent(
+            @PathVariable(value = "content") String content,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "10") int size) {
         LOG.info("Getting messages by content: {} ...", content);
-        return ResponseEntity.ok(messageService.getMessagesByContent(content));
+        return ResponseEntity.ok(messageService.getMessagesByContent(content, PageRequest.of(page, size)));
     }
 
     /**
@@ -94,7 +114,7 @@ public class MessageController {
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/{id}/")
     @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_USER', 'ROLE_ADMIN')")
-    public ResponseEntity<List<Message>> getSortedMessages(
+    public ResponseEntity<List<MessageResponse>> getSortedMessages(
             @PathVariable(value = "id") Long userId,
             @RequestParam(value = "sort") String sort,
             @RequestParam(value = "order", defaultValue = "asc") String order) {
@@ -122,6 +142,23 @@ public class MessageController {
         };
     }
 
+    /**
+     * This method is used to stream new messages received by a user.
+     * The messages are pushed as Server-Sent Events, so the client does not have to poll for them.
+     * Only the receiver may stream their messages.
+     *
+     * @param userId         The id of the receiver.
+     * @param authentication The authentication of the caller.
+     * @return The emitter sending new messages to the client.
+     */
+    @GetMapping(path = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_USER', 'ROLE_ADMIN')")
+    public SseEmitter streamMessages(@PathVariable(value = "id") Long userId, Authentication authentication) {
+        LOG.info("Streaming messages for user id: {} ...", userId);
+        accessGuard.checkSelf(authentication, userId);
+        return messagePushService.subscribe(userId);
+    }
+
     /**
      * This method is used to send a message.
      *
@@ -131,14 +168,14 @@ public class MessageController {
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping(path = "/")
     @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_USER', 'ROLE_ADMIN')")
-    public ResponseEntity<Message> sendMessage(@RequestBody MessageRequest messageRequest) {
+    public ResponseEntity<MessageResponse> sendMessage(@RequestBody MessageRequest messageRequest) {
         LOG.info("Sending message ...");
-        kafkaTemplate.send("messages", messageRequest.receiverId().toString(), messageRequest.content());
+        kafkaTemplate.send(KafkaTopConfig.MESSAGES_TOPIC, messageRequest.receiverId().toString(), messageRequest.content());
         LOG.info("Message has been successfully sent.");
-        return ResponseEntity.ok(messageService.sendMessage(
+        return ResponseEntity.ok(MessageResponse.from(messageService.sendMessage(
                 messageRequest.senderId(),
                 messageRequest.receiverId(),
-                messageRequest.content())
+                messageRequest.content()))
         );
     }
 }
@@ -1,9 +1,15 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.controller;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.request.BulkTransferRequest;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.request.TransferRequest;
-import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Transfer;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.TransferResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.TransferResultResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.IdempotentOperation;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.CacheGenerationService;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.IdempotencyService;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.service.TransferService;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.AccessGuard;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,14 +21,16 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
 /**
  * This class is responsible for handling transfer related requests.
  * It provides endpoints for getting all transfers, filtering transfers, getting a transfer by id or reference number,
- * and creating a transfer.
+ * creating a transfer, and creating a batch of transfers.
  */
 @Slf4j
 @RestController
@@ -30,28 +38,44 @@ import java.util.List;
 public class TransferController {
     private final static Logger LOG = LoggerFactory.getLogger(TransferController.class);
     private final TransferService transferService;
+    private final IdempotencyService idempotencyService;
+    private final CacheGenerationService cacheGenerationService;
+    private final AccessGuard accessGuard;
 
     /**
      * Constructor for the TransferController.
      *
-     * @param transferService The service to handle transfer operations.
+     * @param transferService        The service to handle transfer operations.
+     * @param idempotencyService     The service to handle retried requests.
+     * @param cacheGenerationService The service to handle the ETags of cached data.
+     * @param accessGuard            The component to identify the authenticated user.
      */
     @Autowired
-    public TransferController(TransferService transferService) {
+    public TransferController(TransferService transferService, IdempotencyService idempotencyService,
+                              CacheGenerationService cacheGenerationService, AccessGuard accessGuard) {
         this.transferService = transferService;
+        this.idempotencyService = idempotencyService;
+        this.cacheGenerationService = cacheGenerationService;
+        this.accessGuard = accessGuard;
     }
 
     /**
      * This method is used to get all transfers.
+     * If the transfers have not changed since the ETag sent by the client, 304 Not Modified is returned.
      *
+     * @param request The current request.
      * @return A list of all transfers.
      */
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/")
     @PreAuthorize("hasRole('ROLE_MODERATOR')")
-    public ResponseEntity<List<Transfer>> getTransfers() {
+    public ResponseEntity<List<TransferResponse>> getTransfers(WebRequest request) {
         LOG.info("Getting all transfers ...");
-        return ResponseEntity.ok(transferService.getTransfers());
+        String eTag = cacheGenerationService.eTag("transfers");
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(transferService.getTransfers());
     }
 
     /**
@@ -65,7 +89,7 @@ public class TransferController {
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/filter")
     @PreAuthorize("hasRole('ROLE_MODERATOR')")
-    public ResponseEntity<Page<Transfer>> filterTransfers(
+    public ResponseEntity<Page<TransferResponse>> filterTransfers(
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size,
             @RequestParam(value = "sort", defaultValue = "asc") String sort) {
@@ -93,7 +117,7 @@ public class TransferController {
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/{id}")
     @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_USER')")
-    public ResponseEntity<Transfer> getTransferById(@PathVariable(value = "id") Long id) {
+    public ResponseEntity<TransferResponse> getTransferById(@PathVariable(value = "id") Long id) {
         LOG.info("Getting transfer id: {} ...", id);
         return ResponseEntity.ok(transferService.getTransferById(id));
     }
@@ -107,7 +131,7 @@ public class TransferController {
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/reference")
     @PreAuthorize("hasRole('ROLE_MODERATOR')")
-    public ResponseEntity<Transfer> getTransferByReferenceNumber(@RequestBody TransferRequest request) {
+    public ResponseEntity<TransferResponse> getTransferByReferenceNumber(@RequestBody TransferRequest request) {
         LOG.info("Getting transfer by reference: {} ...", request.referenceNumber());
         return ResponseEntity.ok(transferService.getTransferByReferenceNumber(request.referenceNumber()));
     }
@@ -115,20 +139,46 @@ public class TransferController {
     /**
      * This method is used to create a transfer.
      *
-     * @param transfer The request containing the sender id, receiver card number, amount, and description.
+     * A retried request with the same idempotency key returns the transfer created by the first request.
+     * The key is scoped to the authenticated user and may not be reused with a different request.
+     *
+     * @param idempotencyKey The optional idempotency key of the request.
+     * @param transfer       The request containing the sender id, receiver card number, amount, and description.
+     * @param authentication The authentication of the user.
      * @return The created transfer.
      */
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping(path = "/")
     @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_USER')")
-    public ResponseEntity<Transfer> createTransfer(@RequestBody TransferRequest transfer) {
+    public ResponseEntity<TransferResponse> createTransfer(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody TransferRequest transfer,
+            Authentication authentication) {
         LOG.info("Creating transfer ...");
         return ResponseEntity.ok(
-                transferService.createTransfer(
-                        transfer.senderId(),
-                        transfer.receiverCardNumber(),
-                        transfer.amount(),
-                        transfer.description())
+                idempotencyService.execute(IdempotentOperation.TRANSFER, accessGuard.currentUserId(authentication),
+                        idempotencyKey, transfer,
+                        () -> TransferResponse.from(transferService.createTransfer(
+                                transfer.senderId(),
+                                transfer.receiverCardNumber(),
+                                transfer.amount(),
+                                transfer.description())),
+                        TransferResponse::id,
+                        transferService::getTransferById)
         );
     }
+
+    /**
+     * This method is used to create a batch of transfers from one card.
+     *
+     * @param request The request containing the sender id and the transfers.
+     * @return The result of every transfer, in the order of the request.
+     */
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping(path = "/batch")
+    @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_USER')")
+    public ResponseEntity<List<TransferResultResponse>> createTransfers(@RequestBody BulkTransferRequest request) {
+        LOG.info("Creating batch of transfers ...");
+        return ResponseEntity.ok(transferService.createTransfers(request.senderId(), request.transfers()));
+    }
 }
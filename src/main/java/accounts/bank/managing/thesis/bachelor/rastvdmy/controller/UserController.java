@@ -1,9 +1,13 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.controller;
 
 import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.request.UserRequest;
-import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.User;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.FinancialSummaryResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.UserResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.CacheGenerationService;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.FinancialSummaryService;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.service.UserService;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.AccessGuard;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,14 +19,16 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 
 /**
  * This class is responsible for handling user related requests.
- * It provides endpoints for getting all users, filtering users, getting a user by id,
+ * It provides endpoints for getting all users, filtering users, getting a user by id or their financial summary,
  * creating a user, updating a user, uploading a user avatar,
  * updating a user's email, password, role, status, visibility, phone number,
  * and deleting a user.
@@ -34,28 +40,44 @@ public class UserController {
 
     private static final Logger LOG = LoggerFactory.getLogger(UserController.class);
     private final UserService userService;
+    private final FinancialSummaryService financialSummaryService;
+    private final CacheGenerationService cacheGenerationService;
+    private final AccessGuard accessGuard;
 
     /**
      * Constructor for the UserController.
      *
-     * @param userService The service to handle user operations.
+     * @param userService             The service to handle user operations.
+     * @param financialSummaryService The service to handle financial summaries of users.
+     * @param cacheGenerationService  The service to handle the ETags of cached data.
+     * @param accessGuard             The component to check the access to the data of a user.
      */
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, FinancialSummaryService financialSummaryService,
+                          CacheGenerationService cacheGenerationService, AccessGuard accessGuard) {
         this.userService = userService;
+        this.financialSummaryService = financialSummaryService;
+        this.cacheGenerationService = cacheGenerationService;
+        this.accessGuard = accessGuard;
     }
 
     /**
      * This method is used to get all users.
+     * If the users have not changed since the ETag sent by the client, 304 Not Modified is returned.
      *
+     * @param request The current request.
      * @return A list of all users.
      */
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/")
     @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_ADMIN')")
-    public ResponseEntity<List<User>> getUsers() {
+    public ResponseEntity<List<UserResponse>> getUsers(WebRequest request) {
         LOG.info("Getting all users ...");
-        return ResponseEntity.ok(userService.getUsers());
+        String eTag = cacheGenerationService.eTag("users");
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(userService.getUsers());
     }
 
     /**
@@ -69,7 +91,7 @@ public class UserController {
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/filter")
     @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_ADMIN')")
-    public ResponseEntity<Page<User>> filterUsers(
+    public ResponseEntity<Page<UserResponse>> filterUsers(
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size,
             @RequestParam(value = "sort", defaultValue = "asc") String sort) {
@@ -97,11 +119,29 @@ public class UserController {
     @ResponseStatus(HttpStatus.OK)
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_ADMIN', 'ROLE_USER')")
-    public ResponseEntity<User> getUserById(@PathVariable(value = "id") Long userId) {
+    public ResponseEntity<UserResponse> getUserById(@PathVariable(value = "id") Long userId) {
         LOG.info("Getting user id: {} ...", userId);
         return ResponseEntity.ok(userService.getUserById(userId));
     }
 
+    /**
+     * This method is used to get the financial summary of a user.
+     * Only the user and admins may read it.
+     *
+     * @param userId         The id of the user.
+     * @param authentication The authentication of the user.
+     * @return The balance, outstanding loan, deposit principal, and 30-day inflow and outflow of the user per currency.
+     */
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping("/{id}/summary")
+    @PreAuthorize("hasAnyRole('ROLE_MODERATOR', 'ROLE_ADMIN', 'ROLE_USER')")
+    public ResponseEntity<List<FinancialSummaryResponse>> getUserSummary(@PathVariable(value = "id") Long userId,
+                                                                         Authentication authentication) {
+        LOG.info("Getting summary of user id: {} ...", userId);
+        accessGuard.checkSelfOrAdmin(authentication, userId);
+        return ResponseEntity.ok(financialSummaryService.getSummary(userId));
+    }
+
     /**
      * This method is used to create a user.
      *
@@ -110,9 +150,9 @@ public class UserController {
      */
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping(path = "/register")
-    public ResponseEntity<User> createUser(@RequestBody UserRequest user) {
+    public ResponseEntity<UserResponse> createUser(@RequestBody UserRequest user) {
         LOG.info("Creating user: {} ...", user.name());
-        return ResponseEntity.ok(userService.createUser(
+        return ResponseEntity.ok(UserResponse.from(userService.createUser(
                 user.name(),
                 user.surname(),
                 user.dateOfBirth(),
@@ -120,7 +160,7 @@ public class UserController {
                 user.email(),
                 user.password(),
                 user.phoneNumber()
-        ));
+        )));
     }
 
     /**
@@ -0,0 +1,16 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * This class represents a request for a batch of transfers from one card.
+ * It contains the sender id and the list of transfers, each with a receiver card number, description, and amount.
+ */
+public record BulkTransferRequest(
+        @JsonProperty("sender_id")
+        Long senderId,
+
+        List<TransferRequest> transfers) {
+}
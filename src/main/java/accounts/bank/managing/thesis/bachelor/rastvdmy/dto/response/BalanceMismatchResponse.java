@@ -0,0 +1,18 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+
+/**
+ * This record represents a card whose balance differs from the sum of its ledger postings.
+ *
+ * @param cardId        The id of the card.
+ * @param balance       The balance stored on the card.
+ * @param postedBalance The sum of the ledger postings of the card.
+ */
+public record BalanceMismatchResponse(
+        @JsonProperty("card_id") Long cardId,
+        BigDecimal balance,
+        @JsonProperty("posted_balance") BigDecimal postedBalance) {
+}
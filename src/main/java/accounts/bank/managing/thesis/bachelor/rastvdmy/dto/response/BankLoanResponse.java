@@ -0,0 +1,52 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.AmortizationType;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.BankLoan;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * This record represents a bank loan as it is exposed by the API.
+ *
+ * @param id               The id of the loan.
+ * @param currency         The currency of the loan.
+ * @param loanAmount       The outstanding principal of the loan.
+ * @param repaidLoan       The repaid amount of the loan.
+ * @param accruedInterest  The interest accrued and not repaid yet, unrounded.
+ * @param interestRate     The annual interest rate of the loan.
+ * @param amortizationType The way the loan is paid off in installments.
+ * @param startDate        The date the loan was opened.
+ * @param expirationDate   The date the loan expires.
+ * @param overdueSince     The day the loan was found overdue, or null if it is not overdue.
+ * @param referenceNumber  The reference number of the loan.
+ */
+public record BankLoanResponse(
+        Long id,
+        Currency currency,
+        BigDecimal loanAmount,
+        BigDecimal repaidLoan,
+        BigDecimal accruedInterest,
+        BigDecimal interestRate,
+        AmortizationType amortizationType,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd") LocalDate startDate,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd") LocalDate expirationDate,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd") LocalDate overdueSince,
+        String referenceNumber)
+        implements Serializable {
+
+    /**
+     * Creates the response for a loan that is already loaded.
+     *
+     * @param loan The loan.
+     * @return The response for the loan.
+     */
+    public static BankLoanResponse from(BankLoan loan) {
+        return new BankLoanResponse(loan.getId(), loan.getCurrency(), loan.getLoanAmount(), loan.getRepaidLoan(),
+                loan.getAccruedInterest(), loan.getInterestRate(), loan.getAmortizationType(), loan.getStartDate(), loan.getExpirationDate(),
+                loan.getOverdueSince(), loan.getReferenceNumber());
+    }
+}
@@ -0,0 +1,59 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Card;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.CardStatus;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.CardType;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * This record represents a card as it is exposed by the API.
+ * The PIN and CVV of the card are never selected or returned.
+ *
+ * @param id                 The id of the card.
+ * @param status             The status of the card.
+ * @param cardType           The type of the card.
+ * @param currencyType       The currency of the card.
+ * @param cardNumber         The number of the card.
+ * @param accountNumber      The account number of the card.
+ * @param iban               The IBAN of the card.
+ * @param holderName         The name of the card holder.
+ * @param swift              The SWIFT code of the card.
+ * @param balance            The balance of the card.
+ * @param balanceShards      The number of balance shards of the card, or null if the card is not sharded.
+ * @param cardExpirationDate The expiration date of the card.
+ * @param recipientTime      The time the card was issued.
+ */
+public record CardResponse(
+        Long id,
+        CardStatus status,
+        CardType cardType,
+        Currency currencyType,
+        String cardNumber,
+        String accountNumber,
+        String iban,
+        String holderName,
+        String swift,
+        BigDecimal balance,
+        Integer balanceShards,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd") LocalDate cardExpirationDate,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm") LocalDateTime recipientTime)
+        implements Serializable {
+
+    /**
+     * Creates the response for a card that is already loaded.
+     *
+     * @param card The card.
+     * @return The response for the card.
+     */
+    public static CardResponse from(Card card) {
+        return new CardResponse(card.getId(), card.getStatus(), card.getCardType(), card.getCurrencyType(),
+                card.getCardNumber(), card.getAccountNumber(), card.getIban(), card.getHolderName(), card.getSwift(),
+                card.getBalance(), card.getBalanceShards(), card.getCardExpirationDate(), card.getRecipientTime());
+    }
+}
@@ -0,0 +1,25 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.CurrencyData;
+
+import java.io.Serializable;
+
+/**
+ * This record represents the exchange rate of a currency as it is exposed by the API.
+ *
+ * @param id       The id of the currency data.
+ * @param currency The currency.
+ * @param rate     The rate of the currency relative to CZK.
+ */
+public record CurrencyDataResponse(Long id, String currency, Double rate) implements Serializable {
+
+    /**
+     * Creates the response for currency data that is already loaded.
+     *
+     * @param currencyData The currency data.
+     * @return The response for the currency data.
+     */
+    public static CurrencyDataResponse from(CurrencyData currencyData) {
+        return new CurrencyDataResponse(currencyData.getId(), currencyData.getCurrency(), currencyData.getRate());
+    }
+}
@@ -0,0 +1,45 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Deposit;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * This record represents a deposit as it is exposed by the API.
+ *
+ * @param id              The id of the deposit.
+ * @param currency        The currency of the deposit.
+ * @param startDate       The date and time the deposit was opened.
+ * @param expirationDate  The date and time the deposit expires.
+ * @param description     The description of the deposit.
+ * @param depositAmount   The amount of the deposit.
+ * @param depositCard     The account number of the deposit.
+ * @param referenceNumber The reference number of the deposit.
+ */
+public record DepositResponse(
+        Long id,
+        Currency currency,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm") LocalDateTime startDate,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm") LocalDateTime expirationDate,
+        String description,
+        BigDecimal depositAmount,
+        String depositCard,
+        String referenceNumber)
+        implements Serializable {
+
+    /**
+     * Creates the response for a deposit that is already loaded.
+     *
+     * @param deposit The deposit.
+     * @return The response for the deposit.
+     */
+    public static DepositResponse from(Deposit deposit) {
+        return new DepositResponse(deposit.getId(), deposit.getCurrency(), deposit.getStartDate(),
+                deposit.getExpirationDate(), deposit.getDescription(), deposit.getDepositAmount(),
+                deposit.getDepositCard(), deposit.getReferenceNumber());
+    }
+}
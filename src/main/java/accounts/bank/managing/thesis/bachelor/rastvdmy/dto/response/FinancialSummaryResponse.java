@@ -0,0 +1,25 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+
+/**
+ * This record represents the financial summary of a user in one currency.
+ *
+ * @param currency         The currency of the summary.
+ * @param balance          The total balance of the user's cards.
+ * @param loanOutstanding  The outstanding amount of the user's loans.
+ * @param depositPrincipal The principal of the user's deposits.
+ * @param inflow           The money received in the last 30 days.
+ * @param outflow          The money sent in the last 30 days.
+ */
+public record FinancialSummaryResponse(
+        Currency currency,
+        BigDecimal balance,
+        @JsonProperty("loan_outstanding") BigDecimal loanOutstanding,
+        @JsonProperty("deposit_principal") BigDecimal depositPrincipal,
+        BigDecimal inflow,
+        BigDecimal outflow) {
+}
@@ -0,0 +1,16 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * This record represents the rate of a currency as it was at some time.
+ *
+ * @param snapshotId The id of the snapshot the rate was fetched in.
+ * @param currency   The currency of the rate.
+ * @param rate       The rate of the currency against CZK.
+ * @param fetchedAt  The time when the rate was fetched.
+ */
+public record HistoricalRate(Long snapshotId, String currency, Double rate, Instant fetchedAt)
+        implements Serializable {
+}
@@ -0,0 +1,27 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * This record represents an installment of a loan as it is exposed by the API.
+ *
+ * @param number             The number of the installment.
+ * @param dueDate            The date the installment is due.
+ * @param principal          The part of the installment repaying the principal.
+ * @param interest           The part of the installment paying the interest.
+ * @param remainingPrincipal The principal remaining after the installment is paid.
+ * @param paidAt             The day the installment was paid, or null if it is not paid yet.
+ */
+public record LoanInstallmentResponse(
+        Integer number,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd") LocalDate dueDate,
+        BigDecimal principal,
+        BigDecimal interest,
+        BigDecimal remainingPrincipal,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd") LocalDate paidAt)
+        implements Serializable {
+}
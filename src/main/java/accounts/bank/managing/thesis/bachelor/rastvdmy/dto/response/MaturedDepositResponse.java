@@ -0,0 +1,13 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response;
+
+import java.time.LocalDateTime;
+
+/**
+ * This record represents a matured deposit as it is read by the maturity job.
+ * The expiration date and the id together are the position a chunk of matured deposits ends at.
+ *
+ * @param id             The id of the deposit.
+ * @param expirationDate The expiration date of the deposit.
+ */
+public record MaturedDepositResponse(Long id, LocalDateTime expirationDate) {
+}
@@ -0,0 +1,37 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Message;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * This record represents a message as it is exposed by the API.
+ * The sender and the receiver are referenced by their ids, so neither user is loaded.
+ *
+ * @param id         The id of the message.
+ * @param content    The content of the message.
+ * @param timestamp  The time the message was sent.
+ * @param senderId   The id of the sender.
+ * @param receiverId The id of the receiver.
+ */
+public record MessageResponse(
+        Long id,
+        String content,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm") LocalDateTime timestamp,
+        Long senderId,
+        Long receiverId)
+        implements Serializable {
+
+    /**
+     * Creates the response for a message that is already loaded.
+     *
+     * @param message The message.
+     * @return The response for the message.
+     */
+    public static MessageResponse from(Message message) {
+        return new MessageResponse(message.getId(), message.getContent(), message.getTimestamp(),
+                message.getSender().getId(), message.getReceiver().getId());
+    }
+}
@@ -0,0 +1,14 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response;
+
+/**
+ * This record represents the statistics of the fetches from one rate provider.
+ *
+ * @param provider             The name of the provider.
+ * @param fetches              The number of fetches from the provider.
+ * @param failures             The number of fetches that failed or timed out.
+ * @param lastLatencyMillis    The latency of the last fetch in milliseconds.
+ * @param averageLatencyMillis The average latency of all fetches in milliseconds.
+ */
+public record RateProviderStatsResponse(String provider, long fetches, long failures,
+                                        long lastLatencyMillis, long averageLatencyMillis) {
+}
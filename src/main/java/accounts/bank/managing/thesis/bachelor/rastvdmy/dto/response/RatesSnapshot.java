@@ -0,0 +1,14 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response;
+
+import java.time.Instant;
+
+/**
+ * This record represents the exchange rates serialized once after they are refreshed.
+ * The body is written to the response as it is, so serving the rates costs a memory copy.
+ *
+ * @param body         The JSON array of all rates.
+ * @param eTag         The quoted strong ETag derived from the body.
+ * @param lastModified The time the rates last changed, truncated to seconds.
+ */
+public record RatesSnapshot(byte[] body, String eTag, Instant lastModified) {
+}
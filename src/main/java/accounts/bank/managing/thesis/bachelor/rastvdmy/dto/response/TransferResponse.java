@@ -0,0 +1,43 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.FinancialStatus;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Transfer;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * This record represents a transfer as it is exposed by the API.
+ *
+ * @param id              The id of the transfer.
+ * @param currency        The currency of the transfer.
+ * @param status          The status of the transfer.
+ * @param referenceNumber The reference number of the transfer.
+ * @param dateTime        The date and time of the transfer.
+ * @param description     The description of the transfer.
+ * @param amount          The amount of the transfer.
+ */
+public record TransferResponse(
+        Long id,
+        Currency currency,
+        FinancialStatus status,
+        String referenceNumber,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm") LocalDateTime dateTime,
+        String description,
+        BigDecimal amount)
+        implements Serializable {
+
+    /**
+     * Creates the response for a transfer that is already loaded.
+     *
+     * @param transfer The transfer.
+     * @return The response for the transfer.
+     */
+    public static TransferResponse from(Transfer transfer) {
+        return new TransferResponse(transfer.getId(), transfer.getCurrency(), transfer.getStatus(),
+                transfer.getReferenceNumber(), transfer.getDateTime(), transfer.getDescription(), transfer.getAmount());
+    }
+}
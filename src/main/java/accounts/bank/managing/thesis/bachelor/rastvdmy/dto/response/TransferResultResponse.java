@@ -0,0 +1,19 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.FinancialStatus;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * This class represents the result of one transfer of a batch.
+ * It contains the position of the transfer in the batch, its reference number, status, and the reason of a denial.
+ */
+public record TransferResultResponse(
+        Integer index,
+
+        @JsonProperty("reference_number")
+        String referenceNumber,
+
+        FinancialStatus status,
+
+        String message) {
+}
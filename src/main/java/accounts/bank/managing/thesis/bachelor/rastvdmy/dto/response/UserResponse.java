@@ -0,0 +1,53 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.User;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.UserRole;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.UserStatus;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.UserVisibility;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * This record represents a user as it is exposed by the API.
+ * The password of the user is never selected or returned.
+ *
+ * @param id            The id of the user.
+ * @param userRole      The role of the user.
+ * @param status        The status of the user.
+ * @param visibility    The visibility of the user.
+ * @param name          The name of the user.
+ * @param surname       The surname of the user.
+ * @param dateOfBirth   The date of birth of the user.
+ * @param countryOrigin The country of origin of the user.
+ * @param email         The email of the user.
+ * @param avatar        The avatar of the user.
+ * @param phoneNumber   The phone number of the user.
+ */
+public record UserResponse(
+        Long id,
+        UserRole userRole,
+        UserStatus status,
+        UserVisibility visibility,
+        String name,
+        String surname,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd") LocalDate dateOfBirth,
+        String countryOrigin,
+        String email,
+        String avatar,
+        String phoneNumber)
+        implements Serializable {
+
+    /**
+     * Creates the response for a user that is already loaded.
+     *
+     * @param user The user.
+     * @return The response for the user.
+     */
+    public static UserResponse from(User user) {
+        return new UserResponse(user.getId(), user.getUserRole(), user.getStatus(), user.getVisibility(),
+                user.getName(), user.getSurname(), user.getDateOfBirth(), user.getCountryOrigin(), user.getEmail(),
+                user.getAvatar(), user.getPhoneNumber());
+    }
+}
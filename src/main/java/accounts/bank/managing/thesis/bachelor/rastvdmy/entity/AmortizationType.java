@@ -0,0 +1,41 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.entity;
+
+/**
+ * This enum represents the ways a bank loan is paid off in installments.
+ * It contains the types: ANNUITY and LINEAR.
+ */
+public enum AmortizationType {
+    /**
+     * Represents installments of equal size, whose interest part decreases over time.
+     */
+    ANNUITY("ANNUITY"),
+
+    /**
+     * Represents installments repaying equal parts of the principal, so the installments decrease over time.
+     */
+    LINEAR("LINEAR");
+
+    /**
+     * The name of the amortization type.
+     */
+    private final String type;
+
+    /**
+     * Constructor for the AmortizationType enum.
+     *
+     * @param type The name of the amortization type.
+     */
+    AmortizationType(String type) {
+        this.type = type;
+    }
+
+    /**
+     * Returns the name of the amortization type as a string.
+     *
+     * @return The name of the amortization type.
+     */
+    @Override
+    public String toString() {
+        return type;
+    }
+}
@@ -14,14 +14,15 @@ import java.time.LocalDate;
 
 /**
  * This class represents a bank loan.
- * It contains the id, currency, loan amount, repaid loan, start date,
- * expiration date, reference number, card loan, and user loan.
+ * It contains the id, currency, loan amount, repaid loan, accrued interest, interest rate, amortization type,
+ * start date, expiration date, last accrual date, overdue date, reference number, card loan, and user loan.
  */
 @Entity
 @Getter
 @Setter
 @ToString
-@Table(name = "bank_loan")
+@Table(name = "bank_loan",
+        indexes = @Index(name = "bank_loan_expiration_amount_idx", columnList = "expiration_date, loan_amount"))
 public class BankLoan implements Serializable {
 
     /**
@@ -39,7 +40,7 @@ public class BankLoan implements Serializable {
     private Currency currency;
 
     /**
-     * The loan amount of the bank loan.
+     * The outstanding principal of the bank loan.
      */
     @Column(name = "loan_amount", nullable = false)
     private BigDecimal loanAmount;
@@ -50,6 +51,25 @@ public class BankLoan implements Serializable {
     @Column(name = "repaid_loan", nullable = false)
     private BigDecimal repaidLoan;
 
+    /**
+     * The interest accrued on the loan amount and not repaid yet, kept unrounded.
+     */
+    @Column(name = "accrued_interest", precision = 19, scale = 8)
+    private BigDecimal accruedInterest;
+
+    /**
+     * The annual interest rate of the bank loan, for example 0.0899 for 8.99 %.
+     */
+    @Column(name = "interest_rate", precision = 7, scale = 4)
+    private BigDecimal interestRate;
+
+    /**
+     * The way the bank loan is paid off in installments.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "amortization_type")
+    private AmortizationType amortizationType;
+
     /**
      * The start date of the bank loan.
      */
@@ -66,6 +86,22 @@ public class BankLoan implements Serializable {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
     private LocalDate expirationDate;
 
+    /**
+     * The day the interest of the bank loan was last accrued up to.
+     */
+    @Column(name = "last_accrual_date")
+    @DateTimeFormat(pattern = "yyyy-MM-dd", iso = DateTimeFormat.ISO.DATE)
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate lastAccrualDate;
+
+    /**
+     * The day the bank loan was found overdue, or null if it is not overdue.
+     */
+    @Column(name = "overdue_since")
+    @DateTimeFormat(pattern = "yyyy-MM-dd", iso = DateTimeFormat.ISO.DATE)
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate overdueSince;
+
     /**
      * The reference number of the bank loan.
      */
@@ -76,21 +112,23 @@ public class BankLoan implements Serializable {
      * The card associated with the bank loan.
      */
     @JsonIgnore
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @ToString.Exclude
     @JoinTable(name = "card_loan",
             joinColumns = @JoinColumn(name = "loan_id"),
-            inverseJoinColumns = @JoinColumn(name = "card_id"))
+            inverseJoinColumns = @JoinColumn(name = "card_id"),
+            indexes = @Index(name = "card_loan_card_id_idx", columnList = "card_id"))
     private Card cardLoan;
 
     /**
      * The user associated with the bank loan.
      */
     @JsonIgnore
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @ToString.Exclude
     @JoinTable(name = "user_loan",
             joinColumns = @JoinColumn(name = "loan_id"),
-            inverseJoinColumns = @JoinColumn(name = "user_id"))
+            inverseJoinColumns = @JoinColumn(name = "user_id"),
+            indexes = @Index(name = "user_loan_user_id_idx", columnList = "user_id"))
     private User userLoan;
 }
@@ -6,6 +6,7 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.io.Serializable;
@@ -20,12 +21,18 @@ import java.util.List;
  * account number, iban, cvv, pin, holder name, swift, balance,
  * card expiration date, recipient time, user, card loan, deposit transaction,
  * sender transfer transaction, and receiver transfer transaction.
+ * Only the changed columns of a card are updated, so saving a loaded card does not overwrite
+ * a status set in the meantime by a bulk update, such as blocking the cards of an overdue loan.
  */
 @Entity
+@DynamicUpdate
 @Setter
 @Getter
 @ToString
-@Table(name = "card")
+@Table(name = "card", indexes = {
+        @Index(name = "card_user_id_idx", columnList = "user_id"),
+        @Index(name = "card_expiration_date_idx", columnList = "expiration_date")
+})
 public class Card implements Serializable {
 
     /**
@@ -98,10 +105,17 @@ public class Card implements Serializable {
 
     /**
      * The balance of the card.
+     * It is changed only by CardRepository.addToBalance, so saving a card never overwrites a concurrent change.
      */
-    @Column(name = "balance", nullable = false)
+    @Column(name = "balance", nullable = false, updatable = false)
     private BigDecimal balance;
 
+    /**
+     * The number of balance shards receiving the credits of the card, or null if the card is not sharded.
+     */
+    @Column(name = "balance_shards")
+    private Integer balanceShards;
+
     /**
      * The expiration date of the card.
      */
@@ -122,15 +136,24 @@ public class Card implements Serializable {
      * The user associated with the card.
      */
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    /**
+     * The balance shards of the card.
+     */
+    @JsonIgnore
+    @OneToMany(mappedBy = "card", cascade = CascadeType.REMOVE)
+    @ToString.Exclude
+    private List<CardBalanceShard> balanceShardList;
+
     /**
      * The bank loan associated with the card.
      */
     @JsonIgnore
-    @OneToOne(mappedBy = "cardLoan", cascade = CascadeType.ALL)
+    @OneToOne(mappedBy = "cardLoan", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @ToString.Exclude
     private BankLoan cardLoan;
 
@@ -138,7 +161,7 @@ public class Card implements Serializable {
      * The deposit transaction associated with the card.
      */
     @JsonIgnore
-    @OneToOne(mappedBy = "cardDeposit", cascade = CascadeType.ALL)
+    @OneToOne(mappedBy = "cardDeposit", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @ToString.Exclude
     private Deposit depositTransaction;
 
@@ -165,4 +188,17 @@ public class Card implements Serializable {
     public Card() {
         this.status = CardStatus.STATUS_CARD_DEFAULT;
     }
+
+    /**
+     * Checks whether the card is expired on the given day.
+     * A card past its expiration date is expired even before CardExpirationJob has set its status,
+     * and a blocked card keeps its status after the date.
+     *
+     * @param today The day the card is used on.
+     * @return True if the card is expired, false otherwise.
+     */
+    public boolean isExpired(LocalDate today) {
+        return status == CardStatus.STATUS_CARD_EXPIRED
+                || (cardExpirationDate != null && cardExpirationDate.isBefore(today));
+    }
 }
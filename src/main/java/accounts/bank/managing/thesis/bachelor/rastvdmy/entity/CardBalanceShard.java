@@ -0,0 +1,53 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * This class represents a part of the balance of a card with a high number of incoming transfers.
+ * It contains the id, card, index of the shard, and balance.
+ * Credits of a sharded card are spread over its shards, so concurrent transfers do not lock the same row.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Table(name = "card_balance_shard",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"card_id", "shard_index"}))
+public class CardBalanceShard implements Serializable {
+
+    /**
+     * The id of the shard.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    /**
+     * The card owning the shard.
+     */
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "card_id", nullable = false)
+    @ToString.Exclude
+    private Card card;
+
+    /**
+     * The index of the shard, from 0 to the number of shards of the card.
+     */
+    @Column(name = "shard_index", nullable = false)
+    private Integer shardIndex;
+
+    /**
+     * The part of the balance of the card held by the shard.
+     */
+    @Column(name = "balance", nullable = false)
+    private BigDecimal balance;
+}
@@ -2,7 +2,7 @@ package accounts.bank.managing.thesis.bachelor.rastvdmy.entity;
 
 /**
  * This enum represents the status of a card.
- * It contains the statuses: default, blocked, and unblocked.
+ * It contains the statuses: default, blocked, unblocked, and expired.
  */
 public enum CardStatus {
     /**
@@ -18,7 +18,12 @@ public enum CardStatus {
     /**
      * The status when a card is unblocked.
      */
-    STATUS_CARD_UNBLOCKED("STATUS_CARD_UNBLOCKED");
+    STATUS_CARD_UNBLOCKED("STATUS_CARD_UNBLOCKED"),
+
+    /**
+     * The status when the expiration date of a card has passed.
+     */
+    STATUS_CARD_EXPIRED("STATUS_CARD_EXPIRED");
 
     /**
      * The status of the card.
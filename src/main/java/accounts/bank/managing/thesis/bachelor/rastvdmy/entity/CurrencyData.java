@@ -1,17 +1,17 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.entity;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
 import java.io.Serializable;
-import java.util.List;
+import java.time.Instant;
 
 /**
  * This class represents the currency data.
- * It contains the id, currency, rate, and a list of users.
+ * It contains the id, currency, rate, and the time the rate last changed.
+ * The supported currencies are shared by all users, so the rates are not associated with any of them.
  */
 @Entity
 @Getter
@@ -41,10 +41,8 @@ public class CurrencyData implements Serializable {
     private Double rate;
 
     /**
-     * The list of users associated with the currency data.
+     * The time when the rate last changed, which the rates endpoint sends as Last-Modified.
      */
-    @JsonIgnore
-    @ToString.Exclude
-    @ManyToMany(mappedBy = "currencyData")
-    private List<User> users;
+    @Column(name = "updated_at")
+    private Instant updatedAt;
 }
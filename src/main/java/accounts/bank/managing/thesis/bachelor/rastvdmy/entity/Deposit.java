@@ -21,7 +21,10 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @ToString
-@Table(name = "deposit")
+@Table(name = "deposit", indexes = {
+        @Index(name = "deposit_card_deposit_idx", columnList = "card_deposit"),
+        @Index(name = "deposit_expiration_date_id_idx", columnList = "expiration_date, id")
+})
 public class Deposit implements Serializable {
 
     /**
@@ -82,7 +85,7 @@ public class Deposit implements Serializable {
      * The card associated with the deposit.
      */
     @JsonIgnore
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "card_deposit", nullable = false)
     @ToString.Exclude
     private Card cardDeposit;
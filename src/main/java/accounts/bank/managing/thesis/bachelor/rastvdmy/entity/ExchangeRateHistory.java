@@ -0,0 +1,51 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+
+/**
+ * This class represents the rate of one currency in one snapshot of the exchange rates.
+ * It contains the id, snapshot id, currency, and rate against CZK.
+ * Rows are only ever inserted, one per currency and fetch.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Immutable
+@Table(name = "exchange_rate_history",
+        uniqueConstraints = @UniqueConstraint(name = "exchange_rate_history_snapshot_currency_uk",
+                columnNames = {"snapshot_id", "currency"}))
+public class ExchangeRateHistory implements Serializable {
+
+    /**
+     * The id of the rate.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    /**
+     * The id of the snapshot the rate was fetched in.
+     */
+    @Column(name = "snapshot_id", nullable = false, updatable = false)
+    private Long snapshotId;
+
+    /**
+     * The currency of the rate.
+     */
+    @Column(name = "currency", nullable = false, updatable = false)
+    private String currency;
+
+    /**
+     * The rate of the currency against CZK.
+     */
+    @Column(name = "rate", nullable = false, updatable = false)
+    private Double rate;
+}
@@ -0,0 +1,38 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * This class represents one fetch of the exchange rates.
+ * It contains the id and the time of the fetch, and the rates fetched are kept in the exchange rate history.
+ * Snapshots are only ever inserted, so a transfer referring to a snapshot can always be repriced with its rates.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Immutable
+@Table(name = "exchange_rate_snapshot")
+public class ExchangeRateSnapshot implements Serializable {
+
+    /**
+     * The id of the snapshot.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    /**
+     * The time when the rates were fetched.
+     */
+    @Column(name = "fetched_at", nullable = false, updatable = false)
+    private Instant fetchedAt;
+}
@@ -0,0 +1,77 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * This class represents a processed request with an idempotency key.
+ * It contains the id, idempotency key, operation, caller, hash of the request, id of the created resource,
+ * and creation time.
+ * Keys are scoped to the user who sent them: the triple of the idempotency key, the operation and the caller
+ * is unique, so a request cannot be processed twice and one user's key never replays another user's resource.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Table(name = "idempotent_request",
+        uniqueConstraints = @UniqueConstraint(name = IdempotencyRecord.KEY_CONSTRAINT,
+                columnNames = {"idempotency_key", "operation", "caller_id"}),
+        indexes = @Index(name = "idempotent_request_created_at_idx", columnList = "created_at"))
+public class IdempotencyRecord implements Serializable {
+
+    /**
+     * The name of the unique constraint on the idempotency key, the operation and the caller.
+     */
+    public static final String KEY_CONSTRAINT = "idempotent_request_key_uk";
+
+    /**
+     * The id of the record.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    /**
+     * The idempotency key sent by the client.
+     */
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    /**
+     * The operation performed by the request.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operation", nullable = false)
+    private IdempotentOperation operation;
+
+    /**
+     * The id of the user who sent the request.
+     */
+    @Column(name = "caller_id", nullable = false)
+    private Long callerId;
+
+    /**
+     * The SHA-256 hash of the request, used to reject a key reused with a different request.
+     */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    /**
+     * The id of the resource created by the request.
+     */
+    @Column(name = "resource_id", nullable = false)
+    private Long resourceId;
+
+    /**
+     * The time when the request was processed.
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
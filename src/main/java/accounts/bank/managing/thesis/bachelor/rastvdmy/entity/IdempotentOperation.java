@@ -0,0 +1,41 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.entity;
+
+/**
+ * This enum represents the operations that can be retried with an idempotency key.
+ * It contains the operations: TRANSFER and DEPOSIT.
+ */
+public enum IdempotentOperation {
+    /**
+     * Represents the creation of a transfer.
+     */
+    TRANSFER("TRANSFER"),
+
+    /**
+     * Represents the opening of a deposit.
+     */
+    DEPOSIT("DEPOSIT");
+
+    /**
+     * The name of the operation.
+     */
+    private final String operation;
+
+    /**
+     * Constructor for the IdempotentOperation enum.
+     *
+     * @param operation The name of the operation.
+     */
+    IdempotentOperation(String operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * Returns the name of the operation as a string.
+     *
+     * @return The name of the operation.
+     */
+    @Override
+    public String toString() {
+        return operation;
+    }
+}
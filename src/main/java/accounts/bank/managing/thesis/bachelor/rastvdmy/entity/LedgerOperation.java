@@ -0,0 +1,56 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.entity;
+
+/**
+ * This enum represents the operations that change the balance of a card.
+ * It contains the operations: OPENING, TRANSFER, REFILL, DEPOSIT_OPEN and DEPOSIT_CLOSE.
+ */
+public enum LedgerOperation {
+    /**
+     * Represents the balance a card had before its changes were recorded in the ledger.
+     */
+    OPENING("OPENING"),
+
+    /**
+     * Represents one side of a transfer between two cards.
+     */
+    TRANSFER("TRANSFER"),
+
+    /**
+     * Represents a refill of a card.
+     */
+    REFILL("REFILL"),
+
+    /**
+     * Represents the amount moved from a card to a new deposit.
+     */
+    DEPOSIT_OPEN("DEPOSIT_OPEN"),
+
+    /**
+     * Represents the amount returned to a card when its deposit is closed.
+     */
+    DEPOSIT_CLOSE("DEPOSIT_CLOSE");
+
+    /**
+     * The name of the operation.
+     */
+    private final String operation;
+
+    /**
+     * Constructor for the LedgerOperation enum.
+     *
+     * @param operation The name of the operation.
+     */
+    LedgerOperation(String operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * Returns the name of the operation as a string.
+     *
+     * @return The name of the operation.
+     */
+    @Override
+    public String toString() {
+        return operation;
+    }
+}
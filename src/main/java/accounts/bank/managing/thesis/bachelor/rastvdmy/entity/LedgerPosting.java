@@ -0,0 +1,69 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.entity;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * This class represents a posting in the ledger of a card.
+ * It contains the id, card, signed amount, operation, reference number, and creation time.
+ * Postings are only ever inserted, so the balance of a card always equals the sum of its postings.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Immutable
+@Table(name = "ledger_posting", indexes = @Index(name = "ledger_posting_card_id_idx", columnList = "card_id"))
+public class LedgerPosting implements Serializable {
+
+    /**
+     * The id of the posting.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    /**
+     * The id of the card whose balance is changed by the posting.
+     * It is not a foreign key, so the postings are kept when the card is deleted.
+     */
+    @Column(name = "card_id", nullable = false, updatable = false)
+    private Long cardId;
+
+    /**
+     * The amount of the posting in the currency of the card. Debits are negative and credits are positive.
+     */
+    @Column(name = "amount", nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    /**
+     * The operation that created the posting.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operation", nullable = false, updatable = false)
+    private LedgerOperation operation;
+
+    /**
+     * The reference number of the transfer or deposit that created the posting.
+     */
+    @Column(name = "reference_number", updatable = false)
+    private String referenceNumber;
+
+    /**
+     * The time when the posting was created.
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm", iso = DateTimeFormat.ISO.DATE_TIME)
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm")
+    private LocalDateTime createdAt;
+}
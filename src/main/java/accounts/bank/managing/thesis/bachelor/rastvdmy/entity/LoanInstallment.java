@@ -0,0 +1,82 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.entity;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * This class represents one installment in the amortization schedule of a bank loan.
+ * It contains the id, loan id, number, due date, principal, interest, the principal remaining after it,
+ * and the day it was paid.
+ * The schedule is computed once when the loan is opened, so reading it never recomputes the amortization.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Table(name = "loan_installment",
+        uniqueConstraints = @UniqueConstraint(name = "loan_installment_loan_number_uk",
+                columnNames = {"loan_id", "installment_number"}))
+public class LoanInstallment implements Serializable {
+
+    /**
+     * The id of the installment.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    /**
+     * The id of the loan the installment belongs to.
+     */
+    @Column(name = "loan_id", nullable = false, updatable = false)
+    private Long loanId;
+
+    /**
+     * The number of the installment, starting with 1.
+     */
+    @Column(name = "installment_number", nullable = false, updatable = false)
+    private Integer number;
+
+    /**
+     * The date the installment is due.
+     */
+    @Column(name = "due_date", nullable = false)
+    @DateTimeFormat(pattern = "yyyy-MM-dd", iso = DateTimeFormat.ISO.DATE)
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate dueDate;
+
+    /**
+     * The part of the installment repaying the principal.
+     */
+    @Column(name = "principal", nullable = false, precision = 12, scale = 2)
+    private BigDecimal principal;
+
+    /**
+     * The part of the installment paying the interest.
+     */
+    @Column(name = "interest", nullable = false, precision = 12, scale = 2)
+    private BigDecimal interest;
+
+    /**
+     * The principal remaining after the installment is paid.
+     */
+    @Column(name = "remaining_principal", nullable = false, precision = 12, scale = 2)
+    private BigDecimal remainingPrincipal;
+
+    /**
+     * The day the repayments of the loan first covered the installment, or null if it is not paid yet.
+     */
+    @Column(name = "paid_at")
+    @DateTimeFormat(pattern = "yyyy-MM-dd", iso = DateTimeFormat.ISO.DATE)
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate paidAt;
+}
@@ -46,7 +46,7 @@ public class Message implements Serializable {
     /**
      * The sender of the message.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @ToString.Exclude
     @JoinColumn(name = "sender_id", nullable = false)
     private User sender;
@@ -54,7 +54,7 @@ public class Message implements Serializable {
     /**
      * The receiver of the message.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @ToString.Exclude
     @JoinColumn(name = "receiver_id", nullable = false)
     private User receiver;
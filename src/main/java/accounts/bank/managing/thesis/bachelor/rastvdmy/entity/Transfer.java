@@ -15,7 +15,7 @@ import java.time.LocalDateTime;
 /**
  * This class represents a transfer in the banking system.
  * It contains the id, currency, status, reference number,
- * date and time, description, amount, sender card, and receiver card.
+ * date and time, description, amount, exchange rate snapshot, sender card, and receiver card.
  */
 @Setter
 @Getter
@@ -33,7 +33,7 @@ public class Transfer implements Serializable {
     private Long id;
 
     /**
-     * The currency of the transfer.
+     * The currency of the transfer, which is the currency of the amount credited to the receiver's card.
      */
     @Enumerated(EnumType.STRING)
     private Currency currency;
@@ -70,11 +70,18 @@ public class Transfer implements Serializable {
     @Column(name = "amount", nullable = false)
     private BigDecimal amount;
 
+    /**
+     * The id of the exchange rate snapshot of the rate the amount was converted with.
+     * It is null for transfers in one currency and for transfers converted with a rate not recorded in a snapshot.
+     */
+    @Column(name = "rate_snapshot_id", updatable = false)
+    private Long rateSnapshotId;
+
     /**
      * The card used to send the transfer.
      */
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @ToString.Exclude
     @JoinColumn(name = "sender_card", nullable = false)
     private Card senderCard;
@@ -83,7 +90,7 @@ public class Transfer implements Serializable {
      * The card used to receive the transfer.
      */
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @ToString.Exclude
     @JoinColumn(name = "receiver_card", nullable = false)
     private Card receiverCard;
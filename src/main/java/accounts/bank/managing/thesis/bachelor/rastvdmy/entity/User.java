@@ -2,6 +2,7 @@ package accounts.bank.managing.thesis.bachelor.rastvdmy.entity;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -17,15 +18,29 @@ import java.util.List;
 /**
  * This class represents a user in the system.
  * It contains the id, user role, status, visibility, name, surname, date of birth, country of origin,
- * email, password, avatar, phone number, currency data, bank loan, sender messages, receiver messages, and cards.
+ * email, password, avatar, phone number, bank loan, sender messages, receiver messages, and cards.
+ * The email and the phone number are unique, which is enforced by the database when a user registers.
  */
 @Setter
 @Getter
 @ToString
 @Entity
-@Table(name = "user_profile")
+@Table(name = "user_profile", uniqueConstraints = {
+        @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email"),
+        @UniqueConstraint(name = User.PHONE_NUMBER_CONSTRAINT, columnNames = "phone_number")})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class User implements Serializable {
 
+    /**
+     * The name of the unique constraint on the email.
+     */
+    public static final String EMAIL_CONSTRAINT = "user_profile_email_uk";
+
+    /**
+     * The name of the unique constraint on the phone number.
+     */
+    public static final String PHONE_NUMBER_CONSTRAINT = "user_profile_phone_number_uk";
+
     /**
      * The id of the user.
      */
@@ -102,19 +117,11 @@ public class User implements Serializable {
     @Column(name = "phone_number", nullable = false)
     private String phoneNumber;
 
-    /**
-     * The currency data associated with the user.
-     */
-    @JsonIgnore
-    @ManyToMany
-    @ToString.Exclude
-    private List<CurrencyData> currencyData;
-
     /**
      * The bank loan associated with the user.
      */
     @JsonIgnore
-    @OneToOne(mappedBy = "userLoan", cascade = CascadeType.ALL)
+    @OneToOne(mappedBy = "userLoan", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @ToString.Exclude
     private BankLoan bankLoan;
 
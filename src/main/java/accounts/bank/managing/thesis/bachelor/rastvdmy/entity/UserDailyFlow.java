@@ -0,0 +1,70 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * This class represents the money received and sent by a user in one currency on one day.
+ * It contains the id, user id, currency, date, slot, inflow, and outflow.
+ * The inflow and outflow of the last days are summed from these rows instead of from the transfers.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Table(name = "user_daily_flow",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "currency", "flow_date", "slot"}),
+        indexes = @Index(name = "user_daily_flow_user_date_idx", columnList = "user_id, flow_date"))
+public class UserDailyFlow implements Serializable {
+
+    /**
+     * The id of the flow row.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    /**
+     * The id of the user.
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * The currency of the flow.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "currency", nullable = false)
+    private Currency currency;
+
+    /**
+     * The day of the flow.
+     */
+    @Column(name = "flow_date", nullable = false)
+    private LocalDate flowDate;
+
+    /**
+     * The slot of the row, 0 unless the row belongs to a balance shard.
+     */
+    @Column(name = "slot", nullable = false)
+    private Integer slot;
+
+    /**
+     * The money received on the day.
+     */
+    @Column(name = "inflow", nullable = false)
+    private BigDecimal inflow;
+
+    /**
+     * The money sent on the day.
+     */
+    @Column(name = "outflow", nullable = false)
+    private BigDecimal outflow;
+}
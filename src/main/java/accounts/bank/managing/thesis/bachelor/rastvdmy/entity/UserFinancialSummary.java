@@ -0,0 +1,70 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * This class represents the running totals of a user in one currency.
+ * It contains the id, user id, currency, slot, total card balance, outstanding loan, and deposit principal.
+ * The totals are updated incrementally with every posting, loan and deposit of the user.
+ * Credits of sharded cards update the slot of their balance shard, so the totals of a busy card
+ * are spread over several rows like its balance. The totals of a currency are the sum of all its slots.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@Table(name = "user_financial_summary",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "currency", "slot"}))
+public class UserFinancialSummary implements Serializable {
+
+    /**
+     * The id of the summary row.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    /**
+     * The id of the user.
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * The currency of the totals.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "currency", nullable = false)
+    private Currency currency;
+
+    /**
+     * The slot of the row, 0 unless the row belongs to a balance shard.
+     */
+    @Column(name = "slot", nullable = false)
+    private Integer slot;
+
+    /**
+     * The total balance of the cards of the user in the currency.
+     */
+    @Column(name = "balance", nullable = false)
+    private BigDecimal balance;
+
+    /**
+     * The outstanding amount of the loans of the user in the currency.
+     */
+    @Column(name = "loan_outstanding", nullable = false)
+    private BigDecimal loanOutstanding;
+
+    /**
+     * The principal of the deposits of the user in the currency.
+     */
+    @Column(name = "deposit_principal", nullable = false)
+    private BigDecimal depositPrincipal;
+}
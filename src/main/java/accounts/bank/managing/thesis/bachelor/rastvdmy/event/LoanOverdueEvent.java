@@ -0,0 +1,27 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.event;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * This record represents the event published when a loan is found overdue.
+ * It is published in the transaction flagging the loan,
+ * so listeners acting only on committed changes should use @TransactionalEventListener.
+ *
+ * @param loanId          The id of the loan.
+ * @param referenceNumber The reference number of the loan.
+ * @param currency        The currency of the loan.
+ * @param loanAmount      The amount outstanding when the loan expired.
+ * @param expirationDate  The date the loan expired.
+ */
+public record LoanOverdueEvent(
+        Long loanId,
+        String referenceNumber,
+        Currency currency,
+        BigDecimal loanAmount,
+        LocalDate expirationDate)
+        implements Serializable {
+}
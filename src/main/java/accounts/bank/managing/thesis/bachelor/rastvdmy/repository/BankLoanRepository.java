@@ -1,9 +1,22 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.BankLoanResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.BankLoan;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.event.LoanOverdueEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * This interface represents the repository for the BankLoan entity.
  * It extends JpaRepository to provide methods to manipulate BankLoan entities.
@@ -20,4 +33,91 @@ public interface BankLoanRepository extends JpaRepository<BankLoan, Long> {
      * @return The BankLoan entity with the given reference number, or null if no such entity exists.
      */
     BankLoan findByReferenceNumber(String referenceNumber);
+
+    /**
+     * Checks if a user has a loan, either of their own or on any of their cards.
+     * Both branches are answered from the user_loan_user_id_idx and card_user_id_idx indexes in one EXISTS,
+     * which stops at the first row found, without loading the user, its cards or the loans.
+     *
+     * @param userId The ID of the user to check.
+     * @return true if the user or any of their cards has a loan, false otherwise.
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM user_loan ul WHERE ul.user_id = :userId " +
+            "UNION ALL SELECT 1 FROM card c JOIN card_loan cl ON cl.card_id = c.id WHERE c.user_id = :userId)",
+            nativeQuery = true)
+    boolean existsByUserOrUserCards(@Param("userId") Long userId);
+
+    /**
+     * Finds all BankLoan entities as responses, selecting only the columns exposed by the API.
+     *
+     * @return A list of all BankLoan responses.
+     */
+    List<BankLoanResponse> findAllProjectedBy();
+
+    /**
+     * Finds a page of BankLoan entities as responses, selecting only the columns exposed by the API.
+     *
+     * @param pageable The pagination information.
+     * @return A page of BankLoan responses.
+     */
+    Page<BankLoanResponse> findAllProjectedBy(Pageable pageable);
+
+    /**
+     * Finds a BankLoan entity by its ID as a response, selecting only the columns exposed by the API.
+     *
+     * @param id The ID of the BankLoan entity to find.
+     * @return An Optional containing the BankLoan response, or empty if no such entity exists.
+     */
+    Optional<BankLoanResponse> findProjectedById(Long id);
+
+    /**
+     * Finds a BankLoan entity by its reference number as a response, selecting only the columns exposed by the API.
+     *
+     * @param referenceNumber The reference number of the BankLoan entity to find.
+     * @return An Optional containing the BankLoan response, or empty if no such entity exists.
+     */
+    Optional<BankLoanResponse> findProjectedByReferenceNumber(String referenceNumber);
+
+    /**
+     * Finds the lowest id of all BankLoan entities.
+     *
+     * @return The lowest loan id, or null if there are no loans.
+     */
+    @Query("SELECT MIN(l.id) FROM BankLoan l")
+    Long findMinId();
+
+    /**
+     * Finds the highest id of all BankLoan entities.
+     *
+     * @return The highest loan id, or null if there are no loans.
+     */
+    @Query("SELECT MAX(l.id) FROM BankLoan l")
+    Long findMaxId();
+
+    /**
+     * Finds the loans with an outstanding amount that expired in the given window and are not flagged overdue yet,
+     * read from the bank_loan_expiration_amount_idx index in the order of their expiration.
+     *
+     * @param since The first expiration date of the window.
+     * @param today The day after the last expiration date of the window.
+     * @param limit The maximum number of loans to find.
+     * @return The overdue events of the found loans.
+     */
+    @Query("SELECT new accounts.bank.managing.thesis.bachelor.rastvdmy.event.LoanOverdueEvent(" +
+            "l.id, l.referenceNumber, l.currency, l.loanAmount, l.expirationDate) FROM BankLoan l " +
+            "WHERE l.expirationDate >= :since AND l.expirationDate < :today AND l.loanAmount > 0 " +
+            "AND l.overdueSince IS NULL ORDER BY l.expirationDate, l.id")
+    List<LoanOverdueEvent> findNewlyOverdue(@Param("since") LocalDate since, @Param("today") LocalDate today,
+                                            Limit limit);
+
+    /**
+     * Flags the given loans overdue in one statement, skipping loans that are already flagged.
+     *
+     * @param loanIds The IDs of the loans.
+     * @param today   The day the loans were found overdue.
+     * @return The number of flagged loans.
+     */
+    @Modifying
+    @Query("UPDATE BankLoan l SET l.overdueSince = :today WHERE l.id IN :loanIds AND l.overdueSince IS NULL")
+    int markOverdue(@Param("loanIds") Collection<Long> loanIds, @Param("today") LocalDate today);
 }
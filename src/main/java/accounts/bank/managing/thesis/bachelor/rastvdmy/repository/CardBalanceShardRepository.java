@@ -0,0 +1,58 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.CardBalanceShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * This interface represents the repository for the CardBalanceShard entity.
+ * It extends JpaRepository to provide methods to manipulate CardBalanceShard entities.
+ * JpaRepository is a JPA specific extension of Repository
+ * that provides JPA related methods such as flushing the persistence context and deleting records in a batch.
+ * It is annotated with @Repository to indicate that it's a component that directly accesses the database.
+ */
+@Repository
+public interface CardBalanceShardRepository extends JpaRepository<CardBalanceShard, Long> {
+
+    /**
+     * Adds the amount to one shard of a card with a single update statement.
+     * Only the row of the shard is locked, so credits to other shards of the card are not blocked.
+     *
+     * @param cardId     The id of the card.
+     * @param shardIndex The index of the shard.
+     * @param amount     The amount to add.
+     * @return The number of updated shards.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CardBalanceShard s SET s.balance = s.balance + :amount " +
+            "WHERE s.card.id = :cardId AND s.shardIndex = :shardIndex")
+    int credit(@Param("cardId") Long cardId, @Param("shardIndex") Integer shardIndex,
+               @Param("amount") BigDecimal amount);
+
+    /**
+     * Sums the balances of all shards of a card.
+     *
+     * @param cardId The id of the card.
+     * @return The sum of the balances of the shards, or zero if the card has no shards.
+     */
+    @Query("SELECT COALESCE(SUM(s.balance), 0) FROM CardBalanceShard s WHERE s.card.id = :cardId")
+    BigDecimal sumBalance(@Param("cardId") Long cardId);
+
+    /**
+     * Finds and locks all shards of a card in the order of their index.
+     *
+     * @param cardId The id of the card.
+     * @return The locked shards of the card.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM CardBalanceShard s WHERE s.card.id = :cardId ORDER BY s.shardIndex")
+    List<CardBalanceShard> findAllForUpdate(@Param("cardId") Long cardId);
+}
@@ -1,9 +1,23 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.CardResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Card;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.CardStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * This interface represents the repository for the Card entity.
  * It extends JpaRepository to provide methods to manipulate Card entities.
@@ -13,6 +27,15 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface CardRepository extends JpaRepository<Card, Long> {
 
+    /**
+     * The selection of the columns exposed by the API.
+     * The balance of a sharded card includes the balance of its shards, as returned by BalanceShardService.
+     */
+    String RESPONSE_SELECT = "SELECT new accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.CardResponse(" +
+            "c.id, c.status, c.cardType, c.currencyType, c.cardNumber, c.accountNumber, c.iban, c.holderName, " +
+            "c.swift, c.balance + " + LedgerPostingRepository.SHARD_BALANCE + ", c.balanceShards, " +
+            "c.cardExpirationDate, c.recipientTime) FROM Card c";
+
     /**
      * Finds a Card entity by its card number.
      *
@@ -28,4 +51,162 @@ public interface CardRepository extends JpaRepository<Card, Long> {
      * @return The Card entity with the given loan ID, or null if no such entity exists.
      */
     Card findByCardLoanId(Long loanId);
+
+    /**
+     * Finds all Card entities with the given card numbers, together with their owners, in a single query.
+     *
+     * @param cardNumbers The card numbers of the Card entities to find.
+     * @return A list of Card entities with the given card numbers.
+     */
+    @EntityGraph(attributePaths = "user")
+    List<Card> findAllByCardNumberIn(Collection<String> cardNumbers);
+
+    /**
+     * Finds a Card entity by its ID together with its owner.
+     *
+     * @param cardId The ID of the Card entity to find.
+     * @return An Optional containing the Card entity with the given ID, or empty if no such entity exists.
+     */
+    @EntityGraph(attributePaths = "user")
+    Optional<Card> findWithUserById(Long cardId);
+
+    /**
+     * Finds a Card entity by its card number together with its owner.
+     *
+     * @param cardNumber The card number of the Card entity to find.
+     * @return The Card entity with the given card number, or null if no such entity exists.
+     */
+    @EntityGraph(attributePaths = "user")
+    Card findWithUserByCardNumber(String cardNumber);
+
+    /**
+     * Checks if a card has a loan that is not repaid.
+     *
+     * @param cardId The ID of the card to check.
+     * @return true if the card has a loan with a non-zero amount, false otherwise.
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM card_loan cl JOIN bank_loan l ON l.id = cl.loan_id " +
+            "WHERE cl.card_id = :cardId AND l.loan_amount <> 0)",
+            nativeQuery = true)
+    boolean hasOutstandingLoan(@Param("cardId") Long cardId);
+
+    /**
+     * Checks if a card has a deposit that is not withdrawn.
+     *
+     * @param cardId The ID of the card to check.
+     * @return true if the card has a deposit with a non-zero amount, false otherwise.
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM deposit d WHERE d.card_deposit = :cardId AND d.deposit_amount <> 0)",
+            nativeQuery = true)
+    boolean hasOutstandingDeposit(@Param("cardId") Long cardId);
+
+    /**
+     * Finds the lowest id of all Card entities.
+     *
+     * @return The lowest card id, or null if there are no cards.
+     */
+    @Query("SELECT MIN(c.id) FROM Card c")
+    Long findMinId();
+
+    /**
+     * Finds the highest id of all Card entities.
+     *
+     * @return The highest card id, or null if there are no cards.
+     */
+    @Query("SELECT MAX(c.id) FROM Card c")
+    Long findMaxId();
+
+    /**
+     * Adds the amount to the balance of a card in one statement, so concurrent changes of the balance are not lost.
+     * A debit is applied only if the balance covers it.
+     *
+     * @param cardId The ID of the card.
+     * @param amount The signed amount to add. Debits are negative.
+     * @return The number of updated cards, 0 if the card does not exist or its balance does not cover the debit.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Card c SET c.balance = c.balance + :amount WHERE c.id = :cardId AND c.balance + :amount >= 0")
+    int addToBalance(@Param("cardId") Long cardId, @Param("amount") BigDecimal amount);
+
+    /**
+     * Finds all Card entities as responses, selecting only the columns exposed by the API.
+     *
+     * @return A list of all Card responses.
+     */
+    @Query(RESPONSE_SELECT)
+    List<CardResponse> findAllProjectedBy();
+
+    /**
+     * Finds a page of Card entities as responses, selecting only the columns exposed by the API.
+     *
+     * @param pageable The pagination information.
+     * @return A page of Card responses.
+     */
+    @Query(value = RESPONSE_SELECT, countQuery = "SELECT COUNT(c) FROM Card c")
+    Page<CardResponse> findAllProjectedBy(Pageable pageable);
+
+    /**
+     * Finds a Card entity by its ID as a response, selecting only the columns exposed by the API.
+     *
+     * @param id The ID of the Card entity to find.
+     * @return An Optional containing the Card response, or empty if no such entity exists.
+     */
+    @Query(RESPONSE_SELECT + " WHERE c.id = :id")
+    Optional<CardResponse> findProjectedById(@Param("id") Long id);
+
+    /**
+     * Finds a Card entity by its card number as a response, selecting only the columns exposed by the API.
+     *
+     * @param cardNumber The card number of the Card entity to find.
+     * @return An Optional containing the Card response, or empty if no such entity exists.
+     */
+    @Query(RESPONSE_SELECT + " WHERE c.cardNumber = :cardNumber")
+    Optional<CardResponse> findProjectedByCardNumber(@Param("cardNumber") String cardNumber);
+
+    /**
+     * Sets the status of every card linked to the given loans in one statement.
+     * The card linked to a card loan is the card itself,
+     * and the cards linked to a user loan are all cards of the user.
+     *
+     * @param loanIds The IDs of the loans.
+     * @param status  The new status of the cards.
+     * @return The number of updated cards.
+     */
+    @Modifying
+    @Query("UPDATE Card c SET c.status = :status " +
+            "WHERE c.id IN (SELECT l.cardLoan.id FROM BankLoan l WHERE l.id IN :loanIds) " +
+            "OR c.user.id IN (SELECT l.userLoan.id FROM BankLoan l WHERE l.id IN :loanIds)")
+    int updateStatusOfLoanCards(@Param("loanIds") Collection<Long> loanIds, @Param("status") CardStatus status);
+
+    /**
+     * Sets the status of the cards linked to the given loans that have the given current status in one statement,
+     * so cards in any other status, such as expired cards, keep it.
+     *
+     * @param loanIds The IDs of the loans.
+     * @param current The status of the cards to update.
+     * @param status  The new status of the cards.
+     * @return The number of updated cards.
+     */
+    @Modifying
+    @Query("UPDATE Card c SET c.status = :status WHERE c.status = :current " +
+            "AND (c.id IN (SELECT l.cardLoan.id FROM BankLoan l WHERE l.id IN :loanIds) " +
+            "OR c.user.id IN (SELECT l.userLoan.id FROM BankLoan l WHERE l.id IN :loanIds))")
+    int updateStatusOfLoanCards(@Param("loanIds") Collection<Long> loanIds, @Param("current") CardStatus current,
+                                @Param("status") CardStatus status);
+
+    /**
+     * Sets the status of every card whose expiration date has passed and that is not expired yet in one statement,
+     * read from the card_expiration_date_idx index. Blocked cards are kept blocked, so they are not unblocked
+     * by expiring them; Card.isExpired rejects them by their date.
+     *
+     * @param today   The first day the cards are still valid on.
+     * @param expired The expired status.
+     * @param blocked The blocked status.
+     * @return The number of expired cards.
+     */
+    @Modifying
+    @Query("UPDATE Card c SET c.status = :expired WHERE c.cardExpirationDate < :today " +
+            "AND c.status <> :expired AND c.status <> :blocked")
+    int updateStatusOfExpiredCards(@Param("today") LocalDate today, @Param("expired") CardStatus expired,
+                                   @Param("blocked") CardStatus blocked);
 }
@@ -1,10 +1,23 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.DepositResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.MaturedDepositResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Card;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Deposit;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * This interface represents the repository for the Deposit entity.
  * It extends JpaRepository to provide methods to manipulate Deposit entities.
@@ -30,4 +43,65 @@ public interface DepositRepository extends JpaRepository<Deposit, Long> {
      * @return true if a Deposit entity with the given Card entity exists, false otherwise.
      */
     boolean existsByCardDeposit(Card card);
+
+    /**
+     * Checks if a Deposit entity with the given ID was opened from the given card.
+     *
+     * @param depositId The ID of the Deposit entity to check.
+     * @param cardId    The ID of the Card entity to check.
+     * @return true if the Deposit entity exists and belongs to the card, false otherwise.
+     */
+    boolean existsByIdAndCardDepositId(Long depositId, Long cardId);
+
+    /**
+     * Finds all Deposit entities as responses, selecting only the columns exposed by the API.
+     *
+     * @return A list of all Deposit responses.
+     */
+    List<DepositResponse> findAllProjectedBy();
+
+    /**
+     * Finds a page of Deposit entities as responses, selecting only the columns exposed by the API.
+     *
+     * @param pageable The pagination information.
+     * @return A page of Deposit responses.
+     */
+    Page<DepositResponse> findAllProjectedBy(Pageable pageable);
+
+    /**
+     * Finds a Deposit entity by its ID as a response, selecting only the columns exposed by the API.
+     *
+     * @param id The ID of the Deposit entity to find.
+     * @return An Optional containing the Deposit response, or empty if no such entity exists.
+     */
+    Optional<DepositResponse> findProjectedById(Long id);
+
+    /**
+     * Finds the deposits that expired before the given time, continuing after the given position.
+     * The deposits are ordered by expiration date and ID, as the deposit_expiration_date_id_idx index is,
+     * so a chunk is one range scan of the index and the last deposit of a chunk is where the next chunk starts.
+     *
+     * @param now       The time the deposits must have expired before.
+     * @param afterDate The expiration date of the deposit the chunk starts after.
+     * @param afterId   The ID of the deposit the chunk starts after.
+     * @param limit     The maximum number of deposits in the chunk.
+     * @return The matured deposits in the chunk.
+     */
+    @Query("SELECT new accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.MaturedDepositResponse(" +
+            "d.id, d.expirationDate) FROM Deposit d " +
+            "WHERE d.expirationDate <= :now AND (d.expirationDate > :afterDate " +
+            "OR (d.expirationDate = :afterDate AND d.id > :afterId)) " +
+            "ORDER BY d.expirationDate, d.id")
+    List<MaturedDepositResponse> findMatured(@Param("now") LocalDateTime now,
+                                             @Param("afterDate") LocalDateTime afterDate,
+                                             @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Finds the Deposit entities with the given IDs together with their cards and the owners of the cards.
+     *
+     * @param ids The IDs of the Deposit entities to find.
+     * @return The Deposit entities with the given IDs.
+     */
+    @EntityGraph(attributePaths = {"cardDeposit", "cardDeposit.user"})
+    List<Deposit> findAllWithCardByIdIn(Collection<Long> ids);
 }
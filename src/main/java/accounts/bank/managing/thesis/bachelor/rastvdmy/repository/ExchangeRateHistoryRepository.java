@@ -0,0 +1,31 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.HistoricalRate;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.ExchangeRateHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * This interface represents the repository for the ExchangeRateHistory entity.
+ * It extends JpaRepository to provide methods to manipulate ExchangeRateHistory entities.
+ * JpaRepository is a JPA specific extension of Repository
+ * that provides JPA related methods such as flushing the persistence context and deleting records in a batch.
+ * It is annotated with @Repository to indicate that it's a component that directly accesses the database.
+ */
+@Repository
+public interface ExchangeRateHistoryRepository extends JpaRepository<ExchangeRateHistory, Long> {
+
+    /**
+     * Finds every rate ever fetched together with the time of its fetch, in one query.
+     *
+     * @return All historical rates ordered by the time of their fetch.
+     */
+    @Query("SELECT new accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.HistoricalRate(" +
+            "h.snapshotId, h.currency, h.rate, s.fetchedAt) " +
+            "FROM ExchangeRateHistory h JOIN ExchangeRateSnapshot s ON s.id = h.snapshotId " +
+            "ORDER BY s.fetchedAt, s.id")
+    List<HistoricalRate> findAllHistoricalRates();
+}
@@ -0,0 +1,16 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.ExchangeRateSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * This interface represents the repository for the ExchangeRateSnapshot entity.
+ * It extends JpaRepository to provide methods to manipulate ExchangeRateSnapshot entities.
+ * JpaRepository is a JPA specific extension of Repository
+ * that provides JPA related methods such as flushing the persistence context and deleting records in a batch.
+ * It is annotated with @Repository to indicate that it's a component that directly accesses the database.
+ */
+@Repository
+public interface ExchangeRateSnapshotRepository extends JpaRepository<ExchangeRateSnapshot, Long> {
+}
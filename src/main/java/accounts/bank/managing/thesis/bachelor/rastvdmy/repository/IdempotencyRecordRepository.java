@@ -0,0 +1,45 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.IdempotencyRecord;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.IdempotentOperation;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * This interface represents the repository for the IdempotencyRecord entity.
+ * It extends JpaRepository to provide methods to manipulate IdempotencyRecord entities.
+ * JpaRepository is a JPA specific extension of Repository
+ * that provides JPA related methods such as flushing the persistence context and deleting records in a batch.
+ * It is annotated with @Repository to indicate that it's a component that directly accesses the database.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    /**
+     * Finds an IdempotencyRecord entity by its idempotency key, operation and caller.
+     *
+     * @param idempotencyKey The idempotency key of the IdempotencyRecord entity to find.
+     * @param operation      The operation of the IdempotencyRecord entity to find.
+     * @param callerId       The id of the user who sent the request.
+     * @return The IdempotencyRecord entity, or null if no such entity exists.
+     */
+    IdempotencyRecord findByIdempotencyKeyAndOperationAndCallerId(String idempotencyKey, IdempotentOperation operation,
+                                                                  Long callerId);
+
+    /**
+     * Deletes all IdempotencyRecord entities created before the given time.
+     *
+     * @param createdAt The time before which the records are deleted.
+     * @return The number of deleted records.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :createdAt")
+    int deleteCreatedBefore(@Param("createdAt") LocalDateTime createdAt);
+}
@@ -0,0 +1,42 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.BalanceMismatchResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.LedgerPosting;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * This interface represents the repository for the LedgerPosting entity.
+ * It extends JpaRepository to provide methods to manipulate LedgerPosting entities.
+ * JpaRepository is a JPA specific extension of Repository
+ * that provides JPA related methods such as flushing the persistence context and deleting records in a batch.
+ * It is annotated with @Repository to indicate that it's a component that directly accesses the database.
+ */
+@Repository
+public interface LedgerPostingRepository extends JpaRepository<LedgerPosting, Long> {
+
+    /**
+     * The sum of the balance shards of the card "c", or zero if the card is not sharded.
+     */
+    String SHARD_BALANCE = "COALESCE((SELECT SUM(s.balance) FROM CardBalanceShard s WHERE s.card.id = c.id), 0)";
+
+    /**
+     * Finds the cards in the given id range whose balance differs from the sum of their postings.
+     * The balance of a sharded card includes the balance of its shards.
+     *
+     * @param fromId The lowest card id of the range, inclusive.
+     * @param toId   The highest card id of the range, inclusive.
+     * @return The cards whose balance does not match their postings.
+     */
+    @Query("SELECT new accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.BalanceMismatchResponse(" +
+            "c.id, c.balance + " + SHARD_BALANCE + ", COALESCE(SUM(p.amount), 0)) " +
+            "FROM Card c LEFT JOIN LedgerPosting p ON p.cardId = c.id " +
+            "WHERE c.id BETWEEN :fromId AND :toId " +
+            "GROUP BY c.id, c.balance " +
+            "HAVING c.balance + " + SHARD_BALANCE + " <> COALESCE(SUM(p.amount), 0)")
+    List<BalanceMismatchResponse> findBalanceMismatches(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
@@ -0,0 +1,57 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.LoanInstallmentResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.LoanInstallment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * This interface represents the repository for the LoanInstallment entity.
+ * It extends JpaRepository to provide methods to manipulate LoanInstallment entities.
+ * JpaRepository is a JPA specific extension of Repository
+ * that provides JPA related methods such as flushing the persistence context and deleting records in a batch.
+ * It is annotated with @Repository to indicate that it's a component that directly accesses the database.
+ */
+@Repository
+public interface LoanInstallmentRepository extends JpaRepository<LoanInstallment, Long> {
+
+    /**
+     * Finds the schedule of a loan as responses, read from the loan_installment_loan_number_uk index.
+     *
+     * @param loanId The ID of the loan.
+     * @return The installments of the loan ordered by their number.
+     */
+    List<LoanInstallmentResponse> findAllByLoanIdOrderByNumber(Long loanId);
+
+    /**
+     * Marks the installments of a loan paid whose remaining principal the outstanding principal has reached,
+     * in one statement. Installments that are already paid keep the day they were paid.
+     *
+     * @param loanId    The ID of the loan.
+     * @param principal The outstanding principal of the loan.
+     * @param today     The day of the repayment.
+     * @return The number of installments marked paid.
+     */
+    @Modifying
+    @Query("UPDATE LoanInstallment i SET i.paidAt = :today " +
+            "WHERE i.loanId = :loanId AND i.paidAt IS NULL AND i.remainingPrincipal >= :principal")
+    int markPaid(@Param("loanId") Long loanId, @Param("principal") BigDecimal principal,
+                 @Param("today") LocalDate today);
+
+    /**
+     * Deletes the schedule of a loan in one statement.
+     *
+     * @param loanId The ID of the loan.
+     * @return The number of deleted installments.
+     */
+    @Modifying
+    @Query("DELETE FROM LoanInstallment i WHERE i.loanId = :loanId")
+    int deleteByLoanId(@Param("loanId") Long loanId);
+}
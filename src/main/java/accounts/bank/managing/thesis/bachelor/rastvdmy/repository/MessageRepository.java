@@ -1,10 +1,17 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.MessageResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Message;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * This interface represents the repository for the Message entity.
@@ -17,10 +24,63 @@ import java.util.List;
 public interface MessageRepository extends JpaRepository<Message, Long> {
 
     /**
-     * Finds all Message entities by their content.
+     * The selection of the columns exposed by the API.
+     * The sender and the receiver are read from the foreign keys of the message, so no user is joined.
+     */
+    String RESPONSE_SELECT = "SELECT new accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.MessageResponse(" +
+            "m.id, m.content, m.timestamp, m.sender.id, m.receiver.id) FROM Message m";
+
+    /**
+     * Finds all Message entities as responses, selecting only the columns exposed by the API.
+     *
+     * @return A list of all Message responses.
+     */
+    @Query(RESPONSE_SELECT)
+    List<MessageResponse> findAllProjectedBy();
+
+    /**
+     * Finds a Message entity by its ID as a response, selecting only the columns exposed by the API.
+     *
+     * @param messageId The ID of the Message entity to find.
+     * @return An Optional containing the Message response, or empty if no such entity exists.
+     */
+    @Query(RESPONSE_SELECT + " WHERE m.id = :messageId")
+    Optional<MessageResponse> findProjectedById(@Param("messageId") Long messageId);
+
+    /**
+     * Finds all Message entities sent by a user as responses.
+     *
+     * @param senderId The ID of the sender.
+     * @param sort     The order of the returned messages.
+     * @return A list of Message responses sent by the user.
+     */
+    @Query(RESPONSE_SELECT + " WHERE m.sender.id = :senderId")
+    List<MessageResponse> findAllBySenderId(@Param("senderId") Long senderId, Sort sort);
+
+    /**
+     * Finds all Message entities received by a user as responses.
+     *
+     * @param receiverId The ID of the receiver.
+     * @param sort       The order of the returned messages.
+     * @return A list of Message responses received by the user.
+     */
+    @Query(RESPONSE_SELECT + " WHERE m.receiver.id = :receiverId")
+    List<MessageResponse> findAllByReceiverId(@Param("receiverId") Long receiverId, Sort sort);
+
+    /**
+     * Searches Message entities by the words of their content.
+     * The query is a PostgreSQL tsquery, which is matched against the tsvector of the content
+     * using the GIN index message_content_fts_idx. The results are ordered by their rank.
      *
-     * @param content The content of the Message entities to find.
-     * @return A list of Message entities with the given content, or an empty list if no such entities exist.
+     * @param query    The tsquery to match, for example "hello:* & world:*".
+     * @param pageable The pagination information.
+     * @return A page of Message entities matching the query, ordered from the most relevant.
      */
-    List<Message> findByContent(String content);
+    @Query(value = "SELECT m.* FROM message m " +
+            "WHERE to_tsvector('simple', m.content) @@ to_tsquery('simple', :query) " +
+            "ORDER BY ts_rank(to_tsvector('simple', m.content), to_tsquery('simple', :query)) DESC, m.id DESC",
+            countQuery = "SELECT count(*) FROM message m " +
+                    "WHERE to_tsvector('simple', m.content) @@ to_tsquery('simple', :query)",
+            nativeQuery = true)
+    Page<Message> searchByContent(@Param("query") String query, Pageable pageable);
 }
@@ -1,9 +1,18 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.TransferResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Transfer;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * This interface represents the repository for the Transfer entity.
  * It extends JpaRepository to provide methods to manipulate Transfer entities.
@@ -29,4 +38,44 @@ public interface TransferRepository extends JpaRepository<Transfer, Long> {
      * @return true if a Transfer entity with the given reference number exists, false otherwise.
      */
     boolean existsByReferenceNumber(String referenceNumber);
+
+    /**
+     * Finds which of the given reference numbers are already used by Transfer entities.
+     *
+     * @param referenceNumbers The reference numbers to check.
+     * @return A list of the reference numbers that already exist.
+     */
+    @Query("SELECT t.referenceNumber FROM Transfer t WHERE t.referenceNumber IN :referenceNumbers")
+    List<String> findExistingReferenceNumbers(@Param("referenceNumbers") Collection<String> referenceNumbers);
+
+    /**
+     * Finds all Transfer entities as responses, selecting only the columns exposed by the API.
+     *
+     * @return A list of all Transfer responses.
+     */
+    List<TransferResponse> findAllProjectedBy();
+
+    /**
+     * Finds a page of Transfer entities as responses, selecting only the columns exposed by the API.
+     *
+     * @param pageable The pagination information.
+     * @return A page of Transfer responses.
+     */
+    Page<TransferResponse> findAllProjectedBy(Pageable pageable);
+
+    /**
+     * Finds a Transfer entity by its ID as a response, selecting only the columns exposed by the API.
+     *
+     * @param id The ID of the Transfer entity to find.
+     * @return An Optional containing the Transfer response, or empty if no such entity exists.
+     */
+    Optional<TransferResponse> findProjectedById(Long id);
+
+    /**
+     * Finds a Transfer entity by its reference number as a response, selecting only the columns exposed by the API.
+     *
+     * @param referenceNumber The reference number of the Transfer entity to find.
+     * @return An Optional containing the Transfer response, or empty if no such entity exists.
+     */
+    Optional<TransferResponse> findProjectedByReferenceNumber(String referenceNumber);
 }
@@ -0,0 +1,17 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.UserDailyFlow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * This interface represents the repository for the UserDailyFlow entity.
+ * It extends JpaRepository to provide methods to manipulate UserDailyFlow entities.
+ * JpaRepository is a JPA specific extension of Repository
+ * that provides JPA related methods such as flushing the persistence context and deleting records in a batch.
+ * The upsert of the flow is implemented by the UserDailyFlowRepositoryCustom fragment.
+ * It is annotated with @Repository to indicate that it's a component that directly accesses the database.
+ */
+@Repository
+public interface UserDailyFlowRepository extends JpaRepository<UserDailyFlow, Long>, UserDailyFlowRepositoryCustom {
+}
@@ -0,0 +1,25 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * This interface represents the custom fragment of the UserDailyFlowRepository.
+ * It holds the upsert of the flow, which is run as a native statement by the implementation
+ * instead of a Spring Data query.
+ */
+public interface UserDailyFlowRepositoryCustom {
+
+    /**
+     * Adds the amounts to the flow of a user in one currency, day and slot, creating the row if it does not exist.
+     *
+     * @param userId   The id of the user.
+     * @param currency The name of the currency.
+     * @param flowDate The day of the flow.
+     * @param slot     The slot of the row.
+     * @param inflow   The money received.
+     * @param outflow  The money sent.
+     * @return The number of inserted or updated rows.
+     */
+    int add(Long userId, String currency, LocalDate flowDate, Integer slot, BigDecimal inflow, BigDecimal outflow);
+}
@@ -0,0 +1,41 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * This class implements the UserDailyFlowRepositoryCustom fragment.
+ * The upsert is executed through the EntityManager, because Spring Data parses the SQL of native queries
+ * and its parser does not accept an ON CONFLICT clause updating several columns.
+ */
+public class UserDailyFlowRepositoryCustomImpl implements UserDailyFlowRepositoryCustom {
+
+    /**
+     * The upsert adding the amounts to the flow of a user in one currency, day and slot.
+     */
+    static final String ADD_SQL = "INSERT INTO user_daily_flow " +
+            "(id, user_id, currency, flow_date, slot, inflow, outflow) " +
+            "VALUES (nextval('user_daily_flow_seq'), :userId, :currency, :flowDate, :slot, :inflow, :outflow) " +
+            "ON CONFLICT (user_id, currency, flow_date, slot) DO UPDATE SET " +
+            "inflow = user_daily_flow.inflow + EXCLUDED.inflow, " +
+            "outflow = user_daily_flow.outflow + EXCLUDED.outflow";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int add(Long userId, String currency, LocalDate flowDate, Integer slot, BigDecimal inflow,
+                   BigDecimal outflow) {
+        return entityManager.createNativeQuery(ADD_SQL)
+                .setParameter("userId", userId)
+                .setParameter("currency", currency)
+                .setParameter("flowDate", flowDate)
+                .setParameter("slot", slot)
+                .setParameter("inflow", inflow)
+                .setParameter("outflow", outflow)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,42 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.UserFinancialSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * This interface represents the repository for the UserFinancialSummary entity.
+ * It extends JpaRepository to provide methods to manipulate UserFinancialSummary entities.
+ * JpaRepository is a JPA specific extension of Repository
+ * that provides JPA related methods such as flushing the persistence context and deleting records in a batch.
+ * The upsert of the totals is implemented by the UserFinancialSummaryRepositoryCustom fragment.
+ * It is annotated with @Repository to indicate that it's a component that directly accesses the database.
+ */
+@Repository
+public interface UserFinancialSummaryRepository extends JpaRepository<UserFinancialSummary, Long>,
+        UserFinancialSummaryRepositoryCustom {
+
+    /**
+     * Reads the totals and the flow since the given day of a user, one row per currency, in one statement.
+     * Each row contains the currency, balance, outstanding loan, deposit principal, inflow, and outflow.
+     *
+     * @param userId The id of the user.
+     * @param since  The first day of the flow.
+     * @return The summary rows of the user ordered by currency.
+     */
+    @Query(value = "SELECT currency, SUM(balance), SUM(loan_outstanding), SUM(deposit_principal), " +
+            "SUM(inflow), SUM(outflow) FROM (" +
+            "SELECT currency, balance, loan_outstanding, deposit_principal, 0 AS inflow, 0 AS outflow " +
+            "FROM user_financial_summary WHERE user_id = :userId " +
+            "UNION ALL " +
+            "SELECT currency, 0, 0, 0, inflow, outflow " +
+            "FROM user_daily_flow WHERE user_id = :userId AND flow_date >= :since" +
+            ") totals GROUP BY currency ORDER BY currency",
+            nativeQuery = true)
+    List<Object[]> findSummary(@Param("userId") Long userId, @Param("since") LocalDate since);
+}
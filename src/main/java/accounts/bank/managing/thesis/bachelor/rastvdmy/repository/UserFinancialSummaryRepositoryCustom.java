@@ -0,0 +1,25 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * This interface represents the custom fragment of the UserFinancialSummaryRepository.
+ * It holds the upsert of the totals, which is run as a native statement by the implementation
+ * instead of a Spring Data query.
+ */
+public interface UserFinancialSummaryRepositoryCustom {
+
+    /**
+     * Adds the amounts to the totals of a user in one currency and slot, creating the row if it does not exist.
+     *
+     * @param userId           The id of the user.
+     * @param currency         The name of the currency.
+     * @param slot             The slot of the row.
+     * @param balance          The change of the total card balance.
+     * @param loanOutstanding  The change of the outstanding loan.
+     * @param depositPrincipal The change of the deposit principal.
+     * @return The number of inserted or updated rows.
+     */
+    int add(Long userId, String currency, Integer slot, BigDecimal balance, BigDecimal loanOutstanding,
+            BigDecimal depositPrincipal);
+}
@@ -0,0 +1,42 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.math.BigDecimal;
+
+/**
+ * This class implements the UserFinancialSummaryRepositoryCustom fragment.
+ * The upsert is executed through the EntityManager, because Spring Data parses the SQL of native queries
+ * and its parser does not accept an ON CONFLICT clause updating several columns.
+ */
+public class UserFinancialSummaryRepositoryCustomImpl implements UserFinancialSummaryRepositoryCustom {
+
+    /**
+     * The upsert adding the amounts to the totals of a user in one currency and slot.
+     */
+    static final String ADD_SQL = "INSERT INTO user_financial_summary " +
+            "(id, user_id, currency, slot, balance, loan_outstanding, deposit_principal) " +
+            "VALUES (nextval('user_financial_summary_seq'), " +
+            ":userId, :currency, :slot, :balance, :loanOutstanding, :depositPrincipal) " +
+            "ON CONFLICT (user_id, currency, slot) DO UPDATE SET " +
+            "balance = user_financial_summary.balance + EXCLUDED.balance, " +
+            "loan_outstanding = user_financial_summary.loan_outstanding + EXCLUDED.loan_outstanding, " +
+            "deposit_principal = user_financial_summary.deposit_principal + EXCLUDED.deposit_principal";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int add(Long userId, String currency, Integer slot, BigDecimal balance, BigDecimal loanOutstanding,
+                   BigDecimal depositPrincipal) {
+        return entityManager.createNativeQuery(ADD_SQL)
+                .setParameter("userId", userId)
+                .setParameter("currency", currency)
+                .setParameter("slot", slot)
+                .setParameter("balance", balance)
+                .setParameter("loanOutstanding", loanOutstanding)
+                .setParameter("depositPrincipal", depositPrincipal)
+                .executeUpdate();
+    }
+}
@@ -1,10 +1,18 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.UserResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.User;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.UserRole;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * This interface represents the repository for the User entity.
  * It extends JpaRepository to provide methods to manipulate User entities.
@@ -54,4 +62,47 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return The User entity with the given bank loan ID, or null if no such entity exists.
      */
     User findByBankLoanId(Long loanId);
+
+    /**
+     * Checks if a user has any cards.
+     *
+     * @param userId The ID of the user to check.
+     * @return true if the user has at least one card, false otherwise.
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM card c WHERE c.user_id = :userId)", nativeQuery = true)
+    boolean hasCards(@Param("userId") Long userId);
+
+    /**
+     * Checks if a user has a loan of their own that is not repaid.
+     *
+     * @param userId The ID of the user to check.
+     * @return true if the user has a loan with a non-zero amount, false otherwise.
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM user_loan ul JOIN bank_loan l ON l.id = ul.loan_id " +
+            "WHERE ul.user_id = :userId AND l.loan_amount <> 0)",
+            nativeQuery = true)
+    boolean hasOutstandingLoan(@Param("userId") Long userId);
+
+    /**
+     * Finds all User entities as responses, selecting only the columns exposed by the API.
+     *
+     * @return A list of all User responses.
+     */
+    List<UserResponse> findAllProjectedBy();
+
+    /**
+     * Finds a page of User entities as responses, selecting only the columns exposed by the API.
+     *
+     * @param pageable The pagination information.
+     * @return A page of User responses.
+     */
+    Page<UserResponse> findAllProjectedBy(Pageable pageable);
+
+    /**
+     * Finds a User entity by its ID as a response, selecting only the columns exposed by the API.
+     *
+     * @param id The ID of the User entity to find.
+     * @return An Optional containing the User response, or empty if no such entity exists.
+     */
+    Optional<UserResponse> findProjectedById(Long id);
 }
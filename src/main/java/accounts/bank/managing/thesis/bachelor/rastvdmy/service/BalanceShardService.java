@@ -0,0 +1,213 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Card;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.CardBalanceShard;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CardBalanceShardRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CardRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class is responsible for the balance shards of cards with a high number of incoming transfers.
+ * Credits of a sharded card are added to one of its shards chosen by the hash of the reference number,
+ * so concurrent transfers to the card update different rows instead of waiting for the lock of the card row.
+ * Debits first move the balance of all shards back to the card, which keeps the balance of the card exact
+ * when money leaves it. The visible balance is the balance of the card plus the sum of its shards,
+ * and the sum is cached in memory for a short time.
+ * The balance of the card row is only changed with single update statements, so concurrent changes are not lost.
+ */
+@Service
+public class BalanceShardService {
+
+    /**
+     * The maximum number of shards of one card.
+     */
+    public static final int MAX_SHARDS = 64;
+
+    /**
+     * The maximum number of cached sums. Expired sums are removed when it is reached.
+     */
+    public static final int MAX_CACHED_SUMS = 10_000;
+
+    private final CardBalanceShardRepository shardRepository;
+    private final CardRepository cardRepository;
+    private final long balanceCacheMillis;
+    private final Map<Long, CachedSum> cachedSums = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new BalanceShardService with the given repositories.
+     *
+     * @param shardRepository    The CardBalanceShardRepository to use.
+     * @param cardRepository     The CardRepository to use.
+     * @param balanceCacheMillis The time the sum of the shards of a card is cached for.
+     */
+    @Autowired
+    public BalanceShardService(CardBalanceShardRepository shardRepository, CardRepository cardRepository,
+                               @Value("${sharding.balance-cache-ms:1000}") long balanceCacheMillis) {
+        this.shardRepository = shardRepository;
+        this.cardRepository = cardRepository;
+        this.balanceCacheMillis = balanceCacheMillis;
+    }
+
+    /**
+     * Checks if the credits of the card are spread over balance shards.
+     *
+     * @param card The card to check.
+     * @return True if the card has balance shards, false otherwise.
+     */
+    public boolean isSharded(Card card) {
+        return card.getBalanceShards() != null && card.getBalanceShards() > 0;
+    }
+
+    /**
+     * Chooses the shard of the card receiving a credit.
+     * The shard is chosen by the hash of the reference number, or randomly if there is no reference number.
+     *
+     * @param card            The sharded card.
+     * @param referenceNumber The reference number of the operation, or null.
+     * @return The index of the shard.
+     */
+    public int shardIndex(Card card, String referenceNumber) {
+        int shards = card.getBalanceShards();
+        return referenceNumber == null
+                ? ThreadLocalRandom.current().nextInt(shards)
+                : Math.floorMod(referenceNumber.hashCode(), shards);
+    }
+
+    /**
+     * Adds the amount to one shard of the card.
+     *
+     * @param card       The sharded card.
+     * @param shardIndex The index of the shard.
+     * @param amount     The amount to add.
+     */
+    public void credit(Card card, int shardIndex, BigDecimal amount) {
+        if (shardRepository.credit(card.getId(), shardIndex, amount) == 0) {
+            throw new ApplicationException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Balance shard " + shardIndex + " of card " + card.getId() + " does not exist.");
+        }
+    }
+
+    /**
+     * Adds the amount to the balance of the card row.
+     * The row is updated with one statement, and a debit is applied only if the balance covers it.
+     * The loaded card is updated as well, so it shows the balance after its own change.
+     *
+     * @param card   The card.
+     * @param amount The signed amount to add. Debits are negative.
+     * @return True if the amount was added, false if the balance does not cover the debit.
+     */
+    public boolean addToCard(Card card, BigDecimal amount) {
+        if (cardRepository.addToBalance(card.getId(), amount) == 0) {
+            return false;
+        }
+        card.setBalance(card.getBalance().add(amount));
+        return true;
+    }
+
+    /**
+     * Moves the balance of all shards of the card to the card.
+     * The shards stay locked until the end of the current transaction.
+     *
+     * @param card The sharded card.
+     */
+    public void drain(Card card) {
+        BigDecimal drained = BigDecimal.ZERO;
+        for (CardBalanceShard shard : shardRepository.findAllForUpdate(card.getId())) {
+            drained = drained.add(shard.getBalance());
+            shard.setBalance(BigDecimal.ZERO);
+        }
+        if (drained.signum() != 0) {
+            addToCard(card, drained);
+        }
+        cachedSums.remove(card.getId());
+    }
+
+    /**
+     * Returns the visible balance of the card.
+     * For a sharded card it is the balance of the card plus the cached sum of its shards.
+     *
+     * @param card The card.
+     * @return The visible balance of the card.
+     */
+    public BigDecimal getBalance(Card card) {
+        if (!isSharded(card)) {
+            return card.getBalance();
+        }
+        long now = System.currentTimeMillis();
+        CachedSum cached = cachedSums.get(card.getId());
+        if (cached == null || cached.expiresAt() < now) {
+            if (cachedSums.size() >= MAX_CACHED_SUMS) {
+                cachedSums.values().removeIf(sum -> sum.expiresAt() < now);
+            }
+            cached = new CachedSum(shardRepository.sumBalance(card.getId()), now + balanceCacheMillis);
+            if (cachedSums.size() < MAX_CACHED_SUMS) {
+                cachedSums.put(card.getId(), cached);
+            }
+        }
+        return card.getBalance().add(cached.sum());
+    }
+
+    /**
+     * Returns the visible balance of the card with the given id.
+     *
+     * @param cardId The id of the card.
+     * @return The visible balance of the card.
+     */
+    public BigDecimal getCardBalance(Long cardId) {
+        Card card = cardRepository.findById(cardId).orElseThrow(
+                () -> new ApplicationException(HttpStatus.NOT_FOUND, "Card not found.")
+        );
+        return getBalance(card);
+    }
+
+    /**
+     * Changes the number of balance shards of a card.
+     * The balance of the existing shards is moved to the card before they are replaced.
+     * A count of 0 turns sharding off.
+     *
+     * @param cardId The id of the card.
+     * @param count  The new number of shards.
+     * @return The updated card.
+     */
+    @Transactional
+    @CacheEvict(value = "cards", allEntries = true)
+    public Card configureShards(Long cardId, int count) {
+        if (count < 0 || count > MAX_SHARDS) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                    "Number of shards must be between 0 and " + MAX_SHARDS + ".");
+        }
+        Card card = cardRepository.findById(cardId).orElseThrow(
+                () -> new ApplicationException(HttpStatus.NOT_FOUND, "Card not found.")
+        );
+        List<CardBalanceShard> existing = shardRepository.findAllForUpdate(cardId);
+        drain(card);
+        shardRepository.deleteAllInBatch(existing);
+        List<CardBalanceShard> shards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CardBalanceShard shard = new CardBalanceShard();
+            shard.setCard(card);
+            shard.setShardIndex(i);
+            shard.setBalance(BigDecimal.ZERO);
+            shards.add(shard);
+        }
+        shardRepository.saveAll(shards);
+        card.setBalanceShards(count == 0 ? null : count);
+        return cardRepository.save(card);
+    }
+
+    private record CachedSum(BigDecimal sum, long expiresAt) {
+    }
+}
@@ -1,16 +1,23 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.BankLoanResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.LoanInstallmentResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.*;
-import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CurrencyDataRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.event.LoanOverdueEvent;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.LoanInstallmentRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.AmortizationCalculator;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.Generator;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.MoneyConverter;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.BankLoanRepository;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CardRepository;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -18,42 +25,97 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.util.HtmlUtils;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.List;
 
 /**
  * This class is responsible for managing bank loans.
  * It is annotated with @Service to indicate that it's a Spring managed service.
- * It uses BankLoanRepository, UserRepository, CurrencyDataRepository, and CardRepository to interact with the database.
- * It also uses a Generator to generate reference numbers.
+ * It uses BankLoanRepository, LoanInstallmentRepository, UserRepository,
+ * and CardRepository to interact with the database.
+ * It also uses a Generator to generate reference numbers, an AmortizationCalculator to compute loan schedules,
+ * a MoneyConverter to convert repayments, and an ApplicationEventPublisher to publish the loans found overdue.
+ * The interest accrual statement is run through the EntityManager.
  */
 @Service
 public class BankLoanService {
+    /**
+     * The statement accruing the interest of every outstanding loan in the id range up to the given day.
+     * The interest of a loan is its outstanding principal times its annual rate for the days since its last accrual.
+     * It is added unrounded to the accrued interest of the loan, so the loan amount stays the principal of the
+     * amortization schedule and the interest of a small loan is not rounded away day by day.
+     * The outstanding loan in the financial summary of its owner, who is either the user of the loan
+     * or the user of its card, grows by the change of the accrued interest rounded to cents.
+     * A loan already accrued up to the given day is skipped, so running the statement twice accrues nothing.
+     * It is run through the EntityManager, because Spring Data parses the SQL of native queries
+     * and its parser does not accept the data-modifying CTE.
+     */
+    public static final String ACCRUE_INTEREST_SQL = "WITH due AS (" +
+            "SELECT l.id, l.currency, COALESCE(l.accrued_interest, 0) AS accrued, " +
+            "ROUND(COALESCE(l.accrued_interest, 0) + l.loan_amount * l.interest_rate * " +
+            "(CAST(:today AS date) - COALESCE(l.last_accrual_date, l.start_time)) / 365, 8) AS new_accrued " +
+            "FROM bank_loan l WHERE l.id BETWEEN :fromId AND :toId " +
+            "AND l.loan_amount > 0 AND l.interest_rate > 0 " +
+            "AND COALESCE(l.last_accrual_date, l.start_time) < CAST(:today AS date) FOR UPDATE), " +
+            "summary AS (" +
+            "INSERT INTO user_financial_summary " +
+            "(id, user_id, currency, slot, balance, loan_outstanding, deposit_principal) " +
+            "SELECT nextval('user_financial_summary_seq'), COALESCE(ul.user_id, c.user_id), due.currency, 0, 0, " +
+            "SUM(ROUND(due.new_accrued, 2) - ROUND(due.accrued, 2)), 0 FROM due " +
+            "LEFT JOIN user_loan ul ON ul.loan_id = due.id " +
+            "LEFT JOIN card_loan cl ON cl.loan_id = due.id " +
+            "LEFT JOIN card c ON c.id = cl.card_id " +
+            "WHERE COALESCE(ul.user_id, c.user_id) IS NOT NULL " +
+            "GROUP BY COALESCE(ul.user_id, c.user_id), due.currency " +
+            "ON CONFLICT (user_id, currency, slot) DO UPDATE SET " +
+            "loan_outstanding = user_financial_summary.loan_outstanding + EXCLUDED.loan_outstanding) " +
+            "UPDATE bank_loan l SET accrued_interest = due.new_accrued, " +
+            "last_accrual_date = CAST(:today AS date) FROM due WHERE l.id = due.id";
+
     private final BankLoanRepository loanRepository;
+    private final LoanInstallmentRepository installmentRepository;
     private final UserRepository userRepository;
-    private final CurrencyDataRepository currencyRepository;
+    private final MoneyConverter moneyConverter;
     private final CardRepository cardRepository;
 
+    private final FinancialSummaryService financialSummaryService;
+
     private final Generator generator;
+    private final AmortizationCalculator amortizationCalculator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
     /**
-     * Constructs a new BankLoanService with the given repositories and generator.
+     * Constructs a new BankLoanService with the given repositories, generator, calculator and event publisher.
      *
-     * @param loanRepository     The BankLoanRepository to use.
-     * @param userRepository     The UserRepository to use.
-     * @param currencyRepository The CurrencyDataRepository to use.
-     * @param cardRepository     The CardRepository to use.
-     * @param generator          The Generator to use.
+     * @param loanRepository          The BankLoanRepository to use.
+     * @param installmentRepository   The LoanInstallmentRepository to use.
+     * @param userRepository          The UserRepository to use.
+     * @param moneyConverter          The MoneyConverter to use.
+     * @param cardRepository          The CardRepository to use.
+     * @param financialSummaryService The FinancialSummaryService to use.
+     * @param generator               The Generator to use.
+     * @param amortizationCalculator  The AmortizationCalculator to use.
+     * @param eventPublisher          The ApplicationEventPublisher to use.
+     * @param entityManager           The EntityManager to use.
      */
     @Autowired
-    public BankLoanService(BankLoanRepository loanRepository, UserRepository userRepository,
-                           CurrencyDataRepository currencyRepository, CardRepository cardRepository,
-                           Generator generator) {
+    public BankLoanService(BankLoanRepository loanRepository, LoanInstallmentRepository installmentRepository,
+                           UserRepository userRepository, MoneyConverter moneyConverter,
+                           CardRepository cardRepository, FinancialSummaryService financialSummaryService,
+                           Generator generator, AmortizationCalculator amortizationCalculator,
+                           ApplicationEventPublisher eventPublisher, EntityManager entityManager) {
         this.loanRepository = loanRepository;
+        this.installmentRepository = installmentRepository;
         this.userRepository = userRepository;
-        this.currencyRepository = currencyRepository;
+        this.moneyConverter = moneyConverter;
         this.cardRepository = cardRepository;
+        this.financialSummaryService = financialSummaryService;
         this.generator = generator;
+        this.amortizationCalculator = amortizationCalculator;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
     }
 
     /**
@@ -62,8 +124,8 @@ public class BankLoanService {
      * @return A list of all loans.
      */
     @Cacheable(value = "loans")
-    public List<BankLoan> getAllLoans() {
-        return loanRepository.findAll();
+    public List<BankLoanResponse> getAllLoans() {
+        return loanRepository.findAllProjectedBy();
     }
 
     /**
@@ -73,8 +135,8 @@ public class BankLoanService {
      * @return A page of loans.
      */
     @Cacheable(value = "loans")
-    public Page<BankLoan> filterAndSortLoans(Pageable pageable) {
-        return loanRepository.findAll(pageable);
+    public Page<BankLoanResponse> filterAndSortLoans(Pageable pageable) {
+        return loanRepository.findAllProjectedBy(pageable);
     }
 
     /**
@@ -84,8 +146,8 @@ public class BankLoanService {
      * @return The retrieved loan.
      */
     @Cacheable(value = "loans", key = "#loanId")
-    public BankLoan getLoanById(Long loanId) {
-        return loanRepository.findById(loanId).orElseThrow(
+    public BankLoanResponse getLoanById(Long loanId) {
+        return loanRepository.findProjectedById(loanId).orElseThrow(
                 () -> new ApplicationException(HttpStatus.NOT_FOUND, "Loan is not found.")
         );
     }
@@ -97,12 +159,26 @@ public class BankLoanService {
      * @return The retrieved loan.
      */
     @Cacheable(value = "loans", key = "#referenceNumber")
-    public BankLoan getLoanByReferenceNumber(String referenceNumber) {
+    public BankLoanResponse getLoanByReferenceNumber(String referenceNumber) {
         if (referenceNumber.isEmpty()) {
             throw new ApplicationException(HttpStatus.NOT_FOUND,
                     "Card with reference number " + referenceNumber + " not found.");
         }
-        return loanRepository.findByReferenceNumber(referenceNumber);
+        return loanRepository.findProjectedByReferenceNumber(referenceNumber).orElse(null);
+    }
+
+    /**
+     * Retrieves the amortization schedule of a loan.
+     *
+     * @param loanId The ID of the loan.
+     * @return The installments of the loan ordered by their number.
+     */
+    @Cacheable(value = "loans", key = "'schedule-' + #loanId")
+    public List<LoanInstallmentResponse> getLoanSchedule(Long loanId) {
+        if (!loanRepository.existsById(loanId)) {
+            throw new ApplicationException(HttpStatus.NOT_FOUND, "Loan is not found.");
+        }
+        return installmentRepository.findAllByLoanIdOrderByNumber(loanId);
     }
 
     /**
@@ -149,11 +225,12 @@ public class BankLoanService {
         if (user.getStatus() == UserStatus.STATUS_BLOCKED) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Operation is unavailable for blocked user.");
         }
-        checkUserLoan(user);
+        checkUserLoan(user.getId());
         if (isValidLoanRange(loanAmount)) {
             BankLoan loan = createBankLoan(loanAmount, chosenCurrencyType, generator.generateReferenceNumber());
             user.setBankLoan(loan);
             loan.setUserLoan(user);
+            financialSummaryService.recordLoan(user, loan.getCurrency(), loan.getLoanAmount());
             userRepository.save(user);
             return loanRepository.save(loan);
         } else {
@@ -171,17 +248,18 @@ public class BankLoanService {
      * @throws ApplicationException if the card is not found, is blocked, the user already has a loan, or the loan range is invalid.
      */
     private BankLoan createBankLoanForCard(Long cardId, BigDecimal loanAmount, String chosenCurrencyType) {
-        Card card = cardRepository.findById(cardId).orElseThrow(
+        Card card = cardRepository.findWithUserById(cardId).orElseThrow(
                 () -> new ApplicationException(HttpStatus.NOT_FOUND, "Card not found.")
         );
         if (card.getStatus() == CardStatus.STATUS_CARD_BLOCKED) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Operation is unavailable for blocked card.");
         }
-        checkUserLoan(card.getUser());
+        checkUserLoan(card.getUser().getId());
         if (isValidLoanRange(loanAmount)) {
             BankLoan loan = createBankLoan(loanAmount, chosenCurrencyType, generator.generateReferenceNumber());
             card.setCardLoan(loan);
             loan.setCardLoan(card);
+            financialSummaryService.recordLoan(card.getUser(), loan.getCurrency(), loan.getLoanAmount());
             cardRepository.save(card);
             return loanRepository.save(loan);
         } else {
@@ -190,13 +268,13 @@ public class BankLoanService {
     }
 
     /**
-     * Checks if the user already has a loan.
+     * Checks if the user already has a loan, either of their own or on any of their cards.
      *
-     * @param user The user to check.
+     * @param userId The ID of the user to check.
      * @throws ApplicationException if the user already has a loan.
      */
-    private void checkUserLoan(User user) {
-        if (user.getBankLoan() != null || user.getCards().stream().anyMatch(card -> card.getCardLoan() != null)) {
+    private void checkUserLoan(Long userId) {
+        if (loanRepository.existsByUserOrUserCards(userId)) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "User already has a loan.");
         }
     }
@@ -212,7 +290,7 @@ public class BankLoanService {
     }
 
     /**
-     * Creates a bank loan.
+     * Creates a bank loan with the current interest rate and amortization type, and saves its schedule.
      *
      * @param loanAmount         The amount of the loan.
      * @param chosenCurrencyType The currency type of the loan.
@@ -224,8 +302,12 @@ public class BankLoanService {
         BankLoan loan = new BankLoan();
         loan.setLoanAmount(loanAmount);
         loan.setRepaidLoan(BigDecimal.ZERO);
+        loan.setInterestRate(amortizationCalculator.getInterestRate());
+        loan.setAmortizationType(amortizationCalculator.getAmortizationType());
         loan.setStartDate(LocalDate.now());
         loan.setExpirationDate(LocalDate.now().plusYears(1));
+        loan.setLastAccrualDate(loan.getStartDate());
+        loan.setAccruedInterest(BigDecimal.ZERO);
         if (!isValidReferenceNumber(referenceNumber)) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST,
                     "Invalid reference number. Size must be less or equal to 11.");
@@ -237,7 +319,9 @@ public class BankLoanService {
         } catch (ApplicationException e) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Invalid currency: " + chosenCurrencyType);
         }
-        return loanRepository.save(loan);
+        BankLoan savedLoan = loanRepository.save(loan);
+        installmentRepository.saveAll(amortizationCalculator.schedule(savedLoan));
+        return savedLoan;
     }
 
     /**
@@ -252,34 +336,55 @@ public class BankLoanService {
 
     /**
      * Repays a loan.
+     * The repayment pays the accrued interest first, rounded to cents, and the rest repays the principal.
+     * The installments whose remaining principal the principal reaches are marked paid,
+     * and the cards blocked because the loan was overdue are unblocked once it is repaid.
      *
      * @param loanId       The ID of the loan to repay.
      * @param loanRefund   The amount to repay.
      * @param currencyType The currency type of the repayment.
      */
     @Transactional
-    @CacheEvict(value = "loans", allEntries = true)
+    @CacheEvict(value = {"loans", "cards"}, allEntries = true)
     public void repayLoan(Long loanId, BigDecimal loanRefund, String currencyType) {
         BankLoan loan = loanRepository.findById(loanId).orElseThrow(
                 () -> new ApplicationException(HttpStatus.NOT_FOUND, "Loan is not found.")
         );
-        if (loan.getLoanAmount().compareTo(loanRefund) < 0.00) {
+        BigDecimal interestDue = loan.getAccruedInterest() == null ? BigDecimal.ZERO
+                : loan.getAccruedInterest().setScale(2, RoundingMode.HALF_UP);
+        if (loan.getLoanAmount().add(interestDue).compareTo(loanRefund) < 0.00) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Invalid loan amount or loan was already repaid.");
         }
         try {
             Currency refundCurrency = Currency.valueOf(currencyType.toUpperCase());
             Currency loanCurrency = loan.getCurrency();
 
+            BigDecimal repaidAmount;
             if (refundCurrency != loanCurrency) {
-                BigDecimal convertedAmount = loanRefund.multiply(
-                        BigDecimal.valueOf(currencyRepository.findByCurrency(loanCurrency.toString()).getRate()));
-                loan.setRepaidLoan(loan.getRepaidLoan().add(convertedAmount));
-                loan.setLoanAmount(loan.getLoanAmount().subtract(convertedAmount));
+                repaidAmount = moneyConverter.fromBase(loanRefund, loanCurrency);
             } else { // if the currency is the same
-                loan.setRepaidLoan(loan.getRepaidLoan().add(loanRefund));
-                loan.setLoanAmount(loan.getLoanAmount().subtract(loanRefund));
+                repaidAmount = loanRefund;
+            }
+            BigDecimal repaidInterest = repaidAmount.min(interestDue);
+            if (interestDue.signum() != 0) {
+                // A fully paid interest drops the fraction of a cent left below the rounding.
+                loan.setAccruedInterest(repaidInterest.compareTo(interestDue) == 0 ? BigDecimal.ZERO
+                        : loan.getAccruedInterest().subtract(repaidInterest));
+            }
+            loan.setRepaidLoan(loan.getRepaidLoan().add(repaidAmount));
+            loan.setLoanAmount(loan.getLoanAmount().subtract(repaidAmount.subtract(repaidInterest)));
+            installmentRepository.markPaid(loanId, loan.getLoanAmount(), LocalDate.now());
+            User owner = loan.getUserLoan() != null ? loan.getUserLoan()
+                    : loan.getCardLoan() != null ? loan.getCardLoan().getUser() : null;
+            if (owner != null) {
+                financialSummaryService.recordLoan(owner, loanCurrency, repaidAmount.negate());
             }
             if (loan.getLoanAmount().compareTo(BigDecimal.ZERO) == 0.00) {
+                if (loan.getOverdueSince() != null) {
+                    cardRepository.updateStatusOfLoanCards(List.of(loanId), CardStatus.STATUS_CARD_BLOCKED,
+                            CardStatus.STATUS_CARD_UNBLOCKED);
+                    loan.setOverdueSince(null);
+                }
                 if (loan.getUserLoan() != null) {
                     System.out.println("Deleting user loan");
                     deleteUserLoan(loanId);
@@ -336,6 +441,7 @@ public class BankLoanService {
         if (loan.getLoanAmount().compareTo(BigDecimal.ZERO) == 0.00) {
             user.setBankLoan(null);
             userRepository.save(user);
+            installmentRepository.deleteByLoanId(loanId);
             loanRepository.delete(loan);
         } else {
             throw new ApplicationException(HttpStatus.BAD_REQUEST,
@@ -362,10 +468,49 @@ public class BankLoanService {
         if (loan.getLoanAmount().compareTo(BigDecimal.ZERO) == 0.00) {
             card.setCardLoan(null);
             cardRepository.save(card);
+            installmentRepository.deleteByLoanId(loanId);
             loanRepository.delete(loan);
         } else {
             throw new ApplicationException(HttpStatus.BAD_REQUEST,
                     "Loan is not repaid and has " + loan.getLoanAmount() + " " + loan.getCurrency() + " left.");
         }
     }
+
+    /**
+     * Accrues the interest of the outstanding loans in an id range up to the given day.
+     * The interest is applied to the loans and to the financial summaries of their owners in one statement,
+     * without loading the loans.
+     *
+     * @param fromId The lowest loan id of the range.
+     * @param toId   The highest loan id of the range.
+     * @param today  The day the interest is accrued up to.
+     * @return The number of loans the interest was accrued to.
+     */
+    @Transactional
+    @CacheEvict(value = {"loans", "users"}, allEntries = true)
+    public int accrueInterest(Long fromId, Long toId, LocalDate today) {
+        return entityManager.createNativeQuery(ACCRUE_INTEREST_SQL)
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId)
+                .setParameter("today", today)
+                .executeUpdate();
+    }
+
+    /**
+     * Flags loans overdue, blocks the cards linked to them and publishes an event for every flagged loan.
+     * The loans and the cards are updated with one statement each, without loading them.
+     *
+     * @param overdueLoans The events of the loans found overdue.
+     * @param today        The day the loans were found overdue.
+     * @return The number of flagged loans.
+     */
+    @Transactional
+    @CacheEvict(value = {"loans", "cards", "users"}, allEntries = true)
+    public int markOverdue(List<LoanOverdueEvent> overdueLoans, LocalDate today) {
+        List<Long> loanIds = overdueLoans.stream().map(LoanOverdueEvent::loanId).toList();
+        int flagged = loanRepository.markOverdue(loanIds, today);
+        cardRepository.updateStatusOfLoanCards(loanIds, CardStatus.STATUS_CARD_BLOCKED);
+        overdueLoans.forEach(eventPublisher::publishEvent);
+        return flagged;
+    }
 }
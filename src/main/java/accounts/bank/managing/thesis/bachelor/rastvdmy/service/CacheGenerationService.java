@@ -0,0 +1,78 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * This class is responsible for counting the generations of the caches.
+ * Every write evicts the caches it affects, and every eviction starts a new generation of the cache.
+ * The generations are kept in the Hazelcast map "cache-generations", so every instance of the application
+ * derives the same ETag for unchanged data and clients polling a read endpoint receive 304 Not Modified.
+ */
+@Service
+public class CacheGenerationService {
+
+    /**
+     * The name of the Hazelcast map with the generations of the caches.
+     */
+    public static final String GENERATION_MAP = "cache-generations";
+
+    private final IMap<String, Long> generations;
+
+    /**
+     * Constructs a new CacheGenerationService with the given Hazelcast instance.
+     *
+     * @param hazelcastInstance The HazelcastInstance holding the map of generations.
+     */
+    @Autowired
+    public CacheGenerationService(HazelcastInstance hazelcastInstance) {
+        this.generations = hazelcastInstance.getMap(GENERATION_MAP);
+    }
+
+    /**
+     * Starts a new generation of the given cache.
+     *
+     * @param cacheName The name of the cache.
+     */
+    public void nextGeneration(String cacheName) {
+        generations.merge(cacheName, System.currentTimeMillis(), (current, initial) -> current + 1);
+    }
+
+    /**
+     * Returns the current generation of the given cache.
+     * The first generation is the time it is first requested,
+     * so ETags issued before a restart of the cluster are never taken for current ones.
+     *
+     * @param cacheName The name of the cache.
+     * @return The generation of the cache.
+     */
+    public long getGeneration(String cacheName) {
+        Long generation = generations.get(cacheName);
+        if (generation == null) {
+            long first = System.currentTimeMillis();
+            Long previous = generations.putIfAbsent(cacheName, first);
+            generation = previous == null ? first : previous;
+        }
+        return generation;
+    }
+
+    /**
+     * Returns the strong ETag of data served from the given caches.
+     * It changes whenever one of the caches is evicted.
+     *
+     * @param cacheNames The names of the caches the data is served from.
+     * @return The quoted ETag.
+     */
+    public String eTag(String... cacheNames) {
+        StringBuilder eTag = new StringBuilder("\"");
+        for (String cacheName : cacheNames) {
+            if (eTag.length() > 1) {
+                eTag.append('.');
+            }
+            eTag.append(cacheName).append('-').append(getGeneration(cacheName));
+        }
+        return eTag.append('"').toString();
+    }
+}
@@ -1,6 +1,8 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.CardResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.Generator;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.MoneyConverter;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.*;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CardRepository;
@@ -32,7 +34,8 @@ public class CardService {
 
     private final CardRepository cardRepository;
     private final UserRepository userRepository;
-    private final CurrencyDataService currencyDataService;
+    private final MoneyConverter moneyConverter;
+    private final LedgerService ledgerService;
 
     private final Generator generator;
 
@@ -41,15 +44,17 @@ public class CardService {
      *
      * @param cardRepository      The CardRepository to use.
      * @param userRepository      The UserRepository to use.
-     * @param currencyDataService The CurrencyDataService to use.
+     * @param moneyConverter      The MoneyConverter to use.
+     * @param ledgerService       The LedgerService to use.
      * @param generator           The Generator to use.
      */
     @Autowired
     public CardService(CardRepository cardRepository, UserRepository userRepository,
-                       CurrencyDataService currencyDataService, Generator generator) {
+                       MoneyConverter moneyConverter, LedgerService ledgerService, Generator generator) {
         this.cardRepository = cardRepository;
         this.userRepository = userRepository;
-        this.currencyDataService = currencyDataService;
+        this.moneyConverter = moneyConverter;
+        this.ledgerService = ledgerService;
         this.generator = generator;
     }
 
@@ -59,8 +64,8 @@ public class CardService {
      * @return A list of all cards.
      */
     @Cacheable(value = "cards")
-    public List<Card> getAllCards() {
-        return cardRepository.findAll();
+    public List<CardResponse> getAllCards() {
+        return cardRepository.findAllProjectedBy();
     }
 
     /**
@@ -70,8 +75,8 @@ public class CardService {
      * @return A page of cards.
      */
     @Cacheable(value = "cards")
-    public Page<Card> filterAndSortCards(Pageable pageable) {
-        return cardRepository.findAll(pageable);
+    public Page<CardResponse> filterAndSortCards(Pageable pageable) {
+        return cardRepository.findAllProjectedBy(pageable);
     }
 
     /**
@@ -81,8 +86,8 @@ public class CardService {
      * @return The retrieved card.
      */
     @Cacheable(value = "cards", key = "#cardId")
-    public Card getCardById(Long cardId) {
-        return cardRepository.findById(cardId).orElseThrow(
+    public CardResponse getCardById(Long cardId) {
+        return cardRepository.findProjectedById(cardId).orElseThrow(
                 () -> new ApplicationException(HttpStatus.NOT_FOUND, "Card with id: " + cardId + " not found.")
         );
     }
@@ -94,12 +99,10 @@ public class CardService {
      * @return The retrieved card.
      */
     @Cacheable(value = "cards", key = "#cardNumber")
-    public Card getCardByCardNumber(String cardNumber) {
-        Card card = cardRepository.findByCardNumber(cardNumber);
-        if (card == null) {
-            throw new ApplicationException(HttpStatus.NOT_FOUND, "Card with number: " + cardNumber + " not found.");
-        }
-        return cardRepository.findByCardNumber(cardNumber);
+    public CardResponse getCardByCardNumber(String cardNumber) {
+        return cardRepository.findProjectedByCardNumber(cardNumber).orElseThrow(
+                () -> new ApplicationException(HttpStatus.NOT_FOUND, "Card with number: " + cardNumber + " not found.")
+        );
     }
 
     /**
@@ -118,6 +121,19 @@ public class CardService {
         if (user.getStatus() == UserStatus.STATUS_BLOCKED) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Creating card is unavailable for blocked user.");
         }
+        return cardRepository.save(newCard(user, chosenCurrency, type));
+    }
+
+    /**
+     * Builds a new card of a user without saving it.
+     * It is used when the card is saved together with its user, as on registration.
+     *
+     * @param user           The owner of the card.
+     * @param chosenCurrency The currency of the card.
+     * @param type           The type of the card.
+     * @return The new card.
+     */
+    Card newCard(User user, String chosenCurrency, String type) {
         long minCardLimit = 1_000_000_000_000_000L;
         long maxCardLimit = 9_999_999_999_999_999L;
         int minCvvLimit = 100;
@@ -171,7 +187,7 @@ public class CardService {
         card.setCurrencyType(currencyType);
         cardTypeCheck(type, card);
         card.setCardExpirationDate(LocalDate.now().plusYears(5));
-        return cardRepository.save(card);
+        return card;
     }
 
     /**
@@ -244,6 +260,7 @@ public class CardService {
      * @param pin     The pin of the card.
      * @param balance The amount to refill.
      */
+    @Transactional
     @CacheEvict(value = "cards", allEntries = true)
     public void cardRefill(Long cardId, Integer pin, BigDecimal balance) {
         Card card = cardRepository.findById(cardId).orElseThrow(
@@ -252,7 +269,7 @@ public class CardService {
         if (card.getStatus() == CardStatus.STATUS_CARD_BLOCKED) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Operation is unavailable for blocked card.");
         }
-        if (checkCardExpirationDate(card)) {
+        if (card.isExpired(LocalDate.now())) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Card is expired.");
         }
         if (card.getPin().equals(pin) && (card.getStatus().equals(CardStatus.STATUS_CARD_UNBLOCKED) ||
@@ -269,30 +286,15 @@ public class CardService {
     }
 
     /**
-     * Converts the provided balance to the currency of the card and adds it to the card's balance.
-     * The conversion rate is retrieved from the CurrencyDataService.
+     * Converts the provided balance to the currency of the card and posts it to the ledger of the card.
+     * The conversion is done by the MoneyConverter.
      *
      * @param card    The card to which the balance will be added.
      * @param balance The balance to add to the card. This balance is in a different currency and will be converted to the card's currency.
      */
     private void conversationToCardCurrency(Card card, BigDecimal balance) {
-        switch (card.getCurrencyType()) {
-            case USD -> card.setBalance(card.getBalance().add(balance).multiply(
-                    BigDecimal.valueOf(currencyDataService.findByCurrency(Currency.USD.toString()).getRate())
-            ));
-            case EUR -> card.setBalance(card.getBalance().add(balance.multiply(
-                    BigDecimal.valueOf(currencyDataService.findByCurrency(Currency.EUR.toString()).getRate()))
-            ));
-            case UAH -> card.setBalance(card.getBalance().add(balance.multiply(
-                    BigDecimal.valueOf(currencyDataService.findByCurrency(Currency.UAH.toString()).getRate()))
-            ));
-            case CZK -> card.setBalance(card.getBalance().add(balance.multiply(
-                    BigDecimal.valueOf(currencyDataService.findByCurrency(Currency.CZK.toString()).getRate()))
-            ));
-            case PLN -> card.setBalance(card.getBalance().add(balance.multiply(
-                    BigDecimal.valueOf(currencyDataService.findByCurrency(Currency.PLN.toString()).getRate()))
-            ));
-        }
+        ledgerService.post(card, moneyConverter.fromBase(balance, card.getCurrencyType()),
+                LedgerOperation.REFILL, null);
     }
 
     /**
@@ -305,7 +307,7 @@ public class CardService {
         Card card = cardRepository.findById(id).orElseThrow(
                 () -> new ApplicationException(HttpStatus.NOT_FOUND, "Card with id: " + id + " not found.")
         );
-        if (checkCardExpirationDate(card)) {
+        if (card.isExpired(LocalDate.now())) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Card is expired.");
         }
         switch (card.getStatus()) {
@@ -330,7 +332,7 @@ public class CardService {
         Card card = cardRepository.findById(cardId).orElseThrow(
                 () -> new ApplicationException(HttpStatus.NO_CONTENT, "Card with id: " + cardId + " not found.")
         );
-        if (checkCardExpirationDate(card)) {
+        if (card.isExpired(LocalDate.now())) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Card is expired.");
         }
         if (card.getStatus() == CardStatus.STATUS_CARD_BLOCKED) {
@@ -360,15 +362,13 @@ public class CardService {
         Card card = cardRepository.findById(cardId).orElseThrow(
                 () -> new ApplicationException(HttpStatus.NO_CONTENT, "Card with id: " + cardId + " not found.")
         );
-        User user = userRepository.findById(userId).orElseThrow(
-                () -> new ApplicationException(HttpStatus.NO_CONTENT, "User with id: " + userId + " not found.")
-        );
-        if (card.getCardLoan() == null || card.getCardLoan().getLoanAmount().compareTo(BigDecimal.ZERO) == 0) {
-            if (card.getDepositTransaction() == null
-                    || card.getDepositTransaction().getDepositAmount().compareTo(BigDecimal.ZERO) == 0) {
-                if (card.getBalance().compareTo(BigDecimal.ZERO) == 0 && user.getCards().contains(card)) {
-                    user.getCards().remove(card);
-                    userRepository.save(user);
+        if (!userRepository.existsById(userId)) {
+            throw new ApplicationException(HttpStatus.NO_CONTENT, "User with id: " + userId + " not found.");
+        }
+        if (!cardRepository.hasOutstandingLoan(cardId)) {
+            if (!cardRepository.hasOutstandingDeposit(cardId)) {
+                if (ledgerService.getBalance(card).compareTo(BigDecimal.ZERO) == 0
+                        && card.getUser().getId().equals(userId)) {
                     cardRepository.delete(card);
                 } else {
                     throw new ApplicationException(HttpStatus.BAD_REQUEST,
@@ -383,12 +383,18 @@ public class CardService {
     }
 
     /**
-     * Checks if the card's expiration date has passed.
+     * Marks every card whose expiration date has passed as expired.
+     * The cards are updated with one statement, without loading them.
+     * The operations on a card check its expiration date as well, so a card is not used between its expiration
+     * and the next run of the job.
      *
-     * @param card The card to check.
-     * @return True if the current date is after the card's expiration date, false otherwise.
+     * @param today The first day the cards are still valid on.
+     * @return The number of expired cards.
      */
-    private boolean checkCardExpirationDate(Card card) {
-        return LocalDate.now().isAfter(card.getCardExpirationDate());
+    @Transactional
+    @CacheEvict(value = {"cards", "users"}, allEntries = true)
+    public int expireCards(LocalDate today) {
+        return cardRepository.updateStatusOfExpiredCards(today, CardStatus.STATUS_CARD_EXPIRED,
+                CardStatus.STATUS_CARD_BLOCKED);
     }
 }
@@ -1,50 +1,84 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.CurrencyDataResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.RatesSnapshot;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.CurrencyData;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CurrencyDataRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.MoneyConverter;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.RateAggregator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * This class is responsible for managing currency data.
  * It is annotated with @Service to indicate that it's a Spring managed service.
  * It uses CurrencyDataRepository to interact with the database.
- * It also uses RestTemplate to make HTTP requests to an external API.
+ * The rates are fetched from the configured rate providers through the RateAggregator,
+ * and RestTemplate is used to ask the external API for rates that are missing.
+ * After every refresh of the rates it serializes them once into a snapshot served by the rates endpoint,
+ * appends them to the exchange rate history and hands them to the MoneyConverter with the id of their snapshot.
  */
+@Slf4j
 @Service
 public class CurrencyDataService {
     private final CurrencyDataRepository currencyDataRepository;
     private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final ExchangeRateHistoryService rateHistoryService;
+    private final MoneyConverter moneyConverter;
+    private final RateAggregator rateAggregator;
 
-    @Value("${api.key}")
+    @Value("${api.key:}")
     private String apiKey;
 
+    private volatile RatesSnapshot ratesSnapshot;
+
     /**
-     * Constructs a new CurrencyDataService with the given repository and RestTemplate.
+     * Constructs a new CurrencyDataService with the given repository, RestTemplate, ObjectMapper, history,
+     * converter and aggregator.
      *
      * @param currencyDataRepository The CurrencyDataRepository to use.
      * @param restTemplate           The RestTemplate to use.
+     * @param objectMapper           The ObjectMapper serializing the snapshot of the rates.
+     * @param rateHistoryService     The ExchangeRateHistoryService recording every fetch of the rates.
+     * @param moneyConverter         The MoneyConverter receiving the rates after every fetch.
+     * @param rateAggregator         The RateAggregator fetching the rates from the rate providers.
      */
     @Autowired
-    public CurrencyDataService(CurrencyDataRepository currencyDataRepository, RestTemplate restTemplate) {
+    public CurrencyDataService(CurrencyDataRepository currencyDataRepository, RestTemplate restTemplate,
+                               ObjectMapper objectMapper, ExchangeRateHistoryService rateHistoryService,
+                               MoneyConverter moneyConverter, RateAggregator rateAggregator) {
         this.currencyDataRepository = currencyDataRepository;
         this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.rateHistoryService = rateHistoryService;
+        this.moneyConverter = moneyConverter;
+        this.rateAggregator = rateAggregator;
     }
 
     /**
@@ -57,6 +91,17 @@ public class CurrencyDataService {
         return currencyDataRepository.findAll();
     }
 
+    /**
+     * Retrieves the snapshot of all rates.
+     * It is built from the database if the rates have not been refreshed by this instance yet.
+     *
+     * @return The snapshot of all rates.
+     */
+    public RatesSnapshot getRatesSnapshot() {
+        RatesSnapshot snapshot = ratesSnapshot;
+        return snapshot != null ? snapshot : refreshRatesSnapshot();
+    }
+
     /**
      * Retrieves currency data by its type.
      *
@@ -74,7 +119,9 @@ public class CurrencyDataService {
         } else {
             CurrencyData currencyData = getCurrencyFromApi(currencyType);
             if (currencyData != null) {
+                currencyData.setUpdatedAt(Instant.now());
                 currencyData = currencyDataRepository.save(currencyData);
+                refreshRatesSnapshot();
                 return currencyData;
             } else {
                 throw new ApplicationException(HttpStatus.NOT_FOUND, "Currency " + currencyType + " is not found.");
@@ -117,72 +164,77 @@ public class CurrencyDataService {
     }
 
     /**
-     * Converts a currency to another currency.
+     * Retrieves the rate converting one currency to another.
+     * The rate is derived from the stored rates against CZK only, never asked from the remote API,
+     * so every converted amount is priced from the snapshot recorded with it.
      *
-     * @param baseCurrency   The currency to convert from.
-     * @param targetCurrency The currency to convert to.
-     * @return The converted currency data.
+     * @param from The currency to convert from.
+     * @param to   The currency to convert to.
+     * @return The rate scaled by the MoneyConverter with its snapshot, or null if one of the rates is not stored.
      */
-    public CurrencyData convertCurrency(String baseCurrency, String targetCurrency) {
-        final String apiUrl = "https://v6.exchangerate-api.com/v6/" + apiKey + "/pair/" + baseCurrency + "/" + targetCurrency;
-        try {
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                    apiUrl,
-                    HttpMethod.GET,
-                    null,
-                    new ParameterizedTypeReference<>() {
-                    });
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Map<String, Object> responseBody = response.getBody();
-                if (responseBody.containsKey("conversion_rate")) {
-                    CurrencyData currencyData = new CurrencyData();
-                    currencyData.setCurrency(targetCurrency);
-                    currencyData.setRate(((Number) responseBody.get("conversion_rate")).doubleValue());
-                    return currencyData;
-                }
-            }
-        } catch (RestClientException e) {
-            e.getCause();
-        }
-        return null;
+    public MoneyConverter.CrossRate findCrossRate(Currency from, Currency to) {
+        return moneyConverter.findCrossRate(from, to);
     }
 
     /**
-     * Retrieves all exchange rates from an external API and updates the database.
+     * Retrieves all exchange rates from the rate providers, updates the database and appends them to the history.
+     * If no provider returns the rates, the stored rates are kept until the next run.
      * This method is scheduled to run every 24 hours.
      */
     @CacheEvict(value = "currencies", allEntries = true)
     @Scheduled(fixedRate = 86400000) // Update every 24 hours
     @PostConstruct
     public void findAllExchangeRates() {
-        String apiUrl = "https://v6.exchangerate-api.com/v6/" + apiKey + "/latest/CZK";
-        ResponseEntity<Map<String, Object>> responseEntity = restTemplate.exchange(
-                apiUrl,
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<>() {
-                }
-        );
-        Map<String, Object> response = responseEntity.getBody();
-        if (response != null && response.containsKey("conversion_rates")) {
-            @SuppressWarnings("unchecked")
-            Map<String, Number> ratesMap = (Map<String, Number>) response.get("conversion_rates");
-
-            for (Map.Entry<String, Number> entry : ratesMap.entrySet()) {
-                CurrencyData currencyData = currencyDataRepository.findByCurrency(entry.getKey());
-                if (currencyData != null) {
-                    // Update the existing CurrencyData
-                    currencyData.setRate(entry.getValue().doubleValue());
-                } else {
-                    // Create a new CurrencyData
-                    currencyData = new CurrencyData();
-                    currencyData.setCurrency(entry.getKey());
-                    currencyData.setRate(entry.getValue().doubleValue());
-                }
+        Map<String, Double> fetchedRates = rateAggregator.fetchRates();
+        if (fetchedRates.isEmpty()) {
+            log.error("Failed to fetch exchange rates, the stored rates are kept.");
+            return;
+        }
+        for (Map.Entry<String, Double> entry : fetchedRates.entrySet()) {
+            CurrencyData currencyData = currencyDataRepository.findByCurrency(entry.getKey());
+            if (currencyData == null) {
+                // Create a new CurrencyData
+                currencyData = new CurrencyData();
+                currencyData.setCurrency(entry.getKey());
+            }
+            if (!entry.getValue().equals(currencyData.getRate())) {
+                currencyData.setRate(entry.getValue());
+                currencyData.setUpdatedAt(Instant.now());
                 currencyDataRepository.save(currencyData);
             }
-        } else {
-            throw new ApplicationException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to fetch exchange rates.");
         }
+        Long snapshotId = rateHistoryService.recordSnapshot(fetchedRates);
+        moneyConverter.updateRates(snapshotId, fetchedRates);
+        refreshRatesSnapshot();
+    }
+
+    /**
+     * Serializes all rates stored in the database into a new snapshot.
+     * The rates are ordered by currency, so the same rates always give the same body and ETag,
+     * and the last modification time is the latest change of a stored rate,
+     * so every instance holding the same rates sends the same headers.
+     *
+     * @return The new snapshot of all rates.
+     */
+    private synchronized RatesSnapshot refreshRatesSnapshot() {
+        List<CurrencyData> currencyData = currencyDataRepository.findAll(Sort.by("currency"));
+        List<CurrencyDataResponse> rates = currencyData.stream()
+                .map(CurrencyDataResponse::from)
+                .toList();
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(rates);
+        } catch (JsonProcessingException e) {
+            throw new ApplicationException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to serialize exchange rates.");
+        }
+        String eTag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        Instant lastModified = currencyData.stream()
+                .map(CurrencyData::getUpdatedAt)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .orElse(Instant.EPOCH)
+                .truncatedTo(ChronoUnit.SECONDS);
+        ratesSnapshot = new RatesSnapshot(body, eTag, lastModified);
+        return ratesSnapshot;
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,17 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.DepositResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.CardStatus;
-import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CurrencyDataRepository;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.Generator;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.MoneyConverter;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Card;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Deposit;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.LedgerOperation;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CardRepository;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.DepositRepository;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
@@ -19,41 +22,55 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.util.HtmlUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
-import static accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency.*;
-
 /**
  * This class is responsible for managing deposits.
  * It is annotated with @Service to indicate that it's a Spring managed service.
- * It uses DepositRepository, Generator, CurrencyDataRepository, and CardRepository to interact with the database.
+ * It uses DepositRepository, Generator, and CardRepository to interact with the database,
+ * and a MoneyConverter to convert the deposited amounts.
  */
 @Service
 public class DepositService {
+
+    /**
+     * The factor a matured deposit is multiplied by when it is paid out, i.e. the 5% bonus.
+     */
+    public static final BigDecimal MATURITY_BONUS = new BigDecimal("1.05");
+
     private final DepositRepository depositRepository;
     private final Generator generator;
     private final CurrencyDataService currencyDataService;
     private final CardRepository cardRepository;
-    private final CurrencyDataRepository currencyRepository;
+    private final MoneyConverter moneyConverter;
+    private final LedgerService ledgerService;
+    private final FinancialSummaryService financialSummaryService;
 
     /**
      * Constructs a new DepositService with the given repositories and generator.
      *
-     * @param depositRepository   The DepositRepository to use.
-     * @param generator           The Generator to use.
-     * @param currencyDataService The CurrencyDataService to use.
-     * @param cardRepository      The CardRepository to use.
+     * @param depositRepository       The DepositRepository to use.
+     * @param generator               The Generator to use.
+     * @param currencyDataService     The CurrencyDataService to use.
+     * @param cardRepository          The CardRepository to use.
+     * @param moneyConverter          The MoneyConverter to use.
+     * @param ledgerService           The LedgerService to use.
+     * @param financialSummaryService The FinancialSummaryService to use.
      */
     @Autowired
     public DepositService(DepositRepository depositRepository, Generator generator,
                           CurrencyDataService currencyDataService, CardRepository cardRepository,
-                          CurrencyDataRepository currencyRepository) {
+                          MoneyConverter moneyConverter, LedgerService ledgerService,
+                          FinancialSummaryService financialSummaryService) {
         this.depositRepository = depositRepository;
         this.generator = generator;
         this.currencyDataService = currencyDataService;
         this.cardRepository = cardRepository;
-        this.currencyRepository = currencyRepository;
+        this.moneyConverter = moneyConverter;
+        this.ledgerService = ledgerService;
+        this.financialSummaryService = financialSummaryService;
     }
 
     /**
@@ -62,8 +79,8 @@ public class DepositService {
      * @return A list of all deposits.
      */
     @Cacheable(value = "deposits")
-    public List<Deposit> getAllDeposits() {
-        return depositRepository.findAll();
+    public List<DepositResponse> getAllDeposits() {
+        return depositRepository.findAllProjectedBy();
     }
 
     /**
@@ -73,8 +90,8 @@ public class DepositService {
      * @return A page of deposits.
      */
     @Cacheable(value = "deposits")
-    public Page<Deposit> filterAndSortDeposits(Pageable pageable) {
-        return depositRepository.findAll(pageable);
+    public Page<DepositResponse> filterAndSortDeposits(Pageable pageable) {
+        return depositRepository.findAllProjectedBy(pageable);
     }
 
     /**
@@ -84,8 +101,8 @@ public class DepositService {
      * @return The retrieved deposit.
      */
     @Cacheable(value = "deposits", key = "#id")
-    public Deposit getDepositById(Long id) {
-        return depositRepository.findById(id).orElseThrow(
+    public DepositResponse getDepositById(Long id) {
+        return depositRepository.findProjectedById(id).orElseThrow(
                 () -> new ApplicationException(HttpStatus.NOT_FOUND, "Deposit is not found.")
         );
     }
@@ -99,6 +116,7 @@ public class DepositService {
      * @param currency      The currency of the deposit.
      * @return The created deposit.
      */
+    @Transactional
     @CacheEvict(value = {"deposits", "cards"}, allEntries = true)
     public Deposit openDeposit(String cardNumber, BigDecimal depositAmount, String description, Currency currency) {
         Card card = getUserCard(cardNumber, depositAmount);
@@ -132,10 +150,9 @@ public class DepositService {
             }
         } while (depositRepository.existsByReferenceNumber(referenceNumber));
         deposit.setReferenceNumber(referenceNumber);
-        card.setBalance(card.getBalance().subtract(
-                depositAmount.multiply(BigDecimal.valueOf(
-                        currencyRepository.findByCurrency(card.getCurrencyType().toString()).getRate())
-                )));
+        ledgerService.post(card, moneyConverter.fromBase(depositAmount, card.getCurrencyType()).negate(),
+                LedgerOperation.DEPOSIT_OPEN, referenceNumber);
+        financialSummaryService.recordDeposit(card.getUser(), deposit.getCurrency(), deposit.getDepositAmount());
         cardRepository.save(card);
 
         return depositRepository.save(deposit);
@@ -199,11 +216,11 @@ public class DepositService {
     @CacheEvict(value = {"deposits", "cards"}, allEntries = true)
     public void updateDeposit(Long depositId, String cardNumber, String description,
                               BigDecimal newAmount, Currency currency) {
-        Deposit deposit = depositRepository.findById(depositId).orElseThrow(
-                () -> new ApplicationException(HttpStatus.NOT_FOUND, "Deposit is not valid.")
-        );
+        if (!depositRepository.existsById(depositId)) {
+            throw new ApplicationException(HttpStatus.NOT_FOUND, "Deposit is not valid.");
+        }
         Card card = getUserCard(cardNumber, newAmount);
-        if (deposit.getCardDeposit().equals(card)) {
+        if (depositRepository.existsByIdAndCardDepositId(depositId, card.getId())) {
             deleteDeposit(depositId); // Delete the deposit after the money has been returned to the card
         } else {
             throw new ApplicationException(HttpStatus.BAD_REQUEST,
@@ -228,7 +245,10 @@ public class DepositService {
         if (card.getStatus() == CardStatus.STATUS_CARD_BLOCKED) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Operation is unavailable. Card is blocked.");
         }
-        if (card.getBalance().compareTo(newAmount) < 0) {
+        if (card.isExpired(LocalDate.now())) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Operation is unavailable. Card is expired.");
+        }
+        if (ledgerService.getBalance(card).compareTo(newAmount) < 0) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Not enough money on the card.");
         }
         return card;
@@ -239,34 +259,59 @@ public class DepositService {
      *
      * @param depositId The ID of the deposit to delete.
      */
+    @Transactional
     @CacheEvict(value = {"deposits", "cards"}, allEntries = true)
     public void deleteDeposit(Long depositId) {
         Deposit deposit = depositRepository.findById(depositId).orElseThrow(
                 () -> new ApplicationException(HttpStatus.NOT_FOUND, "Deposit is not valid.")
         );
-        Card card = deposit.getCardDeposit();
-        if (LocalDateTime.now().isBefore(deposit.getExpirationDate())) {
-            BigDecimal returnAmount;
-            if (card.getCurrencyType().equals(deposit.getCurrency())) {
-                returnAmount = deposit.getDepositAmount();
-            } else {
-                returnAmount = convertCurrencyCase(
-                        card.getCurrencyType(), deposit.getCurrency(), deposit.getDepositAmount());
-            }
-            card.setBalance(card.getBalance().add(returnAmount));
-            card.setDepositTransaction(null);
-            cardRepository.save(card);
-        } else if (LocalDateTime.now().isAfter(deposit.getExpirationDate())) {
-            BigDecimal returnAmount = deposit.getDepositAmount().multiply(BigDecimal.valueOf(1.05)); // 5% bonus
-            if (card.getCurrencyType().equals(deposit.getCurrency())) {
-                returnAmount = deposit.getDepositAmount();
-            } else {
-                returnAmount = convertCurrencyCase(card.getCurrencyType(), deposit.getCurrency(), returnAmount);
+        closeDeposit(deposit, LocalDateTime.now());
+    }
+
+    /**
+     * Pays out the given matured deposits and closes them in one transaction.
+     * Deposits that have been closed in the meantime or have not expired yet are skipped.
+     *
+     * @param depositIds The IDs of the deposits to pay out.
+     * @return The number of deposits paid out.
+     */
+    @Transactional
+    @CacheEvict(value = {"deposits", "cards"}, allEntries = true)
+    public int matureDeposits(List<Long> depositIds) {
+        LocalDateTime now = LocalDateTime.now();
+        int matured = 0;
+        for (Deposit deposit : depositRepository.findAllWithCardByIdIn(depositIds)) {
+            if (!now.isBefore(deposit.getExpirationDate())) {
+                closeDeposit(deposit, now);
+                matured++;
             }
-            card.setBalance(card.getBalance().add(returnAmount));
-            card.setDepositTransaction(null);
-            cardRepository.save(card);
         }
+        return matured;
+    }
+
+    /**
+     * Returns the deposit to its card and deletes it.
+     * A deposit closed before its expiration returns the deposited amount,
+     * a matured deposit returns the deposited amount with the 5% bonus.
+     *
+     * @param deposit The deposit to close.
+     * @param now     The time the deposit is closed at.
+     */
+    private void closeDeposit(Deposit deposit, LocalDateTime now) {
+        Card card = deposit.getCardDeposit();
+        BigDecimal returnAmount = deposit.getDepositAmount();
+        if (!now.isBefore(deposit.getExpirationDate())) {
+            returnAmount = returnAmount.multiply(MATURITY_BONUS);
+        }
+        if (!card.getCurrencyType().equals(deposit.getCurrency())) {
+            returnAmount = convertCurrencyCase(card.getCurrencyType(), deposit.getCurrency(), returnAmount);
+        }
+        ledgerService.post(card, LedgerService.round(returnAmount), LedgerOperation.DEPOSIT_CLOSE,
+                deposit.getReferenceNumber());
+        card.setDepositTransaction(null);
+        cardRepository.save(card);
+        financialSummaryService.recordDeposit(
+                card.getUser(), deposit.getCurrency(), deposit.getDepositAmount().negate());
         depositRepository.delete(deposit);
     }
 
@@ -278,23 +323,7 @@ public class DepositService {
      * @return The converted amount.
      */
     private BigDecimal convertCurrencyToDeposit(Currency currency, BigDecimal amount) {
-        return switch (currency) {
-            case USD -> amount.multiply(
-                    BigDecimal.valueOf(currencyRepository.findByCurrency(USD.toString()).getRate())
-            );
-            case EUR -> amount.multiply(
-                    BigDecimal.valueOf(currencyRepository.findByCurrency(EUR.toString()).getRate())
-            );
-            case CZK -> amount.multiply(
-                    BigDecimal.valueOf(currencyRepository.findByCurrency(CZK.toString()).getRate())
-            );
-            case UAH -> amount.multiply(
-                    BigDecimal.valueOf(currencyRepository.findByCurrency(UAH.toString()).getRate())
-            );
-            case PLN -> amount.multiply(
-                    BigDecimal.valueOf(currencyRepository.findByCurrency(PLN.toString()).getRate())
-            );
-        };
+        return moneyConverter.fromBase(amount, currency);
     }
 
     /**
@@ -306,11 +335,10 @@ public class DepositService {
      * @return The converted amount.
      */
     private BigDecimal convertCurrencyCase(Currency cardCurrency, Currency depositCurrency, BigDecimal amount) {
-        return switch (cardCurrency) {
-            case USD, UAH, EUR, CZK, PLN -> amount.multiply(
-                    BigDecimal.valueOf(currencyDataService.convertCurrency(
-                            depositCurrency.toString(), cardCurrency.toString()).getRate())
-            );
-        };
+        MoneyConverter.CrossRate rate = currencyDataService.findCrossRate(depositCurrency, cardCurrency);
+        if (rate == null) {
+            throw new ApplicationException(HttpStatus.SERVICE_UNAVAILABLE, "Exchange rate is unavailable.");
+        }
+        return moneyConverter.convert(amount, rate.rate(), cardCurrency);
     }
 }
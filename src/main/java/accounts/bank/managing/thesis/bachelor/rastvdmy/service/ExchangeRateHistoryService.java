@@ -0,0 +1,257 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.HistoricalRate;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.ExchangeRateHistory;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.ExchangeRateSnapshot;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.ExchangeRateHistoryRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.ExchangeRateSnapshotRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is responsible for the history of the exchange rates.
+ * Every fetch of the rates is appended as a snapshot, and the rates are never overwritten,
+ * so a transfer can be repriced with the snapshot it recorded.
+ * The history is also kept in memory as one timeline per currency, sorted by the time of the fetch,
+ * so the rate of a currency at any time is found by a binary search.
+ */
+@Service
+public class ExchangeRateHistoryService {
+    private final ExchangeRateSnapshotRepository snapshotRepository;
+    private final ExchangeRateHistoryRepository historyRepository;
+
+    private volatile Map<String, RateTimeline> timelines;
+    private volatile Long latestSnapshotId;
+
+    /**
+     * Constructs a new ExchangeRateHistoryService with the given repositories.
+     *
+     * @param snapshotRepository The ExchangeRateSnapshotRepository to use.
+     * @param historyRepository  The ExchangeRateHistoryRepository to use.
+     */
+    @Autowired
+    public ExchangeRateHistoryService(ExchangeRateSnapshotRepository snapshotRepository,
+                                      ExchangeRateHistoryRepository historyRepository) {
+        this.snapshotRepository = snapshotRepository;
+        this.historyRepository = historyRepository;
+    }
+
+    /**
+     * Appends the fetched rates to the history as a new snapshot.
+     *
+     * @param rates The fetched rates against CZK by currency.
+     * @return The id of the new snapshot.
+     */
+    @Transactional
+    public Long recordSnapshot(Map<String, Double> rates) {
+        ExchangeRateSnapshot snapshot = new ExchangeRateSnapshot();
+        snapshot.setFetchedAt(Instant.now());
+        snapshot = snapshotRepository.save(snapshot);
+        List<ExchangeRateHistory> history = new ArrayList<>(rates.size());
+        for (Map.Entry<String, Double> rate : rates.entrySet()) {
+            ExchangeRateHistory entry = new ExchangeRateHistory();
+            entry.setSnapshotId(snapshot.getId());
+            entry.setCurrency(rate.getKey());
+            entry.setRate(rate.getValue());
+            history.add(entry);
+        }
+        historyRepository.saveAll(history);
+        append(snapshot, rates);
+        return snapshot.getId();
+    }
+
+    /**
+     * Retrieves the id of the latest snapshot of the rates.
+     *
+     * @return The id of the latest snapshot, or null if no rates have been fetched yet.
+     */
+    public Long getLatestSnapshotId() {
+        timelines();
+        return latestSnapshotId;
+    }
+
+    /**
+     * Retrieves the rates of the latest snapshot, as they were recorded.
+     * If this instance holds no snapshot, the timelines are loaded from the database again,
+     * so a snapshot recorded by another instance since they were loaded is found.
+     *
+     * @return The rates of the latest snapshot, or an empty list if no rates have been fetched yet.
+     */
+    public List<HistoricalRate> findLatestRates() {
+        timelines();
+        if (latestSnapshotId == null) {
+            reloadTimelines();
+        }
+        // The id is read before the timelines, which are always replaced before it
+        Long latest = latestSnapshotId;
+        Map<String, RateTimeline> loaded = timelines;
+        List<HistoricalRate> rates = new ArrayList<>();
+        if (latest == null) {
+            return rates;
+        }
+        loaded.forEach((currency, timeline) -> {
+            int index = timeline.indexOf(latest);
+            if (index >= 0) {
+                rates.add(new HistoricalRate(latest, currency, timeline.rates()[index],
+                        Instant.ofEpochMilli(timeline.fetchedAt()[index])));
+            }
+        });
+        return rates;
+    }
+
+    /**
+     * Retrieves the rate of a currency as it was at the given time,
+     * which is the rate of the latest snapshot fetched at or before that time.
+     *
+     * @param currency The currency of the rate.
+     * @param instant  The time of the rate.
+     * @return The rate of the currency at the given time.
+     * @throws ApplicationException if no rate of the currency was fetched by the given time.
+     */
+    public HistoricalRate rateAsOf(String currency, Instant instant) {
+        RateTimeline timeline = timelines().get(currency);
+        int index = timeline == null ? -1 : timeline.indexAsOf(instant.toEpochMilli());
+        if (index < 0) {
+            throw new ApplicationException(HttpStatus.NOT_FOUND,
+                    "Rate of currency " + currency + " as of " + instant + " is not found.");
+        }
+        return new HistoricalRate(timeline.snapshotIds()[index], currency, timeline.rates()[index],
+                Instant.ofEpochMilli(timeline.fetchedAt()[index]));
+    }
+
+    /**
+     * Returns the timelines of all currencies, loading them from the database on first use.
+     *
+     * @return The timelines by currency.
+     */
+    private Map<String, RateTimeline> timelines() {
+        Map<String, RateTimeline> loaded = timelines;
+        return loaded != null ? loaded : loadTimelines();
+    }
+
+    /**
+     * Loads the timelines of all currencies from the history in one query.
+     *
+     * @return The timelines by currency.
+     */
+    private synchronized Map<String, RateTimeline> loadTimelines() {
+        if (timelines != null) {
+            return timelines;
+        }
+        Map<String, List<HistoricalRate>> ratesByCurrency = new HashMap<>();
+        Long latest = null;
+        for (HistoricalRate rate : historyRepository.findAllHistoricalRates()) {
+            ratesByCurrency.computeIfAbsent(rate.currency(), currency -> new ArrayList<>()).add(rate);
+            latest = rate.snapshotId();
+        }
+        Map<String, RateTimeline> loaded = new HashMap<>();
+        ratesByCurrency.forEach((currency, rates) -> loaded.put(currency, RateTimeline.of(rates)));
+        timelines = loaded;
+        latestSnapshotId = latest;
+        return loaded;
+    }
+
+    /**
+     * Discards the timelines in memory and loads them from the history again, unless a snapshot has been
+     * appended or loaded in the meantime.
+     */
+    private synchronized void reloadTimelines() {
+        if (latestSnapshotId == null) {
+            timelines = null;
+            loadTimelines();
+        }
+    }
+
+    /**
+     * Appends a snapshot to the timelines in memory.
+     * The timelines are copied, so a concurrent search always sees a complete timeline.
+     *
+     * @param snapshot The new snapshot.
+     * @param rates    The rates of the snapshot by currency.
+     */
+    private synchronized void append(ExchangeRateSnapshot snapshot, Map<String, Double> rates) {
+        Map<String, RateTimeline> appended = new HashMap<>(timelines());
+        long fetchedAt = snapshot.getFetchedAt().toEpochMilli();
+        rates.forEach((currency, rate) -> appended.put(currency,
+                appended.getOrDefault(currency, RateTimeline.EMPTY).append(fetchedAt, snapshot.getId(), rate)));
+        timelines = appended;
+        latestSnapshotId = snapshot.getId();
+    }
+
+    /**
+     * This record is the history of the rate of one currency,
+     * stored in parallel arrays sorted by the time of the fetch.
+     *
+     * @param fetchedAt   The times of the fetches in epoch milliseconds.
+     * @param snapshotIds The ids of the snapshots.
+     * @param rates       The rates.
+     */
+    private record RateTimeline(long[] fetchedAt, long[] snapshotIds, double[] rates) {
+        private static final RateTimeline EMPTY = new RateTimeline(new long[0], new long[0], new double[0]);
+
+        private static RateTimeline of(List<HistoricalRate> history) {
+            long[] fetchedAt = new long[history.size()];
+            long[] snapshotIds = new long[history.size()];
+            double[] rates = new double[history.size()];
+            for (int i = 0; i < history.size(); i++) {
+                fetchedAt[i] = history.get(i).fetchedAt().toEpochMilli();
+                snapshotIds[i] = history.get(i).snapshotId();
+                rates[i] = history.get(i).rate();
+            }
+            return new RateTimeline(fetchedAt, snapshotIds, rates);
+        }
+
+        private RateTimeline append(long time, long snapshotId, double rate) {
+            int size = fetchedAt.length;
+            long[] newFetchedAt = Arrays.copyOf(fetchedAt, size + 1);
+            long[] newSnapshotIds = Arrays.copyOf(snapshotIds, size + 1);
+            double[] newRates = Arrays.copyOf(rates, size + 1);
+            newFetchedAt[size] = time;
+            newSnapshotIds[size] = snapshotId;
+            newRates[size] = rate;
+            return new RateTimeline(newFetchedAt, newSnapshotIds, newRates);
+        }
+
+        /**
+         * Finds the rate of the given snapshot, searching from the latest fetch.
+         *
+         * @param snapshotId The id of the snapshot.
+         * @return The index of the rate, or -1 if the currency was not fetched in the snapshot.
+         */
+        private int indexOf(long snapshotId) {
+            for (int index = snapshotIds.length - 1; index >= 0; index--) {
+                if (snapshotIds[index] == snapshotId) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Finds the last fetch at or before the given time in O(log n).
+         *
+         * @param time The time in epoch milliseconds.
+         * @return The index of the fetch, or -1 if there is none.
+         */
+        private int indexAsOf(long time) {
+            int index = Arrays.binarySearch(fetchedAt, time);
+            if (index < 0) {
+                return -index - 2;
+            }
+            while (index + 1 < fetchedAt.length && fetchedAt[index + 1] == time) {
+                index++;
+            }
+            return index;
+        }
+    }
+}
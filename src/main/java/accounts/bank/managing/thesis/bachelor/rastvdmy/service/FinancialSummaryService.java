@@ -0,0 +1,124 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.FinancialSummaryResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Card;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.LedgerOperation;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.User;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.UserDailyFlowRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.UserFinancialSummaryRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * This class is responsible for the financial summary of users.
+ * The summary is a projection maintained incrementally by the ledger, loan and deposit services
+ * in the same transaction as the change itself, so reading it never walks the cards, loans, deposits and transfers
+ * of the user.
+ */
+@Service
+public class FinancialSummaryService {
+
+    /**
+     * The number of days included in the inflow and outflow of the summary.
+     */
+    public static final int FLOW_DAYS = 30;
+
+    private final UserFinancialSummaryRepository summaryRepository;
+    private final UserDailyFlowRepository dailyFlowRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * Constructs a new FinancialSummaryService with the given repositories.
+     *
+     * @param summaryRepository   The UserFinancialSummaryRepository to use.
+     * @param dailyFlowRepository The UserDailyFlowRepository to use.
+     * @param userRepository      The UserRepository to use.
+     */
+    @Autowired
+    public FinancialSummaryService(UserFinancialSummaryRepository summaryRepository,
+                                   UserDailyFlowRepository dailyFlowRepository, UserRepository userRepository) {
+        this.summaryRepository = summaryRepository;
+        this.dailyFlowRepository = dailyFlowRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Records a ledger posting in the summary of the owner of the card.
+     * Transfers and refills are also counted in the daily flow. Deposit postings only move money
+     * between the balance and the deposit principal, so they are not counted as flow.
+     *
+     * @param card      The card of the posting.
+     * @param amount    The signed amount of the posting.
+     * @param operation The operation of the posting.
+     * @param slot      The slot to update, which is the balance shard for credits of sharded cards and 0 otherwise.
+     */
+    public void recordPosting(Card card, BigDecimal amount, LedgerOperation operation, int slot) {
+        Long userId = card.getUser().getId();
+        String currency = card.getCurrencyType().name();
+        summaryRepository.add(userId, currency, slot, amount, BigDecimal.ZERO, BigDecimal.ZERO);
+        if (operation == LedgerOperation.TRANSFER || operation == LedgerOperation.REFILL) {
+            dailyFlowRepository.add(userId, currency, LocalDate.now(), slot,
+                    amount.signum() > 0 ? amount : BigDecimal.ZERO,
+                    amount.signum() < 0 ? amount.negate() : BigDecimal.ZERO);
+        }
+    }
+
+    /**
+     * Records a change of the outstanding loan of a user.
+     *
+     * @param user     The owner of the loan.
+     * @param currency The currency of the loan.
+     * @param amount   The change of the outstanding amount.
+     */
+    public void recordLoan(User user, Currency currency, BigDecimal amount) {
+        summaryRepository.add(user.getId(), currency.name(), 0, BigDecimal.ZERO, amount, BigDecimal.ZERO);
+    }
+
+    /**
+     * Records a change of the deposit principal of a user.
+     *
+     * @param user     The owner of the deposit.
+     * @param currency The currency of the deposit.
+     * @param amount   The change of the principal.
+     */
+    public void recordDeposit(User user, Currency currency, BigDecimal amount) {
+        summaryRepository.add(user.getId(), currency.name(), 0, BigDecimal.ZERO, BigDecimal.ZERO, amount);
+    }
+
+    /**
+     * Retrieves the financial summary of a user, one entry per currency.
+     *
+     * @param userId The id of the user.
+     * @return The summary of the user.
+     * @throws ApplicationException if the user is not found.
+     */
+    public List<FinancialSummaryResponse> getSummary(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ApplicationException(HttpStatus.NOT_FOUND, "User not found.");
+        }
+        return summaryRepository.findSummary(userId, LocalDate.now().minusDays(FLOW_DAYS - 1)).stream()
+                .map(row -> new FinancialSummaryResponse(
+                        Currency.valueOf((String) row[0]),
+                        toBigDecimal(row[1]),
+                        toBigDecimal(row[2]),
+                        toBigDecimal(row[3]),
+                        toBigDecimal(row[4]),
+                        toBigDecimal(row[5])))
+                .toList();
+    }
+
+    private BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+}
@@ -0,0 +1,230 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.IdempotencyRecord;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.IdempotentOperation;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.IdempotencyRecordRepository;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * This class is responsible for processing requests with an idempotency key exactly once.
+ * Keys are scoped to the user who sent them, and a key is bound to the hash of the request it was first sent with.
+ * The id of the resource created for a key is kept in the Hazelcast map "idempotency",
+ * so every instance of the application answers a retried request without touching the database.
+ * The IdempotencyRecord table with a unique constraint on the key, the operation and the caller
+ * is the durable fallback for keys evicted from the map.
+ */
+@Service
+public class IdempotencyService {
+    private static final Logger LOG = LoggerFactory.getLogger(IdempotencyService.class);
+
+    /**
+     * The name of the Hazelcast map with the processed keys. Its time to live is configured in hazelcast.yml.
+     */
+    public static final String IDEMPOTENCY_MAP = "idempotency";
+
+    /**
+     * The maximum length of an idempotency key.
+     */
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private final IMap<String, ProcessedRequest> processedKeys;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${idempotency.lock-wait-seconds:10}")
+    private long lockWaitSeconds;
+
+    @Value("${idempotency.lock-lease-seconds:30}")
+    private long lockLeaseSeconds;
+
+    @Value("${idempotency.retention-hours:24}")
+    private long retentionHours;
+
+    /**
+     * Constructs a new IdempotencyService with the given Hazelcast instance, repository and transaction manager.
+     *
+     * @param hazelcastInstance           The HazelcastInstance holding the map of processed keys.
+     * @param idempotencyRecordRepository The IdempotencyRecordRepository to use.
+     * @param transactionManager          The PlatformTransactionManager to use.
+     */
+    @Autowired
+    public IdempotencyService(HazelcastInstance hazelcastInstance,
+                              IdempotencyRecordRepository idempotencyRecordRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.processedKeys = hazelcastInstance.getMap(IDEMPOTENCY_MAP);
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Executes the action once for the given idempotency key of the given caller.
+     * If the key has already been processed, the resource created by the first request is loaded and returned instead.
+     * The action and the record of the key are committed in one transaction,
+     * so a key is never recorded for a resource that was rolled back.
+     * Without a key the action is simply executed.
+     *
+     * @param operation      The operation performed by the request.
+     * @param callerId       The id of the authenticated user sending the request.
+     * @param idempotencyKey The idempotency key sent by the client, or null.
+     * @param request        The body of the request, compared with the body first sent with the key.
+     * @param action         The action creating the resource.
+     * @param idOf           The function returning the id of the created resource.
+     * @param loader         The function loading the resource by its id.
+     * @param <T>            The type of the resource.
+     * @return The created resource, or the resource created by the first request with the same key.
+     * @throws ApplicationException If the key is invalid, was used with a different request,
+     *                              or a request with the same key is still being processed.
+     */
+    public <T> T execute(IdempotentOperation operation, Long callerId, String idempotencyKey, Object request,
+                         Supplier<T> action, Function<T, Long> idOf, Function<Long, T> loader) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                    "Idempotency key must be between 1 and " + MAX_KEY_LENGTH + " characters long.");
+        }
+        String mapKey = operation + ":" + callerId + ":" + idempotencyKey;
+        String requestHash = hash(request);
+        ProcessedRequest processed = findProcessedRequest(mapKey, idempotencyKey, operation, callerId);
+        if (processed != null) {
+            LOG.debug("Replaying {} for idempotency key {} ...", operation, idempotencyKey);
+            return replay(processed, requestHash, loader);
+        }
+
+        if (!tryLock(mapKey)) {
+            throw new ApplicationException(HttpStatus.CONFLICT, "A request with this idempotency key is in progress.");
+        }
+        try {
+            processed = findProcessedRequest(mapKey, idempotencyKey, operation, callerId);
+            if (processed != null) {
+                return replay(processed, requestHash, loader);
+            }
+            T result;
+            try {
+                result = transactionTemplate.execute(status -> {
+                    T created = action.get();
+                    IdempotencyRecord record = new IdempotencyRecord();
+                    record.setIdempotencyKey(idempotencyKey);
+                    record.setOperation(operation);
+                    record.setCallerId(callerId);
+                    record.setRequestHash(requestHash);
+                    record.setResourceId(idOf.apply(created));
+                    record.setCreatedAt(LocalDateTime.now());
+                    idempotencyRecordRepository.save(record);
+                    return created;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Another instance recorded the key after the lock lease expired; its resource is the answer.
+                processed = findProcessedRequest(mapKey, idempotencyKey, operation, callerId);
+                if (processed == null) {
+                    throw new ApplicationException(HttpStatus.CONFLICT,
+                            "A request with this idempotency key is in progress.");
+                }
+                return replay(processed, requestHash, loader);
+            }
+            processedKeys.put(mapKey, new ProcessedRequest(idOf.apply(result), requestHash));
+            return result;
+        } finally {
+            unlock(mapKey);
+        }
+    }
+
+    /**
+     * Deletes the records of idempotency keys older than the retention period.
+     * Runs every hour.
+     */
+    @Scheduled(fixedRateString = "${idempotency.purge-rate:3600000}")
+    public void purgeExpiredKeys() {
+        int deleted = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            LOG.info("Purged {} expired idempotency keys.", deleted);
+        }
+    }
+
+    private ProcessedRequest findProcessedRequest(String mapKey, String idempotencyKey,
+                                                  IdempotentOperation operation, Long callerId) {
+        ProcessedRequest processed = processedKeys.get(mapKey);
+        if (processed != null) {
+            return processed;
+        }
+        IdempotencyRecord record = idempotencyRecordRepository.findByIdempotencyKeyAndOperationAndCallerId(
+                idempotencyKey, operation, callerId);
+        if (record == null) {
+            return null;
+        }
+        processed = new ProcessedRequest(record.getResourceId(), record.getRequestHash());
+        processedKeys.put(mapKey, processed);
+        return processed;
+    }
+
+    private static <T> T replay(ProcessedRequest processed, String requestHash, Function<Long, T> loader) {
+        if (!processed.requestHash().equals(requestHash)) {
+            throw new ApplicationException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency key was already used with a different request.");
+        }
+        return loader.apply(processed.resourceId());
+    }
+
+    private static String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(String.valueOf(request).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    private boolean tryLock(String mapKey) {
+        try {
+            return processedKeys.tryLock(mapKey, lockWaitSeconds, TimeUnit.SECONDS, lockLeaseSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void unlock(String mapKey) {
+        // The lease may have expired during a slow request, after which the lock is no longer ours to release.
+        if (!processedKeys.isLocked(mapKey)) {
+            LOG.warn("Lock of idempotency key {} expired before the request finished.", mapKey);
+            return;
+        }
+        try {
+            processedKeys.unlock(mapKey);
+        } catch (IllegalMonitorStateException e) {
+            LOG.warn("Lock of idempotency key {} is held by another request.", mapKey);
+        }
+    }
+
+    /**
+     * The id of the resource created for an idempotency key and the hash of the request that created it.
+     *
+     * @param resourceId  The id of the created resource.
+     * @param requestHash The SHA-256 hash of the request.
+     */
+    public record ProcessedRequest(Long resourceId, String requestHash) implements Serializable {
+    }
+}
@@ -0,0 +1,131 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Card;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.LedgerOperation;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.LedgerPosting;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.LedgerPostingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * This class is responsible for the ledger of card balances.
+ * Every change of a balance is appended to the ledger as a posting,
+ * and the balance of the card is kept as a projection of its postings.
+ * The posting and the new balance are written in the transaction of the caller.
+ * Credits of sharded cards are applied to a balance shard instead of the card row.
+ * Every posting is also recorded in the financial summary of the owner of the card.
+ */
+@Service
+public class LedgerService {
+
+    /**
+     * The scale of the amounts stored in the ledger and on the cards.
+     */
+    public static final int SCALE = 2;
+
+    private final LedgerPostingRepository ledgerPostingRepository;
+    private final BalanceShardService balanceShardService;
+    private final FinancialSummaryService financialSummaryService;
+
+    /**
+     * Constructs a new LedgerService with the given repository.
+     *
+     * @param ledgerPostingRepository The LedgerPostingRepository to use.
+     * @param balanceShardService     The BalanceShardService to use.
+     * @param financialSummaryService The FinancialSummaryService to use.
+     */
+    @Autowired
+    public LedgerService(LedgerPostingRepository ledgerPostingRepository, BalanceShardService balanceShardService,
+                         FinancialSummaryService financialSummaryService) {
+        this.ledgerPostingRepository = ledgerPostingRepository;
+        this.balanceShardService = balanceShardService;
+        this.financialSummaryService = financialSummaryService;
+    }
+
+    /**
+     * Returns the visible balance of the card, including the balance of its shards.
+     *
+     * @param card The card.
+     * @return The visible balance of the card.
+     */
+    public BigDecimal getBalance(Card card) {
+        return balanceShardService.getBalance(card);
+    }
+
+    /**
+     * Rounds an amount to the scale of the ledger.
+     * Amounts are rounded here once, before they are recorded on a transfer or deposit and posted,
+     * so the recorded amount and the posted amount are always the same.
+     *
+     * @param amount The amount to round.
+     * @return The rounded amount.
+     */
+    public static BigDecimal round(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Appends a posting to the ledger of the card and applies it to the balance of the card.
+     * The amount must already be rounded to the scale of the balance, so the balance always equals
+     * the sum of the postings.
+     * A debit of a sharded card moves the balance of its shards to the card first.
+     * The balance is changed with one update statement, which rejects a debit the balance does not cover,
+     * so concurrent postings to the same card are never lost.
+     *
+     * @param card            The card whose balance is changed.
+     * @param amount          The signed amount in the currency of the card. Debits are negative.
+     * @param operation       The operation changing the balance.
+     * @param referenceNumber The reference number of the transfer or deposit, or null.
+     * @return The saved posting.
+     * @throws ApplicationException if a debit exceeds the balance of the card.
+     * @throws IllegalArgumentException if the amount is not rounded to the scale of the balance.
+     */
+    public LedgerPosting post(Card card, BigDecimal amount, LedgerOperation operation, String referenceNumber) {
+        if (amount.scale() > SCALE) {
+            throw new IllegalArgumentException("Amount " + amount + " is not rounded to " + SCALE + " places.");
+        }
+        LedgerPosting posting = new LedgerPosting();
+        posting.setCardId(card.getId());
+        posting.setAmount(amount);
+        posting.setOperation(operation);
+        posting.setReferenceNumber(referenceNumber);
+        posting.setCreatedAt(LocalDateTime.now());
+        int slot = 0;
+        if (balanceShardService.isSharded(card) && amount.signum() > 0) {
+            slot = balanceShardService.shardIndex(card, referenceNumber);
+            balanceShardService.credit(card, slot, amount);
+        } else {
+            if (balanceShardService.isSharded(card)) {
+                balanceShardService.drain(card);
+            }
+            if (!balanceShardService.addToCard(card, amount)) {
+                throw new ApplicationException(HttpStatus.BAD_REQUEST, "Insufficient funds.");
+            }
+        }
+        LedgerPosting saved = ledgerPostingRepository.save(posting);
+        financialSummaryService.recordPosting(card, amount, operation, slot);
+        return saved;
+    }
+
+    /**
+     * Appends both sides of a transfer to the ledger.
+     * The sender is debited in the currency of its card and the receiver is credited in the currency of its card.
+     *
+     * @param senderCard      The card of the sender.
+     * @param sentAmount      The amount debited from the sender.
+     * @param receiverCard    The card of the receiver.
+     * @param receivedAmount  The amount credited to the receiver.
+     * @param referenceNumber The reference number of the transfer.
+     */
+    public void postTransfer(Card senderCard, BigDecimal sentAmount, Card receiverCard, BigDecimal receivedAmount,
+                             String referenceNumber) {
+        post(senderCard, sentAmount.negate(), LedgerOperation.TRANSFER, referenceNumber);
+        post(receiverCard, receivedAmount, LedgerOperation.TRANSFER, referenceNumber);
+    }
+}
@@ -0,0 +1,185 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class is responsible for pushing new messages to connected users over Server-Sent Events.
+ * It is annotated with @Service to indicate that it's a Spring managed service.
+ * Every connection has a bounded buffer of pending messages which is drained by a shared executor.
+ * A connection whose buffer is full is considered a slow consumer and is closed,
+ * so it never blocks the delivery to other users.
+ */
+@Slf4j
+@Service
+public class MessagePushService {
+    private final Map<Long, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final int bufferSize;
+    private final long timeout;
+    private final Executor executor;
+
+    /**
+     * Constructs a new MessagePushService with the given buffer size, timeout and number of sender threads.
+     *
+     * @param bufferSize The maximum number of pending messages per connection.
+     * @param timeout    The timeout of a connection in milliseconds.
+     * @param threads    The number of threads sending messages to the connections.
+     */
+    @Autowired
+    public MessagePushService(@Value("${push.buffer-size:64}") int bufferSize,
+                              @Value("${push.timeout:1800000}") long timeout,
+                              @Value("${push.threads:4}") int threads) {
+        this(bufferSize, timeout, Executors.newFixedThreadPool(threads));
+    }
+
+    /**
+     * Constructs a new MessagePushService with the given buffer size, timeout and executor.
+     *
+     * @param bufferSize The maximum number of pending messages per connection.
+     * @param timeout    The timeout of a connection in milliseconds.
+     * @param executor   The executor sending messages to the connections.
+     */
+    MessagePushService(int bufferSize, long timeout, Executor executor) {
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.executor = executor;
+    }
+
+    /**
+     * Opens a new connection for a user.
+     * The connection is removed when it completes, times out or fails.
+     *
+     * @param userId The ID of the user.
+     * @return The emitter of the connection.
+     */
+    public SseEmitter subscribe(Long userId) {
+        Connection connection = new Connection(userId, new SseEmitter(timeout), bufferSize);
+        connections.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(connection);
+        connection.emitter.onCompletion(() -> remove(connection));
+        connection.emitter.onTimeout(() -> remove(connection));
+        connection.emitter.onError(e -> remove(connection));
+        return connection.emitter;
+    }
+
+    /**
+     * Pushes a message to every connection of the receiver.
+     * If the buffer of a connection is full, the connection is closed.
+     *
+     * @param receiverId The ID of the receiver.
+     * @param content    The content of the message.
+     */
+    public void publish(Long receiverId, String content) {
+        Set<Connection> receiverConnections = connections.get(receiverId);
+        if (receiverConnections == null) {
+            return;
+        }
+        String data = HtmlUtils.htmlEscape(content);
+        for (Connection connection : receiverConnections) {
+            if (connection.queue.offer(data)) {
+                schedule(connection);
+            } else {
+                log.warn("Dropping slow connection of user {}", receiverId);
+                remove(connection);
+                connection.emitter.complete();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of open connections of a user.
+     *
+     * @param userId The ID of the user.
+     * @return The number of open connections.
+     */
+    public int getConnectionCount(Long userId) {
+        Set<Connection> userConnections = connections.get(userId);
+        return userConnections == null ? 0 : userConnections.size();
+    }
+
+    /**
+     * Schedules draining of a connection unless it is already being drained.
+     *
+     * @param connection The connection to drain.
+     */
+    private void schedule(Connection connection) {
+        if (connection.draining.compareAndSet(false, true)) {
+            executor.execute(() -> drain(connection));
+        }
+    }
+
+    /**
+     * Sends all pending messages of a connection.
+     *
+     * @param connection The connection to drain.
+     */
+    private void drain(Connection connection) {
+        try {
+            String data;
+            while ((data = connection.queue.poll()) != null) {
+                connection.emitter.send(SseEmitter.event().name("message").data(data));
+            }
+        } catch (IOException | IllegalStateException e) {
+            remove(connection);
+            connection.emitter.completeWithError(e);
+        } finally {
+            connection.draining.set(false);
+        }
+        if (!connection.queue.isEmpty()) {
+            schedule(connection);
+        }
+    }
+
+    /**
+     * Stops the threads sending messages to the connections.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * Removes a connection from the registry.
+     *
+     * @param connection The connection to remove.
+     */
+    private void remove(Connection connection) {
+        connections.computeIfPresent(connection.userId, (id, userConnections) -> {
+            userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+
+    /**
+     * This class represents a single connection of a user with its bounded buffer of pending messages.
+     */
+    private static final class Connection {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Queue<String> queue;
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+
+        private Connection(Long userId, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.MessageResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Message;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.User;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
@@ -8,15 +9,18 @@ import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.UserRepository
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.HtmlUtils;
 
 import java.time.LocalDateTime;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * This class is responsible for managing messages.
@@ -46,8 +50,8 @@ public class MessageService {
      * @return A list of all messages.
      */
     @Cacheable(value = "messages")
-    public List<Message> getMessages() {
-        return messageRepository.findAll();
+    public List<MessageResponse> getMessages() {
+        return messageRepository.findAllProjectedBy();
     }
 
     /**
@@ -57,24 +61,45 @@ public class MessageService {
      * @return The retrieved message.
      */
     @Cacheable(value = "messages", key = "#messageId")
-    public Message getMessageById(Long messageId) {
-        return messageRepository.findById(messageId).orElseThrow(
+    public MessageResponse getMessageById(Long messageId) {
+        return messageRepository.findProjectedById(messageId).orElseThrow(
                 () -> new ApplicationException(HttpStatus.NOT_FOUND, "Message with id " + messageId + " not found.")
         );
     }
 
     /**
-     * Retrieves messages by their content.
+     * Searches messages by the words of their content.
+     * Every word of the content is matched as a prefix, and all words must be present in a message.
+     * The results are ordered by their relevance.
      *
-     * @param content The content of the messages to retrieve.
-     * @return The retrieved messages.
+     * @param content  The words to search for.
+     * @param pageable The pagination information.
+     * @return A page of the found messages.
      */
-    @Cacheable(value = "messages", key = "#content")
-    public List<Message> getMessagesByContent(String content) {
-        if (content.isEmpty()) {
+    @Cacheable(value = "messages",
+            key = "'search:' + #content.toLowerCase(T(java.util.Locale).ROOT) + ':' "
+                    + "+ #pageable.pageNumber + ':' + #pageable.pageSize")
+    public Page<MessageResponse> getMessagesByContent(String content, Pageable pageable) {
+        String query = toPrefixQuery(content);
+        if (query.isEmpty()) {
             throw new ApplicationException(HttpStatus.NOT_FOUND, "Message " + content + " not found.");
         }
-        return messageRepository.findByContent(content);
+        return messageRepository.searchByContent(query, pageable).map(MessageResponse::from);
+    }
+
+    /**
+     * Converts the searched content to a tsquery matching every word as a prefix.
+     * Characters other than letters and digits are treated as separators,
+     * so the user input cannot change the syntax of the query.
+     *
+     * @param content The searched content.
+     * @return The tsquery, or an empty string if the content contains no words.
+     */
+    private String toPrefixQuery(String content) {
+        return Arrays.stream(content.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
     }
 
     /**
@@ -84,21 +109,13 @@ public class MessageService {
      * @param order    The order to sort the messages in.
      * @return The retrieved and sorted messages.
      */
-    @Cacheable(value = "messages", key = "#root.methodName + #senderId")
-    public List<Message> getSortedMessagesBySenderId(Long senderId, String order) {
+    @Cacheable(value = "messages", key = "#root.methodName + #senderId + #order")
+    public List<MessageResponse> getSortedMessagesBySenderId(Long senderId, String order) {
         userRepository.findById(senderId).orElseThrow(
                 () -> new ApplicationException(HttpStatus.NOT_FOUND, "Sender with id " + senderId + " not found.")
         );
-        List<Message> messages = messageRepository.findAll();
-        Stream<Message> sortedStream = messages.stream()
-                .filter(message -> message.getSender().getId().equals(senderId));
-        if (order.equalsIgnoreCase("desc")) {
-            sortedStream = sortedStream.sorted(Comparator.comparing(Message::getId).reversed());
-        } else {
-            sortedStream = sortedStream.sorted(Comparator.comparing(Message::getId));
-        }
-
-        return sortedStream.collect(Collectors.toList());
+        Sort sort = Sort.by(order.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC, "id");
+        return messageRepository.findAllBySenderId(senderId, sort);
     }
 
     /**
@@ -108,20 +125,13 @@ public class MessageService {
      * @param order      The order to sort the messages in.
      * @return The retrieved and sorted messages.
      */
-    @Cacheable(value = "messages", key = "#root.methodName + #receiverId")
-    public List<Message> getSortedMessagesByReceiverId(Long receiverId, String order) {
+    @Cacheable(value = "messages", key = "#root.methodName + #receiverId + #order")
+    public List<MessageResponse> getSortedMessagesByReceiverId(Long receiverId, String order) {
         userRepository.findById(receiverId).orElseThrow(
                 () -> new ApplicationException(HttpStatus.NOT_FOUND, "Receiver with id " + receiverId + " not found.")
         );
-        List<Message> messages = messageRepository.findAll();
-        Stream<Message> sortedStream = messages.stream()
-                .filter(message -> message.getReceiver().getId().equals(receiverId));
-        if (order.equalsIgnoreCase("desc")) {
-            sortedStream = sortedStream.sorted(Comparator.comparing(Message::getId).reversed());
-        } else {
-            sortedStream = sortedStream.sorted(Comparator.comparing(Message::getId));
-        }
-        return sortedStream.collect(Collectors.toList());
+        Sort sort = Sort.by(order.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC, "id");
+        return messageRepository.findAllByReceiverId(receiverId, sort);
     }
 
     /**
@@ -1,10 +1,15 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.TransferResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.request.TransferRequest;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.TransferResultResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.Generator;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.MoneyConverter;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.*;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CardRepository;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.TransferRepository;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
@@ -15,20 +20,35 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.util.HtmlUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * This class is responsible for managing transfers.
  * It is annotated with @Service to indicate that it's a Spring managed service.
  * It uses TransferRepository, CardRepository, and CurrencyDataRepository to interact with the database.
+ * Balances are changed only through the LedgerService, so every transfer is recorded in the ledger of both cards.
+ * A converted transfer records the exchange rate snapshot of the rate it was converted with,
+ * so it can be repriced later.
  */
 @Service
 public class TransferService {
+    private static final int MAX_BATCH_SIZE = 10_000;
+
     private final TransferRepository transferRepository;
     private final CardRepository cardRepository;
     private final CurrencyDataService currencyDataService;
+    private final LedgerService ledgerService;
+    private final MoneyConverter moneyConverter;
 
     /**
      * Constructs a new TransferService with the given repositories.
@@ -36,13 +56,18 @@ public class TransferService {
      * @param transferRepository  The TransferRepository to use.
      * @param cardRepository      The CardRepository to use.
      * @param currencyDataService The CurrencyDataService to use.
+     * @param ledgerService       The LedgerService to use.
+     * @param moneyConverter      The MoneyConverter to use.
      */
     @Autowired
     public TransferService(TransferRepository transferRepository, CardRepository cardRepository,
-                           CurrencyDataService currencyDataService) {
+                           CurrencyDataService currencyDataService, LedgerService ledgerService,
+                           MoneyConverter moneyConverter) {
         this.transferRepository = transferRepository;
         this.cardRepository = cardRepository;
         this.currencyDataService = currencyDataService;
+        this.ledgerService = ledgerService;
+        this.moneyConverter = moneyConverter;
     }
 
     /**
@@ -51,8 +76,8 @@ public class TransferService {
      * @return A list of all transfers.
      */
     @Cacheable(value = "transfers")
-    public List<Transfer> getTransfers() {
-        return transferRepository.findAll();
+    public List<TransferResponse> getTransfers() {
+        return transferRepository.findAllProjectedBy();
     }
 
     /**
@@ -62,8 +87,8 @@ public class TransferService {
      * @return A page of transfers.
      */
     @Cacheable(value = "transfers")
-    public Page<Transfer> filterAndSortTransfers(Pageable pageable) {
-        return transferRepository.findAll(pageable);
+    public Page<TransferResponse> filterAndSortTransfers(Pageable pageable) {
+        return transferRepository.findAllProjectedBy(pageable);
     }
 
     /**
@@ -73,8 +98,8 @@ public class TransferService {
      * @return The retrieved transfer.
      */
     @Cacheable(value = "transfers", key = "#transferId")
-    public Transfer getTransferById(Long transferId) {
-        return transferRepository.findById(transferId).orElseThrow(
+    public TransferResponse getTransferById(Long transferId) {
+        return transferRepository.findProjectedById(transferId).orElseThrow(
                 () -> new ApplicationException(HttpStatus.NOT_FOUND, "Transfer not found.")
         );
     }
@@ -86,11 +111,11 @@ public class TransferService {
      * @return The retrieved transfer.
      */
     @Cacheable(value = "transfers", key = "#referenceNumber")
-    public Transfer getTransferByReferenceNumber(String referenceNumber) {
+    public TransferResponse getTransferByReferenceNumber(String referenceNumber) {
         if (referenceNumber.isEmpty()) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Transfer is not found.");
         }
-        return transferRepository.findByReferenceNumber(referenceNumber);
+        return transferRepository.findProjectedByReferenceNumber(referenceNumber).orElse(null);
     }
 
     /**
@@ -102,23 +127,29 @@ public class TransferService {
      * @param description        The description of the transfer.
      * @return The created transfer.
      */
+    @Transactional
     @CacheEvict(value = {"transfers", "cards"}, allEntries = true)
     public Transfer createTransfer(Long senderId, String receiverCardNumber, BigDecimal amount, String description) {
         Transfer transfer = new Transfer();
+        // The amount is rounded once, so the transfer records exactly the amount posted to the ledger
+        amount = LedgerService.round(amount);
 
-        Card senderCard = cardRepository.findById(senderId).orElseThrow(
+        Card senderCard = cardRepository.findWithUserById(senderId).orElseThrow(
                 () -> new ApplicationException(HttpStatus.NOT_FOUND, "Sender card not found.")
         );
         if (senderCard.getStatus() == CardStatus.STATUS_CARD_BLOCKED) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Operation is unavailable. Sender card is blocked.");
         }
-        if (senderCard.getBalance().compareTo(amount) < 0) {
+        if (senderCard.isExpired(LocalDate.now())) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Operation is unavailable. Sender card is expired.");
+        }
+        if (ledgerService.getBalance(senderCard).compareTo(amount) < 0) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Insufficient funds.");
         }
         if (amount.compareTo(BigDecimal.ZERO) < 0) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Transfer amount cannot be negative.");
         }
-        Card receiverCard = cardRepository.findByCardNumber(receiverCardNumber);
+        Card receiverCard = cardRepository.findWithUserByCardNumber(receiverCardNumber);
         if (receiverCard == null) {
             throw new ApplicationException(HttpStatus.NOT_FOUND, "Receiver card not found.");
         }
@@ -126,6 +157,10 @@ public class TransferService {
             throw new ApplicationException(HttpStatus.BAD_REQUEST,
                     "Operation is unavailable. Receiver card is blocked.");
         }
+        if (receiverCard.isExpired(LocalDate.now())) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                    "Operation is unavailable. Receiver card is expired.");
+        }
         if (Objects.equals(receiverCard.getStatus(), CardStatus.STATUS_CARD_BLOCKED)) {
             setDefaultTransferData(
                     "DENIED: Receiver card is not found or blocked.", transfer, senderCard, receiverCard);
@@ -148,19 +183,203 @@ public class TransferService {
             transfer.setAmount(amount);
         }
 
-        // Updating sender balance by subtracting amount
-        senderCard.setBalance(senderCard.getBalance().subtract(amount));
-
-        // Updating receiver balance by adding amount
-        receiverCard.setBalance(receiverCard.getBalance().add(transfer.getAmount()));
+        // Posting the amount to the ledger of both cards and updating their balances
+        ledgerService.postTransfer(
+                senderCard, amount, receiverCard, transfer.getAmount(), transfer.getReferenceNumber());
         cardRepository.save(senderCard);
         cardRepository.save(receiverCard);
         transfer.setStatus(FinancialStatus.RECEIVED);
         return transferRepository.save(transfer);
     }
 
+    /**
+     * Creates a batch of transfers from one card.
+     * All receiver cards are loaded in one query and every transfer is validated before it is applied.
+     * A transfer that cannot be performed is denied without affecting the others.
+     * Every transfer is checked against the balance left by the transfers accepted before it.
+     * The sender is debited the sum of the accepted transfers with one posting under the reference number
+     * of the batch, so its balance is updated once, while every receiver is credited under its own transfer.
+     * The balances and the accepted transfers are saved together in one transaction.
+     *
+     * @param senderId The ID of the sender's card.
+     * @param requests The transfers, each with a receiver card number, amount, and description.
+     * @return The result of every transfer, in the order of the requests.
+     */
+    @Transactional
+    @CacheEvict(value = {"transfers", "cards"}, allEntries = true)
+    public List<TransferResultResponse> createTransfers(Long senderId, List<TransferRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Batch must contain at least one transfer.");
+        }
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                    "Batch must contain at most " + MAX_BATCH_SIZE + " transfers.");
+        }
+        Card senderCard = cardRepository.findWithUserById(senderId).orElseThrow(
+                () -> new ApplicationException(HttpStatus.NOT_FOUND, "Sender card not found.")
+        );
+        if (senderCard.getStatus() == CardStatus.STATUS_CARD_BLOCKED) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Operation is unavailable. Sender card is blocked.");
+        }
+        if (senderCard.isExpired(LocalDate.now())) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Operation is unavailable. Sender card is expired.");
+        }
+        Set<String> receiverCardNumbers = requests.stream()
+                .map(TransferRequest::receiverCardNumber)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Card> receiverCards = cardRepository.findAllByCardNumberIn(receiverCardNumbers).stream()
+                .collect(Collectors.toMap(Card::getCardNumber, card -> card, (first, second) -> first));
+        // The last reference number is the one of the batch, used by the debit of the sender
+        List<String> referenceNumbers = generateReferenceNumbers(requests.size() + 1);
+        Map<Currency, MoneyConverter.CrossRate> rates = new EnumMap<>(Currency.class);
+
+        LocalDateTime dateTime = LocalDateTime.now();
+        BigDecimal available = ledgerService.getBalance(senderCard);
+        BigDecimal debit = BigDecimal.ZERO;
+        Set<Card> changedCards = new LinkedHashSet<>();
+        List<Transfer> transfers = new ArrayList<>();
+        List<TransferResultResponse> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequest request = requests.get(i);
+            Card receiverCard = receiverCards.get(request.receiverCardNumber());
+            // The amount is rounded before it is validated, so the checked amount is the one posted
+            BigDecimal amount = request.amount() == null ? null : LedgerService.round(request.amount());
+            String denial = validateBatchTransfer(request, amount, senderCard, receiverCard, available);
+            BigDecimal receivedAmount = null;
+            if (denial == null) {
+                receivedAmount = convertBatchAmount(amount, senderCard, receiverCard, rates);
+                if (receivedAmount == null) {
+                    denial = "Exchange rate is unavailable.";
+                }
+            }
+            if (denial != null) {
+                results.add(new TransferResultResponse(i, null, FinancialStatus.DENIED, denial));
+                continue;
+            }
+            Transfer transfer = new Transfer();
+            transfer.setSenderCard(senderCard);
+            transfer.setReceiverCard(receiverCard);
+            transfer.setDateTime(dateTime);
+            transfer.setReferenceNumber(referenceNumbers.get(i));
+            transfer.setDescription(HtmlUtils.htmlEscape(request.description()));
+            // The amount is recorded in the currency it was credited in
+            transfer.setCurrency(receiverCard.getCurrencyType());
+            transfer.setAmount(receivedAmount);
+            MoneyConverter.CrossRate rate = rates.get(receiverCard.getCurrencyType());
+            transfer.setRateSnapshotId(rate == null ? null : rate.snapshotId());
+            transfer.setStatus(FinancialStatus.RECEIVED);
+            transfers.add(transfer);
+
+            ledgerService.post(receiverCard, receivedAmount, LedgerOperation.TRANSFER, transfer.getReferenceNumber());
+            available = available.subtract(amount);
+            debit = debit.add(amount);
+            changedCards.add(receiverCard);
+            results.add(new TransferResultResponse(
+                    i, transfer.getReferenceNumber(), FinancialStatus.RECEIVED, null));
+        }
+        if (debit.signum() > 0) {
+            ledgerService.post(
+                    senderCard, debit.negate(), LedgerOperation.TRANSFER, referenceNumbers.get(requests.size()));
+        }
+        changedCards.add(senderCard);
+        cardRepository.saveAll(changedCards);
+        transferRepository.saveAll(transfers);
+        return results;
+    }
+
+    /**
+     * Validates one transfer of a batch.
+     *
+     * @param request      The transfer to validate.
+     * @param amount       The amount of the transfer rounded to the scale of the ledger, or null if it is missing.
+     * @param senderCard   The sender's card.
+     * @param receiverCard The receiver's card, or null if it does not exist.
+     * @param available    The balance of the sender left by the transfers accepted before this one.
+     * @return The reason why the transfer is denied, or null if the transfer is valid.
+     */
+    private String validateBatchTransfer(TransferRequest request, BigDecimal amount, Card senderCard,
+                                         Card receiverCard, BigDecimal available) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            return "Transfer amount must be greater than 0.";
+        }
+        if (!isValidDescription(request.description())) {
+            return "Description must be between 1 and 100 characters.";
+        }
+        if (receiverCard == null) {
+            return "Receiver card not found.";
+        }
+        if (Objects.equals(receiverCard.getId(), senderCard.getId())) {
+            return "Receiver card must differ from the sender card.";
+        }
+        if (receiverCard.getStatus() == CardStatus.STATUS_CARD_BLOCKED) {
+            return "Operation is unavailable. Receiver card is blocked.";
+        }
+        if (receiverCard.isExpired(LocalDate.now())) {
+            return "Operation is unavailable. Receiver card is expired.";
+        }
+        if (!senderCard.getCurrencyType().equals(receiverCard.getCurrencyType())
+                && !senderCard.getUser().equals(receiverCard.getUser())) {
+            return "Different currency types ...";
+        }
+        if (available.compareTo(amount) < 0) {
+            return "Insufficient funds.";
+        }
+        return null;
+    }
+
+    /**
+     * Converts the amount of a batch transfer to the currency of the receiver's card.
+     * The rate for every receiver currency is resolved only once per batch.
+     *
+     * @param amount       The amount to convert.
+     * @param senderCard   The sender's card.
+     * @param receiverCard The receiver's card.
+     * @param rates        The rates already requested in this batch, recorded by the converted transfers.
+     * @return The converted amount, or null if the rate is unavailable.
+     */
+    private BigDecimal convertBatchAmount(BigDecimal amount, Card senderCard, Card receiverCard,
+                                          Map<Currency, MoneyConverter.CrossRate> rates) {
+        Currency senderCurrency = senderCard.getCurrencyType();
+        Currency receiverCurrency = receiverCard.getCurrencyType();
+        if (senderCurrency.equals(receiverCurrency)) {
+            return amount;
+        }
+        MoneyConverter.CrossRate rate = rates.computeIfAbsent(receiverCurrency,
+                currency -> currencyDataService.findCrossRate(senderCurrency, currency));
+        return rate == null ? null : moneyConverter.convert(amount, rate.rate(), receiverCurrency);
+    }
+
+    /**
+     * Generates unique reference numbers for a batch of transfers.
+     * The uniqueness against existing transfers is checked with one query per round of generation.
+     *
+     * @param count The number of reference numbers to generate.
+     * @return A list of unique reference numbers.
+     */
+    private List<String> generateReferenceNumbers(int count) {
+        Generator generator = new Generator();
+        Set<String> referenceNumbers = new LinkedHashSet<>();
+        while (referenceNumbers.size() < count) {
+            Set<String> candidates = new HashSet<>();
+            while (referenceNumbers.size() + candidates.size() < count) {
+                String referenceNumber = HtmlUtils.htmlEscape(generator.generateReferenceNumber());
+                if (!isValidReferenceNumber(referenceNumber)) {
+                    throw new ApplicationException(HttpStatus.BAD_REQUEST, "Invalid reference number.");
+                }
+                if (!referenceNumbers.contains(referenceNumber)) {
+                    candidates.add(referenceNumber);
+                }
+            }
+            transferRepository.findExistingReferenceNumbers(candidates).forEach(candidates::remove);
+            referenceNumbers.addAll(candidates);
+        }
+        return new ArrayList<>(referenceNumbers);
+    }
+
     /**
      * Transfers currency from one card to another.
+     * The transfer records the converted amount in the currency of the receiver and the snapshot of the rate.
      *
      * @param amount           The amount to transfer.
      * @param senderCurrency   The sender's currency.
@@ -168,43 +387,13 @@ public class TransferService {
      * @param transfer         The transfer to perform.
      */
     private void transferCurrency(BigDecimal amount, Currency senderCurrency, Currency receiverCurrency, Transfer transfer) {
-        switch (senderCurrency) {
-            case USD:
-                transfer.setAmount(amount.multiply(
-                        BigDecimal.valueOf(currencyDataService.convertCurrency(
-                                senderCurrency.toString(), receiverCurrency.toString()).getRate()))
-                );
-                transfer.setCurrency(Currency.USD);
-                break;
-            case EUR:
-                transfer.setAmount(amount.multiply(
-                        BigDecimal.valueOf(currencyDataService.convertCurrency(
-                                senderCurrency.toString(), receiverCurrency.toString()).getRate())
-                ));
-                transfer.setCurrency(Currency.EUR);
-                break;
-            case UAH:
-                transfer.setAmount(amount.multiply(
-                        BigDecimal.valueOf(currencyDataService.convertCurrency(
-                                senderCurrency.toString(), receiverCurrency.toString()).getRate())
-                ));
-                transfer.setCurrency(Currency.UAH);
-                break;
-            case CZK:
-                transfer.setAmount(amount.multiply(
-                        BigDecimal.valueOf(currencyDataService.convertCurrency(
-                                senderCurrency.toString(), receiverCurrency.toString()).getRate())
-                ));
-                transfer.setCurrency(Currency.CZK);
-                break;
-            case PLN:
-                transfer.setAmount(amount.multiply(
-                        BigDecimal.valueOf(currencyDataService.convertCurrency(
-                                senderCurrency.toString(), receiverCurrency.toString()).getRate())
-                ));
-                transfer.setCurrency(Currency.PLN);
-                break;
+        MoneyConverter.CrossRate rate = currencyDataService.findCrossRate(senderCurrency, receiverCurrency);
+        if (rate == null) {
+            throw new ApplicationException(HttpStatus.SERVICE_UNAVAILABLE, "Exchange rate is unavailable.");
         }
+        transfer.setAmount(moneyConverter.convert(amount, rate.rate(), receiverCurrency));
+        transfer.setCurrency(receiverCurrency);
+        transfer.setRateSnapshotId(rate.snapshotId());
     }
 
     /**
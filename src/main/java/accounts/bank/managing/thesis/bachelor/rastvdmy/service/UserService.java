@@ -1,16 +1,19 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.UserResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.*;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
-import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CurrencyDataRepository;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.UserRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.PasswordHasher;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
 import org.apache.commons.validator.routines.EmailValidator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -23,16 +26,20 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.HtmlUtils;
 
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This class is responsible for managing users.
  * It is annotated with @Service to indicate that it's a Spring managed service.
- * It uses UserRepository, PasswordEncoder, CurrencyDataRepository, and CardService to interact with the database.
- * It also uses RestTemplate to make HTTP requests to an external API.
+ * It uses UserRepository, PasswordEncoder, and CardService to interact with the database.
+ * It also uses RestTemplate to make HTTP requests to an external API, whose list of countries is kept in memory.
+ * Passwords of new users are hashed by the PasswordHasher while the rest of the registration is validated.
  */
 @Service
 @CacheConfig(cacheNames = {"users"})
@@ -40,24 +47,29 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final CurrencyDataRepository currencyDataRepository;
+    private final PasswordHasher passwordHasher;
     private final CardService cardService;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+
+    private volatile Set<String> countryNames = Set.of();
 
     /**
-     * Constructs a new UserService with the given repositories, encoder, and service.
+     * Constructs a new UserService with the given repository, encoders, service, and RestTemplate.
      *
-     * @param userRepository         The UserRepository to use.
-     * @param passwordEncoder        The PasswordEncoder to use.
-     * @param currencyDataRepository The CurrencyDataRepository to use.
-     * @param cardService            The CardService to use.
+     * @param userRepository  The UserRepository to use.
+     * @param passwordEncoder The PasswordEncoder to use.
+     * @param passwordHasher  The PasswordHasher hashing the passwords of new users.
+     * @param cardService     The CardService to use.
+     * @param restTemplate    The RestTemplate to use.
      */
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, CurrencyDataRepository currencyDataRepository, CardService cardService) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, PasswordHasher passwordHasher,
+                       CardService cardService, RestTemplate restTemplate) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.currencyDataRepository = currencyDataRepository;
+        this.passwordHasher = passwordHasher;
         this.cardService = cardService;
+        this.restTemplate = restTemplate;
     }
 
     /**
@@ -66,8 +78,8 @@ public class UserService {
      * @return A list of all users.
      */
     @Cacheable
-    public List<User> getUsers() {
-        return userRepository.findAll();
+    public List<UserResponse> getUsers() {
+        return userRepository.findAllProjectedBy();
     }
 
     /**
@@ -77,8 +89,8 @@ public class UserService {
      * @return A page of users.
      */
     @Cacheable
-    public Page<User> filterAndSortUsers(Pageable pageable) {
-        return userRepository.findAll(pageable);
+    public Page<UserResponse> filterAndSortUsers(Pageable pageable) {
+        return userRepository.findAllProjectedBy(pageable);
     }
 
     /**
@@ -88,14 +100,16 @@ public class UserService {
      * @return The retrieved user.
      */
     @Cacheable(key = "#userId")
-    public User getUserById(Long userId) {
-        return userRepository.findById(userId).orElseThrow(
+    public UserResponse getUserById(Long userId) {
+        return userRepository.findProjectedById(userId).orElseThrow(
                 () -> new ApplicationException(HttpStatus.NOT_FOUND, "User with id: " + userId + " not found.")
         );
     }
 
     /**
-     * Creates a new user.
+     * Creates a new user with a CZK card.
+     * The uniqueness of the email and the phone number is enforced by the database,
+     * and the user is saved together with the card in one transaction.
      *
      * @param name            The name of the user.
      * @param surname         The surname of the user.
@@ -106,19 +120,14 @@ public class UserService {
      * @param phoneNumber     The phone number of the user.
      * @return The created user.
      */
-    @CacheEvict(allEntries = true)
+    @Transactional
+    @CacheEvict(value = {"users", "cards"}, allEntries = true)
     public User createUser(String name, String surname, LocalDate dateOfBirth, String countryOfOrigin,
                            String email, String password, String phoneNumber) {
         if (name.isEmpty() || surname.isEmpty() || countryOfOrigin.isEmpty() ||
                 email.isEmpty() || password.isEmpty() || phoneNumber.isEmpty()) {
             throw new ApplicationException(HttpStatus.NO_CONTENT, "All user fields must be filled.");
         }
-        if (userRepository.existsByEmail(email)) {
-            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Email " + email + " is unavailable.");
-        }
-        if (userRepository.existsByPhoneNumber(phoneNumber)) {
-            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Phone number " + phoneNumber + " is unavailable.");
-        }
         // Creating user with default role and status
         User user = new User();
         if (!isValidName(name)) {
@@ -138,42 +147,66 @@ public class UserService {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "The age of the user can be between 18 and 100.");
         }
         user.setDateOfBirth(dateOfBirth);
+        validateUserData(email, password, phoneNumber, user);
+        // Hash the password while the country is checked and the card is generated
+        CompletableFuture<String> passwordHash = passwordHasher.encode(user.getPassword());
         if (countryExists(HtmlUtils.htmlEscape(countryOfOrigin))) {
             user.setCountryOrigin(countryOfOrigin);
         } else {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Country " + countryOfOrigin + " does not exist.");
         }
-        validateUserData(email, password, phoneNumber, user);
-        List<CurrencyData> currencyData = currencyDataRepository.findAll();
-        user.setCurrencyData(currencyData);
-        // Save the user and get the saved instance. Then create a card for the user
-        User savedUser = userRepository.save(user);
-        Card card = cardService.createCard(savedUser.getId(), Currency.CZK.toString(), CardType.VISA.toString());
-        savedUser.getCards().add(card);
-        return userRepository.save(savedUser);
+        user.getCards().add(cardService.newCard(user, Currency.CZK.toString(), CardType.VISA.toString()));
+        user.setPassword(passwordHash.join());
+        try {
+            // The card is saved together with the user
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            String constraint = String.valueOf(e.getMostSpecificCause().getMessage());
+            if (constraint.contains(User.EMAIL_CONSTRAINT)) {
+                throw new ApplicationException(HttpStatus.BAD_REQUEST, "Email " + email + " is unavailable.");
+            }
+            if (constraint.contains(User.PHONE_NUMBER_CONSTRAINT)) {
+                throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                        "Phone number " + phoneNumber + " is unavailable.");
+            }
+            throw e;
+        }
     }
 
     /**
      * Checks if a country exists.
+     * The names of all countries are requested from the external API once and kept in memory.
      *
      * @param countryName The name of the country to check.
      * @return True if the country exists, false otherwise.
      */
     private boolean countryExists(String countryName) {
+        Set<String> names = countryNames;
+        if (names.isEmpty()) {
+            names = fetchCountryNames();
+            countryNames = names;
+        }
+        return names.contains(countryName.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Retrieves the common names of all countries from the external API.
+     *
+     * @return The names in lower case, or an empty set if the API is unavailable.
+     */
+    private Set<String> fetchCountryNames() {
         final String url = "https://restcountries.com/v3.1/all?fields=name";
+        Set<String> names = new HashSet<>();
         try {
             ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+            if (response != null && response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 ObjectMapper mapper = new ObjectMapper();
                 JsonNode rootNode = mapper.readTree(response.getBody());
                 if (rootNode.isArray()) {
                     for (JsonNode node : rootNode) {
                         JsonNode nameNode = node.get("name");
                         if (nameNode != null && nameNode.get("common") != null) {
-                            String commonName = nameNode.get("common").asText();
-                            if (commonName.equalsIgnoreCase(countryName)) {
-                                return true;
-                            }
+                            names.add(nameNode.get("common").asText().toLowerCase(Locale.ROOT));
                         }
                     }
                 }
@@ -181,7 +214,7 @@ public class UserService {
         } catch (RestClientException | IOException e) {
             e.getCause();
         }
-        return false;
+        return Set.copyOf(names);
     }
 
     /**
@@ -213,11 +246,12 @@ public class UserService {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Entered password is the same as the old one.");
         }
         validateUserData(email, password, phoneNumber, user);
+        user.encodePassword(passwordEncoder);
         userRepository.save(user);
     }
 
     /**
-     * Validates user data.
+     * Validates user data and sets it to the user. The password is set unencoded.
      *
      * @param email       The email of the user.
      * @param password    The password of the user.
@@ -234,7 +268,6 @@ public class UserService {
                     "Password must contain at least one uppercase letter and one number or symbol.");
         }
         user.setPassword(HtmlUtils.htmlEscape(password));
-        user.encodePassword(passwordEncoder);
         if (isInvalidPhoneNumber(HtmlUtils.htmlEscape(phoneNumber))) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Phone number should be in international format.");
         }
@@ -425,11 +458,11 @@ public class UserService {
      */
     @CacheEvict(allEntries = true)
     public void deleteUserById(Long userId) {
-        User user = userRepository.findById(userId).orElseThrow(
-                () -> new ApplicationException(HttpStatus.NOT_FOUND, "User with id " + userId + " not found.")
-        );
-        if (user.getCards().isEmpty()) {
-            if (user.getBankLoan() == null || user.getBankLoan().getLoanAmount().compareTo(BigDecimal.ZERO) == 0) {
+        if (!userRepository.existsById(userId)) {
+            throw new ApplicationException(HttpStatus.NOT_FOUND, "User with id " + userId + " not found.");
+        }
+        if (!userRepository.hasCards(userId)) {
+            if (!userRepository.hasOutstandingLoan(userId)) {
                 userRepository.deleteById(userId);
             } else {
                 throw new ApplicationException(HttpStatus.BAD_REQUEST,
@@ -0,0 +1,74 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service.component;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.User;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.UserRole;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * This class is responsible for checking that the authenticated user may access the data of another user.
+ * The name of an authentication is the email of the user, as set by the user details service in SecurityConfig.
+ */
+@Component
+public class AccessGuard {
+    private final UserRepository userRepository;
+
+    /**
+     * Constructs a new AccessGuard with the given repository.
+     *
+     * @param userRepository The UserRepository the authenticated users are looked up in.
+     */
+    @Autowired
+    public AccessGuard(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Retrieves the ID of the authenticated user.
+     *
+     * @param authentication The authentication of the current request.
+     * @return The ID of the user.
+     */
+    public Long currentUserId(Authentication authentication) {
+        if (authentication == null) {
+            throw new ApplicationException(HttpStatus.UNAUTHORIZED, "User is not authenticated.");
+        }
+        User user = userRepository.findByEmail(authentication.getName());
+        if (user == null) {
+            throw new ApplicationException(HttpStatus.UNAUTHORIZED, "User is not authenticated.");
+        }
+        return user.getId();
+    }
+
+    /**
+     * Checks that the authenticated user is the given user.
+     *
+     * @param authentication The authentication of the current request.
+     * @param userId         The ID of the user whose data is accessed.
+     */
+    public void checkSelf(Authentication authentication, Long userId) {
+        if (!Objects.equals(currentUserId(authentication), userId)) {
+            throw new ApplicationException(HttpStatus.FORBIDDEN, "Access to user " + userId + " is denied.");
+        }
+    }
+
+    /**
+     * Checks that the authenticated user is the given user or an admin.
+     *
+     * @param authentication The authentication of the current request.
+     * @param userId         The ID of the user whose data is accessed.
+     */
+    public void checkSelfOrAdmin(Authentication authentication, Long userId) {
+        if (authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> UserRole.ROLE_ADMIN.toString().equals(authority.getAuthority()))) {
+            return;
+        }
+        checkSelf(authentication, userId);
+    }
+}
@@ -1,7 +1,6 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.service.component;
 
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.*;
-import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CurrencyDataRepository;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,12 +10,11 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.util.Calendar;
-import java.util.List;
 
 /**
  * This class is responsible for initializing the admin user in the system.
  * It is annotated with @Component to indicate that it's a Spring managed bean.
- * It uses UserRepository and CurrencyDataRepository to interact with the database.
+ * It uses UserRepository to interact with the database.
  * It also uses PasswordEncoder to encode the admin's password.
  */
 @Component
@@ -26,20 +24,17 @@ public class AdminInitializer {
 
     private UserRepository repository;
     private PasswordEncoder passwordEncoder;
-    private CurrencyDataRepository currencyDataRepository;
 
     /**
-     * Constructs a new AdminInitializer with the given UserRepository, PasswordEncoder, and CurrencyDataRepository.
+     * Constructs a new AdminInitializer with the given UserRepository and PasswordEncoder.
      *
-     * @param repository             The UserRepository to use.
-     * @param passwordEncoder        The PasswordEncoder to use.
-     * @param currencyDataRepository The CurrencyDataRepository to use.
+     * @param repository      The UserRepository to use.
+     * @param passwordEncoder The PasswordEncoder to use.
      */
     @Autowired
-    public AdminInitializer(UserRepository repository, PasswordEncoder passwordEncoder, CurrencyDataRepository currencyDataRepository) {
+    public AdminInitializer(UserRepository repository, PasswordEncoder passwordEncoder) {
         this.repository = repository;
         this.passwordEncoder = passwordEncoder;
-        this.currencyDataRepository = currencyDataRepository;
     }
 
     /**
@@ -71,8 +66,6 @@ public class AdminInitializer {
             admin.setAvatar("https://www.shareicon.net/data/2015/09/18/103157_man_512x512.png");
             admin.setPhoneNumber("+420123456789");
 
-            List<CurrencyData> currencyData = currencyDataRepository.findAll();
-            admin.setCurrencyData(currencyData);
             admin.setBankLoan(null);
             admin.setCards(null);
             repository.save(admin);
@@ -0,0 +1,135 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service.component;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.AmortizationType;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.BankLoan;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.LoanInstallment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is responsible for computing the amortization schedules of bank loans.
+ * A loan is paid off in monthly installments from its start date to its expiration date,
+ * either as an annuity of equal installments or linearly with equal parts of the principal.
+ * The amounts are rounded to cents and the last installment repays whatever principal is left,
+ * so the principal of the schedule always sums to the loan amount.
+ */
+@Component
+public class AmortizationCalculator {
+    private static final BigDecimal MONTHS_PER_YEAR = BigDecimal.valueOf(12);
+    private static final MathContext MATH_CONTEXT = MathContext.DECIMAL64;
+
+    private final BigDecimal interestRate;
+    private final AmortizationType amortizationType;
+
+    /**
+     * Constructs a new AmortizationCalculator with the terms given to new loans.
+     *
+     * @param interestRate     The annual interest rate of new loans.
+     * @param amortizationType The amortization type of new loans.
+     */
+    @Autowired
+    public AmortizationCalculator(@Value("${loan.interest-rate:0.0899}") BigDecimal interestRate,
+                                  @Value("${loan.amortization-type:ANNUITY}") AmortizationType amortizationType) {
+        this.interestRate = interestRate;
+        this.amortizationType = amortizationType;
+    }
+
+    /**
+     * Returns the annual interest rate given to new loans.
+     *
+     * @return The annual interest rate.
+     */
+    public BigDecimal getInterestRate() {
+        return interestRate;
+    }
+
+    /**
+     * Returns the amortization type given to new loans.
+     *
+     * @return The amortization type.
+     */
+    public AmortizationType getAmortizationType() {
+        return amortizationType;
+    }
+
+    /**
+     * Computes the schedule of a loan, one installment per month.
+     *
+     * @param loan The saved loan with its amount, interest rate, amortization type and dates.
+     * @return The installments of the loan ordered by their number.
+     */
+    public List<LoanInstallment> schedule(BankLoan loan) {
+        int installments = (int) Math.max(1, ChronoUnit.MONTHS.between(loan.getStartDate(), loan.getExpirationDate()));
+        BigDecimal monthlyRate = loan.getInterestRate().divide(MONTHS_PER_YEAR, MATH_CONTEXT);
+        BigDecimal remaining = loan.getLoanAmount();
+        BigDecimal payment = loan.getAmortizationType() == AmortizationType.LINEAR
+                ? remaining.divide(BigDecimal.valueOf(installments), 2, RoundingMode.HALF_EVEN)
+                : annuityPayment(remaining, monthlyRate, installments);
+
+        List<LoanInstallment> schedule = new ArrayList<>(installments);
+        for (int number = 1; number <= installments; number++) {
+            BigDecimal interest = remaining.multiply(monthlyRate).setScale(2, RoundingMode.HALF_EVEN);
+            BigDecimal principal;
+            if (number == installments) {
+                principal = remaining;
+            } else if (loan.getAmortizationType() == AmortizationType.LINEAR) {
+                principal = payment;
+            } else {
+                principal = payment.subtract(interest).min(remaining);
+            }
+            remaining = remaining.subtract(principal);
+            schedule.add(installment(loan, number, loan.getStartDate().plusMonths(number), principal, interest,
+                    remaining));
+        }
+        return schedule;
+    }
+
+    /**
+     * Computes the equal installment of an annuity, P * r / (1 - (1 + r)^-n).
+     *
+     * @param principal    The amount of the loan.
+     * @param monthlyRate  The monthly interest rate.
+     * @param installments The number of installments.
+     * @return The installment rounded to cents.
+     */
+    private BigDecimal annuityPayment(BigDecimal principal, BigDecimal monthlyRate, int installments) {
+        if (monthlyRate.signum() == 0) {
+            return principal.divide(BigDecimal.valueOf(installments), 2, RoundingMode.HALF_EVEN);
+        }
+        BigDecimal discount = BigDecimal.ONE.subtract(
+                BigDecimal.ONE.add(monthlyRate).pow(-installments, MATH_CONTEXT), MATH_CONTEXT);
+        return principal.multiply(monthlyRate, MATH_CONTEXT).divide(discount, 2, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Creates an installment of a loan.
+     *
+     * @param loan               The loan.
+     * @param number             The number of the installment.
+     * @param dueDate            The date the installment is due.
+     * @param principal          The part repaying the principal.
+     * @param interest           The part paying the interest.
+     * @param remainingPrincipal The principal remaining after the installment.
+     * @return The installment.
+     */
+    private LoanInstallment installment(BankLoan loan, int number, LocalDate dueDate, BigDecimal principal,
+                                        BigDecimal interest, BigDecimal remainingPrincipal) {
+        LoanInstallment installment = new LoanInstallment();
+        installment.setLoanId(loan.getId());
+        installment.setNumber(number);
+        installment.setDueDate(dueDate);
+        installment.setPrincipal(principal);
+        installment.setInterest(interest);
+        installment.setRemainingPrincipal(remainingPrincipal);
+        return installment;
+    }
+}
@@ -0,0 +1,43 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service.component;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.CardService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is responsible for marking the cards whose expiration date has passed as expired.
+ * It runs right after midnight, so the operations on a card can rely on its status
+ * instead of comparing its expiration date on every request.
+ */
+@Slf4j
+@Component
+public class CardExpirationJob {
+    private final CardService cardService;
+
+    /**
+     * Constructs a new CardExpirationJob with the given service.
+     *
+     * @param cardService The CardService expiring the cards.
+     */
+    @Autowired
+    public CardExpirationJob(CardService cardService) {
+        this.cardService = cardService;
+    }
+
+    /**
+     * Marks every card that expired before today as expired.
+     * This method is scheduled to run every day at 0:05 by default.
+     */
+    @Scheduled(cron = "${card.expiration.cron:0 5 0 * * *}")
+    public void expireCards() {
+        long startTime = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        int expired = cardService.expireCards(today);
+        log.info("Expired {} cards in {} ms.", expired, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    }
+}
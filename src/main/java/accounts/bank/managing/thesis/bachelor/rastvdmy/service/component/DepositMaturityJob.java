@@ -0,0 +1,179 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service.component;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.MaturedDepositResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.DepositRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.DepositService;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is responsible for paying out matured deposits to their cards.
+ * The matured deposits are read in chunks from the index on the expiration date and id,
+ * and every chunk is split into batches which are paid out in parallel, each batch in its own transaction.
+ * A deposit is deleted in the transaction that pays it out, so a run interrupted at any point
+ * resumes with exactly the deposits that have not been paid out yet.
+ * A run locks the Hazelcast map "deposit-maturity-run", so only one instance of the application pays out at a time.
+ */
+@Slf4j
+@Component
+public class DepositMaturityJob {
+
+    /**
+     * The name of the Hazelcast map locked during a run.
+     */
+    public static final String RUN_MAP = "deposit-maturity-run";
+
+    private static final String RUN_LOCK = "run";
+
+    private final DepositRepository depositRepository;
+    private final DepositService depositService;
+    private final IMap<String, Boolean> runState;
+    private final ExecutorService executor;
+    private final int chunkSize;
+    private final int batchSize;
+    private final long lockLeaseSeconds;
+
+    /**
+     * Constructs a new DepositMaturityJob with the given repository, service and Hazelcast instance.
+     *
+     * @param depositRepository The DepositRepository to use.
+     * @param depositService    The DepositService paying out the deposits.
+     * @param hazelcastInstance The HazelcastInstance holding the lock of a run.
+     * @param threads           The number of batches paid out in parallel.
+     * @param chunkSize         The number of deposits read at once.
+     * @param batchSize         The number of deposits paid out in one transaction.
+     * @param lockLeaseSeconds  The time after which the lock of a run that did not finish is released.
+     */
+    @Autowired
+    public DepositMaturityJob(DepositRepository depositRepository, DepositService depositService,
+                              HazelcastInstance hazelcastInstance,
+                              @Value("${deposit.maturity.threads:4}") int threads,
+                              @Value("${deposit.maturity.chunk-size:1000}") int chunkSize,
+                              @Value("${deposit.maturity.batch-size:50}") int batchSize,
+                              @Value("${deposit.maturity.lock-lease-seconds:3600}") long lockLeaseSeconds) {
+        this.depositRepository = depositRepository;
+        this.depositService = depositService;
+        this.runState = hazelcastInstance.getMap(RUN_MAP);
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+        this.lockLeaseSeconds = lockLeaseSeconds;
+    }
+
+    /**
+     * Pays out every deposit that has expired.
+     * A run is skipped while another instance is paying out.
+     * This method is scheduled to run every hour by default.
+     */
+    @Scheduled(fixedDelayString = "${deposit.maturity.rate:3600000}")
+    public void matureDeposits() {
+        if (!tryLock()) {
+            return;
+        }
+        try {
+            long startTime = System.nanoTime();
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime afterDate = LocalDateTime.of(1, 1, 1, 0, 0);
+            long afterId = 0;
+            int found = 0;
+            int matured = 0;
+            List<MaturedDepositResponse> chunk;
+            while (!(chunk = depositRepository.findMatured(now, afterDate, afterId, Limit.of(chunkSize))).isEmpty()) {
+                MaturedDepositResponse last = chunk.get(chunk.size() - 1);
+                afterDate = last.expirationDate();
+                afterId = last.id();
+                found += chunk.size();
+                List<Long> ids = chunk.stream().map(MaturedDepositResponse::id).toList();
+                List<CompletableFuture<Integer>> batches = new ArrayList<>();
+                for (int from = 0; from < ids.size(); from += batchSize) {
+                    List<Long> batch = ids.subList(from, Math.min(ids.size(), from + batchSize));
+                    batches.add(CompletableFuture.supplyAsync(() -> matureBatch(batch), executor));
+                }
+                matured += batches.stream().mapToInt(CompletableFuture::join).sum();
+            }
+            if (found == 0) {
+                return;
+            }
+            long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            log.info("Matured {} of {} deposits in {} ms ({} deposits/s).",
+                    matured, found, elapsedMillis, matured * 1000L / elapsedMillis);
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Pays out a batch of deposits in one transaction.
+     * If the transaction fails, the deposits are paid out one by one, so one failing deposit
+     * does not hold back the others. A deposit that still fails is retried by the next run.
+     *
+     * @param depositIds The IDs of the deposits in the batch.
+     * @return The number of deposits paid out.
+     */
+    private int matureBatch(List<Long> depositIds) {
+        try {
+            return depositService.matureDeposits(depositIds);
+        } catch (RuntimeException e) {
+            log.warn("Batch of {} deposits failed, paying them out one by one: {}", depositIds.size(), e.getMessage());
+        }
+        int matured = 0;
+        for (Long depositId : depositIds) {
+            try {
+                matured += depositService.matureDeposits(List.of(depositId));
+            } catch (RuntimeException e) {
+                log.error("Deposit {} could not be paid out: {}", depositId, e.getMessage());
+            }
+        }
+        return matured;
+    }
+
+    /**
+     * Tries to lock the run without waiting, so a run is skipped while another instance is paying out.
+     *
+     * @return true if the lock was acquired, false otherwise.
+     */
+    private boolean tryLock() {
+        try {
+            return runState.tryLock(RUN_LOCK, 0, TimeUnit.SECONDS, lockLeaseSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void unlock() {
+        // The lease may have expired during a long run, after which the lock is no longer ours to release.
+        if (!runState.isLocked(RUN_LOCK)) {
+            log.warn("Lock of the deposit maturity run expired before the run finished.");
+            return;
+        }
+        try {
+            runState.unlock(RUN_LOCK);
+        } catch (IllegalMonitorStateException e) {
+            log.warn("Lock of the deposit maturity run is held by another instance.");
+        }
+    }
+
+    /**
+     * Stops the threads paying out the batches.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,47 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service.component;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+
+/**
+ * This class fetches the exchange rates from an HTTP endpoint in the format of the ExchangeRate-API.
+ * It is used for the ExchangeRate-API itself and for a stub server serving recorded responses.
+ */
+public class HttpRateProvider implements RateProvider {
+    private final String name;
+    private final RestTemplate restTemplate;
+    private final String url;
+
+    /**
+     * Constructs a new HttpRateProvider with the given name, RestTemplate and URL.
+     *
+     * @param name         The name of the provider.
+     * @param restTemplate The RestTemplate to use.
+     * @param url          The URL of the latest rates against CZK.
+     */
+    public HttpRateProvider(String name, RestTemplate restTemplate, String url) {
+        this.name = name;
+        this.restTemplate = restTemplate;
+        this.url = url;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Map<String, Double> fetchRates() {
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                url,
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {
+                });
+        return RateProvider.conversionRates(response.getBody());
+    }
+}
@@ -0,0 +1,157 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service.component;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.BalanceMismatchResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CardRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.LedgerPostingRepository;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is responsible for verifying that the balance of every card equals the sum of its ledger postings.
+ * The cards are split into ranges of ids which are checked in parallel, each range with one aggregate query.
+ * Mismatches are logged and kept in memory until the next run.
+ * A run locks the Hazelcast map "ledger-reconcile-run", so only one instance of the application reconciles at a time.
+ */
+@Slf4j
+@Component
+public class LedgerReconciler {
+
+    /**
+     * The name of the Hazelcast map locked during a run.
+     */
+    public static final String RUN_MAP = "ledger-reconcile-run";
+
+    private static final String RUN_LOCK = "run";
+
+    private final CardRepository cardRepository;
+    private final LedgerPostingRepository ledgerPostingRepository;
+    private final IMap<String, Boolean> runState;
+    private final ExecutorService executor;
+    private final long chunkSize;
+    private final long lockLeaseSeconds;
+    private volatile List<BalanceMismatchResponse> mismatches = Collections.emptyList();
+
+    /**
+     * Constructs a new LedgerReconciler with the given repositories and Hazelcast instance.
+     *
+     * @param cardRepository          The CardRepository to use.
+     * @param ledgerPostingRepository The LedgerPostingRepository to use.
+     * @param hazelcastInstance       The HazelcastInstance holding the lock of a run.
+     * @param threads                 The number of ranges checked in parallel.
+     * @param chunkSize               The number of card ids in one range.
+     * @param lockLeaseSeconds        The time after which the lock of a run that did not finish is released.
+     */
+    @Autowired
+    public LedgerReconciler(CardRepository cardRepository, LedgerPostingRepository ledgerPostingRepository,
+                            HazelcastInstance hazelcastInstance,
+                            @Value("${ledger.reconcile.threads:4}") int threads,
+                            @Value("${ledger.reconcile.chunk-size:1000}") long chunkSize,
+                            @Value("${ledger.reconcile.lock-lease-seconds:3600}") long lockLeaseSeconds) {
+        this.cardRepository = cardRepository;
+        this.ledgerPostingRepository = ledgerPostingRepository;
+        this.runState = hazelcastInstance.getMap(RUN_MAP);
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.chunkSize = chunkSize;
+        this.lockLeaseSeconds = lockLeaseSeconds;
+    }
+
+    /**
+     * Returns the mismatches found by the last run.
+     *
+     * @return An unmodifiable list of cards whose balance differs from their postings.
+     */
+    public List<BalanceMismatchResponse> getMismatches() {
+        return mismatches;
+    }
+
+    /**
+     * Compares the balance of every card with the sum of its postings.
+     * A run is skipped while another instance is reconciling.
+     * This method is scheduled to run every hour by default.
+     */
+    @Scheduled(fixedRateString = "${ledger.reconcile.rate:3600000}")
+    public void reconcile() {
+        if (!tryLock()) {
+            return;
+        }
+        try {
+            reconcileAll();
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Checks every range of card ids in parallel and keeps the mismatches found.
+     */
+    private void reconcileAll() {
+        Long minId = cardRepository.findMinId();
+        Long maxId = cardRepository.findMaxId();
+        if (minId == null || maxId == null) {
+            mismatches = Collections.emptyList();
+            return;
+        }
+        List<CompletableFuture<List<BalanceMismatchResponse>>> chunks = new ArrayList<>();
+        for (long fromId = minId; fromId <= maxId; fromId += chunkSize) {
+            long from = fromId;
+            long to = Math.min(maxId, fromId + chunkSize - 1);
+            chunks.add(CompletableFuture.supplyAsync(
+                    () -> ledgerPostingRepository.findBalanceMismatches(from, to), executor));
+        }
+        List<BalanceMismatchResponse> found = new ArrayList<>();
+        chunks.forEach(chunk -> found.addAll(chunk.join()));
+        found.forEach(mismatch -> log.warn("Balance of card {} is {} but its postings sum to {}",
+                mismatch.cardId(), mismatch.balance(), mismatch.postedBalance()));
+        log.info("Ledger reconciled for cards {} - {}, {} mismatches.", minId, maxId, found.size());
+        mismatches = Collections.unmodifiableList(found);
+    }
+
+    /**
+     * Tries to lock the run without waiting, so a run is skipped while another instance is reconciling.
+     *
+     * @return true if the lock was acquired, false otherwise.
+     */
+    private boolean tryLock() {
+        try {
+            return runState.tryLock(RUN_LOCK, 0, TimeUnit.SECONDS, lockLeaseSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void unlock() {
+        // The lease may have expired during a long run, after which the lock is no longer ours to release.
+        if (!runState.isLocked(RUN_LOCK)) {
+            log.warn("Lock of the ledger reconcile run expired before the run finished.");
+            return;
+        }
+        try {
+            runState.unlock(RUN_LOCK);
+        } catch (IllegalMonitorStateException e) {
+            log.warn("Lock of the ledger reconcile run is held by another instance.");
+        }
+    }
+
+    /**
+     * Stops the threads checking the ranges.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,103 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service.component;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.BankLoanRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.BankLoanService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is responsible for accruing the interest of all outstanding loans every night.
+ * The loans are split into ranges of ids, and the interest of each range is accrued by one set-based statement
+ * in its own transaction, with the ranges accrued in parallel.
+ * Every loan remembers the day it was accrued up to, so a run interrupted at any point
+ * is completed by the next one without accruing any loan twice.
+ */
+@Slf4j
+@Component
+public class LoanAccrualJob {
+    private final BankLoanRepository loanRepository;
+    private final BankLoanService loanService;
+    private final ExecutorService executor;
+    private final long chunkSize;
+
+    /**
+     * Constructs a new LoanAccrualJob with the given repository and service.
+     *
+     * @param loanRepository The BankLoanRepository to use.
+     * @param loanService    The BankLoanService accruing the interest.
+     * @param threads        The number of ranges accrued in parallel.
+     * @param chunkSize      The number of loan ids in one range.
+     */
+    @Autowired
+    public LoanAccrualJob(BankLoanRepository loanRepository, BankLoanService loanService,
+                          @Value("${loan.accrual.threads:4}") int threads,
+                          @Value("${loan.accrual.chunk-size:10000}") long chunkSize) {
+        this.loanRepository = loanRepository;
+        this.loanService = loanService;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Accrues the interest of every outstanding loan up to today.
+     * This method is scheduled to run every night at 1:30 by default.
+     */
+    @Scheduled(cron = "${loan.accrual.cron:0 30 1 * * *}")
+    public void accrueInterest() {
+        Long minId = loanRepository.findMinId();
+        Long maxId = loanRepository.findMaxId();
+        if (minId == null || maxId == null) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        List<CompletableFuture<Integer>> ranges = new ArrayList<>();
+        for (long fromId = minId; fromId <= maxId; fromId += chunkSize) {
+            long from = fromId;
+            long to = Math.min(maxId, fromId + chunkSize - 1);
+            ranges.add(CompletableFuture.supplyAsync(() -> accrueRange(from, to, today), executor));
+        }
+        int accrued = ranges.stream().mapToInt(CompletableFuture::join).sum();
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        log.info("Accrued interest of {} loans {} - {} up to {} in {} ms ({} loans/s).",
+                accrued, minId, maxId, today, elapsedMillis, accrued * 1000L / elapsedMillis);
+    }
+
+    /**
+     * Accrues the interest of a range of loans in one transaction.
+     * A range that fails is accrued by the next run.
+     *
+     * @param fromId The lowest loan id of the range.
+     * @param toId   The highest loan id of the range.
+     * @param today  The day the interest is accrued up to.
+     * @return The number of loans the interest was accrued to.
+     */
+    private int accrueRange(long fromId, long toId, LocalDate today) {
+        try {
+            return loanService.accrueInterest(fromId, toId, today);
+        } catch (RuntimeException e) {
+            log.error("Interest of loans {} - {} could not be accrued: {}", fromId, toId, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Stops the threads accruing the ranges.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,137 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service.component;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.event.LoanOverdueEvent;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.BankLoanRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.BankLoanService;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is responsible for finding the loans that expired with an outstanding amount.
+ * Every run only scans the loans that expired since the last completed run, read in chunks from the index
+ * on the expiration date and loan amount, and it stops after a fixed number of loans, so a run takes bounded time
+ * however many loans there are. The day of the last completed run is kept in the Hazelcast map "loan-overdue-scan",
+ * which is also locked during a run, so only one instance of the application scans at a time.
+ */
+@Slf4j
+@Component
+public class LoanOverdueJob {
+
+    /**
+     * The name of the Hazelcast map with the state of the scan.
+     */
+    public static final String SCAN_MAP = "loan-overdue-scan";
+
+    private static final String WATERMARK = "watermark";
+
+    private final BankLoanRepository loanRepository;
+    private final BankLoanService loanService;
+    private final IMap<String, LocalDate> scanState;
+    private final int chunkSize;
+    private final int maxLoansPerRun;
+    private final long lockLeaseSeconds;
+
+    /**
+     * Constructs a new LoanOverdueJob with the given repository, service and Hazelcast instance.
+     *
+     * @param loanRepository    The BankLoanRepository to use.
+     * @param loanService       The BankLoanService flagging the loans.
+     * @param hazelcastInstance The HazelcastInstance holding the state of the scan.
+     * @param chunkSize         The number of loans flagged in one transaction.
+     * @param maxLoansPerRun    The maximum number of loans flagged by one run.
+     * @param lockLeaseSeconds  The time after which the lock of a run that did not finish is released.
+     */
+    @Autowired
+    public LoanOverdueJob(BankLoanRepository loanRepository, BankLoanService loanService,
+                          HazelcastInstance hazelcastInstance,
+                          @Value("${loan.overdue.chunk-size:500}") int chunkSize,
+                          @Value("${loan.overdue.max-loans-per-run:10000}") int maxLoansPerRun,
+                          @Value("${loan.overdue.lock-lease-seconds:600}") long lockLeaseSeconds) {
+        this.loanRepository = loanRepository;
+        this.loanService = loanService;
+        this.scanState = hazelcastInstance.getMap(SCAN_MAP);
+        this.chunkSize = chunkSize;
+        this.maxLoansPerRun = maxLoansPerRun;
+        this.lockLeaseSeconds = lockLeaseSeconds;
+    }
+
+    /**
+     * Flags the loans that expired since the last completed run and still have an outstanding amount.
+     * If the run stops at the maximum number of loans, the next run continues with the same window,
+     * as the flagged loans no longer match the scan.
+     * This method is scheduled to run every hour by default.
+     */
+    @Scheduled(fixedDelayString = "${loan.overdue.rate:3600000}")
+    public void detectOverdueLoans() {
+        if (!tryLock()) {
+            return;
+        }
+        try {
+            long startTime = System.nanoTime();
+            LocalDate today = LocalDate.now();
+            LocalDate since = scanState.getOrDefault(WATERMARK, LocalDate.EPOCH);
+            int found = 0;
+            int flagged = 0;
+            boolean complete = false;
+            while (found < maxLoansPerRun) {
+                List<LoanOverdueEvent> chunk = loanRepository.findNewlyOverdue(since, today,
+                        Limit.of(Math.min(chunkSize, maxLoansPerRun - found)));
+                if (chunk.isEmpty()) {
+                    complete = true;
+                    break;
+                }
+                found += chunk.size();
+                flagged += loanService.markOverdue(chunk, today);
+            }
+            if (complete) {
+                scanState.set(WATERMARK, today);
+            }
+            if (found > 0) {
+                log.info("Flagged {} overdue loans expired {} - {} in {} ms{}.", flagged, since, today.minusDays(1),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime),
+                        complete ? "" : ", the rest is flagged by the next run");
+            }
+        } catch (RuntimeException e) {
+            log.error("Overdue loans could not be flagged: {}", e.getMessage());
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Tries to lock the scan without waiting, so a run is skipped while another instance is scanning.
+     *
+     * @return true if the lock was acquired, false otherwise.
+     */
+    private boolean tryLock() {
+        try {
+            return scanState.tryLock(WATERMARK, 0, TimeUnit.SECONDS, lockLeaseSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void unlock() {
+        // The lease may have expired during a long run, after which the lock is no longer ours to release.
+        if (!scanState.isLocked(WATERMARK)) {
+            log.warn("Lock of the overdue loan scan expired before the run finished.");
+            return;
+        }
+        try {
+            scanState.unlock(WATERMARK);
+        } catch (IllegalMonitorStateException e) {
+            log.warn("Lock of the overdue loan scan is held by another instance.");
+        }
+    }
+}
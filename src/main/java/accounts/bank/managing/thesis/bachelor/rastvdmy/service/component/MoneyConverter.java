@@ -0,0 +1,243 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service.component;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.HistoricalRate;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.CurrencyData;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CurrencyDataRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.ExchangeRateHistoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is responsible for converting amounts of money between currencies.
+ * The rates against CZK are kept in memory as BigDecimals of a fixed scale, so a conversion does not
+ * read the database or convert a double, and the product of an amount and a rate is exact.
+ * The product is rounded once, to the minor units of the target currency.
+ * The rate between any two supported currencies is derived from their rates against CZK
+ * when the rates are updated, so converting between them needs neither the database nor the network.
+ * The rates are kept together with the id of the exchange rate snapshot they were recorded in,
+ * so a converted amount is recorded with the snapshot of the very rates it was converted with.
+ */
+@Component
+public class MoneyConverter {
+
+    /**
+     * The number of decimal places every rate is scaled to.
+     */
+    public static final int RATE_SCALE = 10;
+
+    /**
+     * The rounding applied to rates and converted amounts.
+     */
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_EVEN;
+
+    private static final Map<Currency, Integer> SCALES = new EnumMap<>(Currency.class);
+
+    static {
+        for (Currency currency : Currency.values()) {
+            SCALES.put(currency, java.util.Currency.getInstance(currency.toString()).getDefaultFractionDigits());
+        }
+    }
+
+    private final CurrencyDataRepository currencyDataRepository;
+    private final ExchangeRateHistoryService rateHistoryService;
+
+    private volatile RateTable rateTable = RateTable.EMPTY;
+
+    /**
+     * Constructs a new MoneyConverter with the given repository and history.
+     *
+     * @param currencyDataRepository The CurrencyDataRepository the rates are loaded from
+     *                               if no snapshot of the rates has been recorded.
+     * @param rateHistoryService     The ExchangeRateHistoryService the latest snapshot of the rates is loaded from
+     *                               before their first refresh.
+     */
+    @Autowired
+    public MoneyConverter(CurrencyDataRepository currencyDataRepository,
+                          ExchangeRateHistoryService rateHistoryService) {
+        this.currencyDataRepository = currencyDataRepository;
+        this.rateHistoryService = rateHistoryService;
+    }
+
+    /**
+     * Replaces the rates against CZK with the given ones and derives the cross rates from them.
+     * Rates of currencies that are not supported by the bank are ignored.
+     *
+     * @param snapshotId The id of the snapshot the rates were recorded in, or null if they were not recorded.
+     * @param rates      The rates against CZK by currency.
+     */
+    public void updateRates(Long snapshotId, Map<String, Double> rates) {
+        Map<Currency, BigDecimal> scaledRates = new EnumMap<>(Currency.class);
+        for (Currency currency : Currency.values()) {
+            Double rate = rates.get(currency.toString());
+            if (rate != null) {
+                scaledRates.put(currency, scaleRate(rate));
+            }
+        }
+        rateTable = RateTable.of(snapshotId, scaledRates);
+    }
+
+    /**
+     * Loads the rates of the latest snapshot from the history.
+     * If no snapshot has been recorded yet, the stored rates are loaded without a snapshot.
+     */
+    private void loadRates() {
+        List<HistoricalRate> latestRates = rateHistoryService.findLatestRates();
+        Map<String, Double> rates = new HashMap<>();
+        if (latestRates.isEmpty()) {
+            for (CurrencyData currencyData : currencyDataRepository.findAll()) {
+                rates.put(currencyData.getCurrency(), currencyData.getRate());
+            }
+            updateRates(null, rates);
+        } else {
+            latestRates.forEach(rate -> rates.put(rate.currency(), rate.rate()));
+            updateRates(latestRates.get(0).snapshotId(), rates);
+        }
+    }
+
+    /**
+     * Retrieves the rate of a currency against CZK.
+     * The rates are loaded from the database if this instance has not received them yet.
+     *
+     * @param currency The currency of the rate.
+     * @return The rate scaled to {@link #RATE_SCALE} decimal places.
+     */
+    public BigDecimal getBaseRate(Currency currency) {
+        BigDecimal rate = rateTable.baseRates().get(currency);
+        if (rate == null) {
+            loadRates();
+            rate = rateTable.baseRates().get(currency);
+            if (rate == null) {
+                throw new ApplicationException(HttpStatus.NOT_FOUND, "Currency " + currency + " is not found.");
+            }
+        }
+        return rate;
+    }
+
+    /**
+     * Retrieves the rate converting one currency to another, derived as rate[to] / rate[from]
+     * from their rates against CZK.
+     * The rates are loaded from the database if one of them has not been received yet.
+     * The rate and the id of its snapshot are read from the same rates, so they always belong together.
+     *
+     * @param from The currency to convert from.
+     * @param to   The currency to convert to.
+     * @return The rate with its snapshot, or null if one of the rates is not stored.
+     */
+    public CrossRate findCrossRate(Currency from, Currency to) {
+        RateTable table = rateTable;
+        BigDecimal rate = table.crossRates()[from.ordinal()][to.ordinal()];
+        if (rate == null) {
+            loadRates();
+            table = rateTable;
+            rate = table.crossRates()[from.ordinal()][to.ordinal()];
+        }
+        return rate == null ? null : new CrossRate(rate, table.snapshotId());
+    }
+
+    /**
+     * Converts an amount in CZK to the given currency.
+     *
+     * @param amount   The amount in CZK.
+     * @param currency The currency to convert to.
+     * @return The converted amount rounded to the minor units of the currency.
+     */
+    public BigDecimal fromBase(BigDecimal amount, Currency currency) {
+        return convert(amount, getBaseRate(currency), currency);
+    }
+
+    /**
+     * Converts an amount with the given rate.
+     *
+     * @param amount   The amount to convert.
+     * @param rate     The rate to convert with.
+     * @param currency The currency to convert to.
+     * @return The converted amount rounded to the minor units of the currency.
+     */
+    public BigDecimal convert(BigDecimal amount, double rate, Currency currency) {
+        return convert(amount, scaleRate(rate), currency);
+    }
+
+    /**
+     * Converts an amount with the given rate, which should already be scaled with {@link #scaleRate(double)}.
+     *
+     * @param amount   The amount to convert.
+     * @param rate     The rate to convert with.
+     * @param currency The currency to convert to.
+     * @return The converted amount rounded to the minor units of the currency.
+     */
+    public BigDecimal convert(BigDecimal amount, BigDecimal rate, Currency currency) {
+        return round(amount.multiply(rate), currency);
+    }
+
+    /**
+     * Rounds an amount to the minor units of a currency.
+     *
+     * @param amount   The amount to round.
+     * @param currency The currency of the amount.
+     * @return The rounded amount.
+     */
+    public BigDecimal round(BigDecimal amount, Currency currency) {
+        return amount.setScale(SCALES.get(currency), ROUNDING);
+    }
+
+    /**
+     * Converts a rate to a BigDecimal of {@link #RATE_SCALE} decimal places.
+     * The shortest decimal representation of the double is used, so a rate of 0.04 stays 0.04.
+     *
+     * @param rate The rate to convert.
+     * @return The scaled rate.
+     */
+    public static BigDecimal scaleRate(double rate) {
+        return BigDecimal.valueOf(rate).setScale(RATE_SCALE, ROUNDING);
+    }
+
+    /**
+     * This record is the rate converting one currency to another.
+     *
+     * @param rate       The rate scaled to {@link #RATE_SCALE} decimal places.
+     * @param snapshotId The id of the snapshot the rate was derived from, or null if its rates were not recorded.
+     */
+    public record CrossRate(BigDecimal rate, Long snapshotId) {
+    }
+
+    /**
+     * This record holds the rates against CZK and the cross rates derived from them, indexed by the ordinals
+     * of the currencies. It is replaced as a whole, so a reader never sees cross rates of other base rates
+     * or the snapshot id of other rates.
+     *
+     * @param snapshotId The id of the snapshot the rates were recorded in, or null if they were not recorded.
+     * @param baseRates  The rates against CZK.
+     * @param crossRates The rates between every two currencies, null where one of the base rates is missing.
+     */
+    private record RateTable(Long snapshotId, Map<Currency, BigDecimal> baseRates, BigDecimal[][] crossRates) {
+
+        private static final RateTable EMPTY = of(null, new EnumMap<>(Currency.class));
+
+        private static RateTable of(Long snapshotId, Map<Currency, BigDecimal> baseRates) {
+            Currency[] currencies = Currency.values();
+            BigDecimal[][] crossRates = new BigDecimal[currencies.length][currencies.length];
+            for (Currency from : currencies) {
+                for (Currency to : currencies) {
+                    BigDecimal fromRate = baseRates.get(from);
+                    BigDecimal toRate = baseRates.get(to);
+                    if (fromRate != null && toRate != null && fromRate.signum() != 0) {
+                        crossRates[from.ordinal()][to.ordinal()] = from == to ? BigDecimal.ONE.setScale(RATE_SCALE)
+                                : toRate.divide(fromRate, MathContext.DECIMAL64).setScale(RATE_SCALE, ROUNDING);
+                    }
+                }
+            }
+            return new RateTable(snapshotId, baseRates, crossRates);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service.component;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is responsible for hashing passwords on a dedicated, bounded pool of threads.
+ * BCrypt is deliberately slow, so the pool caps the CPU spent on hashing however many registrations arrive,
+ * and a registration is rejected with 503 Service Unavailable when the queue of pending hashes is full.
+ */
+@Component
+public class PasswordHasher {
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Constructs a new PasswordHasher with the given encoder, number of threads and queue size.
+     *
+     * @param passwordEncoder The PasswordEncoder hashing the passwords.
+     * @param threads         The number of passwords hashed in parallel.
+     * @param queueSize       The number of passwords waiting to be hashed.
+     */
+    @Autowired
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          @Value("${password-hashing.threads:4}") int threads,
+                          @Value("${password-hashing.queue-size:256}") int queueSize) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Starts hashing a password.
+     *
+     * @param rawPassword The password to hash.
+     * @return The future hash of the password.
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(rawPassword), executor);
+        } catch (RejectedExecutionException e) {
+            throw new ApplicationException(HttpStatus.SERVICE_UNAVAILABLE, "Too many registrations, try again later.");
+        }
+    }
+
+    /**
+     * Stops the threads hashing the passwords.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,180 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service.component;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.RateProviderStatsResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is responsible for fetching the exchange rates from all configured rate providers.
+ * The providers are asked in parallel and a provider that fails or does not answer in time is skipped.
+ * The rate of a currency is the median of the rates of the providers that returned it,
+ * and a currency is left out if fewer providers than the quorum returned it.
+ * The latency and the failures of every provider are recorded.
+ */
+@Slf4j
+@Component
+public class RateAggregator {
+    private final List<RateProvider> providers;
+    private final int quorum;
+    private final long timeoutMillis;
+    private final ExecutorService executor;
+    private final Map<String, ProviderStats> stats = new LinkedHashMap<>();
+
+    /**
+     * Constructs a new RateAggregator with the given providers, quorum and timeout.
+     *
+     * @param providers     The configured rate providers.
+     * @param quorum        The number of providers that must return the rate of a currency.
+     * @param timeoutMillis The time in milliseconds a provider is waited for.
+     */
+    @Autowired
+    public RateAggregator(ObjectProvider<RateProvider> providers,
+                          @Value("${currency.providers.quorum:1}") int quorum,
+                          @Value("${currency.providers.timeout-ms:10000}") long timeoutMillis) {
+        this(providers.orderedStream().toList(), quorum, timeoutMillis);
+    }
+
+    /**
+     * Constructs a new RateAggregator with the given list of providers, quorum and timeout.
+     *
+     * @param providers     The rate providers.
+     * @param quorum        The number of providers that must return the rate of a currency.
+     * @param timeoutMillis The time in milliseconds a provider is waited for.
+     */
+    RateAggregator(List<RateProvider> providers, int quorum, long timeoutMillis) {
+        this.providers = providers;
+        this.quorum = quorum;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, providers.size()));
+        providers.forEach(provider -> stats.put(provider.getName(), new ProviderStats()));
+        log.info("Exchange rates are fetched from {} with a quorum of {}.",
+                providers.stream().map(RateProvider::getName).toList(), quorum);
+    }
+
+    /**
+     * Fetches the rates from all providers and combines them.
+     *
+     * @return The median rates against CZK of the currencies returned by at least the quorum of providers,
+     * empty if no provider answered.
+     */
+    public Map<String, Double> fetchRates() {
+        List<CompletableFuture<Map<String, Double>>> fetches = providers.stream().map(this::fetch).toList();
+        Map<String, List<Double>> quotes = new HashMap<>();
+        int answered = 0;
+        for (CompletableFuture<Map<String, Double>> fetch : fetches) {
+            Map<String, Double> rates = fetch.join();
+            if (rates != null) {
+                answered++;
+                rates.forEach((currency, rate) -> quotes.computeIfAbsent(currency, c -> new ArrayList<>()).add(rate));
+            }
+        }
+        Map<String, Double> rates = new HashMap<>();
+        quotes.forEach((currency, values) -> {
+            if (values.size() >= quorum) {
+                rates.put(currency, median(values));
+            }
+        });
+        log.info("Fetched the rates of {} currencies from {} of {} providers.",
+                rates.size(), answered, providers.size());
+        return rates;
+    }
+
+    /**
+     * Retrieves the statistics of the fetches from every provider.
+     *
+     * @return The statistics in the order of the providers.
+     */
+    public List<RateProviderStatsResponse> getStats() {
+        List<RateProviderStatsResponse> responses = new ArrayList<>();
+        stats.forEach((name, providerStats) -> responses.add(providerStats.toResponse(name)));
+        return responses;
+    }
+
+    /**
+     * Fetches the rates from one provider on the executor and records its latency.
+     *
+     * @param provider The provider to fetch the rates from.
+     * @return The future rates of the provider, completed with null if the provider failed or timed out.
+     */
+    private CompletableFuture<Map<String, Double>> fetch(RateProvider provider) {
+        long startTime = System.nanoTime();
+        return CompletableFuture.supplyAsync(provider::fetchRates, executor)
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .handle((rates, e) -> {
+                    long latencyNanos = System.nanoTime() - startTime;
+                    stats.get(provider.getName()).record(latencyNanos, e != null);
+                    long latencyMillis = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+                    if (e != null) {
+                        log.warn("Rate provider {} failed after {} ms: {}", provider.getName(), latencyMillis,
+                                e.getMessage());
+                        return null;
+                    }
+                    log.info("Rate provider {} returned {} rates in {} ms.", provider.getName(), rates.size(),
+                            latencyMillis);
+                    return rates;
+                });
+    }
+
+    /**
+     * Computes the median of the given values.
+     *
+     * @param values The values, not empty.
+     * @return The middle value, or the mean of the two middle values if their number is even.
+     */
+    static double median(List<Double> values) {
+        List<Double> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int middle = sorted.size() / 2;
+        return sorted.size() % 2 == 1 ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2;
+    }
+
+    /**
+     * Stops the threads fetching the rates.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * This class holds the statistics of the fetches from one provider.
+     */
+    private static final class ProviderStats {
+        private final LongAdder fetches = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalLatencyNanos = new LongAdder();
+        private volatile long lastLatencyNanos;
+
+        private void record(long latencyNanos, boolean failed) {
+            fetches.increment();
+            if (failed) {
+                failures.increment();
+            }
+            totalLatencyNanos.add(latencyNanos);
+            lastLatencyNanos = latencyNanos;
+        }
+
+        private RateProviderStatsResponse toResponse(String name) {
+            long count = fetches.sum();
+            return new RateProviderStatsResponse(name, count, failures.sum(),
+                    TimeUnit.NANOSECONDS.toMillis(lastLatencyNanos),
+                    count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.sum() / count));
+        }
+    }
+}
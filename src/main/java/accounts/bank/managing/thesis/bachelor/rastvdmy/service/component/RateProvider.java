@@ -0,0 +1,43 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service.component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This interface represents a source of the exchange rates against CZK.
+ * The rates of all providers are fetched in parallel and combined by the RateAggregator.
+ */
+public interface RateProvider {
+
+    /**
+     * Returns the name of the provider, used in the logs and the statistics of the providers.
+     *
+     * @return The name of the provider.
+     */
+    String getName();
+
+    /**
+     * Fetches the exchange rates against CZK.
+     *
+     * @return The rates by the code of their currency.
+     * @throws RuntimeException If the rates cannot be fetched.
+     */
+    Map<String, Double> fetchRates();
+
+    /**
+     * Reads the rates from a body in the format of the ExchangeRate-API,
+     * i.e. an object with the rates in its "conversion_rates" field.
+     *
+     * @param body The body to read the rates from.
+     * @return The rates by the code of their currency.
+     * @throws IllegalStateException If the body contains no rates.
+     */
+    static Map<String, Double> conversionRates(Map<String, Object> body) {
+        if (body == null || !(body.get("conversion_rates") instanceof Map<?, ?> conversionRates)) {
+            throw new IllegalStateException("The response contains no conversion rates.");
+        }
+        Map<String, Double> rates = new HashMap<>();
+        conversionRates.forEach((currency, rate) -> rates.put(currency.toString(), ((Number) rate).doubleValue()));
+        return rates;
+    }
+}
@@ -0,0 +1,48 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service.component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * This class reads the exchange rates from a file or classpath resource holding a response of the ExchangeRate-API.
+ * It lets the application load rates without network access.
+ */
+public class SnapshotRateProvider implements RateProvider {
+    private final String name;
+    private final Resource resource;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs a new SnapshotRateProvider with the given name, resource and ObjectMapper.
+     *
+     * @param name         The name of the provider.
+     * @param resource     The resource holding the rates.
+     * @param objectMapper The ObjectMapper reading the resource.
+     */
+    public SnapshotRateProvider(String name, Resource resource, ObjectMapper objectMapper) {
+        this.name = name;
+        this.resource = resource;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Map<String, Double> fetchRates() {
+        try (InputStream inputStream = resource.getInputStream()) {
+            return RateProvider.conversionRates(objectMapper.readValue(inputStream, new TypeReference<>() {
+            }));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the rates from " + resource.getDescription(), e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+-- Indexes that cannot be expressed with JPA annotations.
+-- The script runs after Hibernate has updated the schema (spring.jpa.defer-datasource-initialization).
+
+-- Full-text search over message content, used by MessageRepository.searchByContent
+CREATE INDEX IF NOT EXISTS message_content_fts_idx ON message USING GIN (to_tsvector('simple', content));
+
+-- Unique email and phone number of a user, enforced on registration instead of checking them with queries.
+-- Hibernate creates them as constraints of the same names on a new schema; these cover an updated one.
+CREATE UNIQUE INDEX IF NOT EXISTS user_profile_email_uk ON user_profile (email);
+CREATE UNIQUE INDEX IF NOT EXISTS user_profile_phone_number_uk ON user_profile (phone_number);
+
+-- Supported currencies are global reference data, so users are no longer associated with every rate.
+DROP TABLE IF EXISTS user_profile_currency_data;
+
+-- Cards past their expiration date are marked expired by CardExpirationJob.
+-- Hibernate does not update the enum check of an existing column.
+ALTER TABLE card DROP CONSTRAINT IF EXISTS card_status_check;
+ALTER TABLE card ADD CONSTRAINT card_status_check
+    CHECK (status IN ('STATUS_CARD_DEFAULT', 'STATUS_CARD_BLOCKED', 'STATUS_CARD_UNBLOCKED', 'STATUS_CARD_EXPIRED'));
+
+-- Every card opens its ledger with the balance it had before the ledger was introduced, so its balance
+-- always equals the sum of its postings. Hibernate does not update the enum check of an existing column.
+ALTER TABLE ledger_posting DROP CONSTRAINT IF EXISTS ledger_posting_operation_check;
+ALTER TABLE ledger_posting ADD CONSTRAINT ledger_posting_operation_check
+    CHECK (operation IN ('OPENING', 'TRANSFER', 'REFILL', 'DEPOSIT_OPEN', 'DEPOSIT_CLOSE'));
+INSERT INTO ledger_posting (id, card_id, amount, operation, reference_number, created_at)
+SELECT nextval('ledger_posting_seq'), opening.card_id, opening.amount, 'OPENING', NULL, now()
+FROM (SELECT c.id AS card_id,
+             c.balance
+                 + COALESCE((SELECT SUM(s.balance) FROM card_balance_shard s WHERE s.card_id = c.id), 0)
+                 - COALESCE((SELECT SUM(p.amount) FROM ledger_posting p WHERE p.card_id = c.id), 0) AS amount
+      FROM card c
+      WHERE NOT EXISTS (SELECT 1 FROM ledger_posting p WHERE p.card_id = c.id AND p.operation = 'OPENING')) opening
+WHERE opening.amount <> 0;
+
+-- The financial summary ids come from sequences like every other table, replacing the identity columns.
+ALTER TABLE user_financial_summary ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE user_daily_flow ALTER COLUMN id DROP IDENTITY IF EXISTS;
+SELECT setval('user_financial_summary_seq', GREATEST((SELECT last_value FROM user_financial_summary_seq),
+                                                     (SELECT COALESCE(MAX(id), 0) + 1 FROM user_financial_summary)));
+SELECT setval('user_daily_flow_seq', GREATEST((SELECT last_value FROM user_daily_flow_seq),
+                                              (SELECT COALESCE(MAX(id), 0) + 1 FROM user_daily_flow)));
+
+-- Interest is accrued next to the principal of a loan instead of into it.
+UPDATE bank_loan SET accrued_interest = 0 WHERE accrued_interest IS NULL;
+
+-- One-off data migrations record their name here once applied, so the script skips them on later startups.
+CREATE TABLE IF NOT EXISTS schema_migration
+(
+    name       VARCHAR(255) PRIMARY KEY,
+    applied_at TIMESTAMP NOT NULL
+);
+
+-- The financial summary only counted changes made after it was introduced. Slot 0 of every user and currency
+-- receives the difference between the totals of the cards, loans and deposits and the current summary.
+-- The backfill reads every card, loan and deposit, so it runs once, guarded by the financial_summary_backfill
+-- migration recorded after the daily flow backfill.
+INSERT INTO user_financial_summary (id, user_id, currency, slot, balance, loan_outstanding, deposit_principal)
+SELECT nextval('user_financial_summary_seq'), totals.user_id, totals.currency, 0,
+       SUM(totals.balance), SUM(totals.loan_outstanding), SUM(totals.deposit_principal)
+FROM (SELECT c.user_id, c.currency_type AS currency,
+             c.balance + COALESCE((SELECT SUM(s.balance) FROM card_balance_shard s WHERE s.card_id = c.id), 0)
+                 AS balance,
+             0 AS loan_outstanding, 0 AS deposit_principal
+      FROM card c
+      UNION ALL
+      SELECT COALESCE(ul.user_id, lc.user_id), l.currency, 0,
+             l.loan_amount + ROUND(COALESCE(l.accrued_interest, 0), 2), 0
+      FROM bank_loan l
+               LEFT JOIN user_loan ul ON ul.loan_id = l.id
+               LEFT JOIN card_loan cl ON cl.loan_id = l.id
+               LEFT JOIN card lc ON lc.id = cl.card_id
+      WHERE COALESCE(ul.user_id, lc.user_id) IS NOT NULL
+      UNION ALL
+      SELECT dc.user_id, d.currency, 0, 0, d.deposit_amount
+      FROM deposit d
+               JOIN card dc ON dc.id = d.card_deposit
+      UNION ALL
+      SELECT f.user_id, f.currency, -f.balance, -f.loan_outstanding, -f.deposit_principal
+      FROM user_financial_summary f) totals
+WHERE NOT EXISTS (SELECT 1 FROM schema_migration m WHERE m.name = 'financial_summary_backfill')
+GROUP BY totals.user_id, totals.currency
+HAVING SUM(totals.balance) <> 0 OR SUM(totals.loan_outstanding) <> 0 OR SUM(totals.deposit_principal) <> 0
+ON CONFLICT (user_id, currency, slot) DO UPDATE SET
+    balance = user_financial_summary.balance + EXCLUDED.balance,
+    loan_outstanding = user_financial_summary.loan_outstanding + EXCLUDED.loan_outstanding,
+    deposit_principal = user_financial_summary.deposit_principal + EXCLUDED.deposit_principal;
+
+-- The daily flow of the last 30 days is backfilled from the transfers, for the days without any flow of
+-- the user in the currency yet, under the same migration. The amount sent by a transfer between cards of different currencies
+-- is taken from the ledger posting of the sender.
+INSERT INTO user_daily_flow (id, user_id, currency, flow_date, slot, inflow, outflow)
+SELECT nextval('user_daily_flow_seq'), flows.user_id, flows.currency, flows.flow_date, 0,
+       SUM(flows.inflow), SUM(flows.outflow)
+FROM (SELECT rc.user_id, t.currency, CAST(t.date_time AS DATE) AS flow_date, t.amount AS inflow, 0 AS outflow
+      FROM transfer t
+               JOIN card rc ON rc.id = t.receiver_card
+      WHERE t.status = 'RECEIVED' AND t.date_time >= CURRENT_DATE - 29
+      UNION ALL
+      SELECT sc.user_id, sc.currency_type, CAST(t.date_time AS DATE), 0,
+             CASE WHEN t.currency = sc.currency_type THEN t.amount
+                  ELSE (SELECT -SUM(p.amount) FROM ledger_posting p
+                        WHERE p.card_id = sc.id AND p.reference_number = t.reference_number
+                          AND p.operation = 'TRANSFER') END
+      FROM transfer t
+               JOIN card sc ON sc.id = t.sender_card
+      WHERE t.status = 'RECEIVED' AND t.date_time >= CURRENT_DATE - 29) flows
+WHERE flows.outflow IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM schema_migration m WHERE m.name = 'financial_summary_backfill')
+  AND NOT EXISTS (SELECT 1 FROM user_daily_flow f
+                  WHERE f.user_id = flows.user_id AND f.currency = flows.currency AND f.flow_date = flows.flow_date)
+GROUP BY flows.user_id, flows.currency, flows.flow_date
+ON CONFLICT (user_id, currency, flow_date, slot) DO NOTHING;
+INSERT INTO schema_migration (name, applied_at)
+VALUES ('financial_summary_backfill', now())
+ON CONFLICT (name) DO NOTHING;
+
+-- Rates stored before their changes were timestamped count as changed now.
+UPDATE currency_data SET updated_at = CURRENT_TIMESTAMP WHERE updated_at IS NULL;
+
+-- The matured deposits are read from the index on the expiration date and id, which replaces the one on the date.
+DROP INDEX IF EXISTS deposit_expiration_date_idx;
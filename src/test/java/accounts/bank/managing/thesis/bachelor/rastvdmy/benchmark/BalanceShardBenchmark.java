@@ -0,0 +1,156 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks 16 concurrent transfers to one merchant card in an in-memory H2 database.
+ * Every transfer credits the card with the single update statement of BalanceShardService
+ * and keeps the row locked for the rest of its transaction, simulated by inserting the transfer.
+ * With 0 shards every credit updates the card row, so the transfers wait for each other;
+ * with N shards the credits are spread over N shard rows chosen by the hash of the reference number.
+ * It is not part of the test suite and is run from its main method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class BalanceShardBenchmark {
+    private static final String URL = "jdbc:h2:mem:shards;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=60000";
+    private static final long CARD_ID = 1;
+
+    @Param({"0", "4", "16"})
+    private int shards;
+
+    private Connection setupConnection;
+
+    /**
+     * This method creates the card, its shards and the transfer table before the benchmark is run.
+     *
+     * @throws SQLException If the tables cannot be created.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        setupConnection = DriverManager.getConnection(URL);
+        try (Statement statement = setupConnection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS transfer");
+            statement.execute("DROP TABLE IF EXISTS card_balance_shard");
+            statement.execute("DROP TABLE IF EXISTS card");
+            statement.execute("CREATE TABLE card (id BIGINT PRIMARY KEY, balance NUMERIC(38, 2))");
+            statement.execute("CREATE TABLE card_balance_shard (card_id BIGINT, shard_index INT, " +
+                    "balance NUMERIC(38, 2), PRIMARY KEY (card_id, shard_index))");
+            statement.execute("CREATE TABLE transfer (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                    "reference_number VARCHAR(11), receiver_card BIGINT, amount NUMERIC(38, 2))");
+            statement.execute("INSERT INTO card VALUES (" + CARD_ID + ", 0)");
+            statement.execute("INSERT INTO card_balance_shard SELECT " + CARD_ID + ", X, 0 " +
+                    "FROM SYSTEM_RANGE(0, " + (shards - 1) + ")");
+        }
+    }
+
+    /**
+     * This class holds the connection and statements of one benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Transaction {
+        private Connection connection;
+        private PreparedStatement creditCard;
+        private PreparedStatement creditShard;
+        private PreparedStatement insertTransfer;
+
+        /**
+         * This method opens the connection of the thread once the tables are created.
+         *
+         * @param benchmark The benchmark whose tables are used.
+         * @throws SQLException If the connection cannot be opened.
+         */
+        @Setup(Level.Trial)
+        public void open(BalanceShardBenchmark benchmark) throws SQLException {
+            connection = DriverManager.getConnection(URL);
+            connection.setAutoCommit(false);
+            creditCard = connection.prepareStatement(
+                    "UPDATE card SET balance = balance + ? WHERE id = ? AND balance + ? >= 0");
+            creditShard = connection.prepareStatement(
+                    "UPDATE card_balance_shard SET balance = balance + ? WHERE card_id = ? AND shard_index = ?");
+            insertTransfer = connection.prepareStatement(
+                    "INSERT INTO transfer (reference_number, receiver_card, amount) VALUES (?, ?, ?)");
+        }
+
+        /**
+         * This method closes the connection of the thread.
+         *
+         * @throws SQLException If the connection cannot be closed.
+         */
+        @TearDown(Level.Trial)
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    /**
+     * This method credits the card with one transfer and commits it.
+     *
+     * @param transaction The connection of the thread.
+     * @return The number of inserted transfers.
+     * @throws SQLException If a statement fails.
+     */
+    @Benchmark
+    public int credit(Transaction transaction) throws SQLException {
+        String referenceNumber = String.format("R%010d", ThreadLocalRandom.current().nextLong(10_000_000_000L));
+        if (shards == 0) {
+            transaction.creditCard.setBigDecimal(1, BigDecimal.TEN);
+            transaction.creditCard.setLong(2, CARD_ID);
+            transaction.creditCard.setBigDecimal(3, BigDecimal.TEN);
+            transaction.creditCard.executeUpdate();
+        } else {
+            transaction.creditShard.setBigDecimal(1, BigDecimal.TEN);
+            transaction.creditShard.setLong(2, CARD_ID);
+            transaction.creditShard.setInt(3, Math.floorMod(referenceNumber.hashCode(), shards));
+            transaction.creditShard.executeUpdate();
+        }
+        transaction.insertTransfer.setString(1, referenceNumber);
+        transaction.insertTransfer.setLong(2, CARD_ID);
+        transaction.insertTransfer.setBigDecimal(3, BigDecimal.TEN);
+        int inserted = transaction.insertTransfer.executeUpdate();
+        transaction.connection.commit();
+        return inserted;
+    }
+
+    /**
+     * This method drops the database after the benchmark is run.
+     *
+     * @throws SQLException If the database cannot be dropped.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = setupConnection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        setupConnection.close();
+    }
+
+    /**
+     * This method runs the benchmark.
+     *
+     * @param args The command line arguments.
+     * @throws RunnerException If the benchmark fails.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BalanceShardBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,231 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks a payroll batch of 10,000 transfers from one card in an in-memory H2 database.
+ * It compares the statements of one POST /transfer/ call per transfer, each in its own transaction,
+ * with the statements of POST /transfer/batch: receiver cards loaded with IN queries,
+ * reference numbers checked with one query, and the balance updates and transfer inserts sent in JDBC batches
+ * within one transaction.
+ * It is not part of the test suite and is run from its main method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkTransferBenchmark {
+    private static final int TRANSFERS = 10_000;
+    private static final int IN_CHUNK_SIZE = 1_000;
+    private static final long SENDER_ID = 0;
+
+    private Connection connection;
+    private List<String> receiverCardNumbers;
+    private List<String> referenceNumbers;
+    private long run;
+
+    /**
+     * This method creates the card and transfer tables with one sender and 10,000 receivers
+     * before the benchmark is run.
+     *
+     * @throws SQLException If the tables cannot be created.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:transfers;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS transfer");
+            statement.execute("DROP TABLE IF EXISTS card");
+            statement.execute("CREATE TABLE card (id BIGINT PRIMARY KEY, card_number VARCHAR(16) UNIQUE, " +
+                    "balance NUMERIC(38, 2))");
+            statement.execute("CREATE TABLE transfer (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                    "reference_number VARCHAR(11) UNIQUE, sender_card BIGINT, receiver_card BIGINT, " +
+                    "amount NUMERIC(38, 2), description VARCHAR(100))");
+            statement.execute("INSERT INTO card SELECT X, LPAD(CAST(X AS VARCHAR), 16, '0'), 0 " +
+                    "FROM SYSTEM_RANGE(0, " + TRANSFERS + ")");
+        }
+        receiverCardNumbers = new ArrayList<>(TRANSFERS);
+        for (int i = 1; i <= TRANSFERS; i++) {
+            receiverCardNumbers.add(String.format("%016d", i));
+        }
+    }
+
+    /**
+     * This method funds the sender card and prepares unused reference numbers before every invocation.
+     *
+     * @throws SQLException If the sender card cannot be funded.
+     */
+    @Setup(Level.Invocation)
+    public void nextBatch() throws SQLException {
+        run++;
+        referenceNumbers = new ArrayList<>(TRANSFERS);
+        for (int i = 0; i < TRANSFERS; i++) {
+            referenceNumbers.add(String.format("R%04d%06d", run % 10_000, i));
+        }
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("UPDATE card SET balance = 1000000 WHERE id = " + SENDER_ID);
+        }
+    }
+
+    /**
+     * This method performs the transfers one by one, with the lookups and the commit of a single transfer each.
+     *
+     * @return The number of performed transfers.
+     * @throws SQLException If a statement fails.
+     */
+    @Benchmark
+    public int perRequest() throws SQLException {
+        connection.setAutoCommit(false);
+        int performed = 0;
+        try (PreparedStatement findSender = connection.prepareStatement(
+                "SELECT balance FROM card WHERE id = ?");
+             PreparedStatement findReceiver = connection.prepareStatement(
+                     "SELECT id FROM card WHERE card_number = ?");
+             PreparedStatement referenceExists = connection.prepareStatement(
+                     "SELECT 1 FROM transfer WHERE reference_number = ?");
+             PreparedStatement updateBalance = connection.prepareStatement(
+                     "UPDATE card SET balance = balance + ? WHERE id = ?");
+             PreparedStatement insertTransfer = connection.prepareStatement(
+                     "INSERT INTO transfer (reference_number, sender_card, receiver_card, amount, description) " +
+                             "VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < TRANSFERS; i++) {
+                findSender.setLong(1, SENDER_ID);
+                try (ResultSet sender = findSender.executeQuery()) {
+                    sender.next();
+                }
+                findReceiver.setString(1, receiverCardNumbers.get(i));
+                long receiverId;
+                try (ResultSet receiver = findReceiver.executeQuery()) {
+                    receiver.next();
+                    receiverId = receiver.getLong(1);
+                }
+                referenceExists.setString(1, referenceNumbers.get(i));
+                try (ResultSet reference = referenceExists.executeQuery()) {
+                    reference.next();
+                }
+                updateBalance.setBigDecimal(1, BigDecimal.TEN.negate());
+                updateBalance.setLong(2, SENDER_ID);
+                updateBalance.executeUpdate();
+                updateBalance.setBigDecimal(1, BigDecimal.TEN);
+                updateBalance.setLong(2, receiverId);
+                updateBalance.executeUpdate();
+                setTransfer(insertTransfer, i, receiverId);
+                performed += insertTransfer.executeUpdate();
+                connection.commit();
+            }
+        }
+        return performed;
+    }
+
+    /**
+     * This method performs the transfers as one batch in one transaction.
+     *
+     * @return The number of performed transfers.
+     * @throws SQLException If a statement fails.
+     */
+    @Benchmark
+    public int batched() throws SQLException {
+        connection.setAutoCommit(false);
+        Map<String, Long> receiverIds = new HashMap<>(TRANSFERS * 2);
+        String placeholders = String.join(", ", Collections.nCopies(IN_CHUNK_SIZE, "?"));
+        try (PreparedStatement findReceivers = connection.prepareStatement(
+                "SELECT card_number, id FROM card WHERE card_number IN (" + placeholders + ")");
+             PreparedStatement referencesExist = connection.prepareStatement(
+                     "SELECT reference_number FROM transfer WHERE reference_number IN (" + placeholders + ")")) {
+            for (int from = 0; from < TRANSFERS; from += IN_CHUNK_SIZE) {
+                for (int i = 0; i < IN_CHUNK_SIZE; i++) {
+                    findReceivers.setString(i + 1, receiverCardNumbers.get(from + i));
+                    referencesExist.setString(i + 1, referenceNumbers.get(from + i));
+                }
+                try (ResultSet receivers = findReceivers.executeQuery()) {
+                    while (receivers.next()) {
+                        receiverIds.put(receivers.getString(1), receivers.getLong(2));
+                    }
+                }
+                try (ResultSet references = referencesExist.executeQuery()) {
+                    if (references.next()) {
+                        throw new IllegalStateException("Reference number " + references.getString(1) + " exists.");
+                    }
+                }
+            }
+        }
+        int performed = 0;
+        try (PreparedStatement updateBalance = connection.prepareStatement(
+                "UPDATE card SET balance = balance + ? WHERE id = ?");
+             PreparedStatement insertTransfer = connection.prepareStatement(
+                     "INSERT INTO transfer (reference_number, sender_card, receiver_card, amount, description) " +
+                             "VALUES (?, ?, ?, ?, ?)")) {
+            updateBalance.setBigDecimal(1, BigDecimal.TEN.multiply(BigDecimal.valueOf(TRANSFERS)).negate());
+            updateBalance.setLong(2, SENDER_ID);
+            updateBalance.addBatch();
+            for (int i = 0; i < TRANSFERS; i++) {
+                long receiverId = receiverIds.get(receiverCardNumbers.get(i));
+                updateBalance.setBigDecimal(1, BigDecimal.TEN);
+                updateBalance.setLong(2, receiverId);
+                updateBalance.addBatch();
+                setTransfer(insertTransfer, i, receiverId);
+                insertTransfer.addBatch();
+            }
+            updateBalance.executeBatch();
+            for (int count : insertTransfer.executeBatch()) {
+                performed += count;
+            }
+        }
+        connection.commit();
+        return performed;
+    }
+
+    /**
+     * This method closes the database after the benchmark is run.
+     *
+     * @throws SQLException If the database cannot be closed.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        connection.close();
+    }
+
+    private void setTransfer(PreparedStatement insertTransfer, int index, long receiverId) throws SQLException {
+        insertTransfer.setString(1, referenceNumbers.get(index));
+        insertTransfer.setLong(2, SENDER_ID);
+        insertTransfer.setLong(3, receiverId);
+        insertTransfer.setBigDecimal(4, BigDecimal.TEN);
+        insertTransfer.setString(5, "Salary");
+    }
+
+    /**
+     * This method runs the benchmark.
+     *
+     * @param args The command line arguments.
+     * @throws RunnerException If the benchmark fails.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BulkTransferBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
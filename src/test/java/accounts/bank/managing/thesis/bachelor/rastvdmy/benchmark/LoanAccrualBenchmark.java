@@ -0,0 +1,156 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks the nightly interest accrual of one million loans in an in-memory H2 database,
+ * comparing one set-based statement per range of ids with loading and updating the loans one by one,
+ * as saving every entity would.
+ * Every invocation accrues one more day, so every loan is accrued each time.
+ * It is not part of the test suite and is run from its main method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LoanAccrualBenchmark {
+    private static final int LOANS = 1_000_000;
+    private static final int CHUNK_SIZE = 10_000;
+    private static final LocalDate START_DATE = LocalDate.of(2024, 1, 1);
+
+    private Connection connection;
+    private LocalDate today;
+
+    /**
+     * This method creates the loan table and fills it with one million loans before the benchmark is run.
+     *
+     * @throws SQLException If the table cannot be created.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:accrual;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bank_loan");
+            statement.execute("CREATE TABLE bank_loan (id BIGINT PRIMARY KEY, loan_amount NUMERIC(38, 2), " +
+                    "accrued_interest NUMERIC(19, 8), interest_rate NUMERIC(7, 4), last_accrual_date DATE)");
+            statement.execute("INSERT INTO bank_loan SELECT X, 1000 + MOD(X, 100000), 0, 0.0899, " +
+                    "DATE '2024-01-01' FROM SYSTEM_RANGE(1, " + LOANS + ")");
+        }
+        today = START_DATE;
+    }
+
+    /**
+     * This method moves the accrual one day forward before every invocation.
+     */
+    @Setup(Level.Invocation)
+    public void nextDay() {
+        today = today.plusDays(1);
+    }
+
+    /**
+     * This method accrues the interest with one statement per range of ids.
+     *
+     * @return The number of accrued loans.
+     * @throws SQLException If the statement fails.
+     */
+    @Benchmark
+    public int setBased() throws SQLException {
+        int accrued = 0;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "UPDATE bank_loan SET accrued_interest = ROUND(accrued_interest + loan_amount * interest_rate * " +
+                        "DATEDIFF('DAY', last_accrual_date, ?) / 365, 8), last_accrual_date = ? " +
+                        "WHERE id BETWEEN ? AND ? AND loan_amount > 0 AND last_accrual_date < ?")) {
+            for (long fromId = 1; fromId <= LOANS; fromId += CHUNK_SIZE) {
+                statement.setDate(1, Date.valueOf(today));
+                statement.setDate(2, Date.valueOf(today));
+                statement.setLong(3, fromId);
+                statement.setLong(4, fromId + CHUNK_SIZE - 1);
+                statement.setDate(5, Date.valueOf(today));
+                accrued += statement.executeUpdate();
+            }
+        }
+        return accrued;
+    }
+
+    /**
+     * This method accrues the interest by reading every loan and updating it by itself in batches.
+     *
+     * @return The number of accrued loans.
+     * @throws SQLException If a statement fails.
+     */
+    @Benchmark
+    public int perLoan() throws SQLException {
+        int accrued = 0;
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, loan_amount, interest_rate, last_accrual_date, accrued_interest FROM bank_loan " +
+                        "WHERE id BETWEEN ? AND ? AND loan_amount > 0 AND last_accrual_date < ?");
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE bank_loan SET accrued_interest = ?, last_accrual_date = ? WHERE id = ?")) {
+            for (long fromId = 1; fromId <= LOANS; fromId += CHUNK_SIZE) {
+                select.setLong(1, fromId);
+                select.setLong(2, fromId + CHUNK_SIZE - 1);
+                select.setDate(3, Date.valueOf(today));
+                try (ResultSet loans = select.executeQuery()) {
+                    while (loans.next()) {
+                        BigDecimal amount = loans.getBigDecimal(2);
+                        long days = ChronoUnit.DAYS.between(loans.getDate(4).toLocalDate(), today);
+                        BigDecimal interest = amount.multiply(loans.getBigDecimal(3))
+                                .multiply(BigDecimal.valueOf(days))
+                                .divide(BigDecimal.valueOf(365), 8, RoundingMode.HALF_UP);
+                        update.setBigDecimal(1, loans.getBigDecimal(5).add(interest));
+                        update.setDate(2, Date.valueOf(today));
+                        update.setLong(3, loans.getLong(1));
+                        update.addBatch();
+                    }
+                }
+                for (int count : update.executeBatch()) {
+                    accrued += count;
+                }
+            }
+        }
+        return accrued;
+    }
+
+    /**
+     * This method closes the database after the benchmark is run.
+     *
+     * @throws SQLException If the database cannot be closed.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        connection.close();
+    }
+
+    /**
+     * This method runs the benchmark.
+     *
+     * @param args The command line arguments.
+     * @throws RunnerException If the benchmark fails.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LoanAccrualBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,147 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks searching one million messages in PostgreSQL, comparing the previous exact match
+ * and a substring scan with the full-text query of MessageRepository.searchByContent and its GIN index.
+ * The full-text search is not supported by H2, so the benchmark needs a running PostgreSQL database,
+ * set by the benchmark.jdbc-url, benchmark.user and benchmark.password system properties.
+ * The messages are created in the schema message_search_bench, which is dropped afterwards.
+ * It is not part of the test suite and is run from its main method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageSearchBenchmark {
+    private static final int MESSAGES = 1_000_000;
+    private static final String SCHEMA = "message_search_bench";
+
+    private Connection connection;
+
+    /**
+     * This method creates the message table with one million messages and its GIN index
+     * before the benchmark is run.
+     *
+     * @throws SQLException If the table cannot be created.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("benchmark.jdbc-url", "jdbc:postgresql://localhost:5432/postgres"),
+                System.getProperty("benchmark.user", "postgres"),
+                System.getProperty("benchmark.password", "postgres"));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            statement.execute("SET search_path TO " + SCHEMA);
+            statement.execute("CREATE TABLE message (id BIGINT PRIMARY KEY, content VARCHAR(255) NOT NULL)");
+            statement.execute("INSERT INTO message SELECT g, " +
+                    "'word' || (g * 7919 % 50000) || ' payment word' || (g * 104729 % 50000) || ' ref' || (g % 997) " +
+                    "FROM generate_series(1, " + MESSAGES + ") g");
+            statement.execute("CREATE INDEX message_content_fts_idx ON message " +
+                    "USING GIN (to_tsvector('simple', content))");
+            statement.execute("ANALYZE message");
+        }
+    }
+
+    /**
+     * This method finds the messages equal to the searched content, as the previous findByContent did.
+     *
+     * @return The number of found messages.
+     * @throws SQLException If the query fails.
+     */
+    @Benchmark
+    public int exactMatch() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT m.* FROM message m WHERE m.content = ?")) {
+            statement.setString(1, "word12345 payment word6789 ref42");
+            return count(statement);
+        }
+    }
+
+    /**
+     * This method finds the messages containing the searched words with a substring scan.
+     *
+     * @return The number of found messages.
+     * @throws SQLException If the query fails.
+     */
+    @Benchmark
+    public int substringScan() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT m.* FROM message m WHERE m.content ILIKE ? AND m.content ILIKE ? " +
+                        "ORDER BY m.id DESC LIMIT 10")) {
+            statement.setString(1, "%word12345%");
+            statement.setString(2, "%ref42%");
+            return count(statement);
+        }
+    }
+
+    /**
+     * This method finds the first page of messages containing the searched words as prefixes,
+     * ranked with the query of MessageRepository.searchByContent.
+     *
+     * @return The number of found messages.
+     * @throws SQLException If the query fails.
+     */
+    @Benchmark
+    public int fullText() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT m.* FROM message m " +
+                "WHERE to_tsvector('simple', m.content) @@ to_tsquery('simple', ?) " +
+                "ORDER BY ts_rank(to_tsvector('simple', m.content), to_tsquery('simple', ?)) DESC, m.id DESC " +
+                "LIMIT 10")) {
+            statement.setString(1, "word12345:* & ref42:*");
+            statement.setString(2, "word12345:* & ref42:*");
+            return count(statement);
+        }
+    }
+
+    /**
+     * This method drops the messages and closes the connection after the benchmark is run.
+     *
+     * @throws SQLException If the schema cannot be dropped.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+        connection.close();
+    }
+
+    private static int count(PreparedStatement statement) throws SQLException {
+        int count = 0;
+        try (ResultSet messages = statement.executeQuery()) {
+            while (messages.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * This method runs the benchmark.
+     *
+     * @param args The command line arguments.
+     * @throws RunnerException If the benchmark fails.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MessageSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,108 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.benchmark;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.CurrencyData;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CurrencyDataRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.ExchangeRateHistoryService;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.MoneyConverter;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks the conversion of 1,000 amounts from CZK to the currencies of their cards,
+ * as done by the refills and deposits, with the rate converted from a double on every call
+ * and with the pre-scaled rates of the MoneyConverter.
+ * It is not part of the test suite and is run from its main method, which also reports the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyConversionBenchmark {
+
+    private final Map<Currency, CurrencyData> currencyData = new EnumMap<>(Currency.class);
+    private MoneyConverter moneyConverter;
+    private List<BigDecimal> amounts;
+    private List<Currency> currencies;
+
+    /**
+     * This method prepares the rates and 1,000 random amounts before the benchmark is run.
+     */
+    @Setup
+    public void setUp() {
+        double[] rates = {1.0, 0.04346, 0.03985, 0.17154, 1.79876};
+        Map<String, Double> rateMap = new HashMap<>();
+        for (Currency currency : Currency.values()) {
+            CurrencyData data = new CurrencyData();
+            data.setCurrency(currency.toString());
+            data.setRate(rates[currency.ordinal()]);
+            currencyData.put(currency, data);
+            rateMap.put(currency.toString(), data.getRate());
+        }
+        moneyConverter = new MoneyConverter(Mockito.mock(CurrencyDataRepository.class),
+                Mockito.mock(ExchangeRateHistoryService.class));
+        moneyConverter.updateRates(1L, rateMap);
+
+        Random random = new Random(42);
+        amounts = new ArrayList<>(1000);
+        currencies = new ArrayList<>(1000);
+        for (int i = 0; i < 1000; i++) {
+            amounts.add(BigDecimal.valueOf(random.nextLong(1, 100_000_000L), 2));
+            currencies.add(Currency.values()[random.nextInt(Currency.values().length)]);
+        }
+    }
+
+    /**
+     * This method converts the amounts as before, with BigDecimal.valueOf on every call and without rounding.
+     *
+     * @param blackhole The blackhole consuming the converted amounts.
+     */
+    @Benchmark
+    public void valueOfPerCall(Blackhole blackhole) {
+        for (int i = 0; i < amounts.size(); i++) {
+            double rate = currencyData.get(currencies.get(i)).getRate();
+            blackhole.consume(amounts.get(i).multiply(BigDecimal.valueOf(rate)));
+        }
+    }
+
+    /**
+     * This method converts the amounts with the pre-scaled rates of the MoneyConverter.
+     *
+     * @param blackhole The blackhole consuming the converted amounts.
+     */
+    @Benchmark
+    public void preScaled(Blackhole blackhole) {
+        for (int i = 0; i < amounts.size(); i++) {
+            blackhole.consume(moneyConverter.fromBase(amounts.get(i), currencies.get(i)));
+        }
+    }
+
+    /**
+     * This method runs the benchmark.
+     *
+     * @param args The command line arguments.
+     * @throws RunnerException If the benchmark fails.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MoneyConversionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,102 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.benchmark;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.User;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CardRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.UserRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.CardService;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.LedgerService;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.UserService;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.Generator;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.MoneyConverter;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.PasswordHasher;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+/**
+ * This class benchmarks the registration of users by 8 concurrent callers,
+ * with the passwords hashed with BCrypt on pools of different sizes.
+ * The repositories and the country API are stubbed, so the result is bound by hashing.
+ * It is not part of the test suite and is run from its main method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class RegistrationBenchmark {
+
+    @Param({"1", "4", "8"})
+    private int hashingThreads;
+
+    private final AtomicLong sequence = new AtomicLong(1_000_000_000L);
+    private PasswordHasher passwordHasher;
+    private UserService userService;
+
+    /**
+     * This method prepares the services with stubbed repositories before the benchmark is run.
+     */
+    @Setup
+    public void setUp() {
+        UserRepository userRepository = Mockito.mock(UserRepository.class, Mockito.withSettings().stubOnly());
+        Mockito.when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        RestTemplate restTemplate = Mockito.mock(RestTemplate.class, Mockito.withSettings().stubOnly());
+        Mockito.when(restTemplate.getForEntity(anyString(), eq(String.class)))
+                .thenReturn(ResponseEntity.ok("[{\"name\":{\"common\":\"Czechia\"}}]"));
+        CardService cardService = new CardService(
+                Mockito.mock(CardRepository.class, Mockito.withSettings().stubOnly()), userRepository,
+                Mockito.mock(MoneyConverter.class, Mockito.withSettings().stubOnly()),
+                Mockito.mock(LedgerService.class, Mockito.withSettings().stubOnly()), new Generator());
+        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        passwordHasher = new PasswordHasher(passwordEncoder, hashingThreads, 256);
+        userService = new UserService(userRepository, passwordEncoder, passwordHasher, cardService, restTemplate);
+    }
+
+    /**
+     * This method stops the threads hashing the passwords after the benchmark is run.
+     */
+    @TearDown
+    public void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    /**
+     * This method registers a user with a unique email and phone number.
+     *
+     * @return The registered user.
+     */
+    @Benchmark
+    public User register() {
+        long id = sequence.incrementAndGet();
+        return userService.createUser("John", "Doe", LocalDate.of(1990, 1, 1), "Czechia",
+                "john" + id + "@example.com", "Password123!", "+420" + id);
+    }
+
+    /**
+     * This method runs the benchmark.
+     *
+     * @param args The command line arguments.
+     * @throws RunnerException If the benchmark fails.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RegistrationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,360 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.benchmark;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.request.TransferRequest;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.TransferResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.FinancialStatus;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class is a load-test harness comparing POST /transfer/ on the Tomcat thread pool and on virtual threads.
+ * It starts Tomcat in this JVM, with virtual threads when the first argument is "virtual", and keeps
+ * 5,000 clients sending transfers in a closed loop, each from its own card to its own receiver.
+ * The endpoint does the blocking work of a transfer: it waits for the remote calls made before the transaction,
+ * such as the idempotency lock and the exchange-rate lookup, then reads both cards, updates their balances and
+ * inserts the postings and the transfer in one transaction on a pool of 10 connections to an in-memory H2 database.
+ * It reports the throughput and latency of the measured window, the peak live heap, the peak resident memory and
+ * the peak number of platform threads of the JVM, which include the clients and are the same for them in both modes.
+ * Each mode is run in its own JVM, and the virtual mode needs Java 21, e.g. after {@code mvn -Pjava21 test-compile}.
+ * When load.base-url is set, the clients drive that running instance instead, with the load.authorization header,
+ * from the card load.sender-id to the card load.receiver-card-number, and only the client side is reported.
+ * It is not part of the test suite and is run from its main method.
+ */
+public class TransferLoadBenchmark {
+    private static final int CLIENTS = Integer.getInteger("load.clients", 5_000);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 10);
+    private static final int MEASUREMENT_SECONDS = Integer.getInteger("load.measurement-seconds", 30);
+    private static final int REMOTE_LATENCY_MS = Integer.getInteger("load.remote-latency-ms", 20);
+    private static final int POOL_SIZE = 10;
+    private static final int CLIENT_THREADS = 4;
+    private static final int MAX_LATENCY_MS = 60_000;
+
+    private final AtomicLongArray latencies = new AtomicLongArray(MAX_LATENCY_MS + 1);
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong peakHeap = new AtomicLong();
+    private final AtomicLong peakResident = new AtomicLong();
+    private final AtomicLong peakThreads = new AtomicLong();
+    private volatile boolean measuring;
+
+    /**
+     * Runs the harness in the given mode.
+     *
+     * @param args "platform" to handle requests on the Tomcat thread pool or "virtual" to use virtual threads.
+     * @throws Exception If the server cannot be started or the load cannot be sent.
+     */
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "platform";
+        String baseUrl = System.getProperty("load.base-url");
+        if (baseUrl != null) {
+            new TransferLoadBenchmark().run(mode + " (external)", baseUrl);
+            return;
+        }
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                new SpringApplicationBuilder(HarnessConfig.class)
+                        .run("--spring.config.name=transfer-load", "--server.port=0", "--spring.main.banner-mode=off",
+                                "--logging.level.root=WARN", "--spring.threads.virtual.enabled=" + "virtual".equals(mode),
+                                "--server.tomcat.max-connections=" + (CLIENTS + 1_000))) {
+            new TransferLoadBenchmark().run(mode, "http://localhost:" + context.getWebServer().getPort());
+        }
+    }
+
+    /**
+     * Sends the load to the server and prints the results of the measured window.
+     *
+     * @param mode    The name of the mode, printed with the results.
+     * @param baseUrl The URL of the server.
+     * @throws Exception If the load cannot be sent.
+     */
+    private void run(String mode, String baseUrl) throws Exception {
+        // The clients share a fixed pool, so they add the same number of platform threads in both modes
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(CLIENT_THREADS);
+        HttpClient client = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(this::sample, 0, 100, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        long measurementStart = start + TimeUnit.SECONDS.toNanos(WARMUP_SECONDS);
+        long end = measurementStart + TimeUnit.SECONDS.toNanos(MEASUREMENT_SECONDS);
+        List<CompletableFuture<Void>> clients = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            send(client, URI.create(baseUrl + "/transfer/"), body(i), end, done);
+            clients.add(done);
+        }
+        TimeUnit.NANOSECONDS.sleep(measurementStart - System.nanoTime());
+        peakHeap.set(0);
+        peakResident.set(0);
+        peakThreads.set(0);
+        measuring = true;
+        TimeUnit.NANOSECONDS.sleep(end - System.nanoTime());
+        measuring = false;
+        sampler.shutdownNow();
+        CompletableFuture.allOf(clients.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+        clientExecutor.shutdown();
+
+        System.out.printf("mode=%s clients=%d remote-latency=%dms throughput=%.0f req/s failed=%d "
+                        + "p50=%dms p99=%dms max=%dms peak-live-heap=%dMB peak-rss=%dMB peak-platform-threads=%d%n",
+                mode, CLIENTS, REMOTE_LATENCY_MS, completed.get() / (double) MEASUREMENT_SECONDS, failed.get(),
+                percentile(0.50), percentile(0.99), percentile(1.0),
+                peakHeap.get() >> 20, peakResident.get() >> 20, peakThreads.get());
+    }
+
+    /**
+     * Sends the next transfer of a client and, once it is answered, the one after it until the end of the run.
+     *
+     * @param client The HTTP client.
+     * @param uri    The URI of the endpoint.
+     * @param body   The body of the transfers of the client.
+     * @param end    The time the client stops at, in nanoseconds.
+     * @param done   The future completed when the client stops.
+     */
+    private void send(HttpClient client, URI uri, String body, long end, CompletableFuture<Void> done) {
+        if (System.nanoTime() >= end) {
+            done.complete(null);
+            return;
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        String authorization = System.getProperty("load.authorization");
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        long sent = System.nanoTime();
+        client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (measuring) {
+                if (error == null && response.statusCode() < 300) {
+                    completed.incrementAndGet();
+                    long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sent);
+                    latencies.incrementAndGet((int) Math.min(latency, MAX_LATENCY_MS));
+                } else {
+                    failed.incrementAndGet();
+                }
+            }
+            send(client, uri, body, end, done);
+        });
+    }
+
+    /**
+     * Creates the body of the transfers of a client.
+     *
+     * @param client The index of the client.
+     * @return The JSON body of the transfers.
+     */
+    private static String body(int client) {
+        String senderId = System.getProperty("load.sender-id", String.valueOf(client));
+        String receiverCardNumber = System.getProperty("load.receiver-card-number", cardNumber(CLIENTS + client));
+        return "{\"sender_id\":" + senderId + ",\"receiver_card_number\":\"" + receiverCardNumber
+                + "\",\"description\":\"Load test\",\"amount\":0.01}";
+    }
+
+    private static String cardNumber(int cardId) {
+        return String.format("%016d", cardId);
+    }
+
+    /**
+     * Records the live heap, the resident memory and the platform threads of the JVM while the load is measured.
+     * The live heap is the heap left after the last collection, so it does not depend on when the sample is taken.
+     */
+    private void sample() {
+        if (!measuring) {
+            return;
+        }
+        long liveHeap = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null) {
+                liveHeap += pool.getCollectionUsage().getUsed();
+            }
+        }
+        peakHeap.accumulateAndGet(liveHeap, Math::max);
+        peakThreads.accumulateAndGet(ManagementFactory.getThreadMXBean().getThreadCount(), Math::max);
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    long kilobytes = Long.parseLong(line.replaceAll("\\D", ""));
+                    peakResident.accumulateAndGet(kilobytes << 10, Math::max);
+                }
+            }
+        } catch (Exception e) {
+            // The resident memory is only available on Linux
+        }
+    }
+
+    private long percentile(double percentile) {
+        long target = (long) Math.ceil(completed.get() * percentile);
+        long seen = 0;
+        for (int latency = 0; latency <= MAX_LATENCY_MS; latency++) {
+            seen += latencies.get(latency);
+            if (seen >= target && seen > 0) {
+                return latency;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * The web server of the harness, with only the auto-configuration of Spring MVC on Tomcat.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({PropertyPlaceholderAutoConfiguration.class, JacksonAutoConfiguration.class,
+            HttpMessageConvertersAutoConfiguration.class, ServletWebServerFactoryAutoConfiguration.class,
+            EmbeddedWebServerFactoryCustomizerAutoConfiguration.class, DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class})
+    static class HarnessConfig {
+
+        /**
+         * Creates the in-memory database with a funded sender card and a receiver card for every client.
+         *
+         * @return The pooled data source of the database.
+         * @throws SQLException If the tables cannot be created.
+         */
+        @Bean(destroyMethod = "close")
+        HikariDataSource dataSource() throws SQLException {
+            HikariConfig config = new HikariConfig();
+            config.setJdbcUrl("jdbc:h2:mem:transfer-load;DB_CLOSE_DELAY=-1");
+            config.setMaximumPoolSize(POOL_SIZE);
+            config.setConnectionTimeout(60_000);
+            HikariDataSource dataSource = new HikariDataSource(config);
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE card (id BIGINT PRIMARY KEY, card_number VARCHAR(16) UNIQUE, " +
+                        "balance NUMERIC(38, 2))");
+                statement.execute("CREATE TABLE ledger_posting (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                        "card_id BIGINT, amount NUMERIC(38, 2), reference_number VARCHAR(11))");
+                statement.execute("CREATE TABLE transfer (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                        "reference_number VARCHAR(11) UNIQUE, sender_card BIGINT, receiver_card BIGINT, " +
+                        "amount NUMERIC(38, 2), description VARCHAR(100), date_time TIMESTAMP)");
+                statement.execute("INSERT INTO card SELECT X, LPAD(CAST(X AS VARCHAR), 16, '0'), " +
+                        "CASE WHEN X < " + CLIENTS + " THEN 1000000 ELSE 0 END " +
+                        "FROM SYSTEM_RANGE(0, " + (2 * CLIENTS - 1) + ")");
+            }
+            return dataSource;
+        }
+
+        @Bean
+        TransferEndpoint transferEndpoint(HikariDataSource dataSource) {
+            return new TransferEndpoint(dataSource);
+        }
+    }
+
+    /**
+     * The stand-in for POST /transfer/, doing the blocking work of a transfer between two cards.
+     */
+    @RestController
+    static class TransferEndpoint {
+        private final HikariDataSource dataSource;
+        private final AtomicLong references = new AtomicLong();
+
+        TransferEndpoint(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        /**
+         * Creates a transfer after waiting for the remote calls that precede its transaction.
+         *
+         * @param request The transfer to create.
+         * @return The created transfer.
+         * @throws Exception If the wait is interrupted or a statement fails.
+         */
+        @PostMapping(path = "/transfer/")
+        public TransferResponse createTransfer(@RequestBody TransferRequest request) throws Exception {
+            Thread.sleep(REMOTE_LATENCY_MS);
+            String referenceNumber = String.format("L%010d", references.incrementAndGet());
+            LocalDateTime dateTime = LocalDateTime.now();
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(false);
+                long receiverId;
+                try (PreparedStatement findSender = connection.prepareStatement(
+                        "SELECT balance FROM card WHERE id = ? FOR UPDATE");
+                     PreparedStatement findReceiver = connection.prepareStatement(
+                             "SELECT id FROM card WHERE card_number = ?")) {
+                    findSender.setLong(1, request.senderId());
+                    findSender.executeQuery().close();
+                    findReceiver.setString(1, request.receiverCardNumber());
+                    try (ResultSet receiver = findReceiver.executeQuery()) {
+                        receiver.next();
+                        receiverId = receiver.getLong(1);
+                    }
+                }
+                try (PreparedStatement updateBalance = connection.prepareStatement(
+                        "UPDATE card SET balance = balance + ? WHERE id = ?");
+                     PreparedStatement insertPosting = connection.prepareStatement(
+                             "INSERT INTO ledger_posting (card_id, amount, reference_number) VALUES (?, ?, ?)");
+                     PreparedStatement insertTransfer = connection.prepareStatement(
+                             "INSERT INTO transfer (reference_number, sender_card, receiver_card, amount, " +
+                                     "description, date_time) VALUES (?, ?, ?, ?, ?, ?)")) {
+                    long[] cards = {request.senderId(), receiverId};
+                    BigDecimal[] amounts = {request.amount().negate(), request.amount()};
+                    for (int i = 0; i < cards.length; i++) {
+                        updateBalance.setBigDecimal(1, amounts[i]);
+                        updateBalance.setLong(2, cards[i]);
+                        updateBalance.executeUpdate();
+                        insertPosting.setLong(1, cards[i]);
+                        insertPosting.setBigDecimal(2, amounts[i]);
+                        insertPosting.setString(3, referenceNumber);
+                        insertPosting.executeUpdate();
+                    }
+                    insertTransfer.setString(1, referenceNumber);
+                    insertTransfer.setLong(2, request.senderId());
+                    insertTransfer.setLong(3, receiverId);
+                    insertTransfer.setBigDecimal(4, request.amount());
+                    insertTransfer.setString(5, request.description());
+                    insertTransfer.setObject(6, dateTime);
+                    insertTransfer.executeUpdate();
+                }
+                connection.commit();
+            }
+            return new TransferResponse(null, Currency.CZK, FinancialStatus.RECEIVED, referenceNumber, dateTime,
+                    request.description(), request.amount());
+        }
+    }
+}
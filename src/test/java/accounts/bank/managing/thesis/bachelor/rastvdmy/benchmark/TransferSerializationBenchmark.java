@@ -0,0 +1,87 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.benchmark;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.TransferResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.FinancialStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks the serialization of a page of 1,000 transfers,
+ * as written by the /transfer/filter endpoint, with and without the Blackbird module.
+ * It is not part of the test suite and is run from its main method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransferSerializationBenchmark {
+
+    private ObjectMapper reflectiveMapper;
+    private ObjectMapper blackbirdMapper;
+    private Page<TransferResponse> page;
+
+    /**
+     * This method prepares the object mappers and a page of 1,000 transfers before the benchmark is run.
+     */
+    @Setup
+    public void setUp() {
+        reflectiveMapper = new ObjectMapper().findAndRegisterModules();
+        blackbirdMapper = new ObjectMapper().findAndRegisterModules().registerModule(new BlackbirdModule());
+
+        List<TransferResponse> transfers = new ArrayList<>(1000);
+        for (long id = 1; id <= 1000; id++) {
+            transfers.add(new TransferResponse(id, Currency.CZK, FinancialStatus.RECEIVED, "REF-" + id,
+                    LocalDateTime.now(), "Transfer " + id, BigDecimal.valueOf(id, 2)));
+        }
+        page = new PageImpl<>(transfers, PageRequest.of(0, 1000), transfers.size());
+    }
+
+    /**
+     * This method serializes the page with the reflective serializers.
+     *
+     * @throws Exception If the page cannot be serialized.
+     */
+    @Benchmark
+    public void reflective() throws Exception {
+        reflectiveMapper.writeValue(OutputStream.nullOutputStream(), page);
+    }
+
+    /**
+     * This method serializes the page with the serializers generated by the Blackbird module.
+     *
+     * @throws Exception If the page cannot be serialized.
+     */
+    @Benchmark
+    public void blackbird() throws Exception {
+        blackbirdMapper.writeValue(OutputStream.nullOutputStream(), page);
+    }
+
+    /**
+     * This method runs the benchmark.
+     *
+     * @param args The command line arguments.
+     * @throws RunnerException If the benchmark fails.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TransferSerializationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
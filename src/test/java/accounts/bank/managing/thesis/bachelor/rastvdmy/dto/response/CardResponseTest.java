@@ -0,0 +1,64 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Card;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.CardStatus;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.CardType;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class is used to test the JSON representation of the CardResponse record.
+ */
+class CardResponseTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    /**
+     * This method tests that a page of projected cards serializes to fewer bytes than the same page of entities
+     * and that the PIN and CVV of the cards are not part of the response.
+     */
+    @Test
+    void testSerializedPageIsSmallerThanEntities() throws Exception {
+        List<Card> cards = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            cards.add(createCard(id));
+        }
+        List<CardResponse> responses = cards.stream().map(CardResponse::from).toList();
+
+        byte[] entityBytes = objectMapper.writeValueAsBytes(cards);
+        byte[] responseBytes = objectMapper.writeValueAsBytes(responses);
+        String responseJson = new String(responseBytes);
+
+        assertTrue(responseBytes.length < entityBytes.length); // Ensure the payload is smaller
+        assertFalse(responseJson.contains("\"pin\"")); // Ensure the PIN is not exposed
+        assertFalse(responseJson.contains("\"cvv\"")); // Ensure the CVV is not exposed
+    }
+
+    private Card createCard(Long id) {
+        Card card = new Card();
+        card.setId(id);
+        card.setStatus(CardStatus.STATUS_CARD_DEFAULT);
+        card.setCardType(CardType.VISA);
+        card.setCurrencyType(Currency.CZK);
+        card.setCardNumber("1111222233334444");
+        card.setAccountNumber("123456789/0100");
+        card.setIban("CZ6508000000192000145399");
+        card.setCvv(123);
+        card.setPin(1234);
+        card.setHolderName("Name Surname");
+        card.setSwift("KOMBCZPP");
+        card.setBalance(BigDecimal.TEN);
+        card.setCardExpirationDate(LocalDate.now().plusYears(5));
+        card.setRecipientTime(LocalDateTime.now());
+        return card;
+    }
+}
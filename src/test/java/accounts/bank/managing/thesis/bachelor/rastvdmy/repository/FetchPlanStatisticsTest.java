@@ -0,0 +1,234 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.CardResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.MessageResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class is used to test the fetch plans and guard queries of the repositories.
+ * It runs against an in-memory database and uses Hibernate statistics
+ * to bound the number of SQL statements issued per use case.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.database=h2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never"
+})
+class FetchPlanStatisticsTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private MessageRepository messageRepository;
+    @Autowired
+    private BankLoanRepository bankLoanRepository;
+
+    private Statistics statistics;
+    private User owner;
+    private User receiver;
+    private Card loanCard;
+
+    /**
+     * This method is used to set up the test environment before each test method is executed.
+     * It persists a user with two cards, one of which has a loan, and a message to another user,
+     * then clears the persistence context so that every association has to be loaded from the database.
+     */
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(createUser("owner@bank.cz", "+420123456789"));
+        receiver = entityManager.persist(createUser("receiver@bank.cz", "+420987654321"));
+
+        loanCard = entityManager.persist(createCard(owner, "1111222233334444"));
+        entityManager.persist(createCard(owner, "5555666677778888"));
+
+        BankLoan loan = new BankLoan();
+        loan.setCurrency(Currency.CZK);
+        loan.setLoanAmount(BigDecimal.valueOf(50000));
+        loan.setRepaidLoan(BigDecimal.ZERO);
+        loan.setStartDate(LocalDate.now());
+        loan.setExpirationDate(LocalDate.now().plusYears(1));
+        loan.setReferenceNumber("REF-1");
+        loan.setCardLoan(loanCard);
+        entityManager.persist(loan);
+
+        Message message = new Message();
+        message.setContent("Hello");
+        message.setTimestamp(LocalDateTime.now());
+        message.setSender(owner);
+        message.setReceiver(receiver);
+        entityManager.persist(message);
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    /**
+     * This method tests that checking whether a user already has a loan costs a single statement
+     * and loads no entity, however many cards the user has.
+     */
+    @Test
+    void testExistsByUserOrUserCards() {
+        assertTrue(bankLoanRepository.existsByUserOrUserCards(owner.getId())); // Ensure the card loan is found
+        assertFalse(bankLoanRepository.existsByUserOrUserCards(receiver.getId())); // Ensure a user without loans passes
+        assertEquals(2, statistics.getPrepareStatementCount()); // Ensure each check is a single query
+        assertEquals(0, statistics.getEntityLoadCount()); // Ensure no entity is hydrated
+    }
+
+    /**
+     * This method tests the guard queries used before deleting a card or a user.
+     * It verifies that they answer without hydrating any entity.
+     */
+    @Test
+    void testGuardQueries() {
+        assertTrue(cardRepository.hasOutstandingLoan(loanCard.getId())); // Ensure the loan is found
+        assertFalse(cardRepository.hasOutstandingDeposit(loanCard.getId())); // Ensure the card has no deposit
+        assertTrue(userRepository.hasCards(owner.getId())); // Ensure the owner has cards
+        assertFalse(userRepository.hasCards(receiver.getId())); // Ensure the receiver has no cards
+        assertFalse(userRepository.hasOutstandingLoan(owner.getId())); // Ensure the owner has no own loan
+        assertEquals(5, statistics.getPrepareStatementCount()); // Ensure each check is a single query
+        assertEquals(0, statistics.getEntityLoadCount()); // Ensure no entity is hydrated
+    }
+
+    /**
+     * This method tests that loading a sender card fetches its owner in the same statement.
+     */
+    @Test
+    void testFindWithUserById() {
+        Card card = cardRepository.findWithUserById(loanCard.getId()).orElseThrow();
+
+        assertEquals("owner@bank.cz", card.getUser().getEmail()); // Ensure the owner is initialized
+        assertEquals(1, statistics.getPrepareStatementCount()); // Ensure the owner is fetched in one query
+    }
+
+    /**
+     * This method tests that loading the cards of a batch together with their owners costs a single statement.
+     */
+    @Test
+    void testFindAllByCardNumberIn() {
+        List<Card> cards = cardRepository.findAllByCardNumberIn(List.of("1111222233334444", "5555666677778888"));
+
+        assertEquals(2, cards.size()); // Ensure both cards are found
+        cards.forEach(card -> assertEquals(owner.getId(), card.getUser().getId()));
+        cards.forEach(card -> assertNotNull(card.getUser().getEmail())); // Ensure the owners are initialized
+        assertEquals(1, statistics.getPrepareStatementCount()); // Ensure no statement is issued per card
+    }
+
+    /**
+     * This method tests that listing the messages of a sender is a single statement
+     * that reads only the projected columns and hydrates no entity.
+     */
+    @Test
+    void testFindAllBySenderId() {
+        List<MessageResponse> messages = messageRepository.findAllBySenderId(owner.getId(), Sort.by("id"));
+
+        assertEquals(1, messages.size()); // Ensure the message is found
+        assertEquals(owner.getId(), messages.get(0).senderId()); // Ensure the sender is projected
+        assertEquals(receiver.getId(), messages.get(0).receiverId()); // Ensure the receiver is projected
+        assertEquals(1, statistics.getPrepareStatementCount()); // Ensure no statement is issued per message
+        assertEquals(0, statistics.getEntityLoadCount()); // Ensure no entity is hydrated
+    }
+
+    /**
+     * This method tests that a page of cards is read as projected rows without hydrating the entities.
+     */
+    @Test
+    void testFindAllProjectedBy() {
+        Page<CardResponse> cards = cardRepository.findAllProjectedBy(PageRequest.of(0, 10));
+
+        assertEquals(2, cards.getTotalElements()); // Ensure both cards are found
+        assertEquals(0, statistics.getEntityLoadCount()); // Ensure no entity is hydrated
+    }
+
+    /**
+     * This method tests that the projected balance of a sharded card includes the balance of its shards,
+     * and that it is still read without hydrating the entities.
+     */
+    @Test
+    void testFindProjectedById_ShardedCard() {
+        Card card = entityManager.find(Card.class, loanCard.getId());
+        card.setBalanceShards(2);
+        entityManager.persist(createShard(card, 0, new BigDecimal("25.00")));
+        entityManager.persist(createShard(card, 1, new BigDecimal("15.50")));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        CardResponse byId = cardRepository.findProjectedById(loanCard.getId()).orElseThrow();
+        CardResponse byNumber = cardRepository.findProjectedByCardNumber("1111222233334444").orElseThrow();
+        List<CardResponse> all = cardRepository.findAllProjectedBy();
+
+        assertEquals(0, new BigDecimal("40.50").compareTo(byId.balance())); // Ensure the shards are summed
+        assertEquals(0, new BigDecimal("40.50").compareTo(byNumber.balance())); // Ensure the shards are summed
+        assertEquals(0, all.stream().filter(response -> response.id().equals(loanCard.getId()))
+                .findFirst().orElseThrow().balance().compareTo(new BigDecimal("40.50"))); // Ensure the list agrees
+        assertEquals(0, all.stream().filter(response -> !response.id().equals(loanCard.getId()))
+                .findFirst().orElseThrow().balance().signum()); // Ensure an unsharded card keeps its balance
+        assertEquals(3, statistics.getPrepareStatementCount()); // Ensure each lookup is a single query
+        assertEquals(0, statistics.getEntityLoadCount()); // Ensure no entity is hydrated
+    }
+
+    private User createUser(String email, String phoneNumber) {
+        User user = new User();
+        user.setName("Name");
+        user.setSurname("Surname");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        user.setCountryOrigin("Czech Republic");
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setPhoneNumber(phoneNumber);
+        return user;
+    }
+
+    private Card createCard(User user, String cardNumber) {
+        Card card = new Card();
+        card.setCardType(CardType.VISA);
+        card.setCurrencyType(Currency.CZK);
+        card.setCardNumber(cardNumber);
+        card.setAccountNumber("123456789/0100");
+        card.setIban("CZ6508000000192000145399");
+        card.setCvv(123);
+        card.setPin(1234);
+        card.setHolderName("Name Surname");
+        card.setSwift("KOMBCZPP");
+        card.setBalance(BigDecimal.ZERO);
+        card.setUser(user);
+        return card;
+    }
+
+    private CardBalanceShard createShard(Card card, int shardIndex, BigDecimal balance) {
+        CardBalanceShard shard = new CardBalanceShard();
+        shard.setCard(card);
+        shard.setShardIndex(shardIndex);
+        shard.setBalance(balance);
+        return shard;
+    }
+}
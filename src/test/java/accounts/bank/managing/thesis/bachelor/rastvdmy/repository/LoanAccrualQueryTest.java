@@ -0,0 +1,187 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.repository;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.BankLoanService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class is used to test the native interest accrual statement of the BankLoanService.
+ * The statement inserts into the financial summary from a data-modifying CTE, which H2 does not support,
+ * so the test runs the statement of the service as it is against PostgreSQL. It needs a running database,
+ * set by the postgres.jdbc-url, postgres.user and postgres.password system properties, and is skipped without it.
+ * The tables are created in the schema loan_accrual_test, which is dropped afterwards.
+ */
+@EnabledIfSystemProperty(named = "postgres.jdbc-url", matches = ".+")
+class LoanAccrualQueryTest {
+    private static final String SCHEMA = "loan_accrual_test";
+    private static final Pattern PARAMETER = Pattern.compile(":(fromId|toId|today)\\b");
+    private static final LocalDate START_DATE = LocalDate.of(2024, 1, 1);
+
+    private Connection connection;
+
+    /**
+     * This method is used to set up the test environment before each test method is executed.
+     * It creates the tables read and written by the statement with a loan of a user
+     * and a small loan of a card of another user.
+     *
+     * @throws SQLException If the tables cannot be created.
+     */
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection(System.getProperty("postgres.jdbc-url"),
+                System.getProperty("postgres.user", "postgres"), System.getProperty("postgres.password", "postgres"));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            statement.execute("SET search_path TO " + SCHEMA);
+            statement.execute("CREATE TABLE bank_loan (id BIGINT PRIMARY KEY, currency VARCHAR(255), " +
+                    "loan_amount NUMERIC(38, 2) NOT NULL, accrued_interest NUMERIC(19, 8), " +
+                    "interest_rate NUMERIC(7, 4), start_time DATE NOT NULL, last_accrual_date DATE)");
+            statement.execute("CREATE TABLE card (id BIGINT PRIMARY KEY, user_id BIGINT)");
+            statement.execute("CREATE TABLE user_loan (loan_id BIGINT PRIMARY KEY, user_id BIGINT)");
+            statement.execute("CREATE TABLE card_loan (loan_id BIGINT PRIMARY KEY, card_id BIGINT)");
+            statement.execute("CREATE SEQUENCE user_financial_summary_seq INCREMENT BY 50");
+            statement.execute("CREATE TABLE user_financial_summary (id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL, " +
+                    "currency VARCHAR(255) NOT NULL, slot INTEGER NOT NULL, balance NUMERIC(38, 2) NOT NULL, " +
+                    "loan_outstanding NUMERIC(38, 2) NOT NULL, deposit_principal NUMERIC(38, 2) NOT NULL, " +
+                    "UNIQUE (user_id, currency, slot))");
+            statement.execute("INSERT INTO bank_loan VALUES " +
+                    "(1, 'CZK', 1000.00, 0, 0.0899, DATE '2024-01-01', DATE '2024-01-01'), " +
+                    "(2, 'EUR', 10.00, 0, 0.0899, DATE '2024-01-01', DATE '2024-01-01')");
+            statement.execute("INSERT INTO user_loan VALUES (1, 1)");
+            statement.execute("INSERT INTO card VALUES (20, 2)");
+            statement.execute("INSERT INTO card_loan VALUES (2, 20)");
+        }
+    }
+
+    /**
+     * This method drops the tables and closes the connection after each test method is executed.
+     *
+     * @throws SQLException If the schema cannot be dropped.
+     */
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+        connection.close();
+    }
+
+    /**
+     * This method tests that one day of interest is added to the accrued interest of the loans
+     * and to the summaries of their owners, while the principal is kept.
+     *
+     * @throws Exception If the statement fails.
+     */
+    @Test
+    void testAccrueInterest_OneDay() throws Exception {
+        assertEquals(2, accrue(START_DATE.plusDays(1))); // Ensure both loans are accrued
+
+        assertEquals(0, new BigDecimal("1000.00").compareTo(loanColumn(1, "loan_amount"))); // Ensure no compounding
+        assertEquals(0, new BigDecimal("0.24630137").compareTo(loanColumn(1, "accrued_interest")));
+        assertEquals(0, new BigDecimal("0.25").compareTo(loanOutstanding(1, "CZK"))); // Ensure cents reach the summary
+        assertEquals(0, new BigDecimal("0.00246301").compareTo(loanColumn(2, "accrued_interest")));
+        assertEquals(0, loanOutstanding(2, "EUR").signum()); // Ensure less than a cent is not reported yet
+    }
+
+    /**
+     * This method tests that the interest of a small loan below a cent a day is carried from day to day,
+     * and that the summary always holds the accrued interest rounded to cents.
+     *
+     * @throws Exception If the statement fails.
+     */
+    @Test
+    void testAccrueInterest_SmallLoanOverDays() throws Exception {
+        for (int day = 1; day <= 5; day++) {
+            accrue(START_DATE.plusDays(day));
+        }
+
+        BigDecimal accrued = loanColumn(2, "accrued_interest");
+        assertEquals(0, new BigDecimal("0.01231505").compareTo(accrued)); // Ensure no day is rounded away
+        assertEquals(0, new BigDecimal("0.01").compareTo(loanOutstanding(2, "EUR"))); // Ensure the cent is reported
+        assertEquals(0, loanColumn(1, "accrued_interest").setScale(2, RoundingMode.HALF_UP)
+                .compareTo(loanOutstanding(1, "CZK"))); // Ensure the summary follows the rounded interest
+    }
+
+    /**
+     * This method tests that running the statement twice for the same day accrues nothing the second time.
+     *
+     * @throws Exception If the statement fails.
+     */
+    @Test
+    void testAccrueInterest_SameDayTwice() throws Exception {
+        accrue(START_DATE.plusDays(1));
+
+        assertEquals(0, accrue(START_DATE.plusDays(1))); // Ensure no loan is accrued again
+        assertEquals(0, new BigDecimal("0.24630137").compareTo(loanColumn(1, "accrued_interest")));
+    }
+
+    /**
+     * Runs the accrual statement of the service for all loans, binding its named parameters in order.
+     *
+     * @param today The day the interest is accrued up to.
+     * @return The number of accrued loans.
+     * @throws SQLException If the statement fails.
+     */
+    private int accrue(LocalDate today) throws SQLException {
+        String sql = BankLoanService.ACCRUE_INTEREST_SQL;
+        List<String> parameters = new ArrayList<>();
+        Matcher matcher = PARAMETER.matcher(sql);
+        while (matcher.find()) {
+            parameters.add(matcher.group(1));
+        }
+        try (PreparedStatement statement = connection.prepareStatement(matcher.replaceAll("?"))) {
+            for (int i = 0; i < parameters.size(); i++) {
+                switch (parameters.get(i)) {
+                    case "fromId" -> statement.setLong(i + 1, 1);
+                    case "toId" -> statement.setLong(i + 1, 2);
+                    default -> statement.setDate(i + 1, Date.valueOf(today));
+                }
+            }
+            return statement.executeUpdate();
+        }
+    }
+
+    private BigDecimal loanColumn(long loanId, String column) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT " + column + " FROM bank_loan WHERE id = ?")) {
+            statement.setLong(1, loanId);
+            try (ResultSet result = statement.executeQuery()) {
+                assertTrue(result.next());
+                return result.getBigDecimal(1);
+            }
+        }
+    }
+
+    private BigDecimal loanOutstanding(long userId, String currency) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT COALESCE(SUM(loan_outstanding), 0) FROM user_financial_summary " +
+                        "WHERE user_id = ? AND currency = ?")) {
+            statement.setLong(1, userId);
+            statement.setString(2, currency);
+            try (ResultSet result = statement.executeQuery()) {
+                result.next();
+                return result.getBigDecimal(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Card;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.CardBalanceShard;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CardBalanceShardRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+/**
+ * This class is used to test the functionality of the BalanceShardService class.
+ * It uses the Mockito framework for mocking dependencies and JUnit for running the tests.
+ */
+class BalanceShardServiceTest {
+
+    private CardBalanceShardRepository shardRepository;
+    private CardRepository cardRepository;
+    private BalanceShardService balanceShardService;
+    private Card card;
+
+    /**
+     * This method is used to set up the necessary dependencies for the tests.
+     */
+    @BeforeEach
+    void setUp() {
+        shardRepository = mock(CardBalanceShardRepository.class);
+        cardRepository = mock(CardRepository.class);
+        when(cardRepository.addToBalance(any(), any())).thenReturn(1);
+        balanceShardService = new BalanceShardService(shardRepository, cardRepository, 60000);
+        card = new Card();
+        card.setId(1L);
+        card.setBalance(BigDecimal.valueOf(100));
+    }
+
+    /**
+     * This method tests the functionality of the getBalance method in the BalanceShardService class.
+     * It verifies that the balance of a sharded card includes its shards and that the sum is cached.
+     */
+    @Test
+    void testGetBalance_Sharded() {
+        // Mocking data
+        card.setBalanceShards(4);
+        when(shardRepository.sumBalance(1L)).thenReturn(BigDecimal.valueOf(50));
+
+        // Testing the method
+        BigDecimal first = balanceShardService.getBalance(card);
+        BigDecimal second = balanceShardService.getBalance(card);
+
+        // Assertions
+        assertEquals(0, first.compareTo(BigDecimal.valueOf(150))); // Ensure the shards are included
+        assertEquals(0, second.compareTo(BigDecimal.valueOf(150))); // Ensure the cached sum is used
+        verify(shardRepository, times(1)).sumBalance(1L); // Ensure the shards are summed only once
+    }
+
+    /**
+     * This method tests the functionality of the drain method in the BalanceShardService class.
+     * It verifies that the balance of the shards is moved to the card.
+     */
+    @Test
+    void testDrain() {
+        // Mocking data
+        card.setBalanceShards(2);
+        CardBalanceShard first = createShard(0, BigDecimal.valueOf(30));
+        CardBalanceShard second = createShard(1, BigDecimal.valueOf(20));
+        when(shardRepository.findAllForUpdate(1L)).thenReturn(List.of(first, second));
+
+        // Testing the method
+        balanceShardService.drain(card);
+
+        // Assertions
+        assertEquals(0, card.getBalance().compareTo(BigDecimal.valueOf(150))); // Ensure the card gets the shards' balance
+        assertEquals(0, first.getBalance().signum()); // Ensure the first shard is emptied
+        assertEquals(0, second.getBalance().signum()); // Ensure the second shard is emptied
+        verify(cardRepository).addToBalance(1L, BigDecimal.valueOf(50)); // Ensure the card row is updated atomically
+    }
+
+    /**
+     * This method tests the functionality of the configureShards method in the BalanceShardService class.
+     * It verifies that turning sharding off drains the shards and clears the number of shards of the card.
+     */
+    @Test
+    void testConfigureShards_Disable() {
+        // Mocking data
+        card.setBalanceShards(2);
+        CardBalanceShard shard = createShard(0, BigDecimal.valueOf(25));
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(card));
+        when(shardRepository.findAllForUpdate(1L)).thenReturn(List.of(shard));
+        when(cardRepository.save(any(Card.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Testing the method
+        Card result = balanceShardService.configureShards(1L, 0);
+
+        // Assertions
+        assertNull(result.getBalanceShards()); // Ensure sharding is turned off
+        assertEquals(0, result.getBalance().compareTo(BigDecimal.valueOf(125))); // Ensure the shards are drained
+        verify(shardRepository).deleteAllInBatch(List.of(shard)); // Ensure the old shards are deleted
+    }
+
+    /**
+     * This method tests the functionality of the configureShards method in the BalanceShardService class.
+     * It verifies that the method throws an exception when the number of shards is out of range.
+     */
+    @Test
+    void testConfigureShards_InvalidCount() {
+        // Testing the method
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> balanceShardService.configureShards(1L, BalanceShardService.MAX_SHARDS + 1));
+
+        // Assertions
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getHttpStatus()); // Ensure the status is BAD_REQUEST
+        verifyNoInteractions(shardRepository); // Ensure no shard is changed
+    }
+
+    private CardBalanceShard createShard(int index, BigDecimal balance) {
+        CardBalanceShard shard = new CardBalanceShard();
+        shard.setShardIndex(index);
+        shard.setBalance(balance);
+        return shard;
+    }
+}
@@ -1,17 +1,22 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.BankLoanResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.*;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.event.LoanOverdueEvent;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.BankLoanRepository;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CardRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.LoanInstallmentRepository;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.UserRepository;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.Generator;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.MoneyConverter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -35,11 +40,19 @@ public class BankLoanServiceTest {
     @Mock
     private BankLoanRepository loanRepository;
     @Mock
+    private LoanInstallmentRepository installmentRepository;
+    @Mock
     private UserRepository userRepository;
     @Mock
+    private MoneyConverter moneyConverter;
+    @Mock
     private CardRepository cardRepository;
     @Mock
+    private FinancialSummaryService financialSummaryService;
+    @Mock
     private Generator generator;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private BankLoanService bankLoanService;
@@ -65,17 +78,17 @@ public class BankLoanServiceTest {
      */
     @Test
     public void testGetAllLoans() {
-        List<BankLoan> loanList = new ArrayList<>();
-        loanList.add(testLoan);
+        List<BankLoanResponse> loanList = new ArrayList<>();
+        loanList.add(BankLoanResponse.from(testLoan));
 
-        when(loanRepository.findAll()).thenReturn(loanList);
+        when(loanRepository.findAllProjectedBy()).thenReturn(loanList);
 
-        List<BankLoan> result = bankLoanService.getAllLoans();
+        List<BankLoanResponse> result = bankLoanService.getAllLoans();
 
         assertEquals(1, result.size());
-        assertEquals(testLoan, result.get(0));
+        assertEquals(BankLoanResponse.from(testLoan), result.get(0));
 
-        verify(loanRepository, times(1)).findAll();
+        verify(loanRepository, times(1)).findAllProjectedBy();
     }
 
     /**
@@ -86,16 +99,16 @@ public class BankLoanServiceTest {
     @Test
     public void testFilterAndSortLoans() {
         Pageable pageable = mock(Pageable.class);
-        Page<BankLoan> page = new PageImpl<>(List.of(testLoan));
+        Page<BankLoanResponse> page = new PageImpl<>(List.of(BankLoanResponse.from(testLoan)));
 
-        when(loanRepository.findAll(pageable)).thenReturn(page);
+        when(loanRepository.findAllProjectedBy(pageable)).thenReturn(page);
 
-        Page<BankLoan> result = bankLoanService.filterAndSortLoans(pageable);
+        Page<BankLoanResponse> result = bankLoanService.filterAndSortLoans(pageable);
 
         assertEquals(1, result.getTotalElements());
-        assertEquals(testLoan, result.getContent().get(0));
+        assertEquals(BankLoanResponse.from(testLoan), result.getContent().get(0));
 
-        verify(loanRepository, times(1)).findAll(pageable);
+        verify(loanRepository, times(1)).findAllProjectedBy(pageable);
     }
 
     /**
@@ -106,13 +119,13 @@ public class BankLoanServiceTest {
     public void testGetLoanById_Exists() {
         Long loanId = 1L;
 
-        when(loanRepository.findById(loanId)).thenReturn(Optional.of(testLoan));
+        when(loanRepository.findProjectedById(loanId)).thenReturn(Optional.of(BankLoanResponse.from(testLoan)));
 
-        BankLoan result = bankLoanService.getLoanById(loanId);
+        BankLoanResponse result = bankLoanService.getLoanById(loanId);
 
-        assertEquals(testLoan, result);
+        assertEquals(BankLoanResponse.from(testLoan), result);
 
-        verify(loanRepository, times(1)).findById(loanId);
+        verify(loanRepository, times(1)).findProjectedById(loanId);
     }
 
     /**
@@ -123,13 +136,13 @@ public class BankLoanServiceTest {
     public void testGetLoanById_NotFound() {
         Long loanId = 1L;
 
-        when(loanRepository.findById(loanId)).thenReturn(Optional.empty());
+        when(loanRepository.findProjectedById(loanId)).thenReturn(Optional.empty());
 
         // Assertions for exception handling can vary based on your implementation
         // Here, let's assume ApplicationException is thrown
         assertThrows(ApplicationException.class, () -> bankLoanService.getLoanById(loanId));
 
-        verify(loanRepository, times(1)).findById(loanId);
+        verify(loanRepository, times(1)).findProjectedById(loanId);
     }
 
     /**
@@ -139,12 +152,13 @@ public class BankLoanServiceTest {
     @Test
     public void testGetLoanByReferenceNumber_Success() {
         String referenceNumber = "123456789";
-        when(loanRepository.findByReferenceNumber(referenceNumber)).thenReturn(testLoan);
+        when(loanRepository.findProjectedByReferenceNumber(referenceNumber))
+                .thenReturn(Optional.of(BankLoanResponse.from(testLoan)));
 
-        BankLoan result = bankLoanService.getLoanByReferenceNumber(referenceNumber);
+        BankLoanResponse result = bankLoanService.getLoanByReferenceNumber(referenceNumber);
 
-        assertEquals(testLoan, result);
-        verify(loanRepository, times(1)).findByReferenceNumber(referenceNumber);
+        assertEquals(BankLoanResponse.from(testLoan), result);
+        verify(loanRepository, times(1)).findProjectedByReferenceNumber(referenceNumber);
     }
 
     /**
@@ -156,7 +170,7 @@ public class BankLoanServiceTest {
         String referenceNumber = ""; // Empty reference number
         assertThrows(ApplicationException.class, () -> bankLoanService.getLoanByReferenceNumber(referenceNumber));
 
-        verify(loanRepository, never()).findByReferenceNumber(referenceNumber);
+        verify(loanRepository, never()).findProjectedByReferenceNumber(referenceNumber);
     }
 
     /**
@@ -169,11 +183,11 @@ public class BankLoanServiceTest {
         BigDecimal loanAmount = BigDecimal.valueOf(50000);
         String chosenCurrencyType = "USD";
 
-        when(cardRepository.findById(cardId)).thenReturn(Optional.empty());
+        when(cardRepository.findWithUserById(cardId)).thenReturn(Optional.empty());
 
         assertThrows(ApplicationException.class, () -> bankLoanService.addLoanToCard(cardId, loanAmount, chosenCurrencyType));
 
-        verify(cardRepository, times(1)).findById(cardId);
+        verify(cardRepository, times(1)).findWithUserById(cardId);
         verify(generator, never()).generateReferenceNumber();
         verify(cardRepository, never()).save(any(Card.class));
         verify(loanRepository, never()).save(any(BankLoan.class));
@@ -191,11 +205,11 @@ public class BankLoanServiceTest {
 
         testCard.setStatus(CardStatus.STATUS_CARD_BLOCKED);
 
-        when(cardRepository.findById(cardId)).thenReturn(Optional.of(testCard));
+        when(cardRepository.findWithUserById(cardId)).thenReturn(Optional.of(testCard));
 
         assertThrows(ApplicationException.class, () -> bankLoanService.addLoanToCard(cardId, loanAmount, chosenCurrencyType));
 
-        verify(cardRepository, times(1)).findById(cardId);
+        verify(cardRepository, times(1)).findWithUserById(cardId);
         verify(generator, never()).generateReferenceNumber();
         verify(cardRepository, never()).save(any(Card.class));
         verify(loanRepository, never()).save(any(BankLoan.class));
@@ -287,6 +301,58 @@ public class BankLoanServiceTest {
 
         verify(loanRepository, times(1)).findById(loanId);
         verify(loanRepository, times(1)).save(testLoan);
+        verify(installmentRepository, times(1)).markPaid(eq(loanId), eq(BigDecimal.valueOf(500)), any());
+    }
+
+    /**
+     * This method tests the functionality of the repayLoan method in the BankLoanService class.
+     * It verifies that the repayment pays the accrued interest rounded to cents first
+     * and repays the principal with the rest.
+     */
+    @Test
+    public void testRepayLoan_AccruedInterest() {
+        Long loanId = 1L;
+
+        BankLoan testLoan = new BankLoan();
+        testLoan.setLoanAmount(new BigDecimal("1000.00"));
+        testLoan.setRepaidLoan(BigDecimal.ZERO);
+        testLoan.setAccruedInterest(new BigDecimal("12.34567890"));
+        testLoan.setCurrency(Currency.CZK);
+
+        when(loanRepository.findById(loanId)).thenReturn(Optional.of(testLoan));
+
+        bankLoanService.repayLoan(loanId, new BigDecimal("100.00"), "CZK");
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(testLoan.getAccruedInterest())); // Ensure the interest is paid
+        assertEquals(0, new BigDecimal("912.35").compareTo(testLoan.getLoanAmount())); // Ensure the rest repays
+        assertEquals(0, new BigDecimal("100.00").compareTo(testLoan.getRepaidLoan()));
+        verify(installmentRepository, times(1)).markPaid(eq(loanId), eq(new BigDecimal("912.35")), any());
+    }
+
+    /**
+     * This method tests the functionality of the repayLoan method in the BankLoanService class.
+     * It verifies that repaying an overdue loan unblocks the cards blocked because of it.
+     */
+    @Test
+    public void testRepayLoan_OverdueRepaid() {
+        Long loanId = 1L;
+
+        BankLoan testLoan = new BankLoan();
+        testLoan.setId(loanId);
+        testLoan.setLoanAmount(new BigDecimal("100.00"));
+        testLoan.setRepaidLoan(BigDecimal.ZERO);
+        testLoan.setCurrency(Currency.CZK);
+        testLoan.setOverdueSince(LocalDate.now().minusDays(3));
+        testLoan.setUserLoan(testUser);
+
+        when(loanRepository.findById(loanId)).thenReturn(Optional.of(testLoan));
+        when(userRepository.findByBankLoanId(loanId)).thenReturn(testUser);
+
+        bankLoanService.repayLoan(loanId, new BigDecimal("100.00"), "CZK");
+
+        verify(cardRepository, times(1)).updateStatusOfLoanCards(List.of(loanId), CardStatus.STATUS_CARD_BLOCKED,
+                CardStatus.STATUS_CARD_UNBLOCKED); // Ensure only the blocked cards are unblocked
+        verify(loanRepository, times(1)).delete(testLoan); // Ensure the repaid loan is closed
     }
 
     /**
@@ -355,6 +421,7 @@ public class BankLoanServiceTest {
         verify(loanRepository, times(1)).findById(loanId);
         verify(userRepository, times(1)).findByBankLoanId(loanId);
         verify(userRepository, times(1)).save(testUser);
+        verify(installmentRepository, times(1)).deleteByLoanId(loanId);
         verify(loanRepository, times(1)).delete(testLoan);
     }
 
@@ -383,4 +450,26 @@ public class BankLoanServiceTest {
         verify(userRepository, never()).save(testUser);
         verify(loanRepository, never()).delete(testLoan);
     }
+
+    /**
+     * This method tests the functionality of the markOverdue method in the BankLoanService class.
+     * It verifies that the loans are flagged, their cards are blocked and an event is published for every loan.
+     */
+    @Test
+    public void testMarkOverdue() {
+        LocalDate today = LocalDate.now();
+        LoanOverdueEvent first = new LoanOverdueEvent(1L, "ABCDEFGH1", Currency.CZK, BigDecimal.valueOf(500),
+                today.minusDays(1));
+        LoanOverdueEvent second = new LoanOverdueEvent(2L, "ABCDEFGH2", Currency.EUR, BigDecimal.valueOf(20),
+                today.minusDays(1));
+
+        when(loanRepository.markOverdue(List.of(1L, 2L), today)).thenReturn(2);
+
+        int result = bankLoanService.markOverdue(List.of(first, second), today);
+
+        assertEquals(2, result);
+        verify(cardRepository, times(1)).updateStatusOfLoanCards(List.of(1L, 2L), CardStatus.STATUS_CARD_BLOCKED);
+        verify(eventPublisher, times(1)).publishEvent(first);
+        verify(eventPublisher, times(1)).publishEvent(second);
+    }
 }
@@ -0,0 +1,99 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.function.BiFunction;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class is used to test the functionality of the CacheGenerationService class.
+ * It uses the Mockito framework for mocking dependencies and JUnit for running the tests.
+ */
+class CacheGenerationServiceTest {
+
+    private IMap<String, Long> generations;
+    private CacheGenerationService cacheGenerationService;
+
+    /**
+     * This method is used to set up the necessary dependencies for the tests.
+     */
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        generations = mock(IMap.class);
+        HazelcastInstance hazelcastInstance = mock(HazelcastInstance.class);
+        when(hazelcastInstance.<String, Long>getMap(CacheGenerationService.GENERATION_MAP)).thenReturn(generations);
+        cacheGenerationService = new CacheGenerationService(hazelcastInstance);
+    }
+
+    /**
+     * This method tests the functionality of the eTag method in the CacheGenerationService class.
+     * It verifies that the ETag is quoted and contains the generation of every cache.
+     */
+    @Test
+    void testETag() {
+        // Mocking data
+        when(generations.get("cards")).thenReturn(3L);
+        when(generations.get("users")).thenReturn(7L);
+
+        // Testing the method
+        String result = cacheGenerationService.eTag("cards", "users");
+
+        // Assertions
+        assertEquals("\"cards-3.users-7\"", result); // Ensure both generations are part of the ETag
+    }
+
+    /**
+     * This method tests the functionality of the getGeneration method in the CacheGenerationService class.
+     * It verifies that the first generation of a cache is recorded when it is first requested.
+     */
+    @Test
+    void testGetGeneration_FirstRequest() {
+        // Mocking data
+        long before = System.currentTimeMillis();
+
+        // Testing the method
+        long result = cacheGenerationService.getGeneration("cards");
+
+        // Assertions
+        assertTrue(result >= before); // Ensure the first generation is not reused after a restart
+        verify(generations).putIfAbsent("cards", result); // Ensure the first generation is shared
+    }
+
+    /**
+     * This method tests the functionality of the getGeneration method in the CacheGenerationService class.
+     * It verifies that the generation recorded by another instance wins over its own.
+     */
+    @Test
+    void testGetGeneration_RecordedConcurrently() {
+        // Mocking data
+        when(generations.putIfAbsent(eq("cards"), anyLong())).thenReturn(42L);
+
+        // Testing the method
+        long result = cacheGenerationService.getGeneration("cards");
+
+        // Assertions
+        assertEquals(42L, result); // Ensure the shared generation is returned
+    }
+
+    /**
+     * This method tests the functionality of the nextGeneration method in the CacheGenerationService class.
+     * It verifies that the generation is incremented in the shared map.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testNextGeneration() {
+        // Testing the method
+        cacheGenerationService.nextGeneration("cards");
+
+        // Assertions
+        verify(generations).merge(eq("cards"), anyLong(), any(BiFunction.class));
+    }
+}
@@ -1,10 +1,14 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.CardResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.*;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CardBalanceShardRepository;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CardRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.LedgerPostingRepository;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.UserRepository;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.Generator;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.MoneyConverter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -35,7 +39,7 @@ public class CardServiceTest {
     @Mock
     private UserRepository userRepository;
     @Mock
-    private CurrencyDataService currencyDataService;
+    private MoneyConverter moneyConverter;
     @Mock
     private Generator generator;
 
@@ -61,8 +65,11 @@ public class CardServiceTest {
         testUser.setStatus(UserStatus.STATUS_DEFAULT); // Assuming a user is active by default
 
         cardRepository = mock(CardRepository.class);
-        currencyDataService = mock(CurrencyDataService.class);
-        cardService = new CardService(cardRepository, userRepository, currencyDataService, generator);
+        moneyConverter = mock(MoneyConverter.class);
+        cardService = new CardService(cardRepository, userRepository, moneyConverter,
+                new LedgerService(mock(LedgerPostingRepository.class),
+                        new BalanceShardService(mock(CardBalanceShardRepository.class), cardRepository, 1000),
+                        mock(FinancialSummaryService.class)), generator);
     }
 
     /**
@@ -71,13 +78,13 @@ public class CardServiceTest {
      */
     @Test
     public void testGetAllCards() {
-        List<Card> cards = Collections.singletonList(testCard);
-        when(cardRepository.findAll()).thenReturn(cards);
+        List<CardResponse> cards = Collections.singletonList(CardResponse.from(testCard));
+        when(cardRepository.findAllProjectedBy()).thenReturn(cards);
 
-        List<Card> result = cardService.getAllCards();
+        List<CardResponse> result = cardService.getAllCards();
 
         assertEquals(cards, result);
-        verify(cardRepository, times(1)).findAll();
+        verify(cardRepository, times(1)).findAllProjectedBy();
     }
 
     /**
@@ -88,14 +95,14 @@ public class CardServiceTest {
     @Test
     public void testFilterAndSortCards() {
         Pageable pageable = mock(Pageable.class);
-        List<Card> cards = Collections.singletonList(testCard);
-        Page<Card> page = new PageImpl<>(cards);
-        when(cardRepository.findAll(pageable)).thenReturn(page);
+        List<CardResponse> cards = Collections.singletonList(CardResponse.from(testCard));
+        Page<CardResponse> page = new PageImpl<>(cards);
+        when(cardRepository.findAllProjectedBy(pageable)).thenReturn(page);
 
-        Page<Card> result = cardService.filterAndSortCards(pageable);
+        Page<CardResponse> result = cardService.filterAndSortCards(pageable);
 
         assertEquals(page, result);
-        verify(cardRepository, times(1)).findAll(pageable);
+        verify(cardRepository, times(1)).findAllProjectedBy(pageable);
     }
 
     /**
@@ -105,12 +112,13 @@ public class CardServiceTest {
     @Test
     public void testGetCardById_ValidCard() {
         Long cardId = 1L;
-        when(cardRepository.findById(cardId)).thenReturn(Optional.of(testCard));
+        CardResponse card = CardResponse.from(testCard);
+        when(cardRepository.findProjectedById(cardId)).thenReturn(Optional.of(card));
 
-        Card result = cardService.getCardById(cardId);
+        CardResponse result = cardService.getCardById(cardId);
 
-        assertEquals(testCard, result);
-        verify(cardRepository, times(1)).findById(cardId);
+        assertEquals(card, result);
+        verify(cardRepository, times(1)).findProjectedById(cardId);
     }
 
     /**
@@ -120,11 +128,11 @@ public class CardServiceTest {
     @Test
     public void testGetCardById_InvalidCard() {
         Long cardId = 2L;
-        when(cardRepository.findById(cardId)).thenReturn(Optional.empty());
+        when(cardRepository.findProjectedById(cardId)).thenReturn(Optional.empty());
 
         assertThrows(ApplicationException.class, () -> cardService.getCardById(cardId));
 
-        verify(cardRepository, times(1)).findById(cardId);
+        verify(cardRepository, times(1)).findProjectedById(cardId);
     }
 
     /**
@@ -136,13 +144,14 @@ public class CardServiceTest {
         String cardNumber = "1234567890123456";
         Card card = new Card();
         card.setCardNumber(cardNumber);
+        CardResponse response = CardResponse.from(card);
 
-        when(cardRepository.findByCardNumber(cardNumber)).thenReturn(card);
+        when(cardRepository.findProjectedByCardNumber(cardNumber)).thenReturn(Optional.of(response));
 
-        Card result = cardService.getCardByCardNumber(cardNumber);
+        CardResponse result = cardService.getCardByCardNumber(cardNumber);
 
-        assertEquals(card, result);
-        verify(cardRepository, times(2)).findByCardNumber(cardNumber);
+        assertEquals(response, result);
+        verify(cardRepository, times(1)).findProjectedByCardNumber(cardNumber); // Ensure the card is queried once
     }
 
     /**
@@ -152,11 +161,11 @@ public class CardServiceTest {
     @Test
     public void testGetCardByCardNumber_InvalidCard() {
         String cardNumber = "1111222233334444"; // Assuming card number not found
-        when(cardRepository.findByCardNumber(cardNumber)).thenReturn(null);
+        when(cardRepository.findProjectedByCardNumber(cardNumber)).thenReturn(Optional.empty());
 
         assertThrows(ApplicationException.class, () -> cardService.getCardByCardNumber(cardNumber));
 
-        verify(cardRepository, times(1)).findByCardNumber(cardNumber);
+        verify(cardRepository, times(1)).findProjectedByCardNumber(cardNumber);
     }
 
     /**
@@ -206,11 +215,32 @@ public class CardServiceTest {
         BigDecimal balance = BigDecimal.valueOf(1000);
 
         testCard.setCardExpirationDate(LocalDate.now().minusDays(1));
+        testCard.setStatus(CardStatus.STATUS_CARD_EXPIRED);
         when(cardRepository.findById(cardId)).thenReturn(Optional.of(testCard));
 
         assertThrows(ApplicationException.class, () -> cardService.cardRefill(cardId, pin, balance));
     }
 
+    /**
+     * This method tests the functionality of the cardRefill method in the CardService class.
+     * It verifies that a card past its expiration date is rejected before the job has set its status.
+     */
+    @Test
+    public void testCardRefill_ExpiredDateNotMarked() {
+        Long cardId = 1L;
+        Integer pin = 1234;
+        BigDecimal balance = BigDecimal.valueOf(1000);
+
+        testCard.setCardExpirationDate(LocalDate.now().minusDays(1));
+        testCard.setPin(pin);
+        when(cardRepository.findById(cardId)).thenReturn(Optional.of(testCard));
+
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> cardService.cardRefill(cardId, pin, balance));
+        assertEquals("Card is expired.", exception.getMessage()); // Ensure the date is checked, not only the status
+        verify(cardRepository, never()).save(any(Card.class)); // Ensure the card is not refilled
+    }
+
     /**
      * This method tests the functionality of the cardRefill method in the CardService class.
      * It verifies that the method throws an exception when the card is expired.
@@ -271,6 +301,7 @@ public class CardServiceTest {
     public void testUpdateCardStatus_ExpiredCard() {
         Long cardId = 1L;
         testCard.setCardExpirationDate(LocalDate.now().minusDays(1));
+        testCard.setStatus(CardStatus.STATUS_CARD_EXPIRED);
         when(cardRepository.findById(cardId)).thenReturn(Optional.of(testCard));
 
         assertThrows(ApplicationException.class, () -> cardService.updateCardStatus(cardId));
@@ -284,6 +315,7 @@ public class CardServiceTest {
     public void testChangeCardType_ExpiredCard() {
         Long cardId = 1L;
         testCard.setCardExpirationDate(LocalDate.now().minusDays(1));
+        testCard.setStatus(CardStatus.STATUS_CARD_EXPIRED);
         when(cardRepository.findById(cardId)).thenReturn(Optional.of(testCard));
 
         assertThrows(ApplicationException.class, () -> cardService.changeCardType(cardId));
@@ -313,8 +345,26 @@ public class CardServiceTest {
         Long userId = 1L;
 
         when(cardRepository.findById(cardId)).thenReturn(Optional.of(testCard));
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.existsById(userId)).thenReturn(false);
 
         assertThrows(ApplicationException.class, () -> cardService.deleteCard(cardId, userId));
+        verify(cardRepository, never()).delete(any(Card.class)); // Ensure the card is not deleted
+    }
+
+    /**
+     * This method tests the functionality of the expireCards method in the CardService class.
+     * It verifies that the cards are expired by one statement with the expired status, keeping blocked cards.
+     */
+    @Test
+    public void testExpireCards() {
+        LocalDate today = LocalDate.now();
+        when(cardRepository.updateStatusOfExpiredCards(today, CardStatus.STATUS_CARD_EXPIRED,
+                CardStatus.STATUS_CARD_BLOCKED)).thenReturn(3);
+
+        int result = cardService.expireCards(today);
+
+        assertEquals(3, result);
+        verify(cardRepository, times(1)).updateStatusOfExpiredCards(today, CardStatus.STATUS_CARD_EXPIRED,
+                CardStatus.STATUS_CARD_BLOCKED);
     }
 }
@@ -0,0 +1,183 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.RatesSnapshot;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.CurrencyData;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CurrencyDataRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.MoneyConverter;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.RateAggregator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class is used to test the functionality of the CurrencyDataService class.
+ * It uses the Mockito framework for mocking dependencies and JUnit for running the tests.
+ */
+class CurrencyDataServiceTest {
+
+    private CurrencyDataRepository currencyDataRepository;
+    private RestTemplate restTemplate;
+    private MoneyConverter moneyConverter;
+    private RateAggregator rateAggregator;
+    private ExchangeRateHistoryService rateHistoryService;
+    private CurrencyDataService currencyDataService;
+
+    /**
+     * This method is used to set up the necessary dependencies for the tests.
+     */
+    @BeforeEach
+    void setUp() {
+        currencyDataRepository = mock(CurrencyDataRepository.class);
+        restTemplate = mock(RestTemplate.class);
+        moneyConverter = mock(MoneyConverter.class);
+        rateAggregator = mock(RateAggregator.class);
+        rateHistoryService = mock(ExchangeRateHistoryService.class);
+        currencyDataService = new CurrencyDataService(currencyDataRepository, restTemplate,
+                new ObjectMapper(), rateHistoryService, moneyConverter, rateAggregator);
+    }
+
+    /**
+     * This method tests the functionality of the getRatesSnapshot method in the CurrencyDataService class.
+     * It verifies that the rates are serialized once and served from the snapshot afterwards.
+     */
+    @Test
+    void testGetRatesSnapshot() throws Exception {
+        // Mocking data
+        CurrencyData czk = new CurrencyData();
+        czk.setId(1L);
+        czk.setCurrency("CZK");
+        czk.setRate(1.0);
+        czk.setUpdatedAt(Instant.parse("2024-05-01T10:00:00.750Z"));
+        CurrencyData eur = new CurrencyData();
+        eur.setId(2L);
+        eur.setCurrency("EUR");
+        eur.setRate(0.04);
+        eur.setUpdatedAt(Instant.parse("2024-05-02T08:30:15.250Z"));
+        when(currencyDataRepository.findAll(Sort.by("currency"))).thenReturn(List.of(czk, eur));
+
+        // Testing the method
+        RatesSnapshot first = currencyDataService.getRatesSnapshot();
+        RatesSnapshot second = currencyDataService.getRatesSnapshot();
+
+        // Assertions
+        assertSame(first, second); // Ensure the snapshot is reused
+        assertEquals(2, new ObjectMapper().readTree(first.body()).size()); // Ensure every rate is serialized
+        assertTrue(first.eTag().startsWith("\"") && first.eTag().endsWith("\"")); // Ensure the ETag is strong
+        assertEquals(Instant.parse("2024-05-02T08:30:15Z"), first.lastModified()); // Ensure the latest change is sent
+        verify(currencyDataRepository, times(1)).findAll(Sort.by("currency")); // Ensure the database is read once
+    }
+
+    /**
+     * This method tests the functionality of the findCrossRate method in the CurrencyDataService class.
+     * It verifies that the rate derived from the stored rates is used without calling the remote API.
+     */
+    @Test
+    void testFindCrossRate_Stored() {
+        // Mocking data
+        MoneyConverter.CrossRate rate = new MoneyConverter.CrossRate(new BigDecimal("45.0000000000"), 51L);
+        when(moneyConverter.findCrossRate(Currency.EUR, Currency.UAH)).thenReturn(rate);
+
+        // Testing the method
+        MoneyConverter.CrossRate result = currencyDataService.findCrossRate(Currency.EUR, Currency.UAH);
+
+        // Assertions
+        assertSame(rate, result); // Ensure the derived rate is returned with its snapshot
+        verifyNoInteractions(restTemplate); // Ensure the remote API is not called
+    }
+
+    /**
+     * This method tests the functionality of the findCrossRate method in the CurrencyDataService class.
+     * It verifies that a rate that cannot be derived from the stored rates is unavailable,
+     * without asking the remote API for a rate that is not recorded in any snapshot.
+     */
+    @Test
+    void testFindCrossRate_Missing() {
+        // Mocking data
+        when(moneyConverter.findCrossRate(Currency.EUR, Currency.PLN)).thenReturn(null);
+
+        // Testing the method
+        MoneyConverter.CrossRate result = currencyDataService.findCrossRate(Currency.EUR, Currency.PLN);
+
+        // Assertions
+        assertNull(result); // Ensure the caller reports the rate as unavailable
+        verifyNoInteractions(restTemplate); // Ensure the remote API is not called
+    }
+
+    /**
+     * This method tests the functionality of the findAllExchangeRates method in the CurrencyDataService class.
+     * It verifies that the rates returned by the providers are stored, recorded in the history
+     * and handed to the MoneyConverter with the id of their snapshot.
+     */
+    @Test
+    void testFindAllExchangeRates() {
+        // Mocking data
+        CurrencyData eur = new CurrencyData();
+        eur.setCurrency("EUR");
+        eur.setRate(0.04);
+        when(rateAggregator.fetchRates()).thenReturn(Map.of("EUR", 0.0398));
+        when(currencyDataRepository.findByCurrency("EUR")).thenReturn(eur);
+        when(rateHistoryService.recordSnapshot(Map.of("EUR", 0.0398))).thenReturn(51L);
+
+        // Testing the method
+        currencyDataService.findAllExchangeRates();
+
+        // Assertions
+        assertEquals(0.0398, eur.getRate()); // Ensure the stored rate is updated
+        assertNotNull(eur.getUpdatedAt()); // Ensure the change is timestamped
+        verify(currencyDataRepository, times(1)).save(eur);
+        verify(rateHistoryService, times(1)).recordSnapshot(Map.of("EUR", 0.0398));
+        verify(moneyConverter, times(1)).updateRates(51L, Map.of("EUR", 0.0398)); // Ensure the rates keep their id
+    }
+
+    /**
+     * This method tests the functionality of the findAllExchangeRates method in the CurrencyDataService class.
+     * It verifies that a rate that has not changed keeps its modification time.
+     */
+    @Test
+    void testFindAllExchangeRates_RateUnchanged() {
+        // Mocking data
+        Instant updatedAt = Instant.parse("2024-05-01T10:00:00Z");
+        CurrencyData eur = new CurrencyData();
+        eur.setCurrency("EUR");
+        eur.setRate(0.04);
+        eur.setUpdatedAt(updatedAt);
+        when(rateAggregator.fetchRates()).thenReturn(Map.of("EUR", 0.04));
+        when(currencyDataRepository.findByCurrency("EUR")).thenReturn(eur);
+
+        // Testing the method
+        currencyDataService.findAllExchangeRates();
+
+        // Assertions
+        assertEquals(updatedAt, eur.getUpdatedAt()); // Ensure Last-Modified does not move
+        verify(currencyDataRepository, never()).save(any(CurrencyData.class)); // Ensure nothing is written
+    }
+
+    /**
+     * This method tests the functionality of the findAllExchangeRates method in the CurrencyDataService class.
+     * It verifies that the stored rates are kept when no provider returns the rates.
+     */
+    @Test
+    void testFindAllExchangeRates_NoProviderAnswered() {
+        // Mocking data
+        when(rateAggregator.fetchRates()).thenReturn(Map.of());
+
+        // Testing the method
+        currencyDataService.findAllExchangeRates();
+
+        // Assertions
+        verify(currencyDataRepository, never()).save(any(CurrencyData.class)); // Ensure nothing is overwritten
+        verifyNoInteractions(rateHistoryService); // Ensure no empty snapshot is recorded
+    }
+}
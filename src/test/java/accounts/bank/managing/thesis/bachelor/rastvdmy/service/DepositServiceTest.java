@@ -10,14 +10,17 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.DepositResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Card;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Deposit;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CardBalanceShardRepository;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CardRepository;
-import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CurrencyDataRepository;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.DepositRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.LedgerPostingRepository;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.Generator;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.MoneyConverter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -42,7 +45,7 @@ class DepositServiceTest {
     @Mock
     private CurrencyDataService currencyDataService;
     @Mock
-    private CurrencyDataRepository currencyRepository;
+    private MoneyConverter moneyConverter;
     @Mock
     private CardRepository cardRepository;
     @Mock
@@ -57,8 +60,12 @@ class DepositServiceTest {
         generator = mock(Generator.class);
         currencyDataService = mock(CurrencyDataService.class);
         cardRepository = mock(CardRepository.class);
-        currencyRepository = mock(CurrencyDataRepository.class);
-        depositService = new DepositService(depositRepository, generator, currencyDataService, cardRepository, currencyRepository);
+        moneyConverter = mock(MoneyConverter.class);
+        depositService = new DepositService(depositRepository, generator, currencyDataService, cardRepository, moneyConverter,
+                new LedgerService(mock(LedgerPostingRepository.class),
+                        new BalanceShardService(mock(CardBalanceShardRepository.class), cardRepository, 1000),
+                        mock(FinancialSummaryService.class)),
+                mock(FinancialSummaryService.class));
     }
 
     /**
@@ -68,12 +75,12 @@ class DepositServiceTest {
     @Test
     void testGetAllDeposits() {
         // Mocking data
-        List<Deposit> deposits = new ArrayList<>();
-        deposits.add(new Deposit());
-        when(depositRepository.findAll()).thenReturn(deposits);
+        List<DepositResponse> deposits = new ArrayList<>();
+        deposits.add(DepositResponse.from(new Deposit()));
+        when(depositRepository.findAllProjectedBy()).thenReturn(deposits);
 
         // Testing the method
-        List<Deposit> result = depositService.getAllDeposits();
+        List<DepositResponse> result = depositService.getAllDeposits();
 
         // Assertions
         assertEquals(result.size(), 1); // Ensure one deposit is returned
@@ -87,13 +94,13 @@ class DepositServiceTest {
     void testFilterAndSortDeposits() {
         // Mocking data
         Pageable pageable = Pageable.unpaged();
-        List<Deposit> deposits = new ArrayList<>();
-        deposits.add(new Deposit());
-        Page<Deposit> page = new PageImpl<>(deposits, pageable, deposits.size());
-        when(depositRepository.findAll(pageable)).thenReturn(page);
+        List<DepositResponse> deposits = new ArrayList<>();
+        deposits.add(DepositResponse.from(new Deposit()));
+        Page<DepositResponse> page = new PageImpl<>(deposits, pageable, deposits.size());
+        when(depositRepository.findAllProjectedBy(pageable)).thenReturn(page);
 
         // Testing the method
-        Page<Deposit> result = depositService.filterAndSortDeposits(pageable);
+        Page<DepositResponse> result = depositService.filterAndSortDeposits(pageable);
 
         // Assertions
         assertEquals(result.getTotalElements(), 1); // Ensure one deposit is returned
@@ -109,13 +116,13 @@ class DepositServiceTest {
         Long id = 1L;
         Deposit deposit = new Deposit();
         deposit.setId(id);
-        when(depositRepository.findById(id)).thenReturn(Optional.of(deposit));
+        when(depositRepository.findProjectedById(id)).thenReturn(Optional.of(DepositResponse.from(deposit)));
 
         // Testing the method
-        Deposit result = depositService.getDepositById(id);
+        DepositResponse result = depositService.getDepositById(id);
 
         // Assertions
-        assertEquals(result.getId(), id); // Ensure the correct deposit is returned
+        assertEquals(result.id(), id); // Ensure the correct deposit is returned
     }
 
     /**
@@ -126,7 +133,7 @@ class DepositServiceTest {
     void testGetDepositById_NonExistingId() {
         // Mocking data
         Long id = 1L;
-        when(depositRepository.findById(id)).thenReturn(Optional.empty());
+        when(depositRepository.findProjectedById(id)).thenReturn(Optional.empty());
 
         // Testing the method and expecting an exception
         try {
@@ -162,7 +169,7 @@ class DepositServiceTest {
         BigDecimal newAmount = BigDecimal.valueOf(1000);
         Currency currency = Currency.USD;
 
-        when(depositRepository.findById(depositId)).thenReturn(Optional.empty());
+        when(depositRepository.existsById(depositId)).thenReturn(false);
 
         assertThrows(ApplicationException.class, () -> depositService.updateDeposit(depositId, cardNumber, description, newAmount, currency));
     }
@@ -223,12 +230,10 @@ class DepositServiceTest {
         BigDecimal newAmount = BigDecimal.valueOf(200);
         Currency currency = Currency.USD;
 
-        Deposit deposit = new Deposit();
-        deposit.setId(depositId);
         Card card = new Card();
         card.setCardNumber(cardNumber);
         card.setBalance(BigDecimal.valueOf(100));
-        when(depositRepository.findById(depositId)).thenReturn(java.util.Optional.of(deposit));
+        when(depositRepository.existsById(depositId)).thenReturn(true);
         when(cardRepository.findByCardNumber(cardNumber)).thenReturn(card);
 
         // Testing the method and expecting an exception
@@ -246,6 +251,7 @@ class DepositServiceTest {
      */
     @Test
     public void testDeleteDeposit_DepositExpired() {
+        when(cardRepository.addToBalance(any(), any())).thenReturn(1); // Every balance update succeeds
         Long depositId = 1L;
         Deposit deposit = mock(Deposit.class);
         Card card = mock(Card.class);
@@ -269,6 +275,7 @@ class DepositServiceTest {
      */
     @Test
     public void testDeleteDeposit_DepositNotExpired() {
+        when(cardRepository.addToBalance(any(), any())).thenReturn(1); // Every balance update succeeds
         Long depositId = 1L;
         Deposit deposit = mock(Deposit.class);
         Card card = mock(Card.class);
@@ -285,4 +292,33 @@ class DepositServiceTest {
         verify(cardRepository, times(1)).save(card);
         verify(depositRepository, times(1)).delete(deposit);
     }
+
+    /**
+     * This method tests the functionality of the matureDeposits method in the DepositService class.
+     * It verifies that a matured deposit is paid out with the bonus and deleted,
+     * while a deposit that has not expired yet is left open.
+     */
+    @Test
+    void testMatureDeposits() {
+        when(cardRepository.addToBalance(any(), any())).thenReturn(1); // Every balance update succeeds
+        Card card = new Card();
+        card.setId(1L);
+        card.setCurrencyType(Currency.USD);
+        card.setBalance(BigDecimal.ZERO);
+        Deposit matured = new Deposit();
+        matured.setCardDeposit(card);
+        matured.setCurrency(Currency.USD);
+        matured.setDepositAmount(BigDecimal.valueOf(1000));
+        matured.setExpirationDate(LocalDateTime.now().minusDays(1));
+        Deposit open = new Deposit();
+        open.setExpirationDate(LocalDateTime.now().plusDays(1));
+        when(depositRepository.findAllWithCardByIdIn(List.of(1L, 2L))).thenReturn(List.of(matured, open));
+
+        int result = depositService.matureDeposits(List.of(1L, 2L));
+
+        assertEquals(1, result); // Ensure only the matured deposit is paid out
+        assertEquals(0, new BigDecimal("1050.00").compareTo(card.getBalance())); // Ensure the bonus is paid
+        verify(depositRepository, times(1)).delete(matured);
+        verify(depositRepository, never()).delete(open);
+    }
 }
@@ -0,0 +1,130 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.HistoricalRate;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.ExchangeRateSnapshot;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.ExchangeRateHistoryRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.ExchangeRateSnapshotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class is used to test the functionality of the ExchangeRateHistoryService class.
+ * It uses the Mockito framework for mocking dependencies and JUnit for running the tests.
+ */
+class ExchangeRateHistoryServiceTest {
+
+    private static final Instant FIRST_FETCH = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Instant SECOND_FETCH = Instant.parse("2024-01-02T00:00:00Z");
+
+    private ExchangeRateSnapshotRepository snapshotRepository;
+    private ExchangeRateHistoryRepository historyRepository;
+    private ExchangeRateHistoryService rateHistoryService;
+
+    /**
+     * This method is used to set up the necessary dependencies for the tests.
+     */
+    @BeforeEach
+    void setUp() {
+        snapshotRepository = mock(ExchangeRateSnapshotRepository.class);
+        historyRepository = mock(ExchangeRateHistoryRepository.class);
+        rateHistoryService = new ExchangeRateHistoryService(snapshotRepository, historyRepository);
+        when(historyRepository.findAllHistoricalRates()).thenReturn(List.of(
+                new HistoricalRate(1L, "EUR", 0.040, FIRST_FETCH),
+                new HistoricalRate(1L, "USD", 0.044, FIRST_FETCH),
+                new HistoricalRate(2L, "EUR", 0.041, SECOND_FETCH)));
+    }
+
+    /**
+     * This method tests the functionality of the rateAsOf method in the ExchangeRateHistoryService class.
+     * It verifies that the rate of the latest snapshot fetched at or before the given time is returned.
+     */
+    @Test
+    void testRateAsOf() {
+        // Testing the method
+        HistoricalRate atFirstFetch = rateHistoryService.rateAsOf("EUR", FIRST_FETCH);
+        HistoricalRate betweenFetches = rateHistoryService.rateAsOf("EUR", FIRST_FETCH.plusSeconds(3600));
+        HistoricalRate afterSecondFetch = rateHistoryService.rateAsOf("EUR", SECOND_FETCH.plusSeconds(3600));
+
+        // Assertions
+        assertEquals(1L, atFirstFetch.snapshotId()); // Ensure a fetch at the given time is included
+        assertEquals(0.040, betweenFetches.rate()); // Ensure the earlier rate is used until the next fetch
+        assertEquals(2L, afterSecondFetch.snapshotId()); // Ensure the latest rate is used
+        verify(historyRepository, times(1)).findAllHistoricalRates(); // Ensure the history is loaded once
+    }
+
+    /**
+     * This method tests the functionality of the rateAsOf method in the ExchangeRateHistoryService class.
+     * It verifies that an exception is thrown for a time before the first fetch of the currency.
+     */
+    @Test
+    void testRateAsOf_BeforeFirstFetch() {
+        // Assertions
+        assertThrows(ApplicationException.class,
+                () -> rateHistoryService.rateAsOf("EUR", FIRST_FETCH.minusSeconds(1)));
+        assertThrows(ApplicationException.class, () -> rateHistoryService.rateAsOf("GBP", SECOND_FETCH));
+    }
+
+    /**
+     * This method tests the functionality of the findLatestRates method in the ExchangeRateHistoryService class.
+     * It verifies that only the rates recorded in the latest snapshot are returned.
+     */
+    @Test
+    void testFindLatestRates() {
+        // Testing the method
+        List<HistoricalRate> result = rateHistoryService.findLatestRates();
+
+        // Assertions
+        assertEquals(List.of(new HistoricalRate(2L, "EUR", 0.041, SECOND_FETCH)), result); // Ensure no older rate
+    }
+
+    /**
+     * This method tests the functionality of the findLatestRates method in the ExchangeRateHistoryService class.
+     * It verifies that the history is loaded again when no snapshot was recorded at the first load.
+     */
+    @Test
+    void testFindLatestRates_ReloadsWhenMissing() {
+        // Mocking data
+        HistoricalRate recordedElsewhere = new HistoricalRate(51L, "EUR", 0.041, SECOND_FETCH);
+        when(historyRepository.findAllHistoricalRates()).thenReturn(List.of(), List.of(recordedElsewhere));
+
+        // Testing the method
+        List<HistoricalRate> result = rateHistoryService.findLatestRates();
+
+        // Assertions
+        assertEquals(List.of(recordedElsewhere), result); // Ensure the snapshot of another instance is found
+        assertEquals(51L, rateHistoryService.getLatestSnapshotId()); // Ensure it becomes the latest
+        verify(historyRepository, times(2)).findAllHistoricalRates(); // Ensure the history is loaded again
+    }
+
+    /**
+     * This method tests the functionality of the recordSnapshot method in the ExchangeRateHistoryService class.
+     * It verifies that a new snapshot is appended and becomes the latest one.
+     */
+    @Test
+    void testRecordSnapshot() {
+        // Mocking data
+        when(snapshotRepository.save(any(ExchangeRateSnapshot.class))).thenAnswer(invocation -> {
+            ExchangeRateSnapshot snapshot = invocation.getArgument(0);
+            snapshot.setId(3L);
+            return snapshot;
+        });
+
+        // Testing the method
+        Long snapshotId = rateHistoryService.recordSnapshot(Map.of("EUR", 0.042));
+
+        // Assertions
+        assertEquals(3L, snapshotId);
+        assertEquals(3L, rateHistoryService.getLatestSnapshotId()); // Ensure the new snapshot is the latest
+        assertEquals(0.042, rateHistoryService.rateAsOf("EUR", Instant.now()).rate()); // Ensure it is searchable
+        assertEquals(0.044, rateHistoryService.rateAsOf("USD", Instant.now()).rate()); // Ensure others are kept
+        verify(historyRepository, times(1)).saveAll(anyList());
+    }
+}
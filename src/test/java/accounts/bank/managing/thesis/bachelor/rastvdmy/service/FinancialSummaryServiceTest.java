@@ -0,0 +1,122 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.FinancialSummaryResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Card;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.LedgerOperation;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.User;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.UserDailyFlowRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.UserFinancialSummaryRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+/**
+ * This class is used to test the functionality of the FinancialSummaryService class.
+ * It uses the Mockito framework for mocking dependencies and JUnit for running the tests.
+ */
+class FinancialSummaryServiceTest {
+
+    private UserFinancialSummaryRepository summaryRepository;
+    private UserDailyFlowRepository dailyFlowRepository;
+    private UserRepository userRepository;
+    private FinancialSummaryService financialSummaryService;
+    private Card card;
+
+    /**
+     * This method is used to set up the necessary dependencies for the tests.
+     */
+    @BeforeEach
+    void setUp() {
+        summaryRepository = mock(UserFinancialSummaryRepository.class);
+        dailyFlowRepository = mock(UserDailyFlowRepository.class);
+        userRepository = mock(UserRepository.class);
+        financialSummaryService = new FinancialSummaryService(summaryRepository, dailyFlowRepository, userRepository);
+        User user = new User();
+        user.setId(1L);
+        card = new Card();
+        card.setUser(user);
+        card.setCurrencyType(Currency.EUR);
+    }
+
+    /**
+     * This method tests the functionality of the recordPosting method in the FinancialSummaryService class.
+     * It verifies that a debit of a transfer updates the balance and the outflow of the day.
+     */
+    @Test
+    void testRecordPosting_Transfer() {
+        // Testing the method
+        financialSummaryService.recordPosting(card, BigDecimal.valueOf(-25), LedgerOperation.TRANSFER, 0);
+
+        // Assertions
+        verify(summaryRepository).add(1L, "EUR", 0, BigDecimal.valueOf(-25), BigDecimal.ZERO, BigDecimal.ZERO); // Ensure the balance is updated
+        verify(dailyFlowRepository).add(1L, "EUR", LocalDate.now(), 0, BigDecimal.ZERO, BigDecimal.valueOf(25)); // Ensure the outflow is updated
+    }
+
+    /**
+     * This method tests the functionality of the recordPosting method in the FinancialSummaryService class.
+     * It verifies that a deposit posting updates the balance but is not counted as flow.
+     */
+    @Test
+    void testRecordPosting_Deposit() {
+        // Testing the method
+        financialSummaryService.recordPosting(card, BigDecimal.valueOf(-100), LedgerOperation.DEPOSIT_OPEN, 0);
+
+        // Assertions
+        verify(summaryRepository).add(1L, "EUR", 0, BigDecimal.valueOf(-100), BigDecimal.ZERO, BigDecimal.ZERO); // Ensure the balance is updated
+        verifyNoInteractions(dailyFlowRepository); // Ensure the flow is not updated
+    }
+
+    /**
+     * This method tests the functionality of the getSummary method in the FinancialSummaryService class.
+     * It verifies that the summary rows are mapped to one response per currency.
+     */
+    @Test
+    void testGetSummary() {
+        // Mocking data
+        when(userRepository.existsById(1L)).thenReturn(true);
+        Object[] row = {"EUR", new BigDecimal("150.00"), BigDecimal.ZERO, new BigDecimal("100.00"),
+                new BigDecimal("200.00"), new BigDecimal("50.00")};
+        when(summaryRepository.findSummary(eq(1L), any(LocalDate.class))).thenReturn(List.<Object[]>of(row));
+
+        // Testing the method
+        List<FinancialSummaryResponse> result = financialSummaryService.getSummary(1L);
+
+        // Assertions
+        assertEquals(1, result.size()); // Ensure there is one currency
+        assertEquals(Currency.EUR, result.get(0).currency()); // Ensure the currency is mapped
+        assertEquals(new BigDecimal("150.00"), result.get(0).balance()); // Ensure the balance is mapped
+        assertEquals(new BigDecimal("50.00"), result.get(0).outflow()); // Ensure the outflow is mapped
+        verify(summaryRepository).findSummary(1L,
+                LocalDate.now().minusDays(FinancialSummaryService.FLOW_DAYS - 1)); // Ensure the flow covers 30 days
+    }
+
+    /**
+     * This method tests the functionality of the getSummary method in the FinancialSummaryService class.
+     * It verifies that the method throws an exception when the user does not exist.
+     */
+    @Test
+    void testGetSummary_UserNotFound() {
+        // Mocking data
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        // Testing the method
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> financialSummaryService.getSummary(1L));
+
+        // Assertions
+        assertEquals(HttpStatus.NOT_FOUND, exception.getHttpStatus()); // Ensure the status is NOT_FOUND
+        verifyNoInteractions(summaryRepository); // Ensure the summary is not read
+    }
+}
@@ -0,0 +1,269 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.IdempotencyRecord;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.IdempotentOperation;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Transfer;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.IdempotencyRecordRepository;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * This class is used to test the functionality of the IdempotencyService class.
+ * It uses the Mockito framework for mocking dependencies and JUnit for running the tests.
+ */
+class IdempotencyServiceTest {
+
+    private static final String REQUEST = "request";
+
+    private IMap<String, IdempotencyService.ProcessedRequest> processedKeys;
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    private IdempotencyService idempotencyService;
+    private AtomicInteger executions;
+
+    /**
+     * This method is used to set up the necessary dependencies for the tests.
+     */
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws InterruptedException {
+        processedKeys = mock(IMap.class);
+        HazelcastInstance hazelcastInstance = mock(HazelcastInstance.class);
+        when(hazelcastInstance.<String, IdempotencyService.ProcessedRequest>getMap(IdempotencyService.IDEMPOTENCY_MAP))
+                .thenReturn(processedKeys);
+        when(processedKeys.tryLock(anyString(), anyLong(), any(TimeUnit.class), anyLong(), any(TimeUnit.class)))
+                .thenReturn(true);
+        when(processedKeys.isLocked(anyString())).thenReturn(true);
+        idempotencyRecordRepository = mock(IdempotencyRecordRepository.class);
+        idempotencyService = new IdempotencyService(hazelcastInstance, idempotencyRecordRepository,
+                mock(PlatformTransactionManager.class));
+        executions = new AtomicInteger();
+    }
+
+    /**
+     * This method tests the functionality of the execute method in the IdempotencyService class.
+     * It verifies that a new key executes the action and records the id of the created resource.
+     */
+    @Test
+    void testExecute_NewKey() {
+        // Testing the method
+        Transfer result = execute("key-1");
+
+        // Assertions
+        assertEquals(1L, result.getId()); // Ensure the created transfer is returned
+        assertEquals(1, executions.get()); // Ensure the action is executed once
+        verify(idempotencyRecordRepository).save(any(IdempotencyRecord.class)); // Ensure the key is recorded
+        verify(processedKeys).put("TRANSFER:1:key-1", processed(1L)); // Ensure the key is cached
+        verify(processedKeys).unlock("TRANSFER:1:key-1"); // Ensure the lock is released
+    }
+
+    /**
+     * This method tests the functionality of the execute method in the IdempotencyService class.
+     * It verifies that a key found in the map replays the original resource without executing the action.
+     */
+    @Test
+    void testExecute_ReplayFromMap() {
+        // Mocking data
+        when(processedKeys.get("TRANSFER:1:key-1")).thenReturn(processed(5L));
+
+        // Testing the method
+        Transfer result = execute("key-1");
+
+        // Assertions
+        assertEquals(5L, result.getId()); // Ensure the original transfer is returned
+        assertEquals(0, executions.get()); // Ensure the action is not executed
+        verifyNoInteractions(idempotencyRecordRepository); // Ensure the database is not queried
+    }
+
+    /**
+     * This method tests the functionality of the execute method in the IdempotencyService class.
+     * It verifies that a key evicted from the map is replayed from the database.
+     */
+    @Test
+    void testExecute_ReplayFromDatabase() {
+        // Mocking data
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setResourceId(7L);
+        record.setRequestHash(processed(7L).requestHash());
+        when(idempotencyRecordRepository.findByIdempotencyKeyAndOperationAndCallerId(
+                "key-1", IdempotentOperation.TRANSFER, 1L)).thenReturn(record);
+
+        // Testing the method
+        Transfer result = execute("key-1");
+
+        // Assertions
+        assertEquals(7L, result.getId()); // Ensure the original transfer is returned
+        assertEquals(0, executions.get()); // Ensure the action is not executed
+        verify(processedKeys).put("TRANSFER:1:key-1", processed(7L)); // Ensure the map is warmed up again
+    }
+
+    /**
+     * This method tests the functionality of the execute method in the IdempotencyService class.
+     * It verifies that the key of one user does not replay the resource created by another user.
+     */
+    @Test
+    void testExecute_OtherCaller() {
+        // Mocking data
+        when(processedKeys.get("TRANSFER:1:key-1")).thenReturn(processed(5L));
+
+        // Testing the method
+        Transfer result = execute(2L, "key-1", REQUEST);
+
+        // Assertions
+        assertEquals(1L, result.getId()); // Ensure a new transfer is created
+        assertEquals(1, executions.get()); // Ensure the action is executed
+        verify(processedKeys).put("TRANSFER:2:key-1", processed(1L)); // Ensure the key is cached for the caller
+    }
+
+    /**
+     * This method tests the functionality of the execute method in the IdempotencyService class.
+     * It verifies that the method throws an exception when the key is reused with a different request.
+     */
+    @Test
+    void testExecute_DifferentRequest() {
+        // Mocking data
+        when(processedKeys.get("TRANSFER:1:key-1")).thenReturn(processed(5L));
+
+        // Testing the method
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> execute(1L, "key-1", "another request"));
+
+        // Assertions
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getHttpStatus()); // Ensure the status is 422
+        assertEquals(0, executions.get()); // Ensure the action is not executed
+    }
+
+    /**
+     * This method tests the functionality of the execute method in the IdempotencyService class.
+     * It verifies that a key recorded by another instance during the request replays the recorded resource.
+     */
+    @Test
+    void testExecute_RecordedConcurrently() {
+        // Mocking data
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setResourceId(9L);
+        record.setRequestHash(processed(9L).requestHash());
+        when(idempotencyRecordRepository.findByIdempotencyKeyAndOperationAndCallerId(
+                "key-1", IdempotentOperation.TRANSFER, 1L)).thenReturn(null, null, record);
+        when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+                .thenThrow(new DataIntegrityViolationException(IdempotencyRecord.KEY_CONSTRAINT));
+
+        // Testing the method
+        Transfer result = execute("key-1");
+
+        // Assertions
+        assertEquals(9L, result.getId()); // Ensure the recorded transfer is returned
+        verify(processedKeys).unlock("TRANSFER:1:key-1"); // Ensure the lock is released
+    }
+
+    /**
+     * This method tests the functionality of the execute method in the IdempotencyService class.
+     * It verifies that a lock which expired during the request is not released.
+     */
+    @Test
+    void testExecute_LockExpired() {
+        // Mocking data
+        when(processedKeys.isLocked("TRANSFER:1:key-1")).thenReturn(false);
+
+        // Testing the method
+        Transfer result = execute("key-1");
+
+        // Assertions
+        assertEquals(1L, result.getId()); // Ensure the created transfer is returned
+        verify(processedKeys, never()).unlock(anyString()); // Ensure a lock that is not held is not released
+    }
+
+    /**
+     * This method tests the functionality of the execute method in the IdempotencyService class.
+     * It verifies that a request without a key executes the action without recording it.
+     */
+    @Test
+    void testExecute_WithoutKey() {
+        // Testing the method
+        execute(null);
+
+        // Assertions
+        assertEquals(1, executions.get()); // Ensure the action is executed
+        verifyNoInteractions(idempotencyRecordRepository); // Ensure nothing is recorded
+    }
+
+    /**
+     * This method tests the functionality of the execute method in the IdempotencyService class.
+     * It verifies that the method throws an exception when the key is too long.
+     */
+    @Test
+    void testExecute_KeyTooLong() {
+        // Testing the method
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> execute("k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1)));
+
+        // Assertions
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getHttpStatus()); // Ensure the status is BAD_REQUEST
+        assertEquals(0, executions.get()); // Ensure the action is not executed
+    }
+
+    /**
+     * This method tests the functionality of the execute method in the IdempotencyService class.
+     * It verifies that the method throws an exception when the key is locked by another request.
+     */
+    @Test
+    void testExecute_KeyInProgress() throws InterruptedException {
+        // Mocking data
+        when(processedKeys.tryLock(anyString(), anyLong(), any(TimeUnit.class), anyLong(), any(TimeUnit.class)))
+                .thenReturn(false);
+
+        // Testing the method
+        ApplicationException exception = assertThrows(ApplicationException.class, () -> execute("key-1"));
+
+        // Assertions
+        assertEquals(HttpStatus.CONFLICT, exception.getHttpStatus()); // Ensure the status is CONFLICT
+        assertEquals(0, executions.get()); // Ensure the action is not executed
+        verify(processedKeys, never()).unlock(anyString()); // Ensure a lock that was not taken is not released
+    }
+
+    private Transfer execute(String key) {
+        return execute(1L, key, REQUEST);
+    }
+
+    private Transfer execute(Long callerId, String key, Object request) {
+        return idempotencyService.execute(IdempotentOperation.TRANSFER, callerId, key, request,
+                () -> {
+                    executions.incrementAndGet();
+                    return transfer(1L);
+                },
+                Transfer::getId,
+                this::transfer);
+    }
+
+    private static IdempotencyService.ProcessedRequest processed(Long resourceId) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(REQUEST.getBytes(StandardCharsets.UTF_8));
+            return new IdempotencyService.ProcessedRequest(resourceId, HexFormat.of().formatHex(hash));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Transfer transfer(Long id) {
+        Transfer transfer = new Transfer();
+        transfer.setId(id);
+        return transfer;
+    }
+}
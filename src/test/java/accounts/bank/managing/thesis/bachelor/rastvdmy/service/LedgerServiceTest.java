@@ -0,0 +1,182 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Card;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.CardBalanceShard;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.LedgerOperation;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.LedgerPosting;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CardBalanceShardRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CardRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.LedgerPostingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+
+/**
+ * This class is used to test the functionality of the LedgerService class.
+ * It uses the Mockito framework for mocking dependencies and JUnit for running the tests.
+ */
+class LedgerServiceTest {
+
+    private LedgerPostingRepository ledgerPostingRepository;
+    private CardBalanceShardRepository balanceShardRepository;
+    private CardRepository cardRepository;
+    private LedgerService ledgerService;
+
+    /**
+     * This method is used to set up the necessary dependencies for the tests.
+     */
+    @BeforeEach
+    void setUp() {
+        ledgerPostingRepository = mock(LedgerPostingRepository.class);
+        when(ledgerPostingRepository.save(any(LedgerPosting.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        balanceShardRepository = mock(CardBalanceShardRepository.class);
+        cardRepository = mock(CardRepository.class);
+        when(cardRepository.addToBalance(any(), any())).thenReturn(1);
+        ledgerService = new LedgerService(ledgerPostingRepository,
+                new BalanceShardService(balanceShardRepository, cardRepository, 1000),
+                mock(FinancialSummaryService.class));
+    }
+
+    /**
+     * This method tests the functionality of the post method in the LedgerService class.
+     * It verifies that the posting is saved and the balance equals the previous balance plus the posted amount.
+     */
+    @Test
+    void testPost() {
+        // Mocking data
+        Card card = createCard(BigDecimal.valueOf(100));
+
+        // Testing the method
+        LedgerPosting posting = ledgerService.post(card, LedgerService.round(new BigDecimal("10.555")),
+                LedgerOperation.REFILL, null);
+
+        // Assertions
+        assertEquals(new BigDecimal("10.56"), posting.getAmount()); // Ensure the amount is rounded to the balance scale
+        assertEquals(0, card.getBalance().compareTo(new BigDecimal("110.56"))); // Ensure the balance is updated
+        assertEquals(card.getId(), posting.getCardId()); // Ensure the posting belongs to the card
+        verify(ledgerPostingRepository).save(posting); // Ensure the posting is saved
+    }
+
+    /**
+     * This method tests the functionality of the post method in the LedgerService class.
+     * It verifies that an amount which was not rounded is rejected instead of being rounded a second time.
+     */
+    @Test
+    void testPost_Unrounded() {
+        // Mocking data
+        Card card = createCard(BigDecimal.valueOf(100));
+
+        // Testing the method
+        assertThrows(IllegalArgumentException.class,
+                () -> ledgerService.post(card, new BigDecimal("10.555"), LedgerOperation.REFILL, null));
+
+        // Assertions
+        assertEquals(0, card.getBalance().compareTo(BigDecimal.valueOf(100))); // Ensure the balance is not changed
+        verify(ledgerPostingRepository, never()).save(any()); // Ensure nothing is posted
+    }
+
+    /**
+     * This method tests the functionality of the postTransfer method in the LedgerService class.
+     * It verifies that the sender is debited and the receiver is credited with one posting each.
+     */
+    @Test
+    void testPostTransfer() {
+        // Mocking data
+        Card senderCard = createCard(BigDecimal.valueOf(100));
+        Card receiverCard = createCard(BigDecimal.ZERO);
+        ArgumentCaptor<LedgerPosting> captor = ArgumentCaptor.forClass(LedgerPosting.class);
+
+        // Testing the method
+        ledgerService.postTransfer(senderCard, BigDecimal.valueOf(40), receiverCard, BigDecimal.valueOf(36), "REF");
+
+        // Assertions
+        verify(ledgerPostingRepository, times(2)).save(captor.capture());
+        assertEquals(0, captor.getAllValues().get(0).getAmount().compareTo(BigDecimal.valueOf(-40))); // Ensure the debit is negative
+        assertEquals(0, captor.getAllValues().get(1).getAmount().compareTo(BigDecimal.valueOf(36))); // Ensure the credit is positive
+        assertEquals(0, senderCard.getBalance().compareTo(BigDecimal.valueOf(60))); // Ensure the sender is debited
+        assertEquals(0, receiverCard.getBalance().compareTo(BigDecimal.valueOf(36))); // Ensure the receiver is credited
+    }
+
+    /**
+     * This method tests the functionality of the post method in the LedgerService class.
+     * It verifies that a credit of a sharded card is added to a shard instead of the card.
+     */
+    @Test
+    void testPost_ShardedCredit() {
+        // Mocking data
+        Card card = createCard(BigDecimal.valueOf(100));
+        card.setId(1L);
+        card.setBalanceShards(4);
+        when(balanceShardRepository.credit(eq(1L), anyInt(), any(BigDecimal.class))).thenReturn(1);
+
+        // Testing the method
+        ledgerService.post(card, new BigDecimal("10.00"), LedgerOperation.TRANSFER, "REF");
+
+        // Assertions
+        assertEquals(0, card.getBalance().compareTo(BigDecimal.valueOf(100))); // Ensure the card row is not changed
+        verify(balanceShardRepository).credit(1L, Math.floorMod("REF".hashCode(), 4), new BigDecimal("10.00")); // Ensure the shard is credited
+    }
+
+    /**
+     * This method tests the functionality of the post method in the LedgerService class.
+     * It verifies that a debit of a sharded card exceeding its balance and shards is rejected.
+     */
+    @Test
+    void testPost_ShardedDebitInsufficientFunds() {
+        // Mocking data
+        Card card = createCard(BigDecimal.valueOf(10));
+        card.setId(1L);
+        card.setBalanceShards(2);
+        CardBalanceShard shard = new CardBalanceShard();
+        shard.setBalance(BigDecimal.valueOf(5));
+        when(balanceShardRepository.findAllForUpdate(1L)).thenReturn(List.of(shard));
+        when(cardRepository.addToBalance(1L, BigDecimal.valueOf(-20))).thenReturn(0);
+
+        // Testing the method
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> ledgerService.post(card, BigDecimal.valueOf(-20), LedgerOperation.TRANSFER, "REF"));
+
+        // Assertions
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getHttpStatus()); // Ensure the status is BAD_REQUEST
+        assertEquals(0, card.getBalance().compareTo(BigDecimal.valueOf(15))); // Ensure the shards are drained
+        verify(ledgerPostingRepository, never()).save(any()); // Ensure nothing is posted
+    }
+
+    /**
+     * This method tests the functionality of the post method in the LedgerService class.
+     * It verifies that a debit is rejected when the balance in the database no longer covers it,
+     * even if the loaded card does.
+     */
+    @Test
+    void testPost_ConcurrentDebit() {
+        // Mocking data
+        Card card = createCard(BigDecimal.valueOf(100));
+        card.setId(1L);
+        when(cardRepository.addToBalance(1L, new BigDecimal("-80.00"))).thenReturn(0);
+
+        // Testing the method
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> ledgerService.post(card, new BigDecimal("-80.00"), LedgerOperation.TRANSFER, "REF"));
+
+        // Assertions
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getHttpStatus()); // Ensure the status is BAD_REQUEST
+        assertEquals(0, card.getBalance().compareTo(BigDecimal.valueOf(100))); // Ensure the loaded card is unchanged
+        verify(ledgerPostingRepository, never()).save(any()); // Ensure nothing is posted
+    }
+
+    private Card createCard(BigDecimal balance) {
+        Card card = new Card();
+        card.setBalance(balance);
+        return card;
+    }
+}
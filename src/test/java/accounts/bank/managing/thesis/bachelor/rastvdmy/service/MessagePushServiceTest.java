@@ -0,0 +1,92 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class is used to test the functionality of the MessagePushService class.
+ * It uses an executor that only collects tasks, so the tests decide when buffered messages are sent.
+ */
+class MessagePushServiceTest {
+
+    private List<Runnable> tasks;
+    private MessagePushService messagePushService;
+
+    /**
+     * This method is used to set up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        tasks = new ArrayList<>();
+        messagePushService = new MessagePushService(2, 60000L, tasks::add);
+    }
+
+    /**
+     * This method tests the functionality of the subscribe method in the MessagePushService class.
+     * It verifies that a connection is registered for the user.
+     */
+    @Test
+    void testSubscribe() {
+        // Testing the method
+        messagePushService.subscribe(1L);
+
+        // Assertions
+        assertEquals(1, messagePushService.getConnectionCount(1L)); // Ensure the connection is registered
+        assertEquals(0, messagePushService.getConnectionCount(2L)); // Ensure other users have no connections
+    }
+
+    /**
+     * This method tests the functionality of the publish method in the MessagePushService class.
+     * It verifies that a single drain task is scheduled for several buffered messages.
+     */
+    @Test
+    void testPublish_SchedulesSingleDrain() {
+        // Mocking data
+        messagePushService.subscribe(1L);
+
+        // Testing the method
+        messagePushService.publish(1L, "Hello");
+        messagePushService.publish(1L, "World");
+
+        // Assertions
+        assertEquals(1, tasks.size()); // Ensure only one drain task is scheduled
+        tasks.get(0).run();
+        assertEquals(1, messagePushService.getConnectionCount(1L)); // Ensure the connection stays open
+    }
+
+    /**
+     * This method tests the functionality of the publish method in the MessagePushService class.
+     * It verifies that a connection whose buffer is full is dropped.
+     */
+    @Test
+    void testPublish_DropsSlowConnection() {
+        // Mocking data
+        messagePushService.subscribe(1L);
+
+        // Testing the method
+        messagePushService.publish(1L, "First");
+        messagePushService.publish(1L, "Second");
+        messagePushService.publish(1L, "Third");
+
+        // Assertions
+        assertEquals(0, messagePushService.getConnectionCount(1L)); // Ensure the slow connection is dropped
+    }
+
+    /**
+     * This method tests the functionality of the publish method in the MessagePushService class.
+     * It verifies that publishing to a user without connections does nothing.
+     */
+    @Test
+    void testPublish_NoConnections() {
+        // Testing the method
+        messagePushService.publish(1L, "Hello");
+
+        // Assertions
+        assertTrue(tasks.isEmpty()); // Ensure nothing is scheduled
+    }
+}
@@ -1,6 +1,7 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
 
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.MessageResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Message;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.User;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
@@ -19,6 +20,10 @@ import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 
 /**
@@ -52,12 +57,12 @@ class MessageServiceTest {
     @Test
     void testGetMessages() {
         // Mocking data
-        List<Message> messages = new ArrayList<>();
-        messages.add(new Message());
-        when(messageRepository.findAll()).thenReturn(messages);
+        List<MessageResponse> messages = new ArrayList<>();
+        messages.add(new MessageResponse(1L, "Hello", null, 1L, 2L));
+        when(messageRepository.findAllProjectedBy()).thenReturn(messages);
 
         // Testing the method
-        List<Message> result = messageService.getMessages();
+        List<MessageResponse> result = messageService.getMessages();
 
         // Assertions
         assertEquals(result.size(), 1); // Ensure one message is returned
@@ -71,15 +76,14 @@ class MessageServiceTest {
     void testGetMessageById_ExistingId() {
         // Mocking data
         Long messageId = 1L;
-        Message message = new Message();
-        message.setId(messageId);
-        when(messageRepository.findById(messageId)).thenReturn(Optional.of(message));
+        MessageResponse message = new MessageResponse(messageId, "Hello", null, 1L, 2L);
+        when(messageRepository.findProjectedById(messageId)).thenReturn(Optional.of(message));
 
         // Testing the method
-        Message result = messageService.getMessageById(messageId);
+        MessageResponse result = messageService.getMessageById(messageId);
 
         // Assertions
-        assertEquals(result.getId(), messageId); // Ensure the correct message is returned
+        assertEquals(result.id(), messageId); // Ensure the correct message is returned
     }
 
     /**
@@ -90,7 +94,7 @@ class MessageServiceTest {
     void testGetMessageById_NonExistingId() {
         // Mocking data
         Long messageId = 1L;
-        when(messageRepository.findById(messageId)).thenReturn(Optional.empty());
+        when(messageRepository.findProjectedById(messageId)).thenReturn(Optional.empty());
 
         // Testing the method and expecting an exception
         try {
@@ -103,21 +107,46 @@ class MessageServiceTest {
 
     /**
      * This method tests the functionality of the getMessagesByContent method in the MessageService class.
-     * It verifies that the method returns all messages with the provided content.
+     * It verifies that the method searches every word of the content as a prefix.
      */
     @Test
     void testGetMessagesByContent_NonEmptyContent() {
         // Mocking data
         String content = "Test Content";
+        Pageable pageable = PageRequest.of(0, 10);
+        Message message = new Message();
+        message.setSender(new User());
+        message.setReceiver(new User());
         List<Message> messages = new ArrayList<>();
-        messages.add(new Message());
-        when(messageRepository.findByContent(content)).thenReturn(messages);
+        messages.add(message);
+        when(messageRepository.searchByContent("test:* & content:*", pageable))
+                .thenReturn(new PageImpl<>(messages, pageable, messages.size()));
 
         // Testing the method
-        List<Message> result = messageService.getMessagesByContent(content);
+        Page<MessageResponse> result = messageService.getMessagesByContent(content, pageable);
 
         // Assertions
-        assertEquals(result.size(), 1); // Ensure one message is returned
+        assertEquals(result.getTotalElements(), 1); // Ensure one message is returned
+    }
+
+    /**
+     * This method tests the functionality of the getMessagesByContent method in the MessageService class.
+     * It verifies that characters of the tsquery syntax are not passed to the query.
+     */
+    @Test
+    void testGetMessagesByContent_SpecialCharacters() {
+        // Mocking data
+        String content = "pay!me | (now)";
+        Pageable pageable = PageRequest.of(0, 10);
+        when(messageRepository.searchByContent("pay:* & me:* & now:*", pageable))
+                .thenReturn(new PageImpl<>(new ArrayList<>(), pageable, 0));
+
+        // Testing the method
+        Page<MessageResponse> result = messageService.getMessagesByContent(content, pageable);
+
+        // Assertions
+        assertEquals(result.getTotalElements(), 0); // Ensure the sanitized query is used
+        verify(messageRepository).searchByContent("pay:* & me:* & now:*", pageable);
     }
 
     /**
@@ -131,7 +160,7 @@ class MessageServiceTest {
 
         // Testing the method and expecting an exception
         try {
-            messageService.getMessagesByContent(content);
+            messageService.getMessagesByContent(content, PageRequest.of(0, 10));
         } catch (ApplicationException e) {
             // Assertions
             assertEquals(e.getHttpStatus(), HttpStatus.NOT_FOUND); // Ensure correct exception is thrown
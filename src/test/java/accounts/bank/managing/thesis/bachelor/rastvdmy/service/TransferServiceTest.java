@@ -8,12 +8,21 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.TransferResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.request.TransferRequest;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.TransferResultResponse;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Card;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.CardStatus;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.FinancialStatus;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Transfer;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.User;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CardBalanceShardRepository;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CardRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.LedgerPostingRepository;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.TransferRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.MoneyConverter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -38,6 +47,8 @@ class TransferServiceTest {
     @Mock
     private CurrencyDataService currencyDataService;
     @Mock
+    private MoneyConverter moneyConverter;
+    @Mock
     private TransferService transferService;
 
     /**
@@ -48,7 +59,12 @@ class TransferServiceTest {
         transferRepository = mock(TransferRepository.class);
         cardRepository = mock(CardRepository.class);
         currencyDataService = mock(CurrencyDataService.class);
-        transferService = new TransferService(transferRepository, cardRepository, currencyDataService);
+        moneyConverter = mock(MoneyConverter.class);
+        transferService = new TransferService(transferRepository, cardRepository, currencyDataService,
+                new LedgerService(mock(LedgerPostingRepository.class),
+                        new BalanceShardService(mock(CardBalanceShardRepository.class), cardRepository, 1000),
+                        mock(FinancialSummaryService.class)),
+                moneyConverter);
     }
 
     /**
@@ -58,12 +74,12 @@ class TransferServiceTest {
     @Test
     void testGetTransfers() {
         // Mocking data
-        List<Transfer> transfers = new ArrayList<>();
-        transfers.add(new Transfer());
-        when(transferRepository.findAll()).thenReturn(transfers);
+        List<TransferResponse> transfers = new ArrayList<>();
+        transfers.add(TransferResponse.from(new Transfer()));
+        when(transferRepository.findAllProjectedBy()).thenReturn(transfers);
 
         // Testing the method
-        List<Transfer> result = transferService.getTransfers();
+        List<TransferResponse> result = transferService.getTransfers();
 
         // Assertions
         assertEquals(result.size(), 1); // Ensure one transfer is returned
@@ -78,13 +94,13 @@ class TransferServiceTest {
     void testFilterAndSortTransfers() {
         // Mocking data
         Pageable pageable = Pageable.unpaged();
-        List<Transfer> transfers = new ArrayList<>();
-        transfers.add(new Transfer());
-        Page<Transfer> page = new PageImpl<>(transfers, pageable, transfers.size());
-        when(transferRepository.findAll(pageable)).thenReturn(page);
+        List<TransferResponse> transfers = new ArrayList<>();
+        transfers.add(TransferResponse.from(new Transfer()));
+        Page<TransferResponse> page = new PageImpl<>(transfers, pageable, transfers.size());
+        when(transferRepository.findAllProjectedBy(pageable)).thenReturn(page);
 
         // Testing the method
-        Page<Transfer> result = transferService.filterAndSortTransfers(pageable);
+        Page<TransferResponse> result = transferService.filterAndSortTransfers(pageable);
 
         // Assertions
         assertEquals(result.getTotalElements(), 1); // Ensure one transfer is returned
@@ -100,13 +116,13 @@ class TransferServiceTest {
         Long transferId = 1L;
         Transfer transfer = new Transfer();
         transfer.setId(transferId);
-        when(transferRepository.findById(transferId)).thenReturn(Optional.of(transfer));
+        when(transferRepository.findProjectedById(transferId)).thenReturn(Optional.of(TransferResponse.from(transfer)));
 
         // Testing the method
-        Transfer result = transferService.getTransferById(transferId);
+        TransferResponse result = transferService.getTransferById(transferId);
 
         // Assertions
-        assertEquals(result.getId(), transferId); // Ensure the correct transfer is returned
+        assertEquals(result.id(), transferId); // Ensure the correct transfer is returned
     }
 
     /**
@@ -117,7 +133,7 @@ class TransferServiceTest {
     void testGetTransferById_NonExistingId() {
         // Mocking data
         Long transferId = 1L;
-        when(transferRepository.findById(transferId)).thenReturn(Optional.empty());
+        when(transferRepository.findProjectedById(transferId)).thenReturn(Optional.empty());
 
         // Testing the method and expecting an exception
         try {
@@ -137,10 +153,11 @@ class TransferServiceTest {
         // Mocking data
         String referenceNumber = "REF123";
         Transfer transfer = new Transfer();
-        when(transferRepository.findByReferenceNumber(referenceNumber)).thenReturn(transfer);
+        when(transferRepository.findProjectedByReferenceNumber(referenceNumber))
+                .thenReturn(Optional.of(TransferResponse.from(transfer)));
 
         // Testing the method
-        Transfer result = transferService.getTransferByReferenceNumber(referenceNumber);
+        TransferResponse result = transferService.getTransferByReferenceNumber(referenceNumber);
 
         // Assertions
         assertNotEquals(result ,null); // Ensure a transfer is returned
@@ -175,7 +192,7 @@ class TransferServiceTest {
         BigDecimal amount = BigDecimal.valueOf(1000);
         String description = "Test Description";
 
-        when(cardRepository.findById(senderId)).thenReturn(Optional.empty());
+        when(cardRepository.findWithUserById(senderId)).thenReturn(Optional.empty());
 
         assertThrows(ApplicationException.class, () -> transferService.createTransfer(senderId, receiverCardNumber, amount, description));
     }
@@ -193,7 +210,7 @@ class TransferServiceTest {
 
         Card senderCard = mock(Card.class);
         when(senderCard.getStatus()).thenReturn(CardStatus.STATUS_CARD_BLOCKED);
-        when(cardRepository.findById(senderId)).thenReturn(Optional.of(senderCard));
+        when(cardRepository.findWithUserById(senderId)).thenReturn(Optional.of(senderCard));
 
         assertThrows(ApplicationException.class, () -> transferService.createTransfer(senderId, receiverCardNumber, amount, description));
     }
@@ -212,7 +229,7 @@ class TransferServiceTest {
         Card senderCard = mock(Card.class);
         when(senderCard.getStatus()).thenReturn(CardStatus.STATUS_CARD_DEFAULT);
         when(senderCard.getBalance()).thenReturn(BigDecimal.valueOf(500));
-        when(cardRepository.findById(senderId)).thenReturn(Optional.of(senderCard));
+        when(cardRepository.findWithUserById(senderId)).thenReturn(Optional.of(senderCard));
 
         assertThrows(ApplicationException.class, () -> transferService.createTransfer(senderId, receiverCardNumber, amount, description));
     }
@@ -231,7 +248,7 @@ class TransferServiceTest {
         Card senderCard = mock(Card.class);
         when(senderCard.getStatus()).thenReturn(CardStatus.STATUS_CARD_DEFAULT);
         when(senderCard.getBalance()).thenReturn(BigDecimal.valueOf(2000));
-        when(cardRepository.findById(senderId)).thenReturn(Optional.of(senderCard));
+        when(cardRepository.findWithUserById(senderId)).thenReturn(Optional.of(senderCard));
 
         assertThrows(ApplicationException.class, () -> transferService.createTransfer(senderId, receiverCardNumber, amount, description));
     }
@@ -250,8 +267,8 @@ class TransferServiceTest {
         Card senderCard = mock(Card.class);
         when(senderCard.getStatus()).thenReturn(CardStatus.STATUS_CARD_DEFAULT);
         when(senderCard.getBalance()).thenReturn(BigDecimal.valueOf(2000));
-        when(cardRepository.findById(senderId)).thenReturn(Optional.of(senderCard));
-        when(cardRepository.findByCardNumber(receiverCardNumber)).thenReturn(null);
+        when(cardRepository.findWithUserById(senderId)).thenReturn(Optional.of(senderCard));
+        when(cardRepository.findWithUserByCardNumber(receiverCardNumber)).thenReturn(null);
 
         assertThrows(ApplicationException.class, () -> transferService.createTransfer(senderId, receiverCardNumber, amount, description));
     }
@@ -270,13 +287,140 @@ class TransferServiceTest {
         Card senderCard = mock(Card.class);
         when(senderCard.getStatus()).thenReturn(CardStatus.STATUS_CARD_DEFAULT);
         when(senderCard.getBalance()).thenReturn(BigDecimal.valueOf(2000));
-        when(cardRepository.findById(senderId)).thenReturn(Optional.of(senderCard));
+        when(cardRepository.findWithUserById(senderId)).thenReturn(Optional.of(senderCard));
 
         Card receiverCard = mock(Card.class);
         when(receiverCard.getStatus()).thenReturn(CardStatus.STATUS_CARD_BLOCKED);
-        when(cardRepository.findByCardNumber(receiverCardNumber)).thenReturn(receiverCard);
+        when(cardRepository.findWithUserByCardNumber(receiverCardNumber)).thenReturn(receiverCard);
 
         assertThrows(ApplicationException.class, () -> transferService.createTransfer(senderId, receiverCardNumber, amount, description));
     }
-}
 
+    /**
+     * This method tests the functionality of the createTransfers method in the TransferService class.
+     * It verifies that valid transfers are applied and invalid ones are denied without affecting the others.
+     */
+    @Test
+    public void testCreateTransfers_PartiallyDenied() {
+        when(cardRepository.addToBalance(any(), any())).thenReturn(1); // Every balance update succeeds
+        Card senderCard = createCard(1L, "1111111111111111", BigDecimal.valueOf(1000));
+        Card receiverCard = createCard(2L, "2222222222222222", BigDecimal.ZERO);
+        when(cardRepository.findWithUserById(1L)).thenReturn(Optional.of(senderCard));
+        when(cardRepository.findAllByCardNumberIn(anyCollection())).thenReturn(List.of(receiverCard));
+        when(transferRepository.findExistingReferenceNumbers(anyCollection())).thenReturn(List.of());
+
+        List<TransferRequest> requests = List.of(
+                new TransferRequest(null, null, null, "2222222222222222", "Salary", BigDecimal.valueOf(600)),
+                new TransferRequest(null, null, null, "2222222222222222", "Salary", BigDecimal.valueOf(600)),
+                new TransferRequest(null, null, null, "3333333333333333", "Salary", BigDecimal.valueOf(100)),
+                new TransferRequest(null, null, null, "2222222222222222", "Salary", BigDecimal.valueOf(400)));
+
+        List<TransferResultResponse> results = transferService.createTransfers(1L, requests);
+
+        assertEquals(4, results.size());
+        assertEquals(FinancialStatus.RECEIVED, results.get(0).status());
+        assertEquals("Insufficient funds.", results.get(1).message());
+        assertEquals("Receiver card not found.", results.get(2).message());
+        assertEquals(FinancialStatus.RECEIVED, results.get(3).status());
+        assertNotEquals(results.get(0).referenceNumber(), results.get(3).referenceNumber());
+        assertEquals(0, senderCard.getBalance().compareTo(BigDecimal.ZERO));
+        assertEquals(0, receiverCard.getBalance().compareTo(BigDecimal.valueOf(1000)));
+        verify(cardRepository, times(1)).findAllByCardNumberIn(anyCollection());
+        verify(cardRepository, times(1)).addToBalance(1L, new BigDecimal("-1000.00")); // Ensure one debit per batch
+        verify(transferRepository, times(1)).saveAll(argThat(transfers -> ((List<?>) transfers).size() == 2));
+    }
+
+    /**
+     * This method tests the functionality of the createTransfers method in the TransferService class.
+     * It verifies that the funds are checked against the rounded amount that is posted to the ledger.
+     */
+    @Test
+    public void testCreateTransfers_RoundedAmount() {
+        when(cardRepository.addToBalance(any(), any())).thenReturn(1); // Every balance update succeeds
+        Card senderCard = createCard(1L, "1111111111111111", BigDecimal.valueOf(1000));
+        Card receiverCard = createCard(2L, "2222222222222222", BigDecimal.ZERO);
+        when(cardRepository.findWithUserById(1L)).thenReturn(Optional.of(senderCard));
+        when(cardRepository.findAllByCardNumberIn(anyCollection())).thenReturn(List.of(receiverCard));
+        when(transferRepository.findExistingReferenceNumbers(anyCollection())).thenReturn(List.of());
+
+        List<TransferResultResponse> results = transferService.createTransfers(1L, List.of(
+                new TransferRequest(null, null, null, "2222222222222222", "Rent", new BigDecimal("1000.004"))));
+
+        assertEquals(FinancialStatus.RECEIVED, results.get(0).status()); // Ensure 1000.00 is posted, not denied
+        assertEquals(0, senderCard.getBalance().signum()); // Ensure the rounded amount is debited
+        assertEquals(0, new BigDecimal("1000.00").compareTo(receiverCard.getBalance()));
+    }
+
+    /**
+     * This method tests the functionality of the createTransfers method in the TransferService class.
+     * It verifies that a converted transfer records the amount in the currency of the receiver's card.
+     */
+    @Test
+    public void testCreateTransfers_DifferentCurrency() {
+        when(cardRepository.addToBalance(any(), any())).thenReturn(1); // Every balance update succeeds
+        Card senderCard = createCard(1L, "1111111111111111", BigDecimal.valueOf(1000));
+        Card receiverCard = createCard(2L, "2222222222222222", BigDecimal.ZERO);
+        receiverCard.setCurrencyType(Currency.EUR);
+        receiverCard.setUser(senderCard.getUser());
+        when(cardRepository.findWithUserById(1L)).thenReturn(Optional.of(senderCard));
+        when(cardRepository.findAllByCardNumberIn(anyCollection())).thenReturn(List.of(receiverCard));
+        when(transferRepository.findExistingReferenceNumbers(anyCollection())).thenReturn(List.of());
+        when(currencyDataService.findCrossRate(Currency.CZK, Currency.EUR))
+                .thenReturn(new MoneyConverter.CrossRate(new BigDecimal("0.0400000000"), 51L));
+        when(moneyConverter.convert(new BigDecimal("500.00"), new BigDecimal("0.0400000000"), Currency.EUR))
+                .thenReturn(new BigDecimal("20.00"));
+
+        List<TransferResultResponse> results = transferService.createTransfers(1L, List.of(
+                new TransferRequest(null, null, null, "2222222222222222", "Savings", BigDecimal.valueOf(500))));
+
+        assertEquals(FinancialStatus.RECEIVED, results.get(0).status());
+        verify(transferRepository, times(1)).saveAll(argThat(transfers -> {
+            Transfer transfer = (Transfer) ((List<?>) transfers).get(0);
+            return transfer.getCurrency() == Currency.EUR && new BigDecimal("20.00").equals(transfer.getAmount())
+                    && Long.valueOf(51L).equals(transfer.getRateSnapshotId()); // Ensure the snapshot of the used rate is recorded
+        }));
+    }
+
+    /**
+     * This method tests the functionality of the createTransfers method in the TransferService class.
+     * It verifies that the method throws an exception when the batch is empty.
+     */
+    @Test
+    public void testCreateTransfers_EmptyBatch() {
+        assertThrows(ApplicationException.class, () -> transferService.createTransfers(1L, List.of()));
+    }
+
+    /**
+     * This method tests the functionality of the createTransfers method in the TransferService class.
+     * It verifies that the method throws an exception when the sender card is blocked.
+     */
+    @Test
+    public void testCreateTransfers_SenderCardBlocked() {
+        Card senderCard = createCard(1L, "1111111111111111", BigDecimal.valueOf(1000));
+        senderCard.setStatus(CardStatus.STATUS_CARD_BLOCKED);
+        when(cardRepository.findWithUserById(1L)).thenReturn(Optional.of(senderCard));
+
+        List<TransferRequest> requests = List.of(
+                new TransferRequest(null, null, null, "2222222222222222", "Salary", BigDecimal.valueOf(100)));
+
+        assertThrows(ApplicationException.class, () -> transferService.createTransfers(1L, requests));
+    }
+
+    /**
+     * Creates a CZK card with the given id, number, and balance.
+     *
+     * @param id         The id of the card.
+     * @param cardNumber The number of the card.
+     * @param balance    The balance of the card.
+     * @return The created card.
+     */
+    private Card createCard(Long id, String cardNumber, BigDecimal balance) {
+        Card card = new Card();
+        card.setId(id);
+        card.setCardNumber(cardNumber);
+        card.setBalance(balance);
+        card.setCurrencyType(Currency.CZK);
+        card.setUser(new User());
+        return card;
+    }
+}
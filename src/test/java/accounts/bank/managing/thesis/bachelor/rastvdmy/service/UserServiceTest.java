@@ -1,6 +1,7 @@
 package accounts.bank.managing.thesis.bachelor.rastvdmy.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -10,23 +11,29 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.UserResponse;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Card;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.User;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.UserStatus;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.UserVisibility;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
-import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CurrencyDataRepository;
 import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.UserRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.component.PasswordHasher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 /**
@@ -41,10 +48,12 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
     @Mock
-    private CurrencyDataRepository currencyDataRepository;
+    private PasswordHasher passwordHasher;
     @Mock
     private CardService cardService;
     @Mock
+    private RestTemplate restTemplate;
+    @Mock
     private UserService userService;
 
     /**
@@ -54,9 +63,10 @@ class UserServiceTest {
     void setUp() {
         userRepository = mock(UserRepository.class);
         passwordEncoder = mock(PasswordEncoder.class);
-        currencyDataRepository = mock(CurrencyDataRepository.class);
+        passwordHasher = mock(PasswordHasher.class);
         cardService = mock(CardService.class);
-        userService = new UserService(userRepository, passwordEncoder, currencyDataRepository, cardService);
+        restTemplate = mock(RestTemplate.class);
+        userService = new UserService(userRepository, passwordEncoder, passwordHasher, cardService, restTemplate);
     }
 
     /**
@@ -66,12 +76,12 @@ class UserServiceTest {
     @Test
     void testGetUsers() {
         // Mocking data
-        List<User> users = new ArrayList<>();
-        users.add(new User());
-        when(userRepository.findAll()).thenReturn(users);
+        List<UserResponse> users = new ArrayList<>();
+        users.add(UserResponse.from(new User()));
+        when(userRepository.findAllProjectedBy()).thenReturn(users);
 
         // Testing the method
-        List<User> result = userService.getUsers();
+        List<UserResponse> result = userService.getUsers();
 
         // Assertions
         assertEquals(result.size(), 1); // Ensure one user is returned
@@ -86,13 +96,13 @@ class UserServiceTest {
     void testFilterAndSortUsers() {
         // Mocking data
         Pageable pageable = Pageable.unpaged();
-        List<User> users = new ArrayList<>();
-        users.add(new User());
-        Page<User> page = new PageImpl<>(users, pageable, users.size());
-        when(userRepository.findAll(pageable)).thenReturn(page);
+        List<UserResponse> users = new ArrayList<>();
+        users.add(UserResponse.from(new User()));
+        Page<UserResponse> page = new PageImpl<>(users, pageable, users.size());
+        when(userRepository.findAllProjectedBy(pageable)).thenReturn(page);
 
         // Testing the method
-        Page<User> result = userService.filterAndSortUsers(pageable);
+        Page<UserResponse> result = userService.filterAndSortUsers(pageable);
 
         // Assertions
         assertEquals(result.getTotalElements(), 1); // Ensure one user is returned
@@ -108,13 +118,14 @@ class UserServiceTest {
         Long userId = 1L;
         User user = new User();
         user.setId(userId);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        user.setPassword("password");
+        when(userRepository.findProjectedById(userId)).thenReturn(Optional.of(UserResponse.from(user)));
 
         // Testing the method
-        User result = userService.getUserById(userId);
+        UserResponse result = userService.getUserById(userId);
 
         // Assertions
-        assertEquals(result.getId(), userId); // Ensure the correct user is returned
+        assertEquals(result.id(), userId); // Ensure the correct user is returned
     }
 
     /**
@@ -125,7 +136,7 @@ class UserServiceTest {
     void testGetUserById_NonExistingId() {
         // Mocking data
         Long userId = 1L;
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.findProjectedById(userId)).thenReturn(Optional.empty());
 
         // Testing the method and expecting an exception
         try {
@@ -147,22 +158,65 @@ class UserServiceTest {
 
     /**
      * This method tests the functionality of the createUser method in the UserService class.
-     * It verifies that the method throws an exception when the email already exists.
+     * It verifies that the user is saved together with the card once, with the password hashed by the PasswordHasher
+     * and without checking the email and the phone number with separate queries.
+     */
+    @Test
+    public void testCreateUser_ValidInput() {
+        // Mocking data
+        Card card = new Card();
+        mockRegistration(card);
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Testing the method
+        User result = userService.createUser("John", "Doe", LocalDate.of(1990, 1, 1), "USA",
+                "john.doe@example.com", "Password123!", "+1234567890");
+
+        // Assertions
+        assertEquals("hash", result.getPassword()); // Ensure the hash is stored instead of the password
+        assertSame(card, result.getCards().get(0)); // Ensure the card is saved together with the user
+        verify(userRepository, times(1)).saveAndFlush(result); // Ensure the user is saved once
+        verify(userRepository, never()).existsByEmail(anyString()); // Ensure the database enforces the uniqueness
+        verify(userRepository, never()).existsByPhoneNumber(anyString());
+        verifyNoInteractions(passwordEncoder); // Ensure the password is not hashed on the caller's thread
+    }
+
+    /**
+     * This method tests the functionality of the createUser method in the UserService class.
+     * It verifies that the method throws an exception when the unique constraint on the email is violated.
      */
     @Test
     public void testCreateUser_EmailExists() {
-        when(userRepository.existsByEmail(anyString())).thenReturn(true);
-        assertThrows(ApplicationException.class, () -> userService.createUser("John", "Doe", LocalDate.of(1990, 1, 1), "USA", "john.doe@example.com", "password123", "+1234567890"));
+        // Mocking data
+        mockRegistration(new Card());
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException(
+                "duplicate key value violates unique constraint \"" + User.EMAIL_CONSTRAINT + "\""));
+
+        // Testing the method
+        ApplicationException exception = assertThrows(ApplicationException.class, () -> userService.createUser(
+                "John", "Doe", LocalDate.of(1990, 1, 1), "USA", "john.doe@example.com", "Password123!", "+1234567890"));
+
+        // Assertions
+        assertEquals("Email john.doe@example.com is unavailable.", exception.getMessage());
     }
 
     /**
      * This method tests the functionality of the createUser method in the UserService class.
-     * It verifies that the method throws an exception when the phone number already exists.
+     * It verifies that the method throws an exception when the unique constraint on the phone number is violated.
      */
     @Test
     public void testCreateUser_PhoneNumberExists() {
-        when(userRepository.existsByPhoneNumber(anyString())).thenReturn(true);
-        assertThrows(ApplicationException.class, () -> userService.createUser("John", "Doe", LocalDate.of(1990, 1, 1), "USA", "john.doe@example.com", "password123", "+1234567890"));
+        // Mocking data
+        mockRegistration(new Card());
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException(
+                "duplicate key value violates unique constraint \"" + User.PHONE_NUMBER_CONSTRAINT + "\""));
+
+        // Testing the method
+        ApplicationException exception = assertThrows(ApplicationException.class, () -> userService.createUser(
+                "John", "Doe", LocalDate.of(1990, 1, 1), "USA", "john.doe@example.com", "Password123!", "+1234567890"));
+
+        // Assertions
+        assertEquals("Phone number +1234567890 is unavailable.", exception.getMessage());
     }
 
     /**
@@ -630,5 +684,11 @@ class UserServiceTest {
             assertEquals(e.getHttpStatus(), HttpStatus.NOT_FOUND); // Ensure correct exception is thrown
         }
     }
-}
 
+    private void mockRegistration(Card card) {
+        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+                .thenReturn(ResponseEntity.ok("[{\"name\":{\"common\":\"USA\"}}]"));
+        when(passwordHasher.encode(anyString())).thenReturn(CompletableFuture.completedFuture("hash"));
+        when(cardService.newCard(any(User.class), eq("CZK"), eq("VISA"))).thenReturn(card);
+    }
+}
@@ -0,0 +1,91 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service.component;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.User;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class is used to test the functionality of the AccessGuard class.
+ * It uses the Mockito framework for mocking dependencies and JUnit for running the tests.
+ */
+class AccessGuardTest {
+
+    private UserRepository userRepository;
+    private AccessGuard accessGuard;
+
+    /**
+     * This method is used to set up the necessary dependencies for the tests.
+     */
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        accessGuard = new AccessGuard(userRepository);
+        User user = new User();
+        user.setId(1L);
+        when(userRepository.findByEmail("user@example.com")).thenReturn(user);
+    }
+
+    /**
+     * This method tests the functionality of the checkSelf method in the AccessGuard class.
+     * It verifies that a user may access their own data.
+     */
+    @Test
+    void testCheckSelf_SameUser() {
+        assertDoesNotThrow(() -> accessGuard.checkSelf(authentication("ROLE_USER"), 1L));
+    }
+
+    /**
+     * This method tests the functionality of the checkSelf method in the AccessGuard class.
+     * It verifies that a user may not access the data of another user.
+     */
+    @Test
+    void testCheckSelf_OtherUser() {
+        // Testing the method
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> accessGuard.checkSelf(authentication("ROLE_USER"), 2L));
+
+        // Assertions
+        assertEquals(HttpStatus.FORBIDDEN, exception.getHttpStatus()); // Ensure the access is denied
+    }
+
+    /**
+     * This method tests the functionality of the checkSelfOrAdmin method in the AccessGuard class.
+     * It verifies that an admin may access the data of any user without being looked up.
+     */
+    @Test
+    void testCheckSelfOrAdmin_Admin() {
+        // Testing the method
+        accessGuard.checkSelfOrAdmin(authentication("ROLE_ADMIN"), 2L);
+
+        // Assertions
+        verifyNoInteractions(userRepository); // Ensure the role is enough
+    }
+
+    /**
+     * This method tests the functionality of the currentUserId method in the AccessGuard class.
+     * It verifies that a request without a known user is rejected.
+     */
+    @Test
+    void testCurrentUserId_Unknown() {
+        // Testing the method
+        ApplicationException exception = assertThrows(ApplicationException.class, () -> accessGuard.currentUserId(
+                new UsernamePasswordAuthenticationToken("nobody@example.com", null, AuthorityUtils.NO_AUTHORITIES)));
+
+        // Assertions
+        assertEquals(HttpStatus.UNAUTHORIZED, exception.getHttpStatus()); // Ensure the user is not authenticated
+    }
+
+    private static Authentication authentication(String role) {
+        return new UsernamePasswordAuthenticationToken("user@example.com", null,
+                AuthorityUtils.createAuthorityList(role));
+    }
+}
@@ -0,0 +1,94 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service.component;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.AmortizationType;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.BankLoan;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.LoanInstallment;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class is used to test the functionality of the AmortizationCalculator class.
+ * It uses JUnit for running the tests.
+ */
+class AmortizationCalculatorTest {
+
+    private final AmortizationCalculator calculator =
+            new AmortizationCalculator(new BigDecimal("0.0899"), AmortizationType.ANNUITY);
+
+    /**
+     * This method tests the functionality of the schedule method for an annuity loan.
+     * It verifies that the installments are equal and that their principal sums to the loan amount.
+     */
+    @Test
+    void testSchedule_Annuity() {
+        // Mocking data
+        BankLoan loan = loan(AmortizationType.ANNUITY, new BigDecimal("0.0899"));
+
+        // Testing the method
+        List<LoanInstallment> schedule = calculator.schedule(loan);
+
+        // Assertions
+        assertEquals(12, schedule.size()); // Ensure there is one installment per month
+        assertEquals(0, sumOfPrincipal(schedule).compareTo(loan.getLoanAmount())); // Ensure the loan is repaid
+        assertEquals(0, schedule.get(11).getRemainingPrincipal().signum()); // Ensure nothing is left
+        BigDecimal firstPayment = schedule.get(0).getPrincipal().add(schedule.get(0).getInterest());
+        BigDecimal secondPayment = schedule.get(1).getPrincipal().add(schedule.get(1).getInterest());
+        assertEquals(firstPayment, secondPayment); // Ensure the installments are equal
+        assertEquals(new BigDecimal("8744.68"), firstPayment); // Ensure the annuity formula is applied
+    }
+
+    /**
+     * This method tests the functionality of the schedule method for a linear loan.
+     * It verifies that every installment repays the same principal and that the interest decreases.
+     */
+    @Test
+    void testSchedule_Linear() {
+        // Mocking data
+        BankLoan loan = loan(AmortizationType.LINEAR, new BigDecimal("0.0899"));
+
+        // Testing the method
+        List<LoanInstallment> schedule = calculator.schedule(loan);
+
+        // Assertions
+        assertEquals(new BigDecimal("8333.33"), schedule.get(0).getPrincipal()); // Ensure equal parts of principal
+        assertTrue(schedule.get(1).getInterest().compareTo(schedule.get(0).getInterest()) < 0); // Ensure less interest
+        assertEquals(0, sumOfPrincipal(schedule).compareTo(loan.getLoanAmount())); // Ensure the loan is repaid
+    }
+
+    /**
+     * This method tests the functionality of the schedule method for a loan without interest.
+     * It verifies that the annuity repays equal parts of the principal without interest.
+     */
+    @Test
+    void testSchedule_NoInterest() {
+        // Mocking data
+        BankLoan loan = loan(AmortizationType.ANNUITY, BigDecimal.ZERO);
+
+        // Testing the method
+        List<LoanInstallment> schedule = calculator.schedule(loan);
+
+        // Assertions
+        schedule.forEach(installment -> assertEquals(0, installment.getInterest().signum())); // Ensure no interest
+        assertEquals(0, sumOfPrincipal(schedule).compareTo(loan.getLoanAmount())); // Ensure the loan is repaid
+    }
+
+    private BankLoan loan(AmortizationType amortizationType, BigDecimal interestRate) {
+        BankLoan loan = new BankLoan();
+        loan.setId(1L);
+        loan.setLoanAmount(new BigDecimal("100000"));
+        loan.setInterestRate(interestRate);
+        loan.setAmortizationType(amortizationType);
+        loan.setStartDate(LocalDate.of(2024, 1, 15));
+        loan.setExpirationDate(LocalDate.of(2025, 1, 15));
+        return loan;
+    }
+
+    private BigDecimal sumOfPrincipal(List<LoanInstallment> schedule) {
+        return schedule.stream().map(LoanInstallment::getPrincipal).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
@@ -0,0 +1,197 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service.component;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.HistoricalRate;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.Currency;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.entity.CurrencyData;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.exception.ApplicationException;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.repository.CurrencyDataRepository;
+import accounts.bank.managing.thesis.bachelor.rastvdmy.service.ExchangeRateHistoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class is used to test the functionality of the MoneyConverter class.
+ * It uses the Mockito framework for mocking dependencies and JUnit for running the tests.
+ */
+class MoneyConverterTest {
+
+    private CurrencyDataRepository currencyDataRepository;
+    private ExchangeRateHistoryService rateHistoryService;
+    private MoneyConverter moneyConverter;
+
+    /**
+     * This method is used to set up the necessary dependencies for the tests.
+     */
+    @BeforeEach
+    void setUp() {
+        currencyDataRepository = mock(CurrencyDataRepository.class);
+        rateHistoryService = mock(ExchangeRateHistoryService.class);
+        moneyConverter = new MoneyConverter(currencyDataRepository, rateHistoryService);
+    }
+
+    /**
+     * This method tests the functionality of the fromBase method in the MoneyConverter class.
+     * It verifies that the amount is converted with the rate against CZK and rounded to cents.
+     */
+    @Test
+    void testFromBase() {
+        // Mocking data
+        moneyConverter.updateRates(1L, Map.of("EUR", 0.03985, "AED", 0.16));
+
+        // Testing the method
+        BigDecimal result = moneyConverter.fromBase(new BigDecimal("1234.56"), Currency.EUR);
+
+        // Assertions
+        assertEquals(new BigDecimal("49.20"), result); // Ensure 49.197216 is rounded to cents
+        verify(currencyDataRepository, never()).findAll(); // Ensure the rates are not read from the database
+    }
+
+    /**
+     * This method tests the functionality of the fromBase method in the MoneyConverter class.
+     * It verifies for random amounts and rates that the result is the product computed by the previous code,
+     * i.e. with the rate converted by BigDecimal.valueOf on every call, rounded once to cents.
+     */
+    @Test
+    void testFromBase_MatchesUnscaledConversion() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            // Mocking data
+            double rate = Math.round(random.nextDouble() * 100 * 1_000_000) / 1_000_000.0;
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong(1, 10_000_000_000L), 2);
+            moneyConverter.updateRates(1L, Map.of("UAH", rate));
+
+            // Testing the method
+            BigDecimal result = moneyConverter.fromBase(amount, Currency.UAH);
+
+            // Assertions
+            BigDecimal unrounded = amount.multiply(BigDecimal.valueOf(rate));
+            assertEquals(unrounded.setScale(2, RoundingMode.HALF_EVEN), result); // Ensure the same result
+            assertEquals(2, result.scale()); // Ensure the scale does not grow with the scale of the rate
+            assertTrue(unrounded.subtract(result).abs().compareTo(new BigDecimal("0.005")) <= 0); // Ensure half a cent
+        }
+    }
+
+    /**
+     * This method tests the functionality of the convert method in the MoneyConverter class.
+     * It verifies that a pair rate is scaled and the result is rounded half to even.
+     */
+    @Test
+    void testConvert_PairRate() {
+        // Testing the method
+        BigDecimal result = moneyConverter.convert(new BigDecimal("10.00"), 0.0125, Currency.USD);
+
+        // Assertions
+        assertEquals(new BigDecimal("0.12"), result); // Ensure 0.125 is rounded to the even cent
+    }
+
+    /**
+     * This method tests the functionality of the findCrossRate method in the MoneyConverter class.
+     * It verifies that the rate between two currencies is derived from their rates against CZK.
+     */
+    @Test
+    void testFindCrossRate() {
+        // Mocking data
+        moneyConverter.updateRates(51L, Map.of("CZK", 1.0, "EUR", 0.04, "UAH", 1.8));
+
+        // Testing the method
+        MoneyConverter.CrossRate eurToUah = moneyConverter.findCrossRate(Currency.EUR, Currency.UAH);
+        MoneyConverter.CrossRate uahToEur = moneyConverter.findCrossRate(Currency.UAH, Currency.EUR);
+        MoneyConverter.CrossRate czkToEur = moneyConverter.findCrossRate(Currency.CZK, Currency.EUR);
+
+        // Assertions
+        assertEquals(new BigDecimal("45.0000000000"), eurToUah.rate()); // Ensure rate[UAH] / rate[EUR]
+        assertEquals(new BigDecimal("0.0222222222"), uahToEur.rate()); // Ensure the quotient is rounded
+        assertEquals(new BigDecimal("0.0400000000"), czkToEur.rate()); // Ensure the base rate is kept
+        assertEquals(new BigDecimal("1.0000000000"), moneyConverter.findCrossRate(Currency.EUR, Currency.EUR).rate());
+        assertEquals(51L, eurToUah.snapshotId()); // Ensure the rate is returned with the snapshot of its rates
+        verify(currencyDataRepository, never()).findAll(); // Ensure the rates are not read from the database
+    }
+
+    /**
+     * This method tests the functionality of the findCrossRate method in the MoneyConverter class.
+     * It verifies that no rate is derived when one of the base rates is not stored.
+     */
+    @Test
+    void testFindCrossRate_Missing() {
+        // Mocking data
+        moneyConverter.updateRates(1L, Map.of("EUR", 0.04));
+        when(currencyDataRepository.findAll()).thenReturn(List.of(currencyData("EUR", 0.04)));
+
+        // Testing the method
+        MoneyConverter.CrossRate result = moneyConverter.findCrossRate(Currency.EUR, Currency.PLN);
+
+        // Assertions
+        assertNull(result); // Ensure the rate is reported as unavailable
+        verify(rateHistoryService, times(1)).findLatestRates(); // Ensure the history is checked for the rate
+        verify(currencyDataRepository, times(1)).findAll(); // Ensure the stored rates are read without a snapshot
+    }
+
+    /**
+     * This method tests the functionality of the findCrossRate method in the MoneyConverter class.
+     * It verifies that the rates of the latest snapshot are loaded with its id before the first refresh.
+     */
+    @Test
+    void testFindCrossRate_LoadsLatestSnapshot() {
+        // Mocking data
+        Instant fetchedAt = Instant.parse("2024-05-01T10:00:00Z");
+        when(rateHistoryService.findLatestRates()).thenReturn(List.of(
+                new HistoricalRate(101L, "EUR", 0.04, fetchedAt), new HistoricalRate(101L, "UAH", 1.8, fetchedAt)));
+
+        // Testing the method
+        MoneyConverter.CrossRate result = moneyConverter.findCrossRate(Currency.EUR, Currency.UAH);
+
+        // Assertions
+        assertEquals(new BigDecimal("45.0000000000"), result.rate()); // Ensure the rate is derived from the snapshot
+        assertEquals(101L, result.snapshotId()); // Ensure the id of the loaded snapshot is returned
+        verifyNoInteractions(currencyDataRepository); // Ensure the stored rates are not mixed in
+    }
+
+    /**
+     * This method tests the functionality of the getBaseRate method in the MoneyConverter class.
+     * It verifies that the rates are loaded from the database once if they have not been received yet.
+     */
+    @Test
+    void testGetBaseRate_LoadsFromDatabase() {
+        // Mocking data
+        when(currencyDataRepository.findAll()).thenReturn(List.of(currencyData("PLN", 0.17)));
+
+        // Testing the method
+        BigDecimal first = moneyConverter.getBaseRate(Currency.PLN);
+        BigDecimal second = moneyConverter.getBaseRate(Currency.PLN);
+
+        // Assertions
+        assertEquals(new BigDecimal("0.1700000000"), first); // Ensure the rate is pre-scaled
+        assertSame(first, second); // Ensure the rate is not converted again
+        verify(currencyDataRepository, times(1)).findAll(); // Ensure the database is read once
+    }
+
+    /**
+     * This method tests the functionality of the getBaseRate method in the MoneyConverter class.
+     * It verifies that the method throws an exception when the rate is not stored.
+     */
+    @Test
+    void testGetBaseRate_Missing() {
+        // Mocking data
+        when(currencyDataRepository.findAll()).thenReturn(List.of());
+
+        // Testing the method and assertions
+        assertThrows(ApplicationException.class, () -> moneyConverter.getBaseRate(Currency.USD));
+    }
+
+    private static CurrencyData currencyData(String currency, double rate) {
+        CurrencyData currencyData = new CurrencyData();
+        currencyData.setCurrency(currency);
+        currencyData.setRate(rate);
+        return currencyData;
+    }
+}
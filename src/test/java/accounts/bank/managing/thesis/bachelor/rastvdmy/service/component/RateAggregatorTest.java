@@ -0,0 +1,126 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service.component;
+
+import accounts.bank.managing.thesis.bachelor.rastvdmy.dto.response.RateProviderStatsResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class is used to test the functionality of the RateAggregator class.
+ * It uses JUnit for running the tests.
+ */
+class RateAggregatorTest {
+
+    /**
+     * This method tests the functionality of the fetchRates method in the RateAggregator class.
+     * It verifies that the median of the rates of all providers is returned.
+     */
+    @Test
+    void testFetchRates_Median() {
+        // Mocking data
+        RateAggregator aggregator = new RateAggregator(List.of(
+                provider("first", Map.of("CZK", 1.0, "EUR", 0.040)),
+                provider("second", Map.of("CZK", 1.0, "EUR", 0.041)),
+                provider("third", Map.of("CZK", 1.0, "EUR", 0.090))), 2, 1000);
+
+        // Testing the method
+        Map<String, Double> result = aggregator.fetchRates();
+
+        // Assertions
+        assertEquals(0.041, result.get("EUR")); // Ensure an outlier does not move the rate
+        assertEquals(1.0, result.get("CZK"));
+        aggregator.shutdown();
+    }
+
+    /**
+     * This method tests the functionality of the fetchRates method in the RateAggregator class.
+     * It verifies that a failing provider is skipped and a currency below the quorum is left out.
+     */
+    @Test
+    void testFetchRates_Quorum() {
+        // Mocking data
+        RateAggregator aggregator = new RateAggregator(List.of(
+                provider("first", Map.of("EUR", 0.040, "PLN", 0.17)),
+                provider("second", Map.of("EUR", 0.042)),
+                failingProvider("third")), 2, 1000);
+
+        // Testing the method
+        Map<String, Double> result = aggregator.fetchRates();
+
+        // Assertions
+        assertEquals(0.041, result.get("EUR"), 1e-12); // Ensure the mean of the two middle rates
+        assertFalse(result.containsKey("PLN")); // Ensure a rate returned by one provider is left out
+        List<RateProviderStatsResponse> stats = aggregator.getStats();
+        assertEquals(3, stats.size()); // Ensure there are statistics of every provider
+        assertEquals(0, stats.get(0).failures());
+        assertEquals(1, stats.get(2).failures()); // Ensure the failure is recorded
+        assertEquals(1, stats.get(2).fetches());
+        aggregator.shutdown();
+    }
+
+    /**
+     * This method tests the functionality of the fetchRates method in the RateAggregator class.
+     * It verifies that a provider that does not answer in time is skipped.
+     */
+    @Test
+    void testFetchRates_Timeout() {
+        // Mocking data
+        RateProvider slowProvider = new RateProvider() {
+            @Override
+            public String getName() {
+                return "slow";
+            }
+
+            @Override
+            public Map<String, Double> fetchRates() {
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Map.of("EUR", 0.09);
+            }
+        };
+        RateAggregator aggregator = new RateAggregator(
+                List.of(provider("fast", Map.of("EUR", 0.04)), slowProvider), 1, 100);
+
+        // Testing the method
+        Map<String, Double> result = aggregator.fetchRates();
+
+        // Assertions
+        assertEquals(0.04, result.get("EUR")); // Ensure only the rate of the fast provider is used
+        assertEquals(1, aggregator.getStats().get(1).failures()); // Ensure the timeout is recorded
+        aggregator.shutdown();
+    }
+
+    private static RateProvider provider(String name, Map<String, Double> rates) {
+        return new RateProvider() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Map<String, Double> fetchRates() {
+                return rates;
+            }
+        };
+    }
+
+    private static RateProvider failingProvider(String name) {
+        return new RateProvider() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Map<String, Double> fetchRates() {
+                throw new IllegalStateException("The response contains no conversion rates.");
+            }
+        };
+    }
+}
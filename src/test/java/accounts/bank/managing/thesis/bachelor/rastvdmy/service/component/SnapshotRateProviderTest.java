@@ -0,0 +1,69 @@
+package accounts.bank.managing.thesis.bachelor.rastvdmy.service.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class is used to test the functionality of the SnapshotRateProvider class.
+ * It uses JUnit for running the tests.
+ */
+class SnapshotRateProviderTest {
+
+    /**
+     * This method tests the functionality of the fetchRates method in the SnapshotRateProvider class.
+     * It verifies that the rates are read from a response of the ExchangeRate-API.
+     */
+    @Test
+    void testFetchRates() {
+        // Mocking data
+        byte[] snapshot = "{\"base_code\":\"CZK\",\"conversion_rates\":{\"CZK\":1,\"EUR\":0.0398}}"
+                .getBytes(StandardCharsets.UTF_8);
+        SnapshotRateProvider provider =
+                new SnapshotRateProvider("snapshot", new ByteArrayResource(snapshot), new ObjectMapper());
+
+        // Testing the method
+        Map<String, Double> result = provider.fetchRates();
+
+        // Assertions
+        assertEquals(Map.of("CZK", 1.0, "EUR", 0.0398), result); // Ensure integer rates are read as doubles
+    }
+
+    /**
+     * This method tests the functionality of the fetchRates method in the SnapshotRateProvider class.
+     * It verifies that the snapshot shipped on the classpath contains every supported currency.
+     */
+    @Test
+    void testFetchRates_ClasspathSnapshot() {
+        // Mocking data
+        SnapshotRateProvider provider = new SnapshotRateProvider("snapshot",
+                new ClassPathResource("rates/czk-snapshot.json"), new ObjectMapper());
+
+        // Testing the method
+        Map<String, Double> result = provider.fetchRates();
+
+        // Assertions
+        assertTrue(result.keySet().containsAll(List.of("CZK", "USD", "EUR", "PLN", "UAH")));
+    }
+
+    /**
+     * This method tests the functionality of the fetchRates method in the SnapshotRateProvider class.
+     * It verifies that a body without rates is rejected.
+     */
+    @Test
+    void testFetchRates_NoRates() {
+        // Mocking data
+        SnapshotRateProvider provider = new SnapshotRateProvider("snapshot",
+                new ByteArrayResource("{\"result\":\"error\"}".getBytes(StandardCharsets.UTF_8)), new ObjectMapper());
+
+        // Testing the method and assertions
+        assertThrows(IllegalStateException.class, provider::fetchRates);
+    }
+}